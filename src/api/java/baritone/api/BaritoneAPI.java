@@ -30,23 +30,33 @@ import java.util.ServiceLoader;
  */
 public final class BaritoneAPI {
 
-    private static final IBaritoneProvider provider;
     private static final Settings settings;
 
     static {
         settings = new Settings();
         SettingsUtil.readAndApply(settings);
-
-        ServiceLoader<IBaritoneProvider> baritoneLoader = ServiceLoader.load(IBaritoneProvider.class);
-        Iterator<IBaritoneProvider> instances = baritoneLoader.iterator();
-        provider = instances.next();
     }
 
     public static IBaritoneProvider getProvider() {
-        return BaritoneAPI.provider;
+        return ProviderHolder.provider;
     }
 
     public static Settings getSettings() {
         return BaritoneAPI.settings;
     }
+
+    /**
+     * The provider creates the Baritone instances, which need a client. Loading it on first use instead of alongside
+     * the settings means that the settings (and everything that reads them, like pathing) also work without one.
+     */
+    private static final class ProviderHolder {
+
+        private static final IBaritoneProvider provider;
+
+        static {
+            ServiceLoader<IBaritoneProvider> baritoneLoader = ServiceLoader.load(IBaritoneProvider.class);
+            Iterator<IBaritoneProvider> instances = baritoneLoader.iterator();
+            provider = instances.next();
+        }
+    }
 }
@@ -486,6 +486,81 @@ public final class Settings {
      */
     public final Setting<Float> pathingMapLoadFactor = new Setting<>(0.75f);
 
+    /**
+     * Store A* nodes in parallel primitive arrays instead of allocating one PathNode object per position
+     * <p>
+     * Much less garbage on very long paths. Off by default so that the two can be benchmarked side by side.
+     */
+    public final Setting<Boolean> pathingNodePool = new Setting<>(false);
+
+    /**
+     * How many threads a single path calculation is spread over
+     * <p>
+     * 1 is the normal A*. Anything more uses a hash distributed A*, where every thread expands its own share of the
+     * positions, for more nodes per second within the same timeout. Capped at the number of cores. If the helper
+     * threads are all busy with another search at the time, the calculation just runs on one thread instead. So do
+     * searches whose costs can't be copied to other threads yet, e.g. the builder's.
+     */
+    public final Setting<Integer> pathingThreads = new Setting<>(1);
+
+    /**
+     * Search from both ends at once when the goal is a single block (or two), and the chunk it's in is loaded
+     * <p>
+     * Two searches that meet in the middle usually look at far fewer nodes than one that has to go the whole way.
+     * Ignored when pathingThreads is more than 1.
+     */
+    public final Setting<Boolean> bidirectionalSearch = new Setting<>(false);
+
+    /**
+     * Keep the search graph between path calculations towards the same goal, and when blocks change, only calculate
+     * the movements near them again instead of searching from scratch
+     * <p>
+     * Uses more memory, since every node remembers its movements in both directions for as long as the goal stays the
+     * same. Starts over whenever any setting or the hotbar changes. Ignored when pathingThreads is more than 1.
+     */
+    public final Setting<Boolean> incrementalReplanning = new Setting<>(false);
+
+    /**
+     * Remember the cost of every movement calculated, so that the next path segment doesn't have to calculate it
+     * again for the same terrain
+     * <p>
+     * Forgotten near chunks that load, unload or have a block change, and entirely whenever any setting or the hotbar
+     * changes. Only used by the plain A* search (not with pathingThreads, bidirectionalSearch, pathingNodePool or
+     * incrementalReplanning).
+     */
+    public final Setting<Boolean> movementCostCache = new Setting<>(false);
+
+    /**
+     * How many movement costs movementCostCache holds at most, about 40 bytes each
+     */
+    public final Setting<Integer> movementCostCacheSize = new Setting<>(1 << 17);
+
+    /**
+     * Time every single movement calculation, for the per movement times in PathSearchStats
+     * <p>
+     * Two System.nanoTime calls per movement add up over a whole search (and nanoTime is slow on windows).
+     */
+    public final Setting<Boolean> pathingMoveTiming = new Setting<>(false);
+
+    /**
+     * Before pathing to a goal far away, plan a coarse route over the chunks in the cache, and keep each path segment
+     * close to it
+     * <p>
+     * The route only knows about walking, and treats chunks that aren't cached as open. It helps most when going a
+     * long way through somewhere that's already been explored.
+     */
+    public final Setting<Boolean> chunkRoutePlanning = new Setting<>(false);
+
+    /**
+     * How much more moving through a chunk that isn't near the planned chunk route costs, see chunkRoutePlanning
+     */
+    public final Setting<Double> routeCorridorCostCoefficient = new Setting<>(1.5);
+
+    /**
+     * Don't bother planning a chunk route to a goal closer than this many blocks
+     */
+    public final Setting<Integer> chunkRouteMinDistance = new Setting<>(256);
+
     /**
      * How far are you allowed to fall onto solid ground (without a water bucket)?
      * 3 won't deal any damage. But if you just want to get down the mountain quickly and you have
@@ -518,7 +593,9 @@ public final class Settings {
     public final Setting<Boolean> simplifyUnloadedYCoord = new Setting<>(true);
 
     /**
-     * Whenever a block changes, repack the whole chunk that it's in
+     * Whenever a block changes, update the cached chunk that it's in
+     * <p>
+     * Only the changed blocks are updated, the whole chunk is still repacked when it loads or unloads.
      */
     public final Setting<Boolean> repackOnAnyBlockChange = new Setting<>(true);
 
@@ -593,6 +670,27 @@ public final class Settings {
      */
     public final Setting<Boolean> pruneRegionsFromRAM = new Setting<>(true);
 
+    /**
+     * Load cached regions from disk in the background before the path gets to them
+     * <p>
+     * Looks at the regions along the current and next path, and a couple regions past the end towards the goal. The
+     * pathfinder only ever uses regions that are already in memory, so without this, regions far away might not get
+     * loaded until something else needs them.
+     */
+    public final Setting<Boolean> prefetchRegions = new Setting<>(true);
+
+    /**
+     * How many threads pack chunks into the cache. Only read when a world is loaded.
+     */
+    public final Setting<Integer> chunkPackerThreads = new Setting<>(2);
+
+    /**
+     * How many chunks can wait to be packed before the farthest ones from the player start getting dropped
+     * <p>
+     * Each one holds on to a whole chunk until it's packed. Chunks that have already unloaded are never dropped.
+     */
+    public final Setting<Integer> chunkPackerQueueSize = new Setting<>(512);
+
     /**
      * Fill in blocks behind you
      */
@@ -722,6 +820,49 @@ public final class Settings {
      */
     public final Setting<Boolean> blacklistClosestOnFailure = new Setting<>(true);
 
+    /**
+     * Every time MineProcess scans for blocks, flood fill outwards from the player, and skip the blocks that are sealed
+     * off (by bedrock, lava, blocksToAvoid or blocks that can't be broken) instead of waiting for the path calculation
+     * to time out on them
+     */
+    public final Setting<Boolean> reachabilityFilter = new Setting<>(false);
+
+    /**
+     * How many blocks the reachabilityFilter flood fill looks at before giving up, after that the blocks it didn't get
+     * to are assumed to be fine
+     */
+    public final Setting<Integer> reachabilityFilterMaxNodes = new Setting<>(32768);
+
+    /**
+     * How many blocks a route to a target may go through (by breaking them) before reachabilityFilter counts it as
+     * unreachable
+     */
+    public final Setting<Integer> reachabilityFilterBreakBudget = new Setting<>(64);
+
+    /**
+     * Experimental. While mining, work out the real travel cost to every known ore in one search from where the player
+     * is, and go for the cheapest one instead of pathing towards all of them at once. The same costs are reused for the
+     * next ore, until new ores are found or the player has gone {@link #mineTravelCostRefreshDistance} blocks.
+     */
+    public final Setting<Boolean> mineRankByTravelCost = new Setting<>(false);
+
+    /**
+     * How far the player can get from where the ore travel costs were calculated before they're calculated again
+     */
+    public final Setting<Integer> mineTravelCostRefreshDistance = new Setting<>(16);
+
+    /**
+     * Experimental. Plan the order to mine all the known ores in so that the whole trip is as short as possible, instead
+     * of always going for the closest one. New ores are fit into the plan as they're found. Uses the real travel costs
+     * from {@link #mineRankByTravelCost} too, if that's on.
+     */
+    public final Setting<Boolean> mineTourPlanning = new Setting<>(false);
+
+    /**
+     * How long improving the mining tour can take, each time new ores are found
+     */
+    public final Setting<Long> mineTourPlanningTimeMS = new Setting<>(5L);
+
     /**
      * 😎 Render cached chunks as semitransparent. Doesn't work with OptiFine 😭 Rarely randomly crashes, see <a href="https://github.com/cabaletta/baritone/issues/327">this issue</a>.
      * <p>
@@ -818,6 +959,12 @@ public final class Settings {
      */
     public final Setting<Integer> mineGoalUpdateInterval = new Setting<>(5);
 
+    /**
+     * How many threads to scan the world for blocks with (e.g. to find ores to mine). With more than 1, the chunks at
+     * the same distance from the player are scanned at the same time.
+     */
+    public final Setting<Integer> worldScanParallelism = new Setting<>(1);
+
     /**
      * After finding this many instances of the target block in the cache, it will stop expanding outward the chunk search.
      */
@@ -992,6 +1139,14 @@ public final class Settings {
      */
     public final Setting<Integer> builderTickScanRadius = new Setting<>(5);
 
+    /**
+     * Keep track of which blocks of the schematic are still incorrect as blocks change and chunks load, instead of
+     * scanning around the player every tick and rescanning the whole schematic every time nothing is left nearby.
+     * <p>
+     * builderTickScanRadius is still how far around the player known incorrect blocks are picked up from.
+     */
+    public final Setting<Boolean> buildTrackChanges = new Setting<>(false);
+
     /**
      * While mining, should it also consider dropped items of the correct type as a pathing destination (as well as ore blocks)?
      */
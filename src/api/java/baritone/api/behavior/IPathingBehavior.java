@@ -19,10 +19,13 @@ package baritone.api.behavior;
 
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.calc.IPathFinder;
+import baritone.api.pathing.calc.TargetCosts;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.path.IPathExecutor;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Brady
@@ -129,4 +132,16 @@ public interface IPathingBehavior extends IBehavior {
      * @return The next path executor
      */
     IPathExecutor getNext();
+
+    /**
+     * Calculates the real travel cost from where the player is standing to every one of these goals, in a single
+     * search in the background. Unlike pathing to a {@link baritone.api.pathing.goals.GoalComposite}, which only
+     * finds the cheapest one, this gives a cost (and a path) for each of them.
+     * <p>
+     * Must be called from the main thread. The current path, if any, isn't affected.
+     *
+     * @param targets The goals
+     * @return The costs, once the search is done. Cancelling it stops the search.
+     */
+    CompletableFuture<TargetCosts> calculateCostsTo(List<Goal> targets);
 }
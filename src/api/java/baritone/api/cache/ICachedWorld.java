@@ -21,6 +21,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.chunk.Chunk;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Brady
@@ -70,6 +71,21 @@ public interface ICachedWorld {
      */
     ArrayList<BlockPos> getLocationsOf(String block, int maximum, int centerX, int centerZ, int maxRegionDistanceSq);
 
+    /**
+     * Finds the closest known locations of the specified special block, nearest first. Unlike
+     * {@link #getLocationsOf}, this doesn't return everything in the regions it looked at, and
+     * doesn't need those regions to be in memory.
+     *
+     * @param block               The special block to search for
+     * @param count               The maximum number of position results to receive
+     * @param x                   The x block coordinate to measure distance from
+     * @param y                   The y block coordinate to measure distance from
+     * @param z                   The z block coordinate to measure distance from
+     * @param maxRegionDistanceSq The maximum region distance, squared
+     * @return The closest locations found that match the special block
+     */
+    List<BlockPos> getNearestLocationsOf(String block, int count, int x, int y, int z, int maxRegionDistanceSq);
+
     /**
      * Reloads all of the cached regions in this world from disk. Anything that is not saved
      * will be lost. This operation does not execute in a new thread by default.
@@ -0,0 +1,70 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.event.events;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.PathCalculationResult;
+
+/**
+ * Called on the main thread, after every path calculation (successful or not), with what it did
+ */
+public final class PathSearchEvent {
+
+    /**
+     * Where the calculation started
+     */
+    private final BetterBlockPos start;
+
+    /**
+     * The goal it searched towards
+     */
+    private final Goal goal;
+
+    /**
+     * What came out of it
+     */
+    private final PathCalculationResult result;
+
+    public PathSearchEvent(BetterBlockPos start, Goal goal, PathCalculationResult result) {
+        this.start = start;
+        this.goal = goal;
+        this.result = result;
+    }
+
+    /**
+     * @return Where the calculation started
+     */
+    public final BetterBlockPos getStart() {
+        return this.start;
+    }
+
+    /**
+     * @return The goal it searched towards
+     */
+    public final Goal getGoal() {
+        return this.goal;
+    }
+
+    /**
+     * @return What came out of it, see {@link PathCalculationResult#getSearchStats()}
+     */
+    public final PathCalculationResult getResult() {
+        return this.result;
+    }
+}
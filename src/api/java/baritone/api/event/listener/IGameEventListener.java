@@ -144,4 +144,11 @@ public interface IGameEventListener {
      * @param event The event
      */
     void onPathEvent(PathEvent event);
+
+    /**
+     * After every path calculation, with what it did
+     *
+     * @param event The event
+     */
+    void onPathSearch(PathSearchEvent event);
 }
@@ -24,6 +24,7 @@ import baritone.api.utils.BetterBlockPos;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * @author leijurv, Brady
@@ -80,6 +81,13 @@ public interface IPath {
      */
     int getNumNodesConsidered();
 
+    /**
+     * @return What the calculation that found this path did, if this path came out of one
+     */
+    default Optional<PathSearchStats> getSearchStats() {
+        return Optional.empty();
+    }
+
     /**
      * Returns the start position of this path. This is the first element in the
      * {@link List} that is returned by {@link IPath#positions()}.
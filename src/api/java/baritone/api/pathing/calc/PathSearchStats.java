@@ -0,0 +1,197 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.pathing.calc;
+
+import java.util.Map;
+
+/**
+ * What a single path calculation did, and how long it took. Attached to the {@link baritone.api.utils.PathCalculationResult}
+ * of every calculation (successful or not), and to the {@link IPath} it produced.
+ */
+public final class PathSearchStats {
+
+    private final int nodesExpanded;
+    private final int nodesCreated;
+    private final int emptyChunkHits;
+    private final int openSetPeak;
+    private final Map<String, Long> moveEvaluations;
+    private final Map<String, Long> moveNanos;
+    private final long chunkCacheHits;
+    private final long chunkLookups;
+    private final long regionCacheHits;
+    private final long regionLookups;
+    private final long regionMisses;
+    private final long costCacheHits;
+    private final long costCacheMisses;
+    private final long wallTimeMillis;
+    private final long cpuTimeNanos;
+
+    public PathSearchStats(int nodesExpanded, int nodesCreated, int emptyChunkHits, int openSetPeak, Map<String, Long> moveEvaluations, Map<String, Long> moveNanos, long chunkCacheHits, long chunkLookups, long regionCacheHits, long regionLookups, long regionMisses, long costCacheHits, long costCacheMisses, long wallTimeMillis, long cpuTimeNanos) {
+        this.nodesExpanded = nodesExpanded;
+        this.nodesCreated = nodesCreated;
+        this.emptyChunkHits = emptyChunkHits;
+        this.openSetPeak = openSetPeak;
+        this.moveEvaluations = moveEvaluations;
+        this.moveNanos = moveNanos;
+        this.chunkCacheHits = chunkCacheHits;
+        this.chunkLookups = chunkLookups;
+        this.regionCacheHits = regionCacheHits;
+        this.regionLookups = regionLookups;
+        this.regionMisses = regionMisses;
+        this.costCacheHits = costCacheHits;
+        this.costCacheMisses = costCacheMisses;
+        this.wallTimeMillis = wallTimeMillis;
+        this.cpuTimeNanos = cpuTimeNanos;
+    }
+
+    /**
+     * @return How many nodes were taken off the open set and had their movements considered
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * @return How many nodes the search allocated (or, for an incremental search, how big its graph is)
+     */
+    public int getNodesCreated() {
+        return nodesCreated;
+    }
+
+    /**
+     * @return How many movements were skipped because they went into a chunk that isn't loaded
+     */
+    public int getEmptyChunkHits() {
+        return emptyChunkHits;
+    }
+
+    /**
+     * @return The most nodes that were in the open set at once
+     */
+    public int getOpenSetPeak() {
+        return openSetPeak;
+    }
+
+    /**
+     * @return How many times each movement type was calculated, by name
+     */
+    public Map<String, Long> getMoveEvaluations() {
+        return moveEvaluations;
+    }
+
+    /**
+     * @return How long calculating each movement type took in total, by name. Empty unless the pathingMoveTiming
+     * setting is on, since timing every single movement isn't free.
+     */
+    public Map<String, Long> getMoveNanos() {
+        return moveNanos;
+    }
+
+    /**
+     * @return How many movements were calculated in total
+     */
+    public long getMovementsConsidered() {
+        return moveEvaluations.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return How many block lookups were answered by the same loaded chunk as the one before
+     */
+    public long getChunkCacheHits() {
+        return chunkCacheHits;
+    }
+
+    /**
+     * @return How many block lookups had to look up their loaded chunk
+     */
+    public long getChunkLookups() {
+        return chunkLookups;
+    }
+
+    /**
+     * @return How many block lookups outside of loaded chunks were answered by the same cached region as the one before
+     */
+    public long getRegionCacheHits() {
+        return regionCacheHits;
+    }
+
+    /**
+     * @return How many block lookups outside of loaded chunks had to look up their cached region
+     */
+    public long getRegionLookups() {
+        return regionLookups;
+    }
+
+    /**
+     * A search never loads regions from disk itself, it wants them in memory already (see the prefetchRegions
+     * setting). This is how many times it wanted one that wasn't.
+     *
+     * @return How many region lookups found nothing in memory
+     */
+    public long getRegionMisses() {
+        return regionMisses;
+    }
+
+    /**
+     * @return How many movement costs came from the movementCostCache instead of being calculated
+     */
+    public long getCostCacheHits() {
+        return costCacheHits;
+    }
+
+    /**
+     * @return How many movement costs the movementCostCache didn't have, 0 if it's off
+     */
+    public long getCostCacheMisses() {
+        return costCacheMisses;
+    }
+
+    /**
+     * @return How long the calculation took, in milliseconds
+     */
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * @return How much CPU time the calculating thread used, in nanoseconds, or -1 if the JVM can't tell
+     */
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PathSearchStats{" +
+                "nodesExpanded=" + nodesExpanded +
+                ", nodesCreated=" + nodesCreated +
+                ", movementsConsidered=" + getMovementsConsidered() +
+                ", emptyChunkHits=" + emptyChunkHits +
+                ", openSetPeak=" + openSetPeak +
+                ", chunkCacheHits=" + chunkCacheHits +
+                ", chunkLookups=" + chunkLookups +
+                ", regionCacheHits=" + regionCacheHits +
+                ", regionLookups=" + regionLookups +
+                ", regionMisses=" + regionMisses +
+                ", costCacheHits=" + costCacheHits +
+                ", costCacheMisses=" + costCacheMisses +
+                ", wallTimeMillis=" + wallTimeMillis +
+                ", cpuTimeNanos=" + cpuTimeNanos +
+                '}';
+    }
+}
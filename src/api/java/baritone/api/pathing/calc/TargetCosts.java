@@ -0,0 +1,129 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * The real travel cost from one start position to each of a list of goals, all from the same search. See
+ * {@link baritone.api.behavior.IPathingBehavior#calculateCostsTo(List)}.
+ * <p>
+ * Goals are looked up by identity, so pass in the same instances that were asked about.
+ */
+public final class TargetCosts {
+
+    private final BetterBlockPos start;
+    private final List<Goal> targets;
+    private final double[] costs;
+    private final IPath[] paths;
+    private final boolean complete;
+    private final int nodesExpanded;
+
+    public TargetCosts(BetterBlockPos start, List<Goal> targets, double[] costs, IPath[] paths, boolean complete, int nodesExpanded) {
+        if (targets.size() != costs.length || targets.size() != paths.length) {
+            throw new IllegalArgumentException();
+        }
+        this.start = start;
+        this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+        this.costs = costs;
+        this.paths = paths;
+        this.complete = complete;
+        this.nodesExpanded = nodesExpanded;
+    }
+
+    /**
+     * @return Where the search started from
+     */
+    public BetterBlockPos getStart() {
+        return start;
+    }
+
+    /**
+     * @return Every goal that was asked about, in the order they were given
+     */
+    public List<Goal> getTargets() {
+        return targets;
+    }
+
+    /**
+     * @param target The goal
+     * @return The cost in ticks of the cheapest path to it, or empty if no path was found
+     */
+    public OptionalDouble getCost(Goal target) {
+        int i = indexOf(target);
+        return i == -1 || paths[i] == null ? OptionalDouble.empty() : OptionalDouble.of(costs[i]);
+    }
+
+    /**
+     * @param target The goal
+     * @return The cheapest path to it, or empty if no path was found
+     */
+    public Optional<IPath> getPath(Goal target) {
+        int i = indexOf(target);
+        return i == -1 ? Optional.empty() : Optional.ofNullable(paths[i]);
+    }
+
+    /**
+     * @return The goals that a path was found to, cheapest first
+     */
+    public List<Goal> getRanked() {
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < paths.length; i++) {
+            if (paths[i] != null) {
+                found.add(i);
+            }
+        }
+        found.sort(Comparator.comparingDouble(i -> costs[i]));
+        List<Goal> ranked = new ArrayList<>(found.size());
+        for (int i : found) {
+            ranked.add(targets.get(i));
+        }
+        return ranked;
+    }
+
+    /**
+     * If this is false, the search ran out of time (or nearby loaded chunks) before it got to every goal, and the goals
+     * without a cost might still be reachable. If it's true, they definitely aren't.
+     *
+     * @return Whether the search got as far as it could
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    private int indexOf(Goal target) {
+        for (int i = 0; i < targets.size(); i++) {
+            if (targets.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
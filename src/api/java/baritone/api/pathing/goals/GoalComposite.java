@@ -33,12 +33,31 @@ public class GoalComposite implements Goal {
      */
     private final Goal[] goals;
 
+    /**
+     * Built the first time it's needed, and only if there are enough goals, see {@link GoalIndex}
+     */
+    private volatile GoalIndex index;
+
     public GoalComposite(Goal... goals) {
         this.goals = goals;
     }
 
+    private GoalIndex index() {
+        GoalIndex index = this.index;
+        if (index == null && goals.length >= GoalIndex.MIN_GOALS) {
+            // two threads might both build it at the same time, that's fine, they'll be the same
+            index = new GoalIndex(goals);
+            this.index = index;
+        }
+        return index;
+    }
+
     @Override
     public boolean isInGoal(int x, int y, int z) {
+        GoalIndex index = index();
+        if (index != null) {
+            return index.isInGoal(x, y, z);
+        }
         for (Goal goal : goals) {
             if (goal.isInGoal(x, y, z)) {
                 return true;
@@ -49,6 +68,10 @@ public class GoalComposite implements Goal {
 
     @Override
     public double heuristic(int x, int y, int z) {
+        GoalIndex index = index();
+        if (index != null) {
+            return index.heuristic(x, y, z);
+        }
         double min = Double.MAX_VALUE;
         for (Goal g : goals) {
             // TODO technically this isn't admissible...?
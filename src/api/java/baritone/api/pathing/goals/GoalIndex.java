@@ -0,0 +1,285 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.pathing.goals;
+
+import baritone.api.BaritoneAPI;
+import baritone.api.utils.interfaces.IGoalRenderPos;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A k-d tree over the horizontal positions of the goals in a {@link GoalComposite}, so that it doesn't have to ask
+ * every single goal for every single node.
+ * <p>
+ * Only the position based goals ({@link GoalBlock}, {@link GoalTwoBlocks}, {@link GoalGetToBlock}, {@link GoalNear}
+ * and {@link GoalXZ}) are indexed, everything else is still checked one by one. For those, the heuristic is never
+ * less than its value at the goal's own position (for most that's zero, BuilderProcess adds to it for higher goals)
+ * plus {@link GoalXZ#calculate} of the horizontal distance, which is at least costHeuristic per block along the longer
+ * axis. So a whole subtree can be skipped once that bound for its bounding box is no better than the best goal so
+ * far, and the answer is exactly the same as checking every goal. Subclasses of these that change the heuristic can
+ * only add to it, and subclasses that change isInGoal can only make it stricter.
+ */
+final class GoalIndex {
+
+    /**
+     * Below this, a plain loop over the goals is just as fast
+     */
+    static final int MIN_GOALS = 16;
+
+    private static final int LEAF_SIZE = 8;
+
+    /**
+     * The goals that can't be indexed
+     */
+    private final Goal[] unindexed;
+
+    // the indexed goals, reordered so that every node of the tree is a contiguous range
+    private final Goal[] goals;
+    private final int[] x;
+    private final int[] z;
+    private final double[] offset; // the heuristic at the goal's own position
+    private final int[] radius; // how far from its position the goal can be satisfied, along any one axis
+
+    // the nodes of the tree, node 0 is the root
+    private int nodes;
+    private int[] from;
+    private int[] to;
+    private int[] left;
+    private int[] right;
+    private int[] minX;
+    private int[] maxX;
+    private int[] minZ;
+    private int[] maxZ;
+    private double[] minOffset;
+    private int[] maxRadius;
+
+    GoalIndex(Goal[] all) {
+        List<Goal> unindexed = new ArrayList<>();
+        List<Goal> indexed = new ArrayList<>();
+        for (Goal goal : all) {
+            if (radius(goal) < 0) {
+                unindexed.add(goal);
+            } else {
+                indexed.add(goal);
+            }
+        }
+        this.unindexed = unindexed.toArray(new Goal[0]);
+        int n = indexed.size();
+        this.goals = indexed.toArray(new Goal[0]);
+        this.x = new int[n];
+        this.z = new int[n];
+        this.offset = new double[n];
+        this.radius = new int[n];
+        for (int i = 0; i < n; i++) {
+            Goal goal = goals[i];
+            int y;
+            if (goal instanceof GoalXZ) {
+                x[i] = ((GoalXZ) goal).getX();
+                z[i] = ((GoalXZ) goal).getZ();
+                y = 0;
+            } else {
+                BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
+                x[i] = pos.getX();
+                z[i] = pos.getZ();
+                y = pos.getY();
+            }
+            offset[i] = goal.heuristic(x[i], y, z[i]);
+            radius[i] = radius(goal);
+        }
+        int capacity = 2 * (n / (LEAF_SIZE / 2) + 1); // every leaf has at least half of LEAF_SIZE goals
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.minX = new int[capacity];
+        this.maxX = new int[capacity];
+        this.minZ = new int[capacity];
+        this.maxZ = new int[capacity];
+        this.minOffset = new double[capacity];
+        this.maxRadius = new int[capacity];
+        if (n > 0) {
+            build(0, n);
+        }
+    }
+
+    /**
+     * @return How far from its position this goal can be satisfied along any one axis, or -1 if it can't be indexed
+     */
+    private static int radius(Goal goal) {
+        if (goal instanceof GoalNear) {
+            return ((GoalNear) goal).range();
+        }
+        if (goal instanceof GoalGetToBlock) {
+            return 1;
+        }
+        if (goal instanceof GoalBlock || goal instanceof GoalTwoBlocks || goal instanceof GoalXZ) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private int build(int start, int end) {
+        int node = nodes++;
+        from[node] = start;
+        to[node] = end;
+        left[node] = -1;
+        right[node] = -1;
+        int lowX = Integer.MAX_VALUE, highX = Integer.MIN_VALUE, lowZ = Integer.MAX_VALUE, highZ = Integer.MIN_VALUE;
+        double lowOffset = Double.POSITIVE_INFINITY;
+        int highRadius = 0;
+        for (int i = start; i < end; i++) {
+            lowX = Math.min(lowX, x[i]);
+            highX = Math.max(highX, x[i]);
+            lowZ = Math.min(lowZ, z[i]);
+            highZ = Math.max(highZ, z[i]);
+            lowOffset = Math.min(lowOffset, offset[i]);
+            highRadius = Math.max(highRadius, radius[i]);
+        }
+        minX[node] = lowX;
+        maxX[node] = highX;
+        minZ[node] = lowZ;
+        maxZ[node] = highZ;
+        minOffset[node] = lowOffset;
+        maxRadius[node] = highRadius;
+        if (end - start > LEAF_SIZE) {
+            boolean splitX = highX - lowX >= highZ - lowZ;
+            int mid = (start + end) >>> 1;
+            select(start, end - 1, mid, splitX);
+            left[node] = build(start, mid);
+            right[node] = build(mid, end);
+        }
+        return node;
+    }
+
+    /**
+     * Quickselect, so that the goal at k is where it would be if the range was sorted along that axis
+     */
+    private void select(int low, int high, int k, boolean alongX) {
+        int[] key = alongX ? x : z;
+        while (low < high) {
+            int pivot = key[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (key[i] < pivot) {
+                    i++;
+                }
+                while (key[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        Goal goal = goals[a];
+        goals[a] = goals[b];
+        goals[b] = goal;
+        int tmp = x[a];
+        x[a] = x[b];
+        x[b] = tmp;
+        tmp = z[a];
+        z[a] = z[b];
+        z[b] = tmp;
+        tmp = radius[a];
+        radius[a] = radius[b];
+        radius[b] = tmp;
+        double off = offset[a];
+        offset[a] = offset[b];
+        offset[b] = off;
+    }
+
+    /**
+     * @return How far the position is from the bounding box of the node, along the longer axis
+     */
+    private int distance(int node, int px, int pz) {
+        int dx = Math.max(Math.max(minX[node] - px, px - maxX[node]), 0);
+        int dz = Math.max(Math.max(minZ[node] - pz, pz - maxZ[node]), 0);
+        return Math.max(dx, dz);
+    }
+
+    boolean isInGoal(int px, int py, int pz) {
+        for (Goal goal : unindexed) {
+            if (goal.isInGoal(px, py, pz)) {
+                return true;
+            }
+        }
+        return goals.length > 0 && isInGoal(0, px, py, pz);
+    }
+
+    private boolean isInGoal(int node, int px, int py, int pz) {
+        if (distance(node, px, pz) > maxRadius[node]) {
+            return false;
+        }
+        if (left[node] == -1) {
+            for (int i = from[node]; i < to[node]; i++) {
+                int r = radius[i];
+                if (Math.abs(px - x[i]) <= r && Math.abs(pz - z[i]) <= r && goals[i].isInGoal(px, py, pz)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return isInGoal(left[node], px, py, pz) || isInGoal(right[node], px, py, pz);
+    }
+
+    double heuristic(int px, int py, int pz) {
+        double min = Double.MAX_VALUE;
+        for (Goal goal : unindexed) {
+            // TODO technically this isn't admissible...?
+            min = Math.min(min, goal.heuristic(px, py, pz)); // whichever is closest
+        }
+        if (goals.length > 0) {
+            min = heuristic(0, px, py, pz, BaritoneAPI.getSettings().costHeuristic.value, min);
+        }
+        return min;
+    }
+
+    private double heuristic(int node, int px, int py, int pz, double costHeuristic, double best) {
+        if (minOffset[node] + costHeuristic * distance(node, px, pz) >= best) {
+            return best; // nothing in here can be any closer
+        }
+        if (left[node] == -1) {
+            for (int i = from[node]; i < to[node]; i++) {
+                best = Math.min(best, goals[i].heuristic(px, py, pz));
+            }
+            return best;
+        }
+        // closer side first, so that the other side is more likely to be skipped
+        int first = left[node];
+        int second = right[node];
+        if (distance(second, px, pz) < distance(first, px, pz)) {
+            first = right[node];
+            second = left[node];
+        }
+        best = heuristic(first, px, py, pz, costHeuristic, best);
+        return heuristic(second, px, py, pz, costHeuristic, best);
+    }
+}
@@ -81,6 +81,13 @@ public class GoalNear implements Goal, IGoalRenderPos {
         return maxInside;
     }
 
+    /**
+     * @return How far from its position this goal can be satisfied, along any one axis
+     */
+    int range() {
+        return (int) Math.ceil(Math.sqrt(rangeSq));
+    }
+
     @Override
     public BlockPos getGoalPos() {
         return new BlockPos(x, y, z);
@@ -18,6 +18,7 @@
 package baritone.api.utils;
 
 import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.calc.PathSearchStats;
 
 import java.util.Objects;
 import java.util.Optional;
@@ -26,15 +27,21 @@ public class PathCalculationResult {
 
     private final IPath path;
     private final Type type;
+    private final PathSearchStats stats;
 
     public PathCalculationResult(Type type) {
         this(type, null);
     }
 
     public PathCalculationResult(Type type, IPath path) {
+        this(type, path, null);
+    }
+
+    public PathCalculationResult(Type type, IPath path, PathSearchStats stats) {
         Objects.requireNonNull(type);
         this.path = path;
         this.type = type;
+        this.stats = stats;
     }
 
     public final Optional<IPath> getPath() {
@@ -45,6 +52,13 @@ public class PathCalculationResult {
         return this.type;
     }
 
+    /**
+     * @return What the calculation did, if it got far enough to tell
+     */
+    public final Optional<PathSearchStats> getSearchStats() {
+        return Optional.ofNullable(this.stats);
+    }
+
     public enum Type {
         SUCCESS_TO_GOAL,
         SUCCESS_SEGMENT,
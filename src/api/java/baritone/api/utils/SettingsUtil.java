@@ -48,7 +48,10 @@ import static net.minecraft.client.Minecraft.getMinecraft;
 
 public class SettingsUtil {
 
-    private static final Path SETTINGS_PATH = getMinecraft().gameDir.toPath().resolve("baritone").resolve("settings.txt");
+    /**
+     * Null when there is no client, e.g. in benchmarks, in which case the defaults are used and nothing is saved
+     */
+    private static final Path SETTINGS_PATH = getMinecraft() == null ? null : getMinecraft().gameDir.toPath().resolve("baritone").resolve("settings.txt");
     private static final Pattern SETTING_PATTERN = Pattern.compile("^(?<setting>[^ ]+) +(?<value>.+)"); // key and value split by the first space
     private static final String[] JAVA_ONLY_SETTINGS = {"logger", "notifier", "toaster"};
 
@@ -69,6 +72,9 @@ public class SettingsUtil {
     }
 
     public static void readAndApply(Settings settings) {
+        if (SETTINGS_PATH == null) {
+            return;
+        }
         try {
             forEachLine(SETTINGS_PATH, line -> {
                 Matcher matcher = SETTING_PATTERN.matcher(line);
@@ -95,6 +101,9 @@ public class SettingsUtil {
     }
 
     public static synchronized void save(Settings settings) {
+        if (SETTINGS_PATH == null) {
+            return;
+        }
         try (BufferedWriter out = Files.newBufferedWriter(SETTINGS_PATH)) {
             for (Settings.Setting setting : modifiedSettings(settings)) {
                 out.write(settingToString(setting) + "\n");
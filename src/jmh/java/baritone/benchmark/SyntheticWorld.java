@@ -0,0 +1,403 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.benchmark;
+
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.BlockStateInterface;
+import baritone.utils.IBlockSource;
+import baritone.utils.ToolSet;
+import baritone.utils.pathing.BetterWorldBorder;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Enchantments;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.border.WorldBorder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed size, fully loaded, deterministically generated world for the benchmarks. Nothing here needs a client.
+ * <p>
+ * The world spans {@link #SIZE} blocks in x and z starting at 0,0, everything outside of that is unloaded.
+ */
+public final class SyntheticWorld implements IBlockSource {
+
+    static {
+        Bootstrap.register(); // Blocks is empty until this has been called
+    }
+
+    public static final int SIZE = 128;
+
+    public enum Terrain {
+        /**
+         * Grass at y=63, the best case, mostly traversing and diagonals
+         */
+        FLAT,
+        /**
+         * Rolling hills with caves and ores underneath, the goal is underground so a lot of breaking and descending
+         */
+        CAVES,
+        /**
+         * Deep water with the occasional island, lots of swimming and falling into water
+         */
+        OCEAN,
+        /**
+         * Netherrack hills between a bedrock floor and ceiling, with lava lakes and soul sand
+         */
+        NETHER,
+        /**
+         * A bedrock maze with a bedrock ceiling, so nothing can be broken or jumped over, the worst case for the heuristic
+         */
+        MAZE
+    }
+
+    private final IBlockState[] blocks = new IBlockState[SIZE * SIZE * 256];
+    private final IBlockState air = Blocks.AIR.getDefaultState();
+    private final Random random;
+
+    public final Terrain terrain;
+    public BetterBlockPos start;
+    public BetterBlockPos end;
+
+    private SyntheticWorld(Terrain terrain, long seed) {
+        this.terrain = terrain;
+        this.random = new Random(seed);
+    }
+
+    public static SyntheticWorld generate(Terrain terrain, long seed) {
+        SyntheticWorld world = new SyntheticWorld(terrain, seed);
+        switch (terrain) {
+            case FLAT:
+                world.flat();
+                break;
+            case CAVES:
+                world.caves();
+                break;
+            case OCEAN:
+                world.ocean();
+                break;
+            case NETHER:
+                world.nether();
+                break;
+            case MAZE:
+                world.maze();
+                break;
+            default:
+                throw new IllegalArgumentException(terrain.name());
+        }
+        return world;
+    }
+
+    /**
+     * @return A block state interface reading from this world
+     */
+    public BlockStateInterface bsi() {
+        return new BlockStateInterface(this, new BetterWorldBorder(new WorldBorder()));
+    }
+
+    /**
+     * @return A calculation context in this world, as if the player had a stack of throwaway blocks and an
+     * efficiency 5 diamond pickaxe (and nothing else) in their hotbar
+     */
+    public CalculationContext context() {
+        ItemStack pickaxe = new ItemStack(Items.DIAMOND_PICKAXE);
+        pickaxe.addEnchantment(Enchantments.EFFICIENCY, 5);
+        ToolSet toolSet = new ToolSet(block -> ToolSet.calculateSpeedVsBlock(pickaxe, block.getDefaultState()));
+        return new CalculationContext(bsi(), toolSet, false, true, true, 0);
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return x >= 0 && x < SIZE && z >= 0 && z < SIZE;
+    }
+
+    @Override
+    public IBlockState get(int x, int y, int z) {
+        if (y < 0 || y >= 256 || !isLoaded(x, z)) {
+            return air;
+        }
+        IBlockState state = blocks[index(x, y, z)];
+        return state == null ? air : state;
+    }
+
+    private void set(int x, int y, int z, IBlockState state) {
+        if (y >= 0 && y < 256 && isLoaded(x, z)) {
+            blocks[index(x, y, z)] = state;
+        }
+    }
+
+    /**
+     * @param count How many positions
+     * @param seed  The seed to pick them with
+     * @return Positions where a player could stand, spread over the whole world
+     */
+    public List<BetterBlockPos> standablePositions(int count, long seed) {
+        Random random = new Random(seed);
+        List<BetterBlockPos> positions = new ArrayList<>();
+        while (positions.size() < count) {
+            int x = random.nextInt(SIZE);
+            int z = random.nextInt(SIZE);
+            List<Integer> standable = new ArrayList<>();
+            for (int y = 1; y < 255; y++) {
+                if (get(x, y - 1, z).getMaterial().isSolid() && get(x, y, z) == air && get(x, y + 1, z) == air) {
+                    standable.add(y);
+                }
+            }
+            if (!standable.isEmpty()) {
+                positions.add(new BetterBlockPos(x, standable.get(random.nextInt(standable.size())), z));
+            }
+        }
+        return positions;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y * SIZE + z) * SIZE + x;
+    }
+
+    private void column(int x, int z, int fromY, int toY, IBlockState state) {
+        for (int y = fromY; y <= toY; y++) {
+            set(x, y, z, state);
+        }
+    }
+
+    /**
+     * @return The first y above the highest non air block in this column
+     */
+    private int surface(int x, int z) {
+        for (int y = 255; y >= 0; y--) {
+            if (get(x, y, z) != air) {
+                return y + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void ground(int x, int z, int height, IBlockState top) {
+        set(x, 0, z, Blocks.BEDROCK.getDefaultState());
+        column(x, z, 1, height - 4, Blocks.STONE.getDefaultState());
+        column(x, z, height - 3, height - 1, Blocks.DIRT.getDefaultState());
+        set(x, height, z, top);
+    }
+
+    /**
+     * A cheap value noise, good enough for hills
+     */
+    private int[][] heights(int base, int amplitude, int scale) {
+        int cells = SIZE / scale + 2;
+        double[][] corners = new double[cells][cells];
+        for (int i = 0; i < cells; i++) {
+            for (int j = 0; j < cells; j++) {
+                corners[i][j] = random.nextDouble();
+            }
+        }
+        int[][] heights = new int[SIZE][SIZE];
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                int cx = x / scale;
+                int cz = z / scale;
+                double fx = (x % scale) / (double) scale;
+                double fz = (z % scale) / (double) scale;
+                double top = corners[cx][cz] * (1 - fx) + corners[cx + 1][cz] * fx;
+                double bottom = corners[cx][cz + 1] * (1 - fx) + corners[cx + 1][cz + 1] * fx;
+                heights[x][z] = base + (int) Math.round((top * (1 - fz) + bottom * fz) * amplitude);
+            }
+        }
+        return heights;
+    }
+
+    private void flat() {
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                ground(x, z, 63, Blocks.GRASS.getDefaultState());
+            }
+        }
+        start = new BetterBlockPos(4, 64, 4);
+        end = new BetterBlockPos(SIZE - 5, 64, SIZE - 5);
+    }
+
+    private void caves() {
+        int[][] heights = heights(60, 16, 16);
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                ground(x, z, heights[x][z], Blocks.GRASS.getDefaultState());
+                for (int y = 5; y < heights[x][z] - 4; y++) {
+                    int roll = random.nextInt(200);
+                    if (roll == 0) {
+                        set(x, y, z, Blocks.COAL_ORE.getDefaultState());
+                    } else if (roll == 1) {
+                        set(x, y, z, Blocks.IRON_ORE.getDefaultState());
+                    } else if (roll == 2) {
+                        set(x, y, z, Blocks.GRAVEL.getDefaultState());
+                    }
+                }
+            }
+        }
+        // worms of spheres, some of which break through the surface
+        for (int worm = 0; worm < 40; worm++) {
+            double x = random.nextInt(SIZE);
+            double y = 10 + random.nextInt(50);
+            double z = random.nextInt(SIZE);
+            for (int step = 0; step < 60; step++) {
+                int radius = 1 + random.nextInt(3);
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        for (int dz = -radius; dz <= radius; dz++) {
+                            if (dx * dx + dy * dy + dz * dz <= radius * radius && y + dy > 1) {
+                                int bx = (int) x + dx;
+                                int by = (int) y + dy;
+                                int bz = (int) z + dz;
+                                set(bx, by, bz, by < 11 ? Blocks.LAVA.getDefaultState() : air);
+                            }
+                        }
+                    }
+                }
+                x += random.nextDouble() * 4 - 2;
+                y += random.nextDouble() * 2 - 1;
+                z += random.nextDouble() * 4 - 2;
+            }
+        }
+        start = new BetterBlockPos(4, surface(4, 4), 4);
+        end = new BetterBlockPos(SIZE - 5, 20, SIZE - 5);
+        column(end.x, end.z, end.y, end.y + 1, air);
+        set(end.x, end.y - 1, end.z, Blocks.STONE.getDefaultState());
+    }
+
+    private void ocean() {
+        int[][] floor = heights(30, 15, 32);
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                set(x, 0, z, Blocks.BEDROCK.getDefaultState());
+                column(x, z, 1, floor[x][z] - 4, Blocks.STONE.getDefaultState());
+                column(x, z, floor[x][z] - 3, floor[x][z], Blocks.SAND.getDefaultState());
+                column(x, z, floor[x][z] + 1, 62, Blocks.WATER.getDefaultState());
+            }
+        }
+        for (int island = 0; island < 6; island++) {
+            this.island(8 + random.nextInt(SIZE - 16), 8 + random.nextInt(SIZE - 16), 2 + random.nextInt(5));
+        }
+        this.island(4, 4, 3);
+        this.island(SIZE - 5, SIZE - 5, 3);
+        start = new BetterBlockPos(4, surface(4, 4), 4);
+        end = new BetterBlockPos(SIZE - 5, surface(SIZE - 5, SIZE - 5), SIZE - 5);
+    }
+
+    private void island(int centerX, int centerZ, int radius) {
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                int dx = x - centerX;
+                int dz = z - centerZ;
+                if (dx * dx + dz * dz <= radius * radius) {
+                    column(x, z, 1, 63, Blocks.SAND.getDefaultState());
+                    set(x, 64, z, Blocks.GRASS.getDefaultState());
+                }
+            }
+        }
+    }
+
+    private void nether() {
+        int[][] floor = heights(32, 24, 16);
+        int[][] ceiling = heights(100, 20, 8);
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                set(x, 0, z, Blocks.BEDROCK.getDefaultState());
+                set(x, 127, z, Blocks.BEDROCK.getDefaultState());
+                column(x, z, 1, floor[x][z], Blocks.NETHERRACK.getDefaultState());
+                column(x, z, ceiling[x][z], 126, Blocks.NETHERRACK.getDefaultState());
+                column(x, z, floor[x][z] + 1, 38, Blocks.LAVA.getDefaultState()); // lava ocean level is a bit higher than the lowest valleys
+                if (random.nextInt(12) == 0) {
+                    set(x, floor[x][z], z, Blocks.SOUL_SAND.getDefaultState());
+                } else if (random.nextInt(40) == 0) {
+                    set(x, floor[x][z] + 1, z, Blocks.FIRE.getDefaultState());
+                }
+            }
+        }
+        // glowstone hanging from the ceiling
+        for (int i = 0; i < 30; i++) {
+            int x = random.nextInt(SIZE);
+            int z = random.nextInt(SIZE);
+            column(x, z, ceiling[x][z] - 1 - random.nextInt(6), ceiling[x][z] - 1, Blocks.GLOWSTONE.getDefaultState());
+        }
+        this.platform(4, 4, 45);
+        this.platform(SIZE - 5, SIZE - 5, 45);
+        start = new BetterBlockPos(4, 46, 4);
+        end = new BetterBlockPos(SIZE - 5, 46, SIZE - 5);
+    }
+
+    private void platform(int centerX, int centerZ, int y) {
+        for (int x = centerX - 2; x <= centerX + 2; x++) {
+            for (int z = centerZ - 2; z <= centerZ + 2; z++) {
+                set(x, y, z, Blocks.NETHERRACK.getDefaultState());
+                column(x, z, y + 1, y + 3, air);
+            }
+        }
+    }
+
+    /**
+     * A perfect maze of one wide corridors, carved with a depth first search
+     */
+    private void maze() {
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                ground(x, z, 63, Blocks.STONE.getDefaultState());
+                column(x, z, 64, 65, Blocks.BEDROCK.getDefaultState());
+                set(x, 66, z, Blocks.BEDROCK.getDefaultState());
+            }
+        }
+        int cells = (SIZE - 1) / 2;
+        boolean[][] visited = new boolean[cells][cells];
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{0, 0});
+        visited[0][0] = true;
+        carve(0, 0);
+        int[][] directions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!stack.isEmpty()) {
+            int[] cell = stack.peek();
+            int options = 0;
+            int[] choice = null;
+            for (int[] direction : directions) {
+                int nx = cell[0] + direction[0];
+                int nz = cell[1] + direction[1];
+                if (nx >= 0 && nx < cells && nz >= 0 && nz < cells && !visited[nx][nz] && random.nextInt(++options) == 0) {
+                    choice = new int[]{nx, nz};
+                }
+            }
+            if (choice == null) {
+                stack.pop();
+                continue;
+            }
+            visited[choice[0]][choice[1]] = true;
+            // knock down the wall between the two cells
+            column(cell[0] + choice[0] + 1, cell[1] + choice[1] + 1, 64, 65, air);
+            carve(choice[0], choice[1]);
+            stack.push(choice);
+        }
+        start = new BetterBlockPos(1, 64, 1);
+        end = new BetterBlockPos(cells * 2 - 1, 64, cells * 2 - 1);
+    }
+
+    private void carve(int cellX, int cellZ) {
+        column(cellX * 2 + 1, cellZ * 2 + 1, 64, 65, air);
+    }
+}
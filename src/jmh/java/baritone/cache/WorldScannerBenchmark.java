@@ -0,0 +1,189 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.api.utils.BlockOptionalMetaLookup;
+import baritone.benchmark.SyntheticWorld;
+import baritone.utils.accessor.IBlockStateContainer;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BitArray;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scanning the chunks of a {@link SyntheticWorld} for a block, the same way MineProcess does when the cache doesn't
+ * know of enough. The sections are built like a real BlockStateContainer (a palette of the states in it, and a
+ * BitArray of indices into it), since there are no mixins here to get at the real ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldScannerBenchmark {
+
+    /**
+     * Everywhere underground, only in the bottom section, and not there at all
+     */
+    @Param({"iron_ore", "lava", "diamond_ore"})
+    public String target;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private WorldScanner.SectionSource sections;
+    private WorldScanner.SectionSource everyBlock;
+    private BlockOptionalMetaLookup filter;
+
+    @Setup
+    public void setup() {
+        SyntheticWorld world = SyntheticWorld.generate(SyntheticWorld.Terrain.CAVES, 1337);
+        Long2ObjectOpenHashMap<IBlockStateContainer[]> chunks = new Long2ObjectOpenHashMap<>();
+        Long2ObjectOpenHashMap<IBlockStateContainer[]> global = new Long2ObjectOpenHashMap<>();
+        for (int chunkX = 0; chunkX < SyntheticWorld.SIZE >> 4; chunkX++) {
+            for (int chunkZ = 0; chunkZ < SyntheticWorld.SIZE >> 4; chunkZ++) {
+                IBlockStateContainer[] chunk = new IBlockStateContainer[16];
+                IBlockStateContainer[] globalChunk = new IBlockStateContainer[16];
+                for (int y0 = 0; y0 < 16; y0++) {
+                    Section section = Section.of(world, chunkX << 4, y0 << 4, chunkZ << 4);
+                    if (section != null) {
+                        chunk[y0] = section;
+                        globalChunk[y0] = new GlobalPalette(section);
+                    }
+                }
+                chunks.put(ChunkPos.asLong(chunkX, chunkZ), chunk);
+                global.put(ChunkPos.asLong(chunkX, chunkZ), globalChunk);
+            }
+        }
+        sections = (chunkX, chunkZ) -> chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+        everyBlock = (chunkX, chunkZ) -> global.get(ChunkPos.asLong(chunkX, chunkZ));
+        filter = new BlockOptionalMetaLookup(target);
+    }
+
+    /**
+     * Checking every block against the filter, like before sections were skipped by their palette
+     */
+    @Benchmark
+    public List<BlockPos> everyBlock() {
+        return scan(everyBlock);
+    }
+
+    @Benchmark
+    public List<BlockPos> paletteChecked() {
+        return scan(sections);
+    }
+
+    private List<BlockPos> scan(WorldScanner.SectionSource source) {
+        // same as MineProcess, from the middle of the world
+        return WorldScanner.scanRadius(source, 4, 4, 40, filter, 64, 10, 32, threads);
+    }
+
+    private static final class Section implements IBlockStateContainer {
+
+        private final List<IBlockState> palette;
+        private final int bits;
+        private final BitArray storage;
+
+        private Section(List<IBlockState> palette, int bits, BitArray storage) {
+            this.palette = palette;
+            this.bits = bits;
+            this.storage = storage;
+        }
+
+        /**
+         * @return The section, or null if it's all air, since that's what a real chunk has there
+         */
+        static Section of(SyntheticWorld world, int x0, int y0, int z0) {
+            List<IBlockState> palette = new ArrayList<>();
+            palette.add(Blocks.AIR.getDefaultState()); // a real palette always starts with air
+            int[] indices = new int[4096];
+            for (int i = 0; i < 4096; i++) {
+                IBlockState state = world.get(x0 | (i & 15), y0 | ((i >> 8) & 15), z0 | ((i >> 4) & 15));
+                int index = palette.indexOf(state);
+                if (index == -1) {
+                    index = palette.size();
+                    palette.add(state);
+                }
+                indices[i] = index;
+            }
+            if (palette.size() == 1) {
+                return null;
+            }
+            int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(palette.size() - 1));
+            BitArray storage = new BitArray(bits, 4096);
+            for (int i = 0; i < 4096; i++) {
+                storage.setAt(i, indices[i]);
+            }
+            return new Section(palette, bits, storage);
+        }
+
+        @Override
+        public IBlockState getAtPalette(int index) {
+            return index < palette.size() ? palette.get(index) : null;
+        }
+
+        @Override
+        public int[] storageArray() {
+            int[] out = new int[4096];
+            for (int i = 0; i < out.length; i++) {
+                out[i] = storage.getAt(i);
+            }
+            return out;
+        }
+
+        @Override
+        public int paletteSize() {
+            return 1 << bits;
+        }
+    }
+
+    /**
+     * The same section, but claiming to use the global palette, so the scanner can't skip it
+     */
+    private static final class GlobalPalette implements IBlockStateContainer {
+
+        private final Section section;
+
+        private GlobalPalette(Section section) {
+            this.section = section;
+        }
+
+        @Override
+        public IBlockState getAtPalette(int index) {
+            return section.getAtPalette(index);
+        }
+
+        @Override
+        public int[] storageArray() {
+            return section.storageArray();
+        }
+
+        @Override
+        public int paletteSize() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.benchmark.SyntheticWorld;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.pathing.Favoring;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole search from one corner of a {@link SyntheticWorld} to the other. Only the search itself is measured, turning
+ * the path into movements needs a player.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AStarPathFinderBenchmark {
+
+    /**
+     * Long enough that every terrain finishes the search instead of timing out
+     */
+    private static final long TIMEOUT = 60000;
+
+    @Param({"FLAT", "CAVES", "OCEAN", "NETHER", "MAZE"})
+    public SyntheticWorld.Terrain terrain;
+
+    private SyntheticWorld world;
+    private CalculationContext context;
+    private Favoring favoring;
+    private Goal goal;
+
+    @Setup
+    public void setup() {
+        world = SyntheticWorld.generate(terrain, 1337);
+        context = world.context();
+        favoring = new Favoring(null, context);
+        goal = new GoalBlock(world.end);
+    }
+
+    @Benchmark
+    public Optional<IPath> aStar() {
+        return new AStarPathFinder(world.start.x, world.start.y, world.start.z, goal, favoring, context).calculate0(TIMEOUT, TIMEOUT);
+    }
+
+    @Benchmark
+    public Optional<IPath> pooledAStar() {
+        return new PooledAStarPathFinder(world.start.x, world.start.y, world.start.z, goal, favoring, context).calculate0(TIMEOUT, TIMEOUT);
+    }
+
+    @Benchmark
+    public Optional<IPath> parallelAStar() {
+        return new ParallelAStarPathFinder(world.start.x, world.start.y, world.start.z, goal, favoring, context, Runtime.getRuntime().availableProcessors()).calculate0(TIMEOUT, TIMEOUT);
+    }
+
+    @Benchmark
+    public Optional<IPath> bidirectionalAStar() {
+        return new BidirectionalAStarPathFinder(world.start.x, world.start.y, world.start.z, goal, favoring, context).calculate0(TIMEOUT, TIMEOUT);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.pathing.calc.NodePool;
+import baritone.pathing.calc.PathNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The access pattern of a search, without the search: insert every node, decrease the key of half of them, then remove
+ * them all in order
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenSetBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private PathNode[] nodes;
+    private double[] costs;
+    private double[] decreasedCosts;
+
+    private NodePool pool;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1337);
+        Goal goal = new GoalBlock(0, 0, 0);
+        nodes = new PathNode[size];
+        costs = new double[size];
+        decreasedCosts = new double[size];
+        pool = new NodePool(goal, size, 0.75f);
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new PathNode(i, 0, 0, goal);
+            pool.getOrCreate(i, 0, 0, i);
+            costs[i] = random.nextDouble();
+            decreasedCosts[i] = costs[i] * random.nextDouble();
+        }
+    }
+
+    private void run(IOpenSet set, Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            nodes[i].combinedCost = costs[i];
+            set.insert(nodes[i]);
+        }
+        for (int i = 0; i < size; i += 2) {
+            nodes[i].combinedCost = decreasedCosts[i];
+            set.update(nodes[i]);
+        }
+        while (!set.isEmpty()) {
+            blackhole.consume(set.removeLowest());
+        }
+    }
+
+    @Benchmark
+    public void binaryHeap(Blackhole blackhole) {
+        run(new BinaryHeapOpenSet(), blackhole);
+    }
+
+    @Benchmark
+    public void linkedList(Blackhole blackhole) {
+        run(new LinkedListOpenSet(), blackhole);
+    }
+
+    @Benchmark
+    public void pooledBinaryHeap(Blackhole blackhole) {
+        PooledBinaryHeapOpenSet set = new PooledBinaryHeapOpenSet(pool);
+        for (int i = 0; i < size; i++) {
+            pool.setCombinedCost(i, costs[i]);
+            set.insert(i);
+        }
+        for (int i = 0; i < size; i += 2) {
+            pool.setCombinedCost(i, decreasedCosts[i]);
+            set.update(i);
+        }
+        while (!set.isEmpty()) {
+            blackhole.consume(set.removeLowest());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.benchmark.SyntheticWorld;
+import baritone.utils.BlockStateInterface;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The block checks that almost every move is made of, over every kind of block the terrain has
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementHelperBenchmark {
+
+    private static final int POSITIONS = 4096;
+
+    @Param({"FLAT", "CAVES", "OCEAN", "NETHER", "MAZE"})
+    public SyntheticWorld.Terrain terrain;
+
+    private BlockStateInterface bsi;
+    private CalculationContext context;
+    private int[] x;
+    private int[] y;
+    private int[] z;
+
+    @Setup
+    public void setup() {
+        SyntheticWorld world = SyntheticWorld.generate(terrain, 1337);
+        bsi = world.bsi();
+        context = world.context();
+        // mostly near the surface, where a search spends its time
+        Random random = new Random(1337);
+        x = new int[POSITIONS];
+        y = new int[POSITIONS];
+        z = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            x[i] = random.nextInt(SyntheticWorld.SIZE);
+            y[i] = 20 + random.nextInt(60);
+            z[i] = random.nextInt(SyntheticWorld.SIZE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int canWalkThrough() {
+        int count = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            if (MovementHelper.canWalkThrough(bsi, x[i], y[i], z[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int canWalkOn() {
+        int count = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            if (MovementHelper.canWalkOn(bsi, x[i], y[i], z[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int canWalkThroughPrecomputed() {
+        int count = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            if (MovementHelper.canWalkThrough(context, x[i], y[i], z[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int canWalkOnPrecomputed() {
+        int count = 0;
+        for (int i = 0; i < POSITIONS; i++) {
+            if (MovementHelper.canWalkOn(context, x[i], y[i], z[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
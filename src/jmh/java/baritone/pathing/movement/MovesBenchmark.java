@@ -0,0 +1,78 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.api.utils.BetterBlockPos;
+import baritone.benchmark.SyntheticWorld;
+import baritone.utils.pathing.MutableMoveResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost calculation of each move on its own, from positions where the player could actually be standing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovesBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"FLAT", "CAVES", "OCEAN", "NETHER", "MAZE"})
+    public SyntheticWorld.Terrain terrain;
+
+    @Param
+    public Moves moves;
+
+    private CalculationContext context;
+    private int[] x;
+    private int[] y;
+    private int[] z;
+    private final MutableMoveResult result = new MutableMoveResult();
+
+    @Setup
+    public void setup() {
+        SyntheticWorld world = SyntheticWorld.generate(terrain, 1337);
+        context = world.context();
+        List<BetterBlockPos> positions = world.standablePositions(POSITIONS, 1337);
+        x = new int[POSITIONS];
+        y = new int[POSITIONS];
+        z = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            x[i] = positions.get(i).x;
+            y[i] = positions.get(i).y;
+            z[i] = positions.get(i).z;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void apply(Blackhole blackhole) {
+        for (int i = 0; i < POSITIONS; i++) {
+            result.reset();
+            moves.apply(context, x[i], y[i], z[i], result);
+            blackhole.consume(result.cost);
+        }
+    }
+}
@@ -35,6 +35,9 @@ public abstract class MixinBlockStateContainer implements IBlockStateContainer {
     @Shadow
     protected IBlockStatePalette palette;
 
+    @Shadow
+    private int bits;
+
     @Override
     public IBlockState getAtPalette(int index) {
         return palette.getBlockState(index);
@@ -44,4 +47,10 @@ public abstract class MixinBlockStateContainer implements IBlockStateContainer {
     public int[] storageArray() {
         return ((IBitArray) storage).toArray();
     }
+
+    @Override
+    public int paletteSize() {
+        // more than 8 bits is BlockStateContainer.REGISTRY_BASED_PALETTE
+        return bits <= 8 ? 1 << bits : -1;
+    }
 }
@@ -32,6 +32,8 @@ import baritone.selection.SelectionManager;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.GuiClick;
 import baritone.utils.InputOverrideHandler;
+import baritone.utils.LaneExecutor;
+import baritone.utils.LaneExecutor.Lane;
 import baritone.utils.PathingControlManager;
 import baritone.utils.player.PrimaryPlayerContext;
 import net.minecraft.client.Minecraft;
@@ -39,10 +41,8 @@ import net.minecraft.client.Minecraft;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.concurrent.Executor;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * @author Brady
@@ -50,17 +50,22 @@ import java.util.concurrent.TimeUnit;
  */
 public class Baritone implements IBaritone {
 
-    private static ThreadPoolExecutor threadPool;
+    private static final Map<Lane, LaneExecutor> executors = new EnumMap<>(Lane.class);
     private static File dir;
 
     static {
-        threadPool = new ThreadPoolExecutor(4, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>());
+        for (Lane lane : Lane.values()) {
+            executors.put(lane, new LaneExecutor(lane));
+        }
 
-        dir = new File(Minecraft.getMinecraft().gameDir, "baritone");
-        if (!Files.exists(dir.toPath())) {
-            try {
-                Files.createDirectories(dir.toPath());
-            } catch (IOException ignored) {}
+        // there's no game directory without a client, e.g. in the benchmarks, which never touch the disk anyway
+        if (Minecraft.getMinecraft() != null) {
+            dir = new File(Minecraft.getMinecraft().gameDir, "baritone");
+            if (!Files.exists(dir.toPath())) {
+                try {
+                    Files.createDirectories(dir.toPath());
+                } catch (IOException ignored) {}
+            }
         }
     }
 
@@ -103,6 +108,7 @@ public class Baritone implements IBaritone {
             inventoryBehavior = new InventoryBehavior(this);
             inputOverrideHandler = new InputOverrideHandler(this);
             waypointBehavior = new WaypointBehavior(this);
+            new RegionPrefetchBehavior(this);
         }
 
         this.pathingControlManager = new PathingControlManager(this);
@@ -226,7 +232,11 @@ public class Baritone implements IBaritone {
         return dir;
     }
 
-    public static Executor getExecutor() {
-        return threadPool;
+    /**
+     * @param lane What kind of work is going to be submitted
+     * @return The executor for that kind of work
+     */
+    public static LaneExecutor getExecutor(Lane lane) {
+        return executors.get(lane);
     }
 }
@@ -20,7 +20,9 @@ package baritone.behavior;
 import baritone.Baritone;
 import baritone.api.behavior.IPathingBehavior;
 import baritone.api.event.events.*;
+import baritone.api.event.events.type.EventState;
 import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.calc.TargetCosts;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.goals.GoalXZ;
 import baritone.api.process.PathingCommand;
@@ -30,19 +32,39 @@ import baritone.api.utils.PathCalculationResult;
 import baritone.api.utils.interfaces.IGoalRenderPos;
 import baritone.pathing.calc.AStarPathFinder;
 import baritone.pathing.calc.AbstractNodeCostSearch;
+import baritone.pathing.calc.BidirectionalAStarPathFinder;
+import baritone.pathing.calc.ChunkRoutePlanner;
+import baritone.pathing.calc.IncrementalAStarPathFinder;
+import baritone.pathing.calc.MovementCostCache;
+import baritone.pathing.calc.MultiTargetSearch;
+import baritone.pathing.calc.ParallelAStarPathFinder;
+import baritone.pathing.calc.PooledAStarPathFinder;
+import baritone.pathing.calc.SearchGraph;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.path.PathExecutor;
+import baritone.utils.LaneExecutor.Lane;
 import baritone.utils.PathRenderer;
 import baritone.utils.PathingCommandContext;
+import baritone.utils.pathing.Avoidance;
+import baritone.utils.pathing.AvoidanceField;
 import baritone.utils.pathing.Favoring;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.SPacketBlockChange;
+import net.minecraft.network.play.server.SPacketMultiBlockChange;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 
 public final class PathingBehavior extends Behavior implements IPathingBehavior, Helper {
 
@@ -66,13 +88,36 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
     private volatile AbstractNodeCostSearch inProgress;
     private final Object pathCalcLock = new Object();
 
+    /**
+     * The goal that {@link #routeCorridor} is for, or is being planned for
+     */
+    private volatile Goal routeGoal;
+    private volatile LongSet routeCorridor;
+
     private final Object pathPlanLock = new Object();
 
+    /**
+     * Only with incrementalReplanning, the search graph towards the current goal
+     */
+    private volatile SearchGraph searchGraph;
+
+    /**
+     * Only with movementCostCache, the costs calculated by previous path segments
+     */
+    private final MovementCostCache costCache = new MovementCostCache();
+
+    /**
+     * The mobs and spawners to avoid as of the last path calculation, so the next one only has to redo the ones that
+     * moved. Only touched on the main thread.
+     */
+    private AvoidanceField avoidanceField = AvoidanceField.EMPTY;
+
     private boolean lastAutoJump;
 
     private BetterBlockPos expectedSegmentStart;
 
     private final LinkedBlockingQueue<PathEvent> toDispatch = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<PathSearchEvent> searchesToDispatch = new LinkedBlockingQueue<>();
 
     public PathingBehavior(Baritone baritone) {
         super(baritone);
@@ -89,6 +134,11 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         for (PathEvent event : curr) {
             baritone.getGameEventHandler().onPathEvent(event);
         }
+        ArrayList<PathSearchEvent> searches = new ArrayList<>();
+        searchesToDispatch.drainTo(searches);
+        for (PathSearchEvent event : searches) {
+            baritone.getGameEventHandler().onPathSearch(event);
+        }
     }
 
     @Override
@@ -233,6 +283,53 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         }
     }
 
+    @Override
+    public void onReceivePacket(PacketEvent event) {
+        if (event.getState() != EventState.POST) {
+            return;
+        }
+        SearchGraph graph = searchGraph;
+        Packet<?> packet = event.getPacket();
+        if (packet instanceof SPacketBlockChange) {
+            BlockPos pos = ((SPacketBlockChange) packet).getBlockPosition();
+            // this is the netty thread, and the change itself is queued up on the main thread, so go after it
+            mc.addScheduledTask(() -> blockChanged(graph, pos));
+        } else if (packet instanceof SPacketMultiBlockChange) {
+            SPacketMultiBlockChange.BlockUpdateData[] updates = ((SPacketMultiBlockChange) packet).getChangedBlocks();
+            mc.addScheduledTask(() -> {
+                for (SPacketMultiBlockChange.BlockUpdateData update : updates) {
+                    blockChanged(graph, update.getPos());
+                }
+            });
+        }
+    }
+
+    private void blockChanged(SearchGraph graph, BlockPos pos) {
+        if (graph != null) {
+            graph.blockChanged(pos.getX(), pos.getY(), pos.getZ());
+        }
+        costCache.blockChanged(ctx.world(), pos.getX(), pos.getZ());
+    }
+
+    @Override
+    public void onChunkEvent(ChunkEvent event) {
+        switch (event.getType()) {
+            case POPULATE_FULL:
+            case POPULATE_PARTIAL:
+                if (event.getState() == EventState.POST) {
+                    costCache.chunkLoaded(ctx.world(), event.getX(), event.getZ());
+                }
+                break;
+            case UNLOAD:
+                if (event.getState() == EventState.PRE) {
+                    costCache.chunkUnloaded(ctx.world(), event.getX(), event.getZ());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     @Override
     public void onPlayerUpdate(PlayerUpdateEvent event) {
         if (current != null) {
@@ -373,6 +470,30 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         }
     }
 
+    @Override
+    public CompletableFuture<TargetCosts> calculateCostsTo(List<Goal> targets) {
+        // the context and the start have to be read on the main thread, the search itself doesn't
+        CalculationContext context = new CalculationContext(baritone, true);
+        BetterBlockPos start = pathStart();
+        MultiTargetSearch search = new MultiTargetSearch(start.x, start.y, start.z, new ArrayList<>(targets), context);
+        long timeout = Baritone.settings().failureTimeoutMS.value;
+        int maxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value;
+        try {
+            CompletableFuture<TargetCosts> result = CompletableFuture.supplyAsync(() -> search.calculate(timeout, maxChunkBorderFetch), Baritone.getExecutor(Lane.PLANNING));
+            // cancelling a CompletableFuture never reaches the task that completes it, so pass it on
+            result.whenComplete((costs, ex) -> {
+                if (ex instanceof CancellationException) {
+                    search.cancel();
+                }
+            });
+            return result;
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<TargetCosts> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
     public CalculationContext secretInternalGetCalculationContext() {
         return context;
     }
@@ -489,67 +610,123 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             primaryTimeout = Baritone.settings().planAheadPrimaryTimeoutMS.value;
             failureTimeout = Baritone.settings().planAheadFailureTimeoutMS.value;
         }
-        AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context);
+        AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), chunkRoute(start, goal, context), context);
         if (!Objects.equals(pathfinder.getGoal(), goal)) { // will return the exact same object if simplification didn't happen
             logDebug("Simplifying " + goal.getClass() + " to GoalXZ due to distance");
         }
         inProgress = pathfinder;
-        Baritone.getExecutor().execute(() -> {
-            if (talkAboutIt) {
-                logDebug("Starting to search for path from " + start + " to " + goal);
-            }
+        try {
+            Baritone.getExecutor(Lane.PATHING).execute(() -> {
+                if (talkAboutIt) {
+                    logDebug("Starting to search for path from " + start + " to " + goal);
+                }
 
-            PathCalculationResult calcResult = pathfinder.calculate(primaryTimeout, failureTimeout);
-            synchronized (pathPlanLock) {
-                Optional<PathExecutor> executor = calcResult.getPath().map(p -> new PathExecutor(PathingBehavior.this, p));
-                if (current == null) {
-                    if (executor.isPresent()) {
-                        if (executor.get().getPath().positions().contains(expectedSegmentStart)) {
-                            queuePathEvent(PathEvent.CALC_FINISHED_NOW_EXECUTING);
-                            current = executor.get();
-                            resetEstimatedTicksToGoal(start);
+                PathCalculationResult calcResult = pathfinder.calculate(primaryTimeout, failureTimeout);
+                searchesToDispatch.add(new PathSearchEvent(BetterBlockPos.from(start), goal, calcResult));
+                synchronized (pathPlanLock) {
+                    Optional<PathExecutor> executor = calcResult.getPath().map(p -> new PathExecutor(PathingBehavior.this, p));
+                    if (current == null) {
+                        if (executor.isPresent()) {
+                            if (executor.get().getPath().positions().contains(expectedSegmentStart)) {
+                                queuePathEvent(PathEvent.CALC_FINISHED_NOW_EXECUTING);
+                                current = executor.get();
+                                resetEstimatedTicksToGoal(start);
+                            } else {
+                                logDebug("Warning: discarding orphan path segment with incorrect start");
+                            }
                         } else {
-                            logDebug("Warning: discarding orphan path segment with incorrect start");
+                            if (calcResult.getType() != PathCalculationResult.Type.CANCELLATION && calcResult.getType() != PathCalculationResult.Type.EXCEPTION) {
+                                // don't dispatch CALC_FAILED on cancellation
+                                queuePathEvent(PathEvent.CALC_FAILED);
+                            }
                         }
                     } else {
-                        if (calcResult.getType() != PathCalculationResult.Type.CANCELLATION && calcResult.getType() != PathCalculationResult.Type.EXCEPTION) {
-                            // don't dispatch CALC_FAILED on cancellation
-                            queuePathEvent(PathEvent.CALC_FAILED);
-                        }
-                    }
-                } else {
-                    if (next == null) {
-                        if (executor.isPresent()) {
-                            if (executor.get().getPath().getSrc().equals(current.getPath().getDest())) {
-                                queuePathEvent(PathEvent.NEXT_SEGMENT_CALC_FINISHED);
-                                next = executor.get();
+                        if (next == null) {
+                            if (executor.isPresent()) {
+                                if (executor.get().getPath().getSrc().equals(current.getPath().getDest())) {
+                                    queuePathEvent(PathEvent.NEXT_SEGMENT_CALC_FINISHED);
+                                    next = executor.get();
+                                } else {
+                                    logDebug("Warning: discarding orphan next segment with incorrect start");
+                                }
                             } else {
-                                logDebug("Warning: discarding orphan next segment with incorrect start");
+                                queuePathEvent(PathEvent.NEXT_CALC_FAILED);
                             }
                         } else {
-                            queuePathEvent(PathEvent.NEXT_CALC_FAILED);
+                            //throw new IllegalStateException("I have no idea what to do with this path");
+                            // no point in throwing an exception here, and it gets it stuck with inProgress being not null
+                            logDirect("Warning: PathingBehaivor illegal state! Discarding invalid path!");
                         }
-                    } else {
-                        //throw new IllegalStateException("I have no idea what to do with this path");
-                        // no point in throwing an exception here, and it gets it stuck with inProgress being not null
-                        logDirect("Warning: PathingBehaivor illegal state! Discarding invalid path!");
                     }
-                }
-                if (talkAboutIt && current != null && current.getPath() != null) {
-                    if (goal.isInGoal(current.getPath().getDest())) {
-                        logDebug("Finished finding a path from " + start + " to " + goal + ". " + current.getPath().getNumNodesConsidered() + " nodes considered");
-                    } else {
-                        logDebug("Found path segment from " + start + " towards " + goal + ". " + current.getPath().getNumNodesConsidered() + " nodes considered");
+                    if (talkAboutIt && current != null && current.getPath() != null) {
+                        if (goal.isInGoal(current.getPath().getDest())) {
+                            logDebug("Finished finding a path from " + start + " to " + goal + ". " + current.getPath().getNumNodesConsidered() + " nodes considered");
+                        } else {
+                            logDebug("Found path segment from " + start + " towards " + goal + ". " + current.getPath().getNumNodesConsidered() + " nodes considered");
+                        }
+                    }
+                    synchronized (pathCalcLock) {
+                        inProgress = null;
                     }
                 }
-                synchronized (pathCalcLock) {
-                    inProgress = null;
-                }
+            });
+        } catch (RejectedExecutionException e) {
+            // only happens if dozens of calculations are somehow queued up, don't leave inProgress stuck forever
+            logDebug("Unable to start path calculation: " + e.getMessage());
+            inProgress = null;
+            queuePathEvent(current == null ? PathEvent.CALC_FAILED : PathEvent.NEXT_CALC_FAILED);
+        }
+    }
+
+    /**
+     * The corridor of chunks to keep this path segment close to, see {@link ChunkRoutePlanner}. The route is planned
+     * in the background the first time a goal far enough away comes up, so the first segment or two go without.
+     *
+     * @return The corridor, or null if there isn't one (yet)
+     */
+    private LongSet chunkRoute(BlockPos start, Goal goal, CalculationContext context) {
+        if (!Baritone.settings().chunkRoutePlanning.value || context.worldData == null) {
+            return null;
+        }
+        BlockPos target = ChunkRoutePlanner.target(goal);
+        if (target == null) {
+            return null;
+        }
+        int minDistance = Baritone.settings().chunkRouteMinDistance.value;
+        double distX = target.getX() - start.getX();
+        double distZ = target.getZ() - start.getZ();
+        if (distX * distX + distZ * distZ < (double) minDistance * minDistance) {
+            return null;
+        }
+        LongSet corridor = routeCorridor;
+        if (routeGoal == goal) {
+            if (corridor == null || corridor.contains(ChunkPos.asLong(start.getX() >> 4, start.getZ() >> 4))) {
+                return corridor; // still planning (or there's no route), or on track
             }
-        });
+            logDebug("Left the planned chunk route, planning it again");
+        }
+        routeGoal = goal;
+        routeCorridor = null;
+        try {
+            Baritone.getExecutor(Lane.PLANNING).execute(() -> {
+                long startTime = System.currentTimeMillis();
+                LongSet planned = ChunkRoutePlanner.plan(context.worldData.cache, start, target.getX(), target.getZ());
+                if (routeGoal == goal) {
+                    routeCorridor = planned;
+                }
+                if (planned == null) {
+                    logDebug("No chunk route found towards " + goal);
+                } else {
+                    logDebug("Planned a chunk route " + planned.size() + " chunks wide in " + (System.currentTimeMillis() - startTime) + "ms");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            routeGoal = null; // try again next segment
+        }
+        return null;
     }
 
-    private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context) {
+    private AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, LongSet corridor, CalculationContext context) {
         Goal transformed = goal;
         if (Baritone.settings().simplifyUnloadedYCoord.value && goal instanceof IGoalRenderPos) {
             BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
@@ -557,8 +734,30 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                 transformed = new GoalXZ(pos.getX(), pos.getZ());
             }
         }
-        Favoring favoring = new Favoring(context.getBaritone().getPlayerContext(), previous, context);
-        return new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
+        avoidanceField = avoidanceField.update(Avoidance.create(ctx));
+        Favoring favoring = new Favoring(previous, corridor, avoidanceField, context);
+        // a context that can't be copied (e.g. the builder's) can only be searched on one thread
+        int threads = context.canCopyForParallelSearch() ? Baritone.settings().pathingThreads.value : 1;
+        if (Baritone.settings().incrementalReplanning.value && threads <= 1 && transformed == goal) {
+            SearchGraph graph = searchGraph;
+            Object fingerprint = context.costFingerprint();
+            if (graph == null || !graph.canContinue(goal, context.world, fingerprint)) {
+                graph = new SearchGraph(goal, context.world, fingerprint);
+                searchGraph = graph;
+            }
+            return new IncrementalAStarPathFinder(start.getX(), start.getY(), start.getZ(), graph, favoring, context);
+        }
+        searchGraph = null;
+        if (threads > 1) {
+            return new ParallelAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context, threads);
+        }
+        if (Baritone.settings().bidirectionalSearch.value && BidirectionalAStarPathFinder.supports(transformed, context)) {
+            return new BidirectionalAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
+        }
+        if (Baritone.settings().pathingNodePool.value) {
+            return new PooledAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
+        }
+        return new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context, Baritone.settings().movementCostCache.value ? costCache : null);
     }
 
     @Override
@@ -0,0 +1,121 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.behavior;
+
+import baritone.Baritone;
+import baritone.api.event.events.TickEvent;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import baritone.cache.CachedWorld;
+import baritone.cache.WorldData;
+import baritone.pathing.path.PathExecutor;
+
+import java.util.List;
+
+/**
+ * Loads cached regions in the background ahead of the player, see {@link CachedWorld#prefetchRegion}
+ */
+public final class RegionPrefetchBehavior extends Behavior {
+
+    /**
+     * Regions are big, no need to look more than once a second
+     */
+    private static final int TICK_INTERVAL = 20;
+
+    /**
+     * How many regions past the end of the path to follow the goal heuristic
+     */
+    private static final int REGIONS_AHEAD = 2;
+
+    /**
+     * Every region within this many blocks of a position is loaded, which is the 2x2 block of regions closest to it
+     */
+    private static final int MARGIN = 256;
+
+    private int ticks;
+
+    public RegionPrefetchBehavior(Baritone baritone) {
+        super(baritone);
+    }
+
+    @Override
+    public void onTick(TickEvent event) {
+        if (event.getType() == TickEvent.Type.OUT || ticks++ % TICK_INTERVAL != 0) {
+            return;
+        }
+        if (!Baritone.settings().prefetchRegions.value || !Baritone.settings().chunkCaching.value || ctx.player() == null) {
+            return;
+        }
+        WorldData worldData = (WorldData) baritone.getWorldProvider().getCurrentWorld();
+        if (worldData == null) {
+            return;
+        }
+        CachedWorld cache = worldData.cache;
+        PathingBehavior pathing = baritone.getPathingBehavior();
+        BetterBlockPos end = ctx.playerFeet();
+        prefetchAround(cache, end.x, end.z);
+        for (PathExecutor executor : new PathExecutor[]{pathing.getCurrent(), pathing.getNext()}) {
+            if (executor == null) {
+                continue;
+            }
+            List<BetterBlockPos> positions = executor.getPath().positions();
+            for (int i = 0; i < positions.size(); i += 64) {
+                BetterBlockPos pos = positions.get(i);
+                cache.prefetchRegion(pos.x >> 9, pos.z >> 9);
+            }
+            end = positions.get(positions.size() - 1);
+            prefetchAround(cache, end.x, end.z);
+        }
+        Goal goal = pathing.getGoal();
+        if (goal == null) {
+            return;
+        }
+        // whichever way the goal is from the end of the path, which is where the next segment will start from
+        int x = end.x;
+        int z = end.z;
+        double heuristic = goal.heuristic(x, end.y, z);
+        for (int step = 0; step < REGIONS_AHEAD; step++) {
+            int bestX = x;
+            int bestZ = z;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    double h = goal.heuristic(x + dx * 512, end.y, z + dz * 512);
+                    if (h < heuristic) {
+                        heuristic = h;
+                        bestX = x + dx * 512;
+                        bestZ = z + dz * 512;
+                    }
+                }
+            }
+            if (bestX == x && bestZ == z) {
+                return; // already about as close as it gets
+            }
+            x = bestX;
+            z = bestZ;
+            prefetchAround(cache, x, z);
+        }
+    }
+
+    private static void prefetchAround(CachedWorld cache, int x, int z) {
+        for (int dx = -MARGIN; dx <= MARGIN; dx += MARGIN) {
+            for (int dz = -MARGIN; dz <= MARGIN; dz += MARGIN) {
+                cache.prefetchRegion((x + dx) >> 9, (z + dz) >> 9);
+            }
+        }
+    }
+}
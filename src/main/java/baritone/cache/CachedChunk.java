@@ -20,16 +20,19 @@ package baritone.cache;
 import baritone.api.utils.BlockUtils;
 import baritone.utils.pathing.PathingBlockType;
 import com.google.common.collect.ImmutableSet;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.math.BlockPos;
 
-import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.List;
-import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntFunction;
 
 /**
  * @author Brady
@@ -104,6 +107,18 @@ public final class CachedChunk {
      */
     public static final int SIZE_IN_BYTES = SIZE / 8;
 
+    /**
+     * Block ids in 1.12 are 12 bits, see {@link Block#getIdFromBlock}
+     */
+    static final int BLOCK_ID_BITS = 12;
+
+    private static final int BLOCK_ID_MASK = (1 << BLOCK_ID_BITS) - 1;
+
+    /**
+     * 4 bits of x, 4 bits of z and 8 bits of y
+     */
+    static final int POSITION_BITS = 16;
+
     /**
      * The chunk x coordinate
      */
@@ -117,51 +132,111 @@ public final class CachedChunk {
     /**
      * The actual raw data of this packed chunk.
      * <p>
-     * Each block is expressed as 2 bits giving a total of 16 KiB
+     * Each block is expressed as 2 bits giving a total of 16 KiB. Laid out the same as {@link BitSet#toByteArray()}, so
+     * that it can either be a freshly packed chunk or a slot straight out of a mapped region file.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * The overview and special block section of a region file, not read until it's actually needed. Null once it has
+     * been read, or if this chunk was never saved.
      */
-    private final BitSet data;
+    private ByteBuffer serialized;
 
-    private final Int2ObjectOpenHashMap<String> special;
+    private volatile boolean decoded;
+
+    /**
+     * Every special block, sorted by position, see {@link #packSpecial}. Replaced rather than changed, since other
+     * threads can be reading it.
+     */
+    private volatile int[] special;
 
     /**
      * The block names of each surface level block for generating an overview
      */
-    private final IBlockState[] overview;
+    private IBlockState[] overview;
 
     private final int[] heightMap;
 
-    private final Map<String, List<BlockPos>> specialBlockLocations;
+    /**
+     * Worked out when the chunk is packed, or the first time it's asked for if it came from a region file. Dropped
+     * whenever blocks change, see {@link ChunkPacker#update}.
+     */
+    private volatile ChunkConnectivity connectivity;
+
+    /**
+     * Goes up every time the connectivity is dropped, so that one worked out from the old blocks isn't kept
+     */
+    private volatile int blockChanges;
 
     public final long cacheTimestamp;
 
-    CachedChunk(int x, int z, BitSet data, IBlockState[] overview, Map<String, List<BlockPos>> specialBlockLocations, long cacheTimestamp) {
+    /**
+     * @param special The special blocks, sorted by position, see {@link #packSpecial}
+     */
+    CachedChunk(int x, int z, BitSet data, IBlockState[] overview, int[] special, long cacheTimestamp) {
         validateSize(data);
 
         this.x = x;
         this.z = z;
-        this.data = data;
+        this.data = ByteBuffer.wrap(Arrays.copyOf(data.toByteArray(), SIZE_IN_BYTES));
         this.overview = overview;
         this.heightMap = new int[256];
-        this.specialBlockLocations = specialBlockLocations;
+        this.special = special;
         this.cacheTimestamp = cacheTimestamp;
-        if (specialBlockLocations.isEmpty()) {
-            this.special = null;
-        } else {
-            this.special = new Int2ObjectOpenHashMap<>();
-            setSpecial();
-        }
         calculateHeightMap();
+        this.decoded = true;
     }
 
-    private final void setSpecial() {
-        for (Map.Entry<String, List<BlockPos>> entry : specialBlockLocations.entrySet()) {
-            for (BlockPos pos : entry.getValue()) {
-                special.put(getPositionIndex(pos.getX(), pos.getY(), pos.getZ()), entry.getKey());
+    /**
+     * A chunk from a region file, see {@link CachedRegion}
+     *
+     * @param data       The {@link #SIZE_IN_BYTES} slot of packed data
+     * @param serialized The overview and special blocks, as written by {@link #writeSerialized}
+     */
+    CachedChunk(int x, int z, ByteBuffer data, ByteBuffer serialized, long cacheTimestamp) {
+        if (data.remaining() != SIZE_IN_BYTES) {
+            throw new IllegalArgumentException("Chunk data of invalid length provided");
+        }
+        this.x = x;
+        this.z = z;
+        this.data = data;
+        this.serialized = serialized;
+        this.heightMap = new int[256];
+        this.cacheTimestamp = cacheTimestamp;
+    }
+
+    /**
+     * Reads the overview and special blocks the first time anything needs them. Pathing only ever touches a handful
+     * of the chunks in a region, so most of them never get this far.
+     */
+    private void decode() {
+        if (decoded) {
+            return;
+        }
+        synchronized (this) {
+            if (decoded) {
+                return;
             }
+            try {
+                byte[] bytes = new byte[serialized.remaining()];
+                serialized.duplicate().get(bytes);
+                readSerialized(new DataInputStream(new ByteArrayInputStream(bytes)));
+            } catch (IOException | RuntimeException ex) {
+                // the header of the region file was fine, so this is just this chunk being corrupted
+                ex.printStackTrace();
+                overview = new IBlockState[256];
+                Arrays.fill(overview, Blocks.AIR.getDefaultState());
+                special = new int[0];
+            }
+            serialized = null;
+            calculateHeightMap();
+            decoded = true;
         }
     }
 
     public final IBlockState getBlock(int x, int y, int z, int dimension) {
+        decode();
         int index = getPositionIndex(x, y, z);
         PathingBlockType type = getType(index);
         int internalPos = z << 4 | x;
@@ -175,10 +250,11 @@ public final class CachedChunk {
             }*/
             return overview[internalPos];
         }
-        if (special != null) {
-            String str = special.get(index);
-            if (str != null) {
-                return BlockUtils.stringToBlockRequired(str).getDefaultState();
+        int[] special = this.special;
+        if (special.length > 0) {
+            int i = findSpecial(special, x, y, z);
+            if (i >= 0) {
+                return Block.getBlockById(special[i] & BLOCK_ID_MASK).getDefaultState();
             }
         }
 
@@ -198,49 +274,365 @@ public final class CachedChunk {
     }
 
     private PathingBlockType getType(int index) {
-        return PathingBlockType.fromBits(data.get(index), data.get(index + 1));
+        return getType(data, index);
+    }
+
+    /**
+     * @param data  The packed data, in the same layout as {@link BitSet#toByteArray()}
+     * @param index The bit index, from {@link #getPositionIndex}
+     * @return The type at that index
+     */
+    static PathingBlockType getType(ByteBuffer data, int index) {
+        // the index is always even, so both bits are in the same byte
+        int bits = data.get(index >> 3) >> (index & 7);
+        return PathingBlockType.fromBits((bits & 1) != 0, (bits & 2) != 0);
     }
 
     private void calculateHeightMap() {
         for (int z = 0; z < 16; z++) {
             for (int x = 0; x < 16; x++) {
-                int index = z << 4 | x;
-                heightMap[index] = 0;
-                for (int y = 256; y >= 0; y--) {
-                    int i = getPositionIndex(x, y, z);
-                    if (data.get(i) || data.get(i + 1)) {
-                        heightMap[index] = y;
-                        break;
-                    }
-                }
+                calculateHeight(x, z);
+            }
+        }
+    }
+
+    private int calculateHeight(int x, int z) {
+        int index = z << 4 | x;
+        heightMap[index] = 0;
+        for (int y = 255; y >= 0; y--) {
+            if (getType(getPositionIndex(x, y, z)) != PathingBlockType.AIR) {
+                heightMap[index] = y;
+                break;
             }
         }
+        return heightMap[index];
+    }
+
+    /**
+     * Changes the type of one block in place, see {@link ChunkPacker#update}. The chunk can't be in a mapped region
+     * file.
+     *
+     * @param x    The x position, relative to the chunk
+     * @param y    The y position
+     * @param z    The z position, relative to the chunk
+     * @param type The new type
+     */
+    final void setType(int x, int y, int z, PathingBlockType type) {
+        int index = getPositionIndex(x, y, z);
+        boolean[] bits = type.getBits();
+        int shift = index & 7;
+        int b = data.get(index >> 3) & ~(3 << shift);
+        if (bits[0]) {
+            b |= 1 << shift;
+        }
+        if (bits[1]) {
+            b |= 2 << shift;
+        }
+        data.put(index >> 3, (byte) b);
+    }
+
+    final PathingBlockType getType(int x, int y, int z) {
+        return getType(getPositionIndex(x, y, z));
+    }
+
+    /**
+     * @return Which places to stand in this chunk are connected, see {@link ChunkConnectivity}
+     */
+    final ChunkConnectivity getConnectivity() {
+        ChunkConnectivity result = connectivity;
+        if (result == null) {
+            int changes = blockChanges;
+            result = new ChunkConnectivity(this);
+            if (changes == blockChanges) {
+                connectivity = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the connectivity after blocks changed, it's worked out again the next time it's needed
+     */
+    final void invalidateConnectivity() {
+        blockChanges++; // only ever changed from the main thread
+        connectivity = null;
+    }
+
+    /**
+     * Takes over the connectivity of the same chunk, as it was before its region was saved and read back
+     */
+    final void keepConnectivity(CachedChunk previous) {
+        if (previous != null) {
+            connectivity = previous.connectivity;
+        }
+    }
+
+    /**
+     * Recalculates the height of one column after its types have changed, and sets its overview block
+     *
+     * @param x       The x position, relative to the chunk
+     * @param z       The z position, relative to the chunk
+     * @param surface The block at each y position in that column, for the new overview
+     */
+    final void updateColumn(int x, int z, IntFunction<IBlockState> surface) {
+        decode();
+        int y = calculateHeight(x, z);
+        overview[z << 4 | x] = getType(x, y, z) == PathingBlockType.AIR ? Blocks.AIR.getDefaultState() : surface.apply(y);
+    }
+
+    /**
+     * Changes whether a special block is tracked at a position
+     *
+     * @param x     The x position, relative to the chunk
+     * @param y     The y position
+     * @param z     The z position, relative to the chunk
+     * @param block The special block now there, or null if it isn't one
+     */
+    final void updateSpecial(int x, int y, int z, Block block) {
+        decode();
+        synchronized (this) {
+            int[] special = this.special;
+            int i = findSpecial(special, x, y, z);
+            if (i < 0 && block == null || i >= 0 && block != null && (special[i] & BLOCK_ID_MASK) == Block.getIdFromBlock(block)) {
+                return;
+            }
+            int[] updated;
+            if (block == null) {
+                updated = new int[special.length - 1];
+                System.arraycopy(special, 0, updated, 0, i);
+                System.arraycopy(special, i + 1, updated, i, updated.length - i);
+            } else if (i >= 0) {
+                updated = special.clone();
+                updated[i] = packSpecial(x, y, z, block);
+            } else {
+                i = -i - 1;
+                updated = new int[special.length + 1];
+                System.arraycopy(special, 0, updated, 0, i);
+                updated[i] = packSpecial(x, y, z, block);
+                System.arraycopy(special, i, updated, i + 1, special.length - i);
+            }
+            this.special = updated;
+        }
     }
 
     public final IBlockState[] getOverview() {
+        decode();
         return overview;
     }
 
+    /**
+     * @return The special blocks by name, relative to the chunk. Made on every call, nothing keeps it around.
+     */
     public final Map<String, List<BlockPos>> getRelativeBlocks() {
-        return specialBlockLocations;
+        decode();
+        Map<String, List<BlockPos>> res = new HashMap<>();
+        for (int entry : special) {
+            String name = BlockUtils.blockToString(Block.getBlockById(entry & BLOCK_ID_MASK));
+            res.computeIfAbsent(name, b -> new ArrayList<>()).add(new BlockPos(specialX(entry), specialY(entry), specialZ(entry)));
+        }
+        return res;
     }
 
     public final ArrayList<BlockPos> getAbsoluteBlocks(String blockType) {
-        if (specialBlockLocations.get(blockType) == null) {
+        decode();
+        Block block = BlockUtils.stringToBlockNullable(blockType);
+        if (block == null) {
             return null;
         }
-        ArrayList<BlockPos> res = new ArrayList<>();
-        for (BlockPos pos : specialBlockLocations.get(blockType)) {
-            res.add(new BlockPos(pos.getX() + x * 16, pos.getY(), pos.getZ() + z * 16));
+        int id = Block.getIdFromBlock(block);
+        ArrayList<BlockPos> res = null;
+        for (int entry : special) {
+            if ((entry & BLOCK_ID_MASK) == id) {
+                if (res == null) {
+                    res = new ArrayList<>();
+                }
+                res.add(new BlockPos(specialX(entry) + x * 16, specialY(entry), specialZ(entry) + z * 16));
+            }
         }
         return res;
     }
 
     /**
-     * @return Returns the raw packed chunk data as a byte array
+     * @return Returns the raw packed chunk data as a byte array, always {@link #SIZE_IN_BYTES} long
      */
     public final byte[] toByteArray() {
-        return this.data.toByteArray();
+        byte[] bytes = new byte[SIZE_IN_BYTES];
+        this.data.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return Whether the packed data is in a mapped region file, rather than on the heap
+     */
+    final boolean isMapped() {
+        return data.isDirect();
+    }
+
+    /**
+     * @return This chunk, with everything it reads from a mapped file copied onto the heap
+     */
+    final CachedChunk copyToHeap() {
+        ByteBuffer serializedCopy = null;
+        synchronized (this) {
+            if (!decoded) {
+                serializedCopy = ByteBuffer.allocate(serialized.remaining());
+                serializedCopy.put(serialized.duplicate());
+                serializedCopy.flip();
+            }
+        }
+        CachedChunk copy = new CachedChunk(x, z, ByteBuffer.wrap(toByteArray()), serializedCopy, cacheTimestamp);
+        if (serializedCopy == null) {
+            copy.overview = overview;
+            copy.special = special;
+            copy.connectivity = connectivity;
+            System.arraycopy(heightMap, 0, copy.heightMap, 0, 256);
+            copy.decoded = true;
+        }
+        return copy;
+    }
+
+    /**
+     * Writes the overview and special blocks, the part of a region file that's only read on demand
+     *
+     * @param out The output
+     */
+    final void writeSerialized(DataOutputStream out) throws IOException {
+        synchronized (this) {
+            if (!decoded) {
+                // never looked at, so it can go straight back out the way it came in
+                ByteBuffer copy = serialized.duplicate();
+                byte[] bytes = new byte[copy.remaining()];
+                copy.get(bytes);
+                out.write(bytes);
+                return;
+            }
+        }
+        for (int i = 0; i < 256; i++) {
+            out.writeUTF(BlockUtils.blockToString(overview[i].getBlock()));
+        }
+        writeSpecial(special, out);
+    }
+
+    private void readSerialized(DataInputStream in) throws IOException {
+        IBlockState[] overview = new IBlockState[256];
+        for (int i = 0; i < 256; i++) {
+            overview[i] = BlockUtils.stringToBlockRequired(in.readUTF()).getDefaultState();
+        }
+        int[] special = readSpecial(in);
+        this.overview = overview;
+        this.special = special;
+    }
+
+    /**
+     * Writes special blocks the way they've always been saved, grouped under their names. Block ids can change from
+     * one game to the next (e.g. with mods), so they never go to disk.
+     *
+     * @param special The special blocks, see {@link #packSpecial}
+     * @param out     The output
+     */
+    static void writeSpecial(int[] special, DataOutputStream out) throws IOException {
+        int[] byBlock = new int[special.length];
+        // swapped around, so that sorting sorts by id, then position
+        for (int i = 0; i < byBlock.length; i++) {
+            byBlock[i] = (special[i] & BLOCK_ID_MASK) << POSITION_BITS | special[i] >>> BLOCK_ID_BITS;
+        }
+        Arrays.sort(byBlock);
+        int types = 0;
+        for (int i = 0; i < byBlock.length; i++) {
+            if (i == 0 || byBlock[i] >>> POSITION_BITS != byBlock[i - 1] >>> POSITION_BITS) {
+                types++;
+            }
+        }
+        out.writeShort(types);
+        for (int start = 0; start < byBlock.length; ) {
+            int id = byBlock[start] >>> POSITION_BITS;
+            int end = start;
+            while (end < byBlock.length && byBlock[end] >>> POSITION_BITS == id) {
+                end++;
+            }
+            out.writeUTF(BlockUtils.blockToString(Block.getBlockById(id)));
+            out.writeShort(end - start);
+            for (int i = start; i < end; i++) {
+                int position = byBlock[i] & ((1 << POSITION_BITS) - 1);
+                out.writeByte((byte) ((position >> 4 & 15) << 4 | (position & 15)));
+                out.writeByte((byte) (position >> 8));
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * @param in The input, positioned at what {@link #writeSpecial} wrote
+     * @return The special blocks, see {@link #packSpecial}
+     */
+    static int[] readSpecial(DataInputStream in) throws IOException {
+        IntArrayList special = new IntArrayList();
+        // 16 * 16 * 256 = 65536 so a short is enough
+        // ^ haha jokes on leijurv, java doesn't have unsigned types so that isn't correct
+        //   also why would you have more than 32767 special blocks in a chunk
+        // haha double jokes on you now it works for 65535 not just 32767
+        int numSpecialBlockTypes = in.readShort() & 0xffff;
+        for (int i = 0; i < numSpecialBlockTypes; i++) {
+            Block block = BlockUtils.stringToBlockRequired(in.readUTF());
+            int numLocations = in.readShort() & 0xffff;
+            if (numLocations == 0) {
+                // an entire chunk full of air can happen in the end
+                numLocations = 65536;
+            }
+            for (int j = 0; j < numLocations; j++) {
+                byte xz = in.readByte();
+                int X = xz & 0x0f;
+                int Z = (xz >>> 4) & 0x0f;
+                int Y = in.readByte() & 0xff;
+                special.add(packSpecial(X, Y, Z, block));
+            }
+        }
+        int[] res = special.toIntArray();
+        Arrays.sort(res);
+        return res;
+    }
+
+    /**
+     * A special block as one int, the position (y, then z, then x) in the upper {@link #POSITION_BITS} and the block
+     * id in the lower {@link #BLOCK_ID_BITS}. Sorting these sorts by position, so they can be binary searched.
+     *
+     * @param x     The x position, relative to the chunk
+     * @param y     The y position
+     * @param z     The z position, relative to the chunk
+     * @param block The block
+     * @return The packed special block
+     */
+    static int packSpecial(int x, int y, int z, Block block) {
+        return (y << 8 | z << 4 | x) << BLOCK_ID_BITS | Block.getIdFromBlock(block);
+    }
+
+    static int specialX(int special) {
+        return special >>> BLOCK_ID_BITS & 15;
+    }
+
+    static int specialY(int special) {
+        return special >>> (BLOCK_ID_BITS + 8);
+    }
+
+    static int specialZ(int special) {
+        return special >>> (BLOCK_ID_BITS + 4) & 15;
+    }
+
+    /**
+     * @return The index of the special block at this position, or (-(insertion point) - 1) like
+     * {@link Arrays#binarySearch(int[], int)} if there isn't one
+     */
+    private static int findSpecial(int[] special, int x, int y, int z) {
+        int key = (y << 8 | z << 4 | x) << BLOCK_ID_BITS;
+        int i = Arrays.binarySearch(special, key);
+        if (i >= 0) {
+            return i; // block id 0 is air, which is never special, but just in case
+        }
+        int insertion = -i - 1;
+        if (insertion < special.length && special[insertion] >>> BLOCK_ID_BITS == key >>> BLOCK_ID_BITS) {
+            return insertion;
+        }
+        return i;
     }
 
     /**
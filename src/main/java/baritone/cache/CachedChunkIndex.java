@@ -0,0 +1,468 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.longs.*;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.function.LongPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * One bit per chunk of whether it's cached, for a whole dimension, saved next to the region files. Answers "is this
+ * chunk cached" for regions that aren't in memory, without loading them.
+ * <p>
+ * It also keeps where every one of the {@link CachedChunk#BLOCKS_TO_KEEP_TRACK_OF} is, as packed positions per block
+ * and region, so that looking for them doesn't have to load (and decode) the regions they're in.
+ * <p>
+ * The bits (and positions) of a region are only trusted if they were saved at the same time as, or after, its region file. A region
+ * file that's newer than the index (e.g. the game crashed between the two) or that the index has never seen (e.g. the
+ * cache predates the index) is unindexed until the region is loaded once, see {@link #isIndexed}.
+ */
+public final class CachedChunkIndex {
+
+    /**
+     * Magic value to detect invalid index files
+     */
+    private static final int CACHED_CHUNK_INDEX_MAGIC = 812345618;
+
+    private static final String FILE_NAME = "cached_chunks.bci";
+
+    /**
+     * Any generation of a region file, see {@link CachedRegion#save}
+     */
+    private static final Pattern REGION_FILE = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)(\\.\\d+)?\\.bcr");
+
+    private final Path file;
+
+    /**
+     * 32x32 bits per region, by region id
+     */
+    private final Long2ObjectMap<long[]> regions = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Regions with a file on disk whose bits can't be trusted yet
+     */
+    private final LongSet unindexed = new LongOpenHashSet();
+
+    /**
+     * The absolute positions of each special block, by block name and then region id, packed like {@link BlockPos#toLong}
+     */
+    private final Map<String, Long2ObjectMap<long[]>> specialBlocks = new HashMap<>();
+
+    CachedChunkIndex(Path directory) {
+        this.file = directory.resolve(FILE_NAME);
+        load(directory);
+    }
+
+    private static long regionId(int regionX, int regionZ) {
+        return (long) regionX & 0xFFFFFFFFL | ((long) regionZ & 0xFFFFFFFFL) << 32;
+    }
+
+    /**
+     * @param regionX The region X coordinate
+     * @param regionZ The region Z coordinate
+     * @return Whether {@link #isCached} can be trusted for the chunks in this region
+     */
+    public synchronized boolean isIndexed(int regionX, int regionZ) {
+        return !unindexed.contains(regionId(regionX, regionZ));
+    }
+
+    /**
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return Whether the chunk is cached, in memory or on disk
+     */
+    public synchronized boolean isCached(int chunkX, int chunkZ) {
+        long[] bits = regions.get(regionId(chunkX >> 5, chunkZ >> 5));
+        if (bits == null) {
+            return false;
+        }
+        int index = (chunkX & 31) << 5 | (chunkZ & 31);
+        return (bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return How many chunks are cached, in regions that are indexed
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (long[] bits : regions.values()) {
+            for (long word : bits) {
+                size += Long.bitCount(word);
+            }
+        }
+        return size;
+    }
+
+    synchronized void setCached(int chunkX, int chunkZ) {
+        long id = regionId(chunkX >> 5, chunkZ >> 5);
+        long[] bits = regions.computeIfAbsent(id, i -> new long[16]);
+        int index = (chunkX & 31) << 5 | (chunkZ & 31);
+        bits[index >> 6] |= 1L << index;
+    }
+
+    /**
+     * Replaces the special block positions of a chunk, e.g. after it was packed or a few of its blocks changed
+     *
+     * @param chunkX   The chunk X coordinate
+     * @param chunkZ   The chunk Z coordinate
+     * @param relative The special block positions, relative to the chunk, see {@link CachedChunk#getRelativeBlocks}
+     */
+    synchronized void setSpecialBlocks(int chunkX, int chunkZ, Map<String, List<BlockPos>> relative) {
+        long id = regionId(chunkX >> 5, chunkZ >> 5);
+        for (Long2ObjectMap<long[]> byRegion : specialBlocks.values()) {
+            long[] positions = byRegion.get(id);
+            if (positions != null) {
+                put(byRegion, id, retain(positions, pos -> unpackX(pos) >> 4 != chunkX || unpackZ(pos) >> 4 != chunkZ));
+            }
+        }
+        for (Map.Entry<String, List<BlockPos>> entry : relative.entrySet()) {
+            Long2ObjectMap<long[]> byRegion = specialBlocks.computeIfAbsent(entry.getKey(), block -> new Long2ObjectOpenHashMap<>());
+            long[] old = byRegion.get(id);
+            long[] positions = old == null ? new long[entry.getValue().size()] : Arrays.copyOf(old, old.length + entry.getValue().size());
+            int i = old == null ? 0 : old.length;
+            for (BlockPos pos : entry.getValue()) {
+                positions[i++] = pack(chunkX << 4 | pos.getX(), pos.getY(), chunkZ << 4 | pos.getZ());
+            }
+            put(byRegion, id, positions);
+        }
+        specialBlocks.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Adds the positions of a special block in one region, like {@link CachedRegion#getLocationsOf}, but for a region
+     * that doesn't have to be in memory. Only meaningful if the region {@link #isIndexed}.
+     *
+     * @param block   The special block name
+     * @param regionX The region X coordinate
+     * @param regionZ The region Z coordinate
+     * @param result  Where to add the positions
+     */
+    public synchronized void getLocationsOf(String block, int regionX, int regionZ, Collection<BlockPos> result) {
+        Long2ObjectMap<long[]> byRegion = specialBlocks.get(block);
+        long[] positions = byRegion == null ? null : byRegion.get(regionId(regionX, regionZ));
+        if (positions == null) {
+            return;
+        }
+        for (long pos : positions) {
+            result.add(new BlockPos(unpackX(pos), unpackY(pos), unpackZ(pos)));
+        }
+    }
+
+    /**
+     * The closest positions of a special block, nearest first. Regions are looked at in order of how close they could
+     * possibly be, and it stops as soon as the next region can't have anything closer than what it already has.
+     * Regions that aren't {@link #isIndexed} are left out.
+     *
+     * @param block               The special block name
+     * @param count               How many positions to return, at most
+     * @param x                   The x position to measure from
+     * @param y                   The y position to measure from
+     * @param z                   The z position to measure from
+     * @param maxRegionDistanceSq The maximum region distance, squared, see {@link baritone.api.cache.ICachedWorld#getLocationsOf}
+     * @return The positions
+     */
+    public synchronized List<BlockPos> getNearest(String block, int count, int x, int y, int z, int maxRegionDistanceSq) {
+        Long2ObjectMap<long[]> byRegion = specialBlocks.get(block);
+        if (byRegion == null || count <= 0) {
+            return Collections.emptyList();
+        }
+        int centerRegionX = x >> 9;
+        int centerRegionZ = z >> 9;
+        LongArrayList candidates = new LongArrayList();
+        for (long id : byRegion.keySet()) {
+            int dx = (int) id - centerRegionX;
+            int dz = (int) (id >> 32) - centerRegionZ;
+            if (dx * dx + dz * dz <= maxRegionDistanceSq) {
+                candidates.add(id);
+            }
+        }
+        long[] regionOrder = candidates.toLongArray();
+        LongArrays.quickSort(regionOrder, new AbstractLongComparator() {
+            @Override
+            public int compare(long a, long b) {
+                return Long.compare(regionDistanceSq(a, x, z), regionDistanceSq(b, x, z));
+            }
+        });
+        // farthest on top, so it's the one to go once there are too many
+        LongHeapPriorityQueue nearest = new LongHeapPriorityQueue(new AbstractLongComparator() {
+            @Override
+            public int compare(long a, long b) {
+                return Long.compare(distanceSq(b, x, y, z), distanceSq(a, x, y, z));
+            }
+        });
+        for (long id : regionOrder) {
+            if (nearest.size() >= count && regionDistanceSq(id, x, z) > distanceSq(nearest.firstLong(), x, y, z)) {
+                break;
+            }
+            for (long pos : byRegion.get(id)) {
+                if (nearest.size() < count) {
+                    nearest.enqueue(pos);
+                } else if (distanceSq(pos, x, y, z) < distanceSq(nearest.firstLong(), x, y, z)) {
+                    nearest.dequeueLong();
+                    nearest.enqueue(pos);
+                }
+            }
+        }
+        BlockPos[] result = new BlockPos[nearest.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            long pos = nearest.dequeueLong();
+            result[i] = new BlockPos(unpackX(pos), unpackY(pos), unpackZ(pos));
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Replaces the bits of a region with what's actually in it, e.g. after it was loaded or expired chunks were removed
+     *
+     * @param region The region
+     */
+    void update(CachedRegion region) {
+        long id = regionId(region.getX(), region.getZ());
+        long[] bits = new long[16];
+        boolean any = false;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                if (region.isCached(x << 4, z << 4)) {
+                    int index = x << 5 | z;
+                    bits[index >> 6] |= 1L << index;
+                    any = true;
+                }
+            }
+        }
+        Map<String, LongArrayList> rebuilt = null;
+        if (!isIndexed(region.getX(), region.getZ())) {
+            // whatever positions there are for this region predate its file, so they all come from the chunks instead
+            // this decodes every chunk, but only happens once per region
+            rebuilt = new HashMap<>();
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    CachedChunk chunk = region.getChunk(x, z);
+                    if (chunk == null) {
+                        continue;
+                    }
+                    for (Map.Entry<String, List<BlockPos>> entry : chunk.getRelativeBlocks().entrySet()) {
+                        LongArrayList positions = rebuilt.computeIfAbsent(entry.getKey(), block -> new LongArrayList());
+                        for (BlockPos pos : entry.getValue()) {
+                            positions.add(pack(chunk.x << 4 | pos.getX(), pos.getY(), chunk.z << 4 | pos.getZ()));
+                        }
+                    }
+                }
+            }
+        }
+        synchronized (this) {
+            if (any) {
+                regions.put(id, bits);
+            } else {
+                regions.remove(id);
+            }
+            if (rebuilt != null) {
+                for (Long2ObjectMap<long[]> byRegion : specialBlocks.values()) {
+                    byRegion.remove(id);
+                }
+                for (Map.Entry<String, LongArrayList> entry : rebuilt.entrySet()) {
+                    specialBlocks.computeIfAbsent(entry.getKey(), block -> new Long2ObjectOpenHashMap<>()).put(id, entry.getValue().toLongArray());
+                }
+            } else {
+                // the only way a chunk goes away is expiring, so just drop the positions of chunks that aren't there anymore
+                for (Long2ObjectMap<long[]> byRegion : specialBlocks.values()) {
+                    long[] positions = byRegion.get(id);
+                    if (positions != null) {
+                        put(byRegion, id, retain(positions, pos -> {
+                            int index = (unpackX(pos) >> 4 & 31) << 5 | (unpackZ(pos) >> 4 & 31);
+                            return (bits[index >> 6] & (1L << index)) != 0;
+                        }));
+                    }
+                }
+            }
+            specialBlocks.values().removeIf(Map::isEmpty);
+            unindexed.remove(id);
+        }
+    }
+
+    private synchronized void load(Path directory) {
+        FileTime saved = null;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != CACHED_CHUNK_INDEX_MAGIC) {
+                    throw new IOException("Bad magic value");
+                }
+                int count = in.readInt();
+                Long2ObjectMap<long[]> read = new Long2ObjectOpenHashMap<>(count);
+                for (int i = 0; i < count; i++) {
+                    long id = in.readLong();
+                    long[] bits = new long[16];
+                    for (int j = 0; j < bits.length; j++) {
+                        bits[j] = in.readLong();
+                    }
+                    read.put(id, bits);
+                }
+                int unindexedCount = in.readInt();
+                LongSet readUnindexed = new LongOpenHashSet(unindexedCount);
+                for (int i = 0; i < unindexedCount; i++) {
+                    readUnindexed.add(in.readLong());
+                }
+                int blockCount = in.readInt();
+                Map<String, Long2ObjectMap<long[]>> readSpecialBlocks = new HashMap<>();
+                for (int i = 0; i < blockCount; i++) {
+                    String block = in.readUTF();
+                    int regionCount = in.readInt();
+                    Long2ObjectMap<long[]> byRegion = new Long2ObjectOpenHashMap<>(regionCount);
+                    for (int j = 0; j < regionCount; j++) {
+                        long id = in.readLong();
+                        long[] positions = new long[in.readInt()];
+                        for (int k = 0; k < positions.length; k++) {
+                            positions[k] = in.readLong();
+                        }
+                        byRegion.put(id, positions);
+                    }
+                    readSpecialBlocks.put(block, byRegion);
+                }
+                // only if the entire file was uncorrupted
+                regions.putAll(read);
+                unindexed.addAll(readUnindexed);
+                specialBlocks.putAll(readSpecialBlocks);
+                saved = Files.getLastModifiedTime(file);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                regions.clear();
+                unindexed.clear();
+                specialBlocks.clear();
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path regionFile : (Iterable<Path>) files::iterator) {
+                Matcher matcher = REGION_FILE.matcher(regionFile.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                long id = regionId(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (saved == null || Files.getLastModifiedTime(regionFile).compareTo(saved) > 0) {
+                    unindexed.add(id);
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            ex.printStackTrace();
+        }
+        System.out.println("Loaded the cached chunk index, " + regions.size() + " regions, " + unindexed.size() + " still to index");
+    }
+
+    /**
+     * Saved every time the regions are, even if no bits changed, so that it's never older than a region file it knows
+     */
+    synchronized void save() {
+        Path tempFile = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(CACHED_CHUNK_INDEX_MAGIC);
+                out.writeInt(regions.size());
+                for (Long2ObjectMap.Entry<long[]> entry : regions.long2ObjectEntrySet()) {
+                    out.writeLong(entry.getLongKey());
+                    for (long word : entry.getValue()) {
+                        out.writeLong(word);
+                    }
+                }
+                // still unindexed next time, even though their files will be older than this one
+                out.writeInt(unindexed.size());
+                for (long id : unindexed) {
+                    out.writeLong(id);
+                }
+                out.writeInt(specialBlocks.size());
+                for (Map.Entry<String, Long2ObjectMap<long[]>> block : specialBlocks.entrySet()) {
+                    out.writeUTF(block.getKey());
+                    out.writeInt(block.getValue().size());
+                    for (Long2ObjectMap.Entry<long[]> entry : block.getValue().long2ObjectEntrySet()) {
+                        out.writeLong(entry.getLongKey());
+                        out.writeInt(entry.getValue().length);
+                        for (long pos : entry.getValue()) {
+                            out.writeLong(pos);
+                        }
+                    }
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static void put(Long2ObjectMap<long[]> byRegion, long id, long[] positions) {
+        if (positions.length == 0) {
+            byRegion.remove(id);
+        } else {
+            byRegion.put(id, positions);
+        }
+    }
+
+    private static long[] retain(long[] positions, LongPredicate keep) {
+        int size = 0;
+        long[] result = new long[positions.length];
+        for (long pos : positions) {
+            if (keep.test(pos)) {
+                result[size++] = pos;
+            }
+        }
+        return size == positions.length ? positions : Arrays.copyOf(result, size);
+    }
+
+    // the same layout as BlockPos.toLong, without having to make a BlockPos for every position
+
+    static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) y & 0xFFFL) << 26 | (long) z & 0x3FFFFFFL;
+    }
+
+    static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    static int unpackY(long pos) {
+        return (int) (pos << 26 >> 52);
+    }
+
+    static int unpackZ(long pos) {
+        return (int) (pos << 38 >> 38);
+    }
+
+    private static long distanceSq(long pos, int x, int y, int z) {
+        long dx = unpackX(pos) - x;
+        long dy = unpackY(pos) - y;
+        long dz = unpackZ(pos) - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * @return The squared horizontal distance from x, z to the closest column of the region, a lower bound on
+     * {@link #distanceSq} for anything in it
+     */
+    private static long regionDistanceSq(long id, int x, int z) {
+        int minX = (int) id << 9;
+        int minZ = (int) (id >> 32) << 9;
+        long dx = Math.max(0, Math.max(minX - x, x - (minX + 511)));
+        long dz = Math.max(0, Math.max(minZ - z, z - (minZ + 511)));
+        return dx * dx + dz * dz;
+    }
+}
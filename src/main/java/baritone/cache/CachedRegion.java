@@ -22,14 +22,14 @@ import baritone.api.cache.ICachedRegion;
 import baritone.api.utils.BlockUtils;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 import java.util.*;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * @author Brady
@@ -42,9 +42,32 @@ public final class CachedRegion implements ICachedRegion {
 
     /**
      * Magic value to detect invalid cache files, or incompatible cache files saved in an old version of Baritone
+     * <p>
+     * This is the old format, with the whole file gzipped. It's still read, and converted to the mapped format the next
+     * time the region is saved.
      */
     private static final int CACHED_REGION_MAGIC = 456022910;
 
+    /**
+     * Magic value of the uncompressed format, which is memory mapped instead of read.
+     * <p>
+     * The header is this magic value, followed by a {@link #HEADER_ENTRY_SIZE} entry for each chunk: its data slot (or
+     * -1 if it's not present), its cache timestamp, and the offset and length of its overview and special blocks.
+     * Starting at {@link #DATA_OFFSET}, each slot is {@link CachedChunk#SIZE_IN_BYTES} of packed data, which
+     * {@link CachedChunk} reads directly out of the mapping. The overview and special blocks of every chunk come after
+     * the last slot, and are only read when something asks for them.
+     * <p>
+     * A file in this format is never written to again once it's saved, every save goes to a new one, see {@link #save}.
+     */
+    private static final int CACHED_REGION_MAGIC_MAPPED = 456022911;
+
+    private static final int HEADER_ENTRY_SIZE = 4 + 8 + 4 + 4;
+
+    /**
+     * The start of the first data slot, the header rounded up to a whole page
+     */
+    private static final int DATA_OFFSET = 24576;
+
     /**
      * All of the chunks in this region: A 32x32 array of them.
      */
@@ -67,6 +90,13 @@ public final class CachedRegion implements ICachedRegion {
      */
     private boolean hasUnsavedChanges;
 
+    /**
+     * Which file this region was last loaded from or saved to, see {@link #getRegionFile}. -1 if neither.
+     */
+    private int generation = -1;
+
+    private boolean loadStarted;
+
     CachedRegion(int x, int z, int dimension) {
         this.x = x;
         this.z = z;
@@ -83,6 +113,15 @@ public final class CachedRegion implements ICachedRegion {
         return null;
     }
 
+    /**
+     * @param chunkX The chunk x coordinate, relative to this region
+     * @param chunkZ The chunk z coordinate, relative to this region
+     * @return The cached chunk, or null if it isn't cached
+     */
+    final CachedChunk getChunk(int chunkX, int chunkZ) {
+        return chunks[chunkX][chunkZ];
+    }
+
     @Override
     public final boolean isCached(int x, int z) {
         return chunks[x >> 4][z >> 4] != null;
@@ -109,12 +148,35 @@ public final class CachedRegion implements ICachedRegion {
         hasUnsavedChanges = true;
     }
 
+    /**
+     * Applies block changes to a chunk that's already cached, see {@link ChunkPacker#update}
+     *
+     * @param chunkX    The chunk x coordinate, relative to this region
+     * @param chunkZ    The chunk z coordinate, relative to this region
+     * @param chunk     The chunk, with the changes already applied
+     * @param positions The positions that changed
+     */
+    public final synchronized void updateBlocks(int chunkX, int chunkZ, Chunk chunk, Collection<BlockPos> positions) {
+        CachedChunk cached = this.chunks[chunkX][chunkZ];
+        if (cached == null) {
+            return; // it'll be packed in full when it unloads
+        }
+        if (cached.isMapped()) {
+            // the mapping is read only
+            cached = cached.copyToHeap();
+            this.chunks[chunkX][chunkZ] = cached;
+        }
+        ChunkPacker.update(cached, chunk, positions);
+        hasUnsavedChanges = true;
+    }
+
 
     public synchronized final void save(String directory) {
         if (!hasUnsavedChanges) {
             return;
         }
         removeExpired();
+        Path tempFile = null;
         try {
             Path path = Paths.get(directory);
             if (!Files.exists(path)) {
@@ -122,67 +184,91 @@ public final class CachedRegion implements ICachedRegion {
 
             }
             System.out.println("Saving region " + x + "," + z + " to disk " + path);
-            Path regionFile = getRegionFile(path, this.x, this.z);
-            if (!Files.exists(regionFile)) {
-                Files.createFile(regionFile);
+            // Chunks that were loaded mapped still point into the current file, so it's never written to or replaced.
+            // Each save goes to a new file instead, and the old one is deleted once nothing has it mapped anymore.
+            int next = Math.max(Math.max(generation, latestGeneration(path)), 0) + 1;
+            Path regionFile = getRegionFile(path, this.x, this.z, next);
+            tempFile = Files.createTempFile(path, regionFile.getFileName().toString(), ".tmp");
+            byte[][][] serialized = new byte[32][32][];
+            int numPresent = 0;
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (chunks[x][z] != null) {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        chunks[x][z].writeSerialized(new DataOutputStream(bytes));
+                        serialized[x][z] = bytes.toByteArray();
+                        numPresent++;
+                    }
+                }
             }
             try (
-                    FileOutputStream fileOut = new FileOutputStream(regionFile.toFile());
-                    GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut, 16384);
-                    DataOutputStream out = new DataOutputStream(gzipOut)
+                    FileOutputStream fileOut = new FileOutputStream(tempFile.toFile());
+                    BufferedOutputStream bufferedOut = new BufferedOutputStream(fileOut, 65536);
+                    DataOutputStream out = new DataOutputStream(bufferedOut)
             ) {
-                out.writeInt(CACHED_REGION_MAGIC);
+                out.writeInt(CACHED_REGION_MAGIC_MAPPED);
+                int slot = 0;
+                int offset = DATA_OFFSET + numPresent * CachedChunk.SIZE_IN_BYTES;
                 for (int x = 0; x < 32; x++) {
                     for (int z = 0; z < 32; z++) {
                         CachedChunk chunk = this.chunks[x][z];
                         if (chunk == null) {
-                            out.write(CHUNK_NOT_PRESENT);
+                            out.writeInt(-1);
+                            out.writeLong(0);
+                            out.writeInt(0);
+                            out.writeInt(0);
                         } else {
-                            out.write(CHUNK_PRESENT);
-                            byte[] chunkBytes = chunk.toByteArray();
-                            out.write(chunkBytes);
-                            // Messy, but fills the empty 0s that should be trailing to fill up the space.
-                            out.write(new byte[CachedChunk.SIZE_IN_BYTES - chunkBytes.length]);
+                            out.writeInt(slot++);
+                            out.writeLong(chunk.cacheTimestamp);
+                            out.writeInt(offset);
+                            out.writeInt(serialized[x][z].length);
+                            offset += serialized[x][z].length;
                         }
                     }
                 }
+                out.write(new byte[DATA_OFFSET - 4 - 1024 * HEADER_ENTRY_SIZE]);
                 for (int x = 0; x < 32; x++) {
                     for (int z = 0; z < 32; z++) {
                         if (chunks[x][z] != null) {
-                            for (int i = 0; i < 256; i++) {
-                                out.writeUTF(BlockUtils.blockToString(chunks[x][z].getOverview()[i].getBlock()));
-                            }
+                            out.write(chunks[x][z].toByteArray());
                         }
                     }
                 }
                 for (int x = 0; x < 32; x++) {
                     for (int z = 0; z < 32; z++) {
                         if (chunks[x][z] != null) {
-                            Map<String, List<BlockPos>> locs = chunks[x][z].getRelativeBlocks();
-                            out.writeShort(locs.entrySet().size());
-                            for (Map.Entry<String, List<BlockPos>> entry : locs.entrySet()) {
-                                out.writeUTF(entry.getKey());
-                                out.writeShort(entry.getValue().size());
-                                for (BlockPos pos : entry.getValue()) {
-                                    out.writeByte((byte) (pos.getZ() << 4 | pos.getX()));
-                                    out.writeByte((byte) (pos.getY()));
-                                }
-                            }
+                            out.write(serialized[x][z]);
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            out.writeLong(chunks[x][z].cacheTimestamp);
-                        }
+            }
+            Files.move(tempFile, regionFile); // fails instead of replacing, if another save got to this name first
+            tempFile = null;
+            generation = next;
+            hasUnsavedChanges = false;
+            // read the chunks back out of the new file, so that the ones that changed stop taking up heap
+            CachedChunk[][] saved = new CachedChunk[32][32];
+            for (int x = 0; x < 32; x++) {
+                System.arraycopy(chunks[x], 0, saved[x], 0, 32);
+            }
+            loadMapped(regionFile);
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (chunks[x][z] != null) {
+                        chunks[x][z].keepConnectivity(saved[x][z]);
                     }
                 }
             }
-            hasUnsavedChanges = false;
+            deleteOlderThan(path, generation);
             System.out.println("Saved region successfully");
         } catch (Exception ex) {
             ex.printStackTrace();
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {}
+            }
         }
     }
 
@@ -193,114 +279,227 @@ public final class CachedRegion implements ICachedRegion {
                 Files.createDirectories(path);
             }
 
-            Path regionFile = getRegionFile(path, this.x, this.z);
-            if (!Files.exists(regionFile)) {
+            int latest = latestGeneration(path);
+            if (latest == -1) {
                 return;
             }
+            Path regionFile = getRegionFile(path, this.x, this.z, latest);
 
             System.out.println("Loading region " + x + "," + z + " from disk " + path);
             long start = System.nanoTime() / 1000000L;
 
-            try (
-                    FileInputStream fileIn = new FileInputStream(regionFile.toFile());
-                    GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768);
-                    DataInputStream in = new DataInputStream(gzipIn)
-            ) {
-                int magic = in.readInt();
-                if (magic != CACHED_REGION_MAGIC) {
-                    // in the future, if we change the format on disk
-                    // we can keep converters for the old format
-                    // by switching on the magic value, and either loading it normally, or loading through a converter.
-                    throw new IOException("Bad magic value " + magic);
+            int magic;
+            try (DataInputStream in = new DataInputStream(new FileInputStream(regionFile.toFile()))) {
+                magic = in.readInt();
+            }
+            switch (magic) {
+                case CACHED_REGION_MAGIC_MAPPED:
+                    loadMapped(regionFile);
+                    removeExpired();
+                    hasUnsavedChanges = false;
+                    break;
+                default:
+                    // anything else should be the old gzipped format, which checks its own magic value
+                    loadGzipped(regionFile);
+                    // the next save converts it, so that from then on it's mapped (saving removes the expired chunks too)
+                    hasUnsavedChanges = true;
+                    break;
+            }
+            generation = latest;
+            deleteOlderThan(path, latest);
+            long end = System.nanoTime() / 1000000L;
+            System.out.println("Loaded region successfully in " + (end - start) + "ms");
+        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads this region the first time this is called, see {@link CachedWorld#getOrCreateRegion}. Anyone else that
+     * calls this waits until that's done instead of reading the file again.
+     *
+     * @param directory The cache directory
+     * @return Whether this call is the one that loaded it
+     */
+    synchronized boolean loadOnce(String directory) {
+        if (loadStarted) {
+            return false;
+        }
+        loadStarted = true;
+        load(directory);
+        return true;
+    }
+
+    /**
+     * @return The generation of the newest file of this region, or -1 if there isn't one
+     */
+    private int latestGeneration(Path cacheDir) throws IOException {
+        int latest = -1;
+        for (Path file : regionFiles(cacheDir)) {
+            latest = Math.max(latest, generationOf(file));
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes the files of this region from before this generation. On windows, a file can't be deleted while it's
+     * still mapped, which lasts until the chunks that were read out of it are garbage collected. Those are left for
+     * the next load or save to try again.
+     */
+    private void deleteOlderThan(Path cacheDir, int generation) throws IOException {
+        for (Path file : regionFiles(cacheDir)) {
+            if (generationOf(file) < generation) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private List<Path> regionFiles(Path cacheDir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir, "r." + this.x + "." + this.z + ".*bcr")) {
+            for (Path file : stream) {
+                if (generationOf(file) != -1) {
+                    files.add(file);
                 }
-                boolean[][] present = new boolean[32][32];
-                BitSet[][] bitSets = new BitSet[32][32];
-                Map<String, List<BlockPos>>[][] location = new Map[32][32];
-                IBlockState[][][] overview = new IBlockState[32][32][];
-                long[][] cacheTimestamp = new long[32][32];
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        int isChunkPresent = in.read();
-                        switch (isChunkPresent) {
-                            case CHUNK_PRESENT:
-                                byte[] bytes = new byte[CachedChunk.SIZE_IN_BYTES];
-                                in.readFully(bytes);
-                                bitSets[x][z] = BitSet.valueOf(bytes);
-                                location[x][z] = new HashMap<>();
-                                overview[x][z] = new IBlockState[256];
-                                present[x][z] = true;
-                                break;
-                            case CHUNK_NOT_PRESENT:
-                                break;
-                            default:
-                                throw new IOException("Malformed stream");
-                        }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return The generation in the name of a file from {@link #getRegionFile}, or -1 if it's some other file
+     */
+    private int generationOf(Path file) {
+        String name = file.getFileName().toString();
+        String prefix = "r." + this.x + "." + this.z + ".";
+        if (name.equals(prefix + "bcr")) {
+            return 0;
+        }
+        if (!name.startsWith(prefix) || !name.endsWith(".bcr")) {
+            return -1;
+        }
+        try {
+            int generation = Integer.parseInt(name.substring(prefix.length(), name.length() - ".bcr".length()));
+            return generation > 0 ? generation : -1;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private void loadMapped(Path regionFile) throws IOException {
+        ByteBuffer file;
+        try (FileChannel channel = FileChannel.open(regionFile, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (file.limit() < DATA_OFFSET) {
+            throw new IOException("Truncated header");
+        }
+        CachedChunk[][] loaded = new CachedChunk[32][32];
+        int pos = 4;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                int slot = file.getInt(pos);
+                long cacheTimestamp = file.getLong(pos + 4);
+                int offset = file.getInt(pos + 12);
+                int length = file.getInt(pos + 16);
+                pos += HEADER_ENTRY_SIZE;
+                if (slot == -1) {
+                    continue;
+                }
+                long dataStart = DATA_OFFSET + (long) slot * CachedChunk.SIZE_IN_BYTES;
+                if (slot < 0 || dataStart + CachedChunk.SIZE_IN_BYTES > file.limit() || offset < 0 || length < 0 || (long) offset + length > file.limit()) {
+                    throw new IOException("Malformed header");
+                }
+                int chunkX = x + 32 * this.x;
+                int chunkZ = z + 32 * this.z;
+                loaded[x][z] = new CachedChunk(chunkX, chunkZ, slice(file, (int) dataStart, CachedChunk.SIZE_IN_BYTES), slice(file, offset, length), cacheTimestamp);
+            }
+        }
+        // only if the entire header was uncorrupted do we actually set the chunks
+        for (int x = 0; x < 32; x++) {
+            System.arraycopy(loaded[x], 0, this.chunks[x], 0, 32);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(offset);
+        dup.limit(offset + length);
+        return dup.slice();
+    }
+
+    private void loadGzipped(Path regionFile) throws IOException {
+        try (
+                FileInputStream fileIn = new FileInputStream(regionFile.toFile());
+                GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768);
+                DataInputStream in = new DataInputStream(gzipIn)
+        ) {
+            int magic = in.readInt();
+            if (magic != CACHED_REGION_MAGIC) {
+                // formats from before this one never get this far, and newer ones aren't gzipped
+                throw new IOException("Bad magic value " + magic);
+            }
+            boolean[][] present = new boolean[32][32];
+            BitSet[][] bitSets = new BitSet[32][32];
+            int[][][] special = new int[32][32][];
+            IBlockState[][][] overview = new IBlockState[32][32][];
+            long[][] cacheTimestamp = new long[32][32];
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    int isChunkPresent = in.read();
+                    switch (isChunkPresent) {
+                        case CHUNK_PRESENT:
+                            byte[] bytes = new byte[CachedChunk.SIZE_IN_BYTES];
+                            in.readFully(bytes);
+                            bitSets[x][z] = BitSet.valueOf(bytes);
+                            overview[x][z] = new IBlockState[256];
+                            present[x][z] = true;
+                            break;
+                        case CHUNK_NOT_PRESENT:
+                            break;
+                        default:
+                            throw new IOException("Malformed stream");
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            for (int i = 0; i < 256; i++) {
-                                overview[x][z][i] = BlockUtils.stringToBlockRequired(in.readUTF()).getDefaultState();
-                            }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        for (int i = 0; i < 256; i++) {
+                            overview[x][z][i] = BlockUtils.stringToBlockRequired(in.readUTF()).getDefaultState();
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            // 16 * 16 * 256 = 65536 so a short is enough
-                            // ^ haha jokes on leijurv, java doesn't have unsigned types so that isn't correct
-                            //   also why would you have more than 32767 special blocks in a chunk
-                            // haha double jokes on you now it works for 65535 not just 32767
-                            int numSpecialBlockTypes = in.readShort() & 0xffff;
-                            for (int i = 0; i < numSpecialBlockTypes; i++) {
-                                String blockName = in.readUTF();
-                                BlockUtils.stringToBlockRequired(blockName);
-                                List<BlockPos> locs = new ArrayList<>();
-                                location[x][z].put(blockName, locs);
-                                int numLocations = in.readShort() & 0xffff;
-                                if (numLocations == 0) {
-                                    // an entire chunk full of air can happen in the end
-                                    numLocations = 65536;
-                                }
-                                for (int j = 0; j < numLocations; j++) {
-                                    byte xz = in.readByte();
-                                    int X = xz & 0x0f;
-                                    int Z = (xz >>> 4) & 0x0f;
-                                    int Y = in.readByte() & 0xff;
-                                    locs.add(new BlockPos(X, Y, Z));
-                                }
-                            }
-                        }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        special[x][z] = CachedChunk.readSpecial(in);
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            cacheTimestamp[x][z] = in.readLong();
-                        }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        cacheTimestamp[x][z] = in.readLong();
                     }
                 }
-                // only if the entire file was uncorrupted do we actually set the chunks
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            int regionX = this.x;
-                            int regionZ = this.z;
-                            int chunkX = x + 32 * regionX;
-                            int chunkZ = z + 32 * regionZ;
-                            this.chunks[x][z] = new CachedChunk(chunkX, chunkZ, bitSets[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
-                        }
+            }
+            // only if the entire file was uncorrupted do we actually set the chunks
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        int regionX = this.x;
+                        int regionZ = this.z;
+                        int chunkX = x + 32 * regionX;
+                        int chunkZ = z + 32 * regionZ;
+                        this.chunks[x][z] = new CachedChunk(chunkX, chunkZ, bitSets[x][z], overview[x][z], special[x][z], cacheTimestamp[x][z]);
                     }
                 }
             }
-            removeExpired();
-            hasUnsavedChanges = false;
-            long end = System.nanoTime() / 1000000L;
-            System.out.println("Loaded region successfully in " + (end - start) + "ms");
-        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
-            ex.printStackTrace();
         }
     }
 
@@ -352,7 +551,13 @@ public final class CachedRegion implements ICachedRegion {
         return this.z;
     }
 
-    private static Path getRegionFile(Path cacheDir, int regionX, int regionZ) {
-        return Paths.get(cacheDir.toString(), "r." + regionX + "." + regionZ + ".bcr");
+    /**
+     * Generation 0 is the name from before region files were mapped, which only the old gzipped format is saved as
+     */
+    private static Path getRegionFile(Path cacheDir, int regionX, int regionZ, int generation) {
+        if (generation == 0) {
+            return Paths.get(cacheDir.toString(), "r." + regionX + "." + regionZ + ".bcr");
+        }
+        return Paths.get(cacheDir.toString(), "r." + regionX + "." + regionZ + "." + generation + ".bcr");
     }
 }
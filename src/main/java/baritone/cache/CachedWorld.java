@@ -23,8 +23,13 @@ import baritone.api.IBaritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWorldData;
 import baritone.api.utils.Helper;
+import baritone.utils.LaneExecutor;
+import baritone.utils.LaneExecutor.Lane;
+import baritone.utils.pathing.PathingBlockType;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.chunk.Chunk;
@@ -33,10 +38,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Brady
@@ -60,19 +66,66 @@ public final class CachedWorld implements ICachedWorld, Helper {
     private final String directory;
 
     /**
-     * Queue of positions to pack. Refers to the toPackMap, in that every element of this queue will be a
-     * key in that map.
+     * All chunk positions pending packing. This map will be updated in-place if a new update to the chunk occurs
+     * while waiting in the queue for a packer thread to get to it. The packer threads always take whichever chunk is
+     * closest to the player next, see {@link #nextToPack}.
+     * <p>
+     * Guarded by itself, which is also what the packer threads wait on.
      */
-    private final LinkedBlockingQueue<ChunkPos> toPackQueue = new LinkedBlockingQueue<>();
+    private final Map<ChunkPos, Chunk> toPackMap = new HashMap<>();
 
     /**
-     * All chunk positions pending packing. This map will be updated in-place if a new update to the chunk occurs
-     * while waiting in the queue for the packer thread to get to it.
+     * Where the player was when a chunk was last queued, which is what's packed first. Not necessarily the same
+     * position as the player in the most recent tick, but near enough.
+     */
+    private volatile BlockPos packCenter = BlockPos.ORIGIN;
+
+    private final AtomicLong packsCompleted = new AtomicLong();
+    private final AtomicLong packsDropped = new AtomicLong();
+
+    // guarded by toPackMap
+    private long packRateStart = System.currentTimeMillis();
+    private long packRateCount;
+    private double packsPerSecond;
+
+    /**
+     * Bumped every time the packer threads are stopped. A packer thread keeps going until the queue is empty and the
+     * generation it was started in is over. Guarded by toPackMap.
+     */
+    private int packerGeneration;
+
+    /**
+     * The threads of the current generation, empty while stopped. Guarded by this.
      */
-    private final Map<ChunkPos, Chunk> toPackMap = new ConcurrentHashMap<>();
+    private final List<Thread> packerThreads = new ArrayList<>();
+    private Thread saverThread;
 
     private final int dimension;
 
+    /**
+     * Regions that are being loaded from disk, in the background (see {@link #prefetchRegion}) or not. Whoever asks for
+     * one of these gets the same instance, so there's only ever one per region file.
+     */
+    private final Long2ObjectMap<CachedRegion> loadingRegions = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Regions that were prefetched and haven't been asked for yet
+     */
+    private final LongSet prefetchedRegions = new LongOpenHashSet();
+
+    /**
+     * Regions that were asked for while they were still loading
+     */
+    private final LongSet missedRegions = new LongOpenHashSet();
+
+    private final AtomicLong prefetchHits = new AtomicLong();
+    private final AtomicLong prefetchMisses = new AtomicLong();
+
+    /**
+     * Which chunks are cached, including the ones in regions that aren't loaded
+     */
+    private final CachedChunkIndex chunkIndex;
+
     CachedWorld(Path directory, int dimension) {
         if (!Files.exists(directory)) {
             try {
@@ -82,9 +135,29 @@ public final class CachedWorld implements ICachedWorld, Helper {
         }
         this.directory = directory.toString();
         this.dimension = dimension;
+        this.chunkIndex = new CachedChunkIndex(directory);
         System.out.println("Cached world directory: " + directory);
-        Baritone.getExecutor().execute(new PackerThread());
-        Baritone.getExecutor().execute(() -> {
+        start();
+    }
+
+    /**
+     * Starts the packer threads and the periodic save, unless they're already running
+     */
+    public final synchronized void start() {
+        if (saverThread != null) {
+            return;
+        }
+        int generation;
+        synchronized (toPackMap) {
+            generation = packerGeneration;
+        }
+        for (int i = 0; i < Math.max(1, Baritone.settings().chunkPackerThreads.value); i++) {
+            Thread packer = new Thread(new PackerThread(generation), "Baritone chunk packer " + (i + 1));
+            packer.setDaemon(true);
+            packer.start();
+            packerThreads.add(packer);
+        }
+        saverThread = new Thread(() -> {
             try {
                 Thread.sleep(30000);
                 while (true) {
@@ -94,17 +167,146 @@ public final class CachedWorld implements ICachedWorld, Helper {
                     save();
                     Thread.sleep(600000);
                 }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        });
+            } catch (InterruptedException ignored) {} // stopped
+        }, "Baritone cache saver");
+        saverThread.setDaemon(true);
+        saverThread.start();
+    }
+
+    /**
+     * Stops the periodic save, and lets the packer threads exit once everything that's queued is packed. Doesn't wait
+     * for that, so that it's safe to call from the main thread.
+     *
+     * @return The packer threads that are on their way out, to wait for before the final save
+     */
+    public final synchronized List<Thread> stop() {
+        if (saverThread == null) {
+            return new ArrayList<>();
+        }
+        saverThread.interrupt();
+        saverThread = null;
+        List<Thread> stopped = new ArrayList<>(packerThreads);
+        packerThreads.clear();
+        synchronized (toPackMap) {
+            packerGeneration++;
+            toPackMap.notifyAll();
+        }
+        return stopped;
     }
 
     @Override
     public final void queueForPacking(Chunk chunk) {
-        if (toPackMap.put(chunk.getPos(), chunk) == null) {
-            toPackQueue.add(chunk.getPos());
+        BlockPos player = playerPosition();
+        if (player != null) {
+            packCenter = player;
+        }
+        synchronized (toPackMap) {
+            if (toPackMap.put(chunk.getPos(), chunk) == null && toPackMap.size() > Baritone.settings().chunkPackerQueueSize.value) {
+                dropFarthest();
+            }
+            toPackMap.notify();
+        }
+    }
+
+    /**
+     * Backpressure for when chunks come in faster than they can be packed (e.g. teleporting, or joining a server).
+     * Only a chunk that's still loaded can be dropped, since it'll be queued again when it unloads. A chunk that has
+     * already unloaded is the last chance to cache it, so those are always kept, even past the limit.
+     */
+    private void dropFarthest() {
+        BlockPos center = packCenter;
+        ChunkPos farthest = null;
+        double farthestDist = -1;
+        for (Map.Entry<ChunkPos, Chunk> entry : toPackMap.entrySet()) {
+            double dist = distanceSq(entry.getKey(), center);
+            if (dist > farthestDist && entry.getValue().isLoaded()) {
+                farthest = entry.getKey();
+                farthestDist = dist;
+            }
         }
+        if (farthest != null) {
+            toPackMap.remove(farthest);
+            packsDropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Blocks until there's something to pack
+     *
+     * @param generation The generation the calling packer thread was started in
+     * @return The queued chunk closest to the player, removed from the queue, or null if the thread should exit
+     */
+    private Chunk nextToPack(int generation) throws InterruptedException {
+        synchronized (toPackMap) {
+            while (toPackMap.isEmpty()) {
+                if (generation != packerGeneration) {
+                    return null;
+                }
+                toPackMap.wait();
+            }
+            BlockPos center = packCenter;
+            ChunkPos closest = null;
+            double closestDist = Double.MAX_VALUE;
+            for (ChunkPos pos : toPackMap.keySet()) {
+                double dist = distanceSq(pos, center);
+                if (dist < closestDist) {
+                    closest = pos;
+                    closestDist = dist;
+                }
+            }
+            return toPackMap.remove(closest);
+        }
+    }
+
+    private static double distanceSq(ChunkPos pos, BlockPos center) {
+        double dx = (pos.x << 4) + 8 - center.getX();
+        double dz = (pos.z << 4) + 8 - center.getZ();
+        return dx * dx + dz * dz;
+    }
+
+    private void packed() {
+        packsCompleted.incrementAndGet();
+        synchronized (toPackMap) {
+            packRateCount++;
+            long now = System.currentTimeMillis();
+            if (now - packRateStart >= 1000) {
+                packsPerSecond = packRateCount * 1000D / (now - packRateStart);
+                packRateStart = now;
+                packRateCount = 0;
+            }
+        }
+    }
+
+    /**
+     * @return How many chunks are waiting to be packed
+     */
+    public final int getPackQueueDepth() {
+        synchronized (toPackMap) {
+            return toPackMap.size();
+        }
+    }
+
+    /**
+     * @return How many chunks were packed per second, as of the last second that anything was packed
+     */
+    public final double getPacksPerSecond() {
+        synchronized (toPackMap) {
+            return packsPerSecond;
+        }
+    }
+
+    /**
+     * @return How many chunks have been packed in total
+     */
+    public final long getPacksCompleted() {
+        return packsCompleted.get();
+    }
+
+    /**
+     * @return How many queued chunks were dropped because the queue was full, see {@link #dropFarthest}
+     */
+    public final long getPacksDropped() {
+        return packsDropped.get();
     }
 
     @Override
@@ -116,6 +318,13 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return region.isCached(blockX & 511, blockZ & 511);
     }
 
+    /**
+     * @return Which chunks are cached, without having to load their regions
+     */
+    public final CachedChunkIndex getChunkIndex() {
+        return chunkIndex;
+    }
+
     public final boolean regionLoaded(int blockX, int blockZ) {
         return getRegion(blockX >> 9, blockZ >> 9) != null;
     }
@@ -136,7 +345,12 @@ public final class CachedWorld implements ICachedWorld, Helper {
                     }
                     int regionX = xoff + centerRegionX;
                     int regionZ = zoff + centerRegionZ;
-                    CachedRegion region = getOrCreateRegion(regionX, regionZ);
+                    if (chunkIndex.isIndexed(regionX, regionZ)) {
+                        // no need to load the region just for this
+                        chunkIndex.getLocationsOf(block, regionX, regionZ, res);
+                        continue;
+                    }
+                    CachedRegion region = getOrCreateRegion(regionX, regionZ); // which indexes it, so this is only once
                     if (region != null) {
                         // TODO: 100% verify if this or addAll is faster.
                         res.addAll(region.getLocationsOf(block));
@@ -151,9 +365,89 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return res;
     }
 
+    @Override
+    public final List<BlockPos> getNearestLocationsOf(String block, int count, int x, int y, int z, int maxRegionDistanceSq) {
+        int centerRegionX = x >> 9;
+        int centerRegionZ = z >> 9;
+        int radius = (int) Math.sqrt(maxRegionDistanceSq);
+        for (int xoff = -radius; xoff <= radius; xoff++) {
+            for (int zoff = -radius; zoff <= radius; zoff++) {
+                if (xoff * xoff + zoff * zoff <= maxRegionDistanceSq && !chunkIndex.isIndexed(centerRegionX + xoff, centerRegionZ + zoff)) {
+                    getOrCreateRegion(centerRegionX + xoff, centerRegionZ + zoff);
+                }
+            }
+        }
+        return chunkIndex.getNearest(block, count, x, y, z, maxRegionDistanceSq);
+    }
+
+    /**
+     * Gets the connectivity of a cached chunk. The chunk keeps it around until its blocks change.
+     * <p>
+     * Never waits on the disk. If the region isn't in memory, it's loaded in the background (see {@link #prefetchRegion})
+     * and the chunk counts as not cached until then, the same as in a path calculation.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The connectivity, or null if the chunk isn't cached or its region isn't loaded yet
+     */
+    public final ChunkConnectivity getConnectivity(int chunkX, int chunkZ) {
+        CachedRegion region = getRegion(chunkX >> 5, chunkZ >> 5);
+        if (region == null) {
+            if (!chunkIndex.isIndexed(chunkX >> 5, chunkZ >> 5) || chunkIndex.isCached(chunkX, chunkZ)) {
+                prefetchRegion(chunkX >> 5, chunkZ >> 5);
+            }
+            return null;
+        }
+        CachedChunk chunk = region.getChunk(chunkX & 31, chunkZ & 31);
+        if (chunk == null) {
+            return null;
+        }
+        return chunk.getConnectivity();
+    }
+
+    /**
+     * The type of a block as the cache has it. Like {@link #getConnectivity}, never waits on the disk.
+     *
+     * @return The type, or null if the chunk isn't cached or its region isn't loaded yet
+     */
+    public final PathingBlockType getBlockType(int x, int y, int z) {
+        CachedRegion region = getRegion(x >> 9, z >> 9);
+        if (region == null) {
+            if (!chunkIndex.isIndexed(x >> 9, z >> 9) || chunkIndex.isCached(x >> 4, z >> 4)) {
+                prefetchRegion(x >> 9, z >> 9);
+            }
+            return null;
+        }
+        CachedChunk chunk = region.getChunk((x >> 4) & 31, (z >> 4) & 31);
+        if (chunk == null) {
+            return null;
+        }
+        return chunk.getType(x & 15, y, z & 15);
+    }
+
+    /**
+     * Updates the cache after a few blocks in a chunk changed, without packing the whole chunk again. Chunks that
+     * haven't been cached yet are left alone, they get packed in full when they unload.
+     *
+     * @param chunk     The chunk, with the changes already applied
+     * @param positions The positions that changed
+     */
+    public final void updateBlocks(Chunk chunk, Collection<BlockPos> positions) {
+        CachedRegion region = getRegion(chunk.x >> 5, chunk.z >> 5);
+        if (region != null) {
+            region.updateBlocks(chunk.x & 31, chunk.z & 31, chunk, positions);
+            CachedChunk cached = region.getChunk(chunk.x & 31, chunk.z & 31);
+            if (cached != null) {
+                chunkIndex.setSpecialBlocks(chunk.x, chunk.z, cached.getRelativeBlocks());
+            }
+        }
+    }
+
     private void updateCachedChunk(CachedChunk chunk) {
         CachedRegion region = getOrCreateRegion(chunk.x >> 5, chunk.z >> 5);
         region.updateCachedChunk(chunk.x & 31, chunk.z & 31, chunk);
+        chunkIndex.setCached(chunk.x, chunk.z);
+        chunkIndex.setSpecialBlocks(chunk.x, chunk.z, chunk.getRelativeBlocks());
     }
 
     @Override
@@ -163,6 +457,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
             allRegions().forEach(region -> {
                 if (region != null) {
                     region.removeExpired();
+                    chunkIndex.update(region);
                 }
             }); // even if we aren't saving to disk, still delete expired old chunks from RAM
             prune();
@@ -171,9 +466,11 @@ public final class CachedWorld implements ICachedWorld, Helper {
         long start = System.nanoTime() / 1000000L;
         allRegions().parallelStream().forEach(region -> {
             if (region != null) {
-                region.save(this.directory);
+                region.save(this.directory); // this also removes expired chunks
+                chunkIndex.update(region);
             }
         });
+        chunkIndex.save();
         long now = System.nanoTime() / 1000000L;
         System.out.println("World save took " + (now - start) + "ms");
         prune();
@@ -199,6 +496,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
                     logDebug("Deleting cached region " + region.getX() + "," + region.getZ() + " from ram");
                 }
                 cachedRegions.remove(getRegionID(region.getX(), region.getZ()));
+                prefetchedRegions.remove(getRegionID(region.getX(), region.getZ()));
             }
         }
     }
@@ -207,11 +505,9 @@ public final class CachedWorld implements ICachedWorld, Helper {
      * If we are still in this world and dimension, return player feet, otherwise return most recently modified chunk
      */
     private BlockPos guessPosition() {
-        for (IBaritone ibaritone : BaritoneAPI.getProvider().getAllBaritones()) {
-            IWorldData data = ibaritone.getWorldProvider().getCurrentWorld();
-            if (data != null && data.getCachedWorld() == this && ibaritone.getPlayerContext().player() != null) {
-                return ibaritone.getPlayerContext().playerFeet();
-            }
+        BlockPos player = playerPosition();
+        if (player != null) {
+            return player;
         }
         CachedChunk mostRecentlyModified = null;
         for (CachedRegion region : allRegions()) {
@@ -232,6 +528,22 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return new BlockPos((mostRecentlyModified.x << 4) + 8, 0, (mostRecentlyModified.z << 4) + 8);
     }
 
+    /**
+     * @return The feet of a player in this world and dimension, or null if there isn't one
+     */
+    private BlockPos playerPosition() {
+        if (mc == null) { // no client, no player, e.g. when planning from the cache alone
+            return null;
+        }
+        for (IBaritone ibaritone : BaritoneAPI.getProvider().getAllBaritones()) {
+            IWorldData data = ibaritone.getWorldProvider().getCurrentWorld();
+            if (data != null && data.getCachedWorld() == this && ibaritone.getPlayerContext().player() != null) {
+                return ibaritone.getPlayerContext().playerFeet();
+            }
+        }
+        return null;
+    }
+
     private synchronized List<CachedRegion> allRegions() {
         return new ArrayList<>(this.cachedRegions.values());
     }
@@ -242,6 +554,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
         allRegions().forEach(region -> {
             if (region != null) {
                 region.load(this.directory);
+                chunkIndex.update(region);
             }
         });
         long now = System.nanoTime() / 1000000L;
@@ -250,7 +563,81 @@ public final class CachedWorld implements ICachedWorld, Helper {
 
     @Override
     public final synchronized CachedRegion getRegion(int regionX, int regionZ) {
-        return cachedRegions.get(getRegionID(regionX, regionZ));
+        long id = getRegionID(regionX, regionZ);
+        CachedRegion region = cachedRegions.get(id);
+        if (region != null) {
+            if (prefetchedRegions.remove(id)) {
+                prefetchHits.incrementAndGet();
+            }
+        } else if (loadingRegions.containsKey(id) && missedRegions.add(id)) {
+            prefetchMisses.incrementAndGet();
+        }
+        return region;
+    }
+
+    /**
+     * Starts loading a region from disk in the background, if it isn't in memory already. Until it's done,
+     * {@link #getRegion} keeps returning null for it, so a path calculation sees those chunks as not loaded instead of
+     * waiting on the disk, and picks them up the next time it looks.
+     *
+     * @param regionX The region X coordinate
+     * @param regionZ The region Z coordinate
+     */
+    public final synchronized void prefetchRegion(int regionX, int regionZ) {
+        long id = getRegionID(regionX, regionZ);
+        if (cachedRegions.containsKey(id) || loadingRegions.containsKey(id)) {
+            return;
+        }
+        CachedRegion region = new CachedRegion(regionX, regionZ, dimension);
+        loadingRegions.put(id, region);
+        boolean submitted = Baritone.getExecutor(Lane.CACHE_IO).tryExecute(new LaneExecutor.DroppableTask() {
+            @Override
+            public void run() {
+                finishLoading(id, region, true);
+            }
+
+            @Override
+            public void dropped() {
+                stopLoading(id, region);
+            }
+        });
+        if (!submitted) {
+            loadingRegions.remove(id); // the disk is busy enough already, it'll be asked for again
+        }
+    }
+
+    /**
+     * A prefetch that was dropped before it started, so that it can be asked for again. If something else is waiting
+     * on the same region (see {@link #getOrCreateRegion}), that loads it instead.
+     */
+    private synchronized void stopLoading(long id, CachedRegion region) {
+        if (loadingRegions.get(id) == region) {
+            loadingRegions.remove(id);
+            missedRegions.remove(id);
+        }
+    }
+
+    /**
+     * @param regionX The region X coordinate
+     * @param regionZ The region Z coordinate
+     * @return Whether this region is being loaded in the background right now
+     */
+    public final synchronized boolean isRegionLoading(int regionX, int regionZ) {
+        return loadingRegions.containsKey(getRegionID(regionX, regionZ));
+    }
+
+    /**
+     * @return How many prefetched regions were in memory by the time anything asked for them
+     */
+    public final long getPrefetchHits() {
+        return prefetchHits.get();
+    }
+
+    /**
+     * @return How many prefetched regions were asked for while they were still loading
+     */
+    public final long getPrefetchMisses() {
+        return prefetchMisses.get();
     }
 
     /**
@@ -261,12 +648,51 @@ public final class CachedWorld implements ICachedWorld, Helper {
      * @param regionZ The region Z coordinate
      * @return The region located at the specified coordinates
      */
-    private synchronized CachedRegion getOrCreateRegion(int regionX, int regionZ) {
-        return cachedRegions.computeIfAbsent(getRegionID(regionX, regionZ), id -> {
-            CachedRegion newRegion = new CachedRegion(regionX, regionZ, dimension);
-            newRegion.load(this.directory);
-            return newRegion;
-        });
+    private CachedRegion getOrCreateRegion(int regionX, int regionZ) {
+        long id = getRegionID(regionX, regionZ);
+        CachedRegion region;
+        synchronized (this) {
+            region = cachedRegions.get(id);
+            if (region != null) {
+                return region;
+            }
+            region = loadingRegions.get(id);
+            if (region == null) {
+                region = new CachedRegion(regionX, regionZ, dimension);
+                loadingRegions.put(id, region);
+            }
+        }
+        // not while holding this, the packer threads and the main thread need it too
+        return finishLoading(id, region, false);
+    }
+
+    /**
+     * Loads a region from {@link #loadingRegions} and puts it with the rest. If another thread is already loading it,
+     * waits for that instead of reading the file again.
+     *
+     * @param prefetch Whether this is {@link #prefetchRegion}
+     * @return The region that's in memory now, which is only a different one if this one was dropped from
+     * {@link #loadingRegions} before it was loaded
+     */
+    private CachedRegion finishLoading(long id, CachedRegion region, boolean prefetch) {
+        if (region.loadOnce(this.directory)) {
+            chunkIndex.update(region);
+        }
+        synchronized (this) {
+            if (loadingRegions.get(id) == region) {
+                loadingRegions.remove(id);
+                missedRegions.remove(id);
+            }
+            CachedRegion existing = cachedRegions.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            cachedRegions.put(id, region);
+            if (prefetch) {
+                prefetchedRegions.add(id);
+            }
+            return region;
+        }
     }
 
     public void tryLoadFromDisk(int regionX, int regionZ) {
@@ -302,13 +728,22 @@ public final class CachedWorld implements ICachedWorld, Helper {
 
     private class PackerThread implements Runnable {
 
+        private final int generation;
+
+        private PackerThread(int generation) {
+            this.generation = generation;
+        }
+
         public void run() {
             while (true) {
                 try {
-                    ChunkPos pos = toPackQueue.take();
-                    Chunk chunk = toPackMap.remove(pos);
+                    Chunk chunk = nextToPack(generation);
+                    if (chunk == null) {
+                        break;
+                    }
                     CachedChunk cached = ChunkPacker.pack(chunk);
                     CachedWorld.this.updateCachedChunk(cached);
+                    packed();
                     //System.out.println("Processed chunk at " + chunk.x + "," + chunk.z);
                 } catch (InterruptedException e) {
                     e.printStackTrace();
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.utils.IBlockSource;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+
+import java.nio.file.Path;
+
+/**
+ * Reads blocks from nothing but a {@link CachedWorld}, loading regions from disk as they're needed. With this, a
+ * route can be planned from just the cache directory of a world, without a client.
+ */
+public final class CachedWorldBlockSource implements IBlockSource {
+
+    private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final CachedWorld cache;
+
+    private CachedRegion prev = null;
+
+    public CachedWorldBlockSource(CachedWorld cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @param directory The cache directory, e.g. baritone/DIM0/cache in a world's save folder
+     * @param dimension The dimension the cache is of
+     * @return A block source reading from the cache in that directory
+     */
+    public static CachedWorldBlockSource open(Path directory, int dimension) {
+        return new CachedWorldBlockSource(new CachedWorld(directory, dimension));
+    }
+
+    public CachedWorld getCache() {
+        return cache;
+    }
+
+    @Override
+    public IBlockState get(int x, int y, int z) {
+        IBlockState type = region(x, z).getBlock(x & 511, y, z & 511);
+        if (type == null) {
+            return AIR;
+        }
+        return type;
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return region(x, z).isCached(x & 511, z & 511);
+    }
+
+    private CachedRegion region(int x, int z) {
+        CachedRegion region = prev;
+        if (region != null && region.getX() == x >> 9 && region.getZ() == z >> 9) {
+            return region;
+        }
+        region = cache.getRegion(x >> 9, z >> 9);
+        if (region == null) {
+            // a region that isn't on disk is still created, empty, so this only happens once per region
+            cache.tryLoadFromDisk(x >> 9, z >> 9);
+            region = cache.getRegion(x >> 9, z >> 9);
+        }
+        prev = region;
+        return region;
+    }
+}
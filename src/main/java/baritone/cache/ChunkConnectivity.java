@@ -0,0 +1,144 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.utils.pathing.PathingBlockType;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Which of the places to stand in a cached chunk can be walked between without leaving it, for planning routes at the
+ * chunk level, see {@link baritone.pathing.calc.ChunkRoutePlanner}.
+ * <p>
+ * A place to stand is air with air above and something solid below. Two of them are connected if they're in
+ * neighboring columns and no more than one block apart vertically. That's only walking, so anything that has to be
+ * mined or parkoured through shows up as disconnected.
+ */
+public final class ChunkConnectivity {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The y of each place to stand in each column (indexed by z << 4 | x), lowest first
+     */
+    private final int[][] ys = new int[256][];
+
+    /**
+     * Which component each of those places is in
+     */
+    private final int[][] components = new int[256][];
+
+    private final int numComponents;
+
+    ChunkConnectivity(CachedChunk chunk) {
+        int[] offsets = new int[257];
+        IntArrayList column = new IntArrayList();
+        for (int i = 0; i < 256; i++) {
+            int x = i & 15;
+            int z = i >> 4;
+            column.clear();
+            for (int y = 1; y < 255; y++) {
+                if (chunk.getType(x, y - 1, z) == PathingBlockType.SOLID && chunk.getType(x, y, z) == PathingBlockType.AIR && chunk.getType(x, y + 1, z) == PathingBlockType.AIR) {
+                    column.add(y);
+                }
+            }
+            ys[i] = column.isEmpty() ? EMPTY : column.toIntArray();
+            offsets[i + 1] = offsets[i] + ys[i].length;
+        }
+        int[] parent = new int[offsets[256]];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < 256; i++) {
+            int x = i & 15;
+            int z = i >> 4;
+            if (x < 15) {
+                union(parent, ys[i], offsets[i], ys[i + 1], offsets[i + 1]);
+            }
+            if (z < 15) {
+                union(parent, ys[i], offsets[i], ys[i + 16], offsets[i + 16]);
+            }
+        }
+        int[] relabel = new int[parent.length];
+        int count = 0;
+        for (int i = 0; i < parent.length; i++) {
+            if (find(parent, i) == i) {
+                relabel[i] = count++;
+            }
+        }
+        for (int i = 0; i < 256; i++) {
+            components[i] = new int[ys[i].length];
+            for (int j = 0; j < ys[i].length; j++) {
+                components[i][j] = relabel[find(parent, offsets[i] + j)];
+            }
+        }
+        this.numComponents = count;
+    }
+
+    /**
+     * Connects every pair of places in two neighboring columns that are within one block of each other. Both columns
+     * are sorted, so this is a merge.
+     */
+    private static void union(int[] parent, int[] a, int aOffset, int[] b, int bOffset) {
+        int j = 0;
+        for (int i = 0; i < a.length; i++) {
+            while (j < b.length && b[j] < a[i] - 1) {
+                j++;
+            }
+            for (int k = j; k < b.length && b[k] <= a[i] + 1; k++) {
+                int rootA = find(parent, aOffset + i);
+                int rootB = find(parent, bOffset + k);
+                if (rootA != rootB) {
+                    parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+                }
+            }
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * @return How many separate components there are
+     */
+    public int getComponentCount() {
+        return numComponents;
+    }
+
+    /**
+     * @param x The x position, relative to the chunk
+     * @param z The z position, relative to the chunk
+     * @return The y of each place to stand in that column, lowest first. Don't modify it.
+     */
+    public int[] getStandableYs(int x, int z) {
+        return ys[z << 4 | x];
+    }
+
+    /**
+     * @param x The x position, relative to the chunk
+     * @param z The z position, relative to the chunk
+     * @return The component of each place to stand in that column, in the same order as {@link #getStandableYs}
+     */
+    public int[] getComponents(int x, int z) {
+        return components[z << 4 | x];
+    }
+}
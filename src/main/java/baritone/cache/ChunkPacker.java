@@ -17,12 +17,13 @@
 
 package baritone.cache;
 
-import baritone.api.utils.BlockUtils;
 import baritone.pathing.movement.MovementHelper;
 import baritone.utils.pathing.PathingBlockType;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.block.*;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.chunk.BlockStateContainer;
 import net.minecraft.world.chunk.Chunk;
@@ -41,7 +42,7 @@ public final class ChunkPacker {
     public static CachedChunk pack(Chunk chunk) {
         //long start = System.nanoTime() / 1000000L;
 
-        Map<String, List<BlockPos>> specialBlocks = new HashMap<>();
+        IntArrayList specialBlocks = new IntArrayList();
         BitSet bitSet = new BitSet(CachedChunk.SIZE);
         try {
             ExtendedBlockStorage[] chunkInternalStorageArray = chunk.getBlockStorageArray();
@@ -62,6 +63,7 @@ public final class ChunkPacker {
                 int yReal = y0 << 4;
                 // the mapping of BlockStateContainer.getIndex from xyz to index is y << 8 | z << 4 | x;
                 // for better cache locality, iterate in that order
+                // (which is also the order special blocks are sorted in)
                 for (int y1 = 0; y1 < 16; y1++) {
                     int y = y1 | yReal;
                     for (int z = 0; z < 16; z++) {
@@ -73,8 +75,7 @@ public final class ChunkPacker {
                             bitSet.set(index + 1, bits[1]);
                             Block block = state.getBlock();
                             if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
-                                String name = BlockUtils.blockToString(block);
-                                specialBlocks.computeIfAbsent(name, b -> new ArrayList<>()).add(new BlockPos(x, y, z));
+                                specialBlocks.add(CachedChunk.packSpecial(x, y, z, block));
                             }
                         }
                     }
@@ -102,10 +103,45 @@ public final class ChunkPacker {
             }
         }
         // @formatter:on
-        return new CachedChunk(chunk.x, chunk.z, bitSet, blocks, specialBlocks, System.currentTimeMillis());
+        CachedChunk cached = new CachedChunk(chunk.x, chunk.z, bitSet, blocks, specialBlocks.toIntArray(), System.currentTimeMillis());
+        cached.getConnectivity(); // while still off the main thread
+        return cached;
     }
 
 
+    /**
+     * Updates an already packed chunk after some of its blocks changed, instead of packing the whole thing again.
+     * Only the changed blocks (and their neighbors, since that decides whether water counts as flowing), the columns
+     * they're in, and the special blocks are touched.
+     *
+     * @param cached    The packed chunk, not in a mapped region file
+     * @param chunk     The chunk, with the changes already applied
+     * @param positions The positions that changed, in world coordinates
+     */
+    public static void update(CachedChunk cached, Chunk chunk, Collection<BlockPos> positions) {
+        cached.invalidateConnectivity();
+        for (BlockPos pos : positions) {
+            int x = pos.getX() & 15;
+            int y = pos.getY();
+            int z = pos.getZ() & 15;
+            if (y < 0 || y >= 256) {
+                continue;
+            }
+            IBlockState state = chunk.getBlockState(x, y, z);
+            cached.setType(x, y, z, getPathingBlockType(state, chunk, x, y, z));
+            for (EnumFacing facing : EnumFacing.HORIZONTALS) {
+                int nx = x + facing.getXOffset();
+                int nz = z + facing.getZOffset();
+                if (nx >= 0 && nx < 16 && nz >= 0 && nz < 16) {
+                    cached.setType(nx, y, nz, getPathingBlockType(chunk.getBlockState(nx, y, nz), chunk, nx, y, nz));
+                }
+            }
+            cached.updateColumn(x, z, surfaceY -> chunk.getBlockState(x, surfaceY, z));
+            Block block = state.getBlock();
+            cached.updateSpecial(x, y, z, CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block) ? block : null);
+        }
+    }
+
     private static PathingBlockType getPathingBlockType(IBlockState state, Chunk chunk, int x, int y, int z) {
         Block block = state.getBlock();
         if (block == Blocks.WATER || block == Blocks.FLOWING_WATER) {
@@ -17,13 +17,13 @@
 
 package baritone.cache;
 
-import baritone.Baritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWaypointCollection;
 import baritone.api.cache.IWorldData;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Data about a world, from baritone's point of view. Includes cached chunks, waypoints, and map data.
@@ -45,11 +45,25 @@ public class WorldData implements IWorldData {
         this.dimension = dimension;
     }
 
+    public void onOpen() {
+        cache.start();
+    }
+
     public void onClose() {
-        Baritone.getExecutor().execute(() -> {
+        List<Thread> packers = cache.stop();
+        // its own thread, so that it can't be dropped from a full queue, or end up waiting behind one
+        Thread saver = new Thread(() -> {
+            try {
+                for (Thread packer : packers) {
+                    packer.join(); // so that the last few chunks make it into this save
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
             System.out.println("Started saving the world in a new thread");
             cache.save();
-        });
+        }, "Baritone world save");
+        saver.start();
     }
 
     @Override
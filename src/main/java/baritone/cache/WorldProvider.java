@@ -20,6 +20,7 @@ package baritone.cache;
 import baritone.Baritone;
 import baritone.api.cache.IWorldProvider;
 import baritone.api.utils.Helper;
+import baritone.utils.LaneExecutor.Lane;
 import baritone.utils.accessor.IAnvilChunkLoader;
 import baritone.utils.accessor.IChunkProviderServer;
 import net.minecraft.server.integrated.IntegratedServer;
@@ -109,6 +110,7 @@ public class WorldProvider implements IWorldProvider, Helper {
         System.out.println("Baritone world data dir: " + dir);
         synchronized (worldCache) {
             this.currentWorld = worldCache.computeIfAbsent(dir, d -> new WorldData(d, dimension));
+            this.currentWorld.onOpen(); // in case this world was open before
         }
     }
 
@@ -118,6 +120,8 @@ public class WorldProvider implements IWorldProvider, Helper {
         if (world == null) {
             return;
         }
+        // whatever these were looking for, it was in the world that's being left
+        Baritone.getExecutor(Lane.SCANNING).clearQueue();
         world.onClose();
     }
 
@@ -17,6 +17,7 @@
 
 package baritone.cache;
 
+import baritone.Baritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWorldScanner;
 import baritone.api.utils.BetterBlockPos;
@@ -32,6 +33,9 @@ import net.minecraft.world.chunk.IChunkProvider;
 import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.IntStream;
 
 public enum WorldScanner implements IWorldScanner {
@@ -40,29 +44,51 @@ public enum WorldScanner implements IWorldScanner {
 
     private static final int[] DEFAULT_COORDINATE_ITERATION_ORDER = IntStream.range(0, 16).toArray();
 
+    /**
+     * Only created once worldScanParallelism is more than 1
+     */
+    private static ForkJoinPool scanPool;
+
     @Override
     public List<BlockPos> scanChunkRadius(IPlayerContext ctx, BlockOptionalMetaLookup filter, int max, int yLevelThreshold, int maxSearchRadius) {
-        ArrayList<BlockPos> res = new ArrayList<>();
-
         if (filter.blocks().isEmpty()) {
-            return res;
+            return new ArrayList<>();
         }
 
         ChunkProviderClient chunkProvider = (ChunkProviderClient) ctx.world().getChunkProvider();
+        SectionSource source = (chunkX, chunkZ) -> {
+            Chunk chunk = chunkProvider.getLoadedChunk(chunkX, chunkZ);
+            return chunk == null ? null : sections(chunk);
+        };
+        BetterBlockPos feet = ctx.playerFeet();
+        return scanRadius(source, feet.getX() >> 4, feet.getZ() >> 4, feet.getY(), filter, max, yLevelThreshold, maxSearchRadius, Baritone.settings().worldScanParallelism.value);
+    }
 
+    /**
+     * Scan outwards from the player one ring of chunks at a time (all the chunks at the same squared distance), until
+     * enough have been found or there's nothing left loaded. With more than one thread, the chunks of a ring are
+     * scanned at the same time, and then put together in order, stopping each one where it would have stopped if they
+     * had been scanned one at a time. Once the chunks put together so far have found enough, the chunks started after
+     * that stop early by themselves instead of being scanned in full. So the result is the same either way.
+     *
+     * @param sections The sections of a chunk, or null if it isn't loaded
+     * @param threads  How many threads to scan a ring with
+     */
+    static List<BlockPos> scanRadius(SectionSource sections, int playerChunkX, int playerChunkZ, int playerY, BlockOptionalMetaLookup filter, int max, int yLevelThreshold, int maxSearchRadius, int threads) {
+        ArrayList<BlockPos> res = new ArrayList<>();
         int maxSearchRadiusSq = maxSearchRadius * maxSearchRadius;
-        int playerChunkX = ctx.playerFeet().getX() >> 4;
-        int playerChunkZ = ctx.playerFeet().getZ() >> 4;
-        int playerY = ctx.playerFeet().getY();
 
         int playerYBlockStateContainerIndex = playerY >> 4;
         int[] coordinateIterationOrder = IntStream.range(0, 16).boxed().sorted(Comparator.comparingInt(y -> Math.abs(y - playerYBlockStateContainerIndex))).mapToInt(x -> x).toArray();
 
+        ForkJoinPool pool = threads > 1 ? pool(threads) : null;
         int searchRadiusSq = 0;
         boolean foundWithinY = false;
         while (true) {
             boolean allUnloaded = true;
             boolean foundChunks = false;
+            List<IBlockStateContainer[]> ring = new ArrayList<>();
+            List<ChunkPos> ringPos = new ArrayList<>();
             for (int xoff = -searchRadiusSq; xoff <= searchRadiusSq; xoff++) {
                 for (int zoff = -searchRadiusSq; zoff <= searchRadiusSq; zoff++) {
                     int distance = xoff * xoff + zoff * zoff;
@@ -72,12 +98,41 @@ public enum WorldScanner implements IWorldScanner {
                     foundChunks = true;
                     int chunkX = xoff + playerChunkX;
                     int chunkZ = zoff + playerChunkZ;
-                    Chunk chunk = chunkProvider.getLoadedChunk(chunkX, chunkZ);
+                    IBlockStateContainer[] chunk = sections.sections(chunkX, chunkZ);
                     if (chunk == null) {
                         continue;
                     }
                     allUnloaded = false;
-                    if (scanChunkInto(chunkX << 4, chunkZ << 4, chunk, filter, res, max, yLevelThreshold, playerY, coordinateIterationOrder)) {
+                    ring.add(chunk);
+                    ringPos.add(new ChunkPos(chunkX, chunkZ));
+                }
+            }
+            if (pool == null || ring.size() < 2) {
+                for (int i = 0; i < ring.size(); i++) {
+                    if (scanChunkInto(ringPos.get(i).x << 4, ringPos.get(i).z << 4, ring.get(i), filter, res, max, yLevelThreshold, playerY, coordinateIterationOrder)) {
+                        foundWithinY = true;
+                    }
+                }
+            } else {
+                // only one chunk per thread is started ahead of the one being merged, so that once the ones merged so
+                // far have found enough, the rest of the ring isn't all already being scanned in full
+                ArrayDeque<ForkJoinTask<List<BlockPos>>> tasks = new ArrayDeque<>(threads);
+                int submitted = 0;
+                for (int merged = 0; merged < ring.size(); merged++) {
+                    while (submitted < ring.size() && tasks.size() < threads) {
+                        IBlockStateContainer[] chunk = ring.get(submitted);
+                        ChunkPos pos = ringPos.get(submitted);
+                        // if the chunks before this one haven't found enough yet, how many they will find isn't known,
+                        // so it can't stop early. if they have, it stops exactly where it would have one at a time
+                        int limit = res.size() >= max ? 0 : Integer.MAX_VALUE;
+                        tasks.add(pool.submit(() -> {
+                            List<BlockPos> found = new ArrayList<>();
+                            scanChunkInto(pos.x << 4, pos.z << 4, chunk, filter, found, limit, yLevelThreshold, playerY, coordinateIterationOrder);
+                            return found;
+                        }));
+                        submitted++;
+                    }
+                    if (mergeInto(tasks.poll().join(), res, max, yLevelThreshold, playerY)) {
                         foundWithinY = true;
                     }
                 }
@@ -107,7 +162,7 @@ public enum WorldScanner implements IWorldScanner {
         }
 
         ArrayList<BlockPos> res = new ArrayList<>();
-        scanChunkInto(pos.x << 4, pos.z << 4, chunk, filter, res, max, yLevelThreshold, playerY, DEFAULT_COORDINATE_ITERATION_ORDER);
+        scanChunkInto(pos.x << 4, pos.z << 4, sections(chunk), filter, res, max, yLevelThreshold, playerY, DEFAULT_COORDINATE_ITERATION_ORDER);
         return res;
     }
 
@@ -146,24 +201,39 @@ public enum WorldScanner implements IWorldScanner {
         return queued;
     }
 
-    private boolean scanChunkInto(int chunkX, int chunkZ, Chunk chunk, BlockOptionalMetaLookup filter, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY, int[] coordinateIterationOrder) {
+    private static IBlockStateContainer[] sections(Chunk chunk) {
         ExtendedBlockStorage[] chunkInternalStorageArray = chunk.getBlockStorageArray();
+        IBlockStateContainer[] sections = new IBlockStateContainer[chunkInternalStorageArray.length];
+        for (int y0 = 0; y0 < sections.length; y0++) {
+            ExtendedBlockStorage extendedblockstorage = chunkInternalStorageArray[y0];
+            if (extendedblockstorage != null) {
+                sections[y0] = (IBlockStateContainer) extendedblockstorage.getData();
+            }
+        }
+        return sections;
+    }
+
+    static boolean scanChunkInto(int chunkX, int chunkZ, IBlockStateContainer[] sections, BlockOptionalMetaLookup filter, Collection<BlockPos> result, int max, int yLevelThreshold, int playerY, int[] coordinateIterationOrder) {
         boolean foundWithinY = false;
         for (int yIndex = 0; yIndex < 16; yIndex++) {
             int y0 = coordinateIterationOrder[yIndex];
-            ExtendedBlockStorage extendedblockstorage = chunkInternalStorageArray[y0];
-            if (extendedblockstorage == null) {
+            IBlockStateContainer bsc = sections[y0];
+            if (bsc == null) {
+                continue;
+            }
+            // the palette is every state that's been in this section, usually only a handful
+            // so if none of them match, there's no need to look at the 4096 blocks at all
+            boolean[] matches = matchingPalette(bsc, filter);
+            if (matches != null && matches.length == 0) {
                 continue;
             }
             int yReal = y0 << 4;
-            IBlockStateContainer bsc = (IBlockStateContainer) extendedblockstorage.getData();
             // storageArray uses an optimized algorithm that's faster than getAt
             // creating this array and then using getAtPalette is faster than even getFast(int index)
             int[] storage = bsc.storageArray();
             final int imax = 1 << 12;
             for (int i = 0; i < imax; i++) {
-                IBlockState state = bsc.getAtPalette(storage[i]);
-                if (filter.has(state)) {
+                if (matches != null ? matches[storage[i]] : filter.has(bsc.getAtPalette(storage[i]))) {
                     int y = yReal | ((i >> 8) & 15);
                     if (result.size() >= max) {
                         if (Math.abs(y - playerY) < yLevelThreshold) {
@@ -182,4 +252,70 @@ public enum WorldScanner implements IWorldScanner {
         }
         return foundWithinY;
     }
+
+    /**
+     * Adds what one chunk found, in the order it was found, to the result. Stops in the same place that
+     * {@link #scanChunkInto} would have stopped if it had been adding to the result itself.
+     *
+     * @return Whether anything within yLevelThreshold was found once there were already enough
+     */
+    private static boolean mergeInto(List<BlockPos> found, List<BlockPos> result, int max, int yLevelThreshold, int playerY) {
+        boolean foundWithinY = false;
+        for (BlockPos pos : found) {
+            if (result.size() >= max) {
+                if (Math.abs(pos.getY() - playerY) < yLevelThreshold) {
+                    foundWithinY = true;
+                } else if (foundWithinY) {
+                    return true;
+                }
+            }
+            result.add(pos);
+        }
+        return foundWithinY;
+    }
+
+    /**
+     * @return Whether each palette index matches the filter, an empty array if none of them do, or null if this is
+     * the global palette and it's quicker to just check each block
+     */
+    private static boolean[] matchingPalette(IBlockStateContainer bsc, BlockOptionalMetaLookup filter) {
+        int size = bsc.paletteSize();
+        if (size < 0) {
+            return null;
+        }
+        boolean[] matches = new boolean[size];
+        boolean any = false;
+        for (int i = 0; i < size; i++) {
+            IBlockState state = bsc.getAtPalette(i);
+            if (state == null) {
+                break; // indices are handed out in order, so the rest are unused
+            }
+            if (filter.has(state)) {
+                matches[i] = true;
+                any = true;
+            }
+        }
+        return any ? matches : new boolean[0];
+    }
+
+    private static synchronized ForkJoinPool pool(int threads) {
+        if (scanPool == null || scanPool.getParallelism() != threads) {
+            if (scanPool != null) {
+                scanPool.shutdown(); // lets anything already running finish
+            }
+            scanPool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("Baritone world scanner " + thread.getPoolIndex());
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }, null, false);
+        }
+        return scanPool;
+    }
+
+    @FunctionalInterface
+    interface SectionSource {
+
+        IBlockStateContainer[] sections(int chunkX, int chunkZ);
+    }
 }
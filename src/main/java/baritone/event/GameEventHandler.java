@@ -23,11 +23,18 @@ import baritone.api.event.events.type.EventState;
 import baritone.api.event.listener.IEventBus;
 import baritone.api.event.listener.IGameEventListener;
 import baritone.api.utils.Helper;
+import baritone.cache.CachedChunk;
 import baritone.cache.WorldProvider;
 import baritone.utils.BlockStateInterface;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.SPacketBlockChange;
+import net.minecraft.network.play.server.SPacketMultiBlockChange;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -128,6 +135,48 @@ public final class GameEventHandler implements IEventBus, Helper {
 
     @Override
     public final void onReceivePacket(PacketEvent event) {
+        if (event.getState() == EventState.POST && Baritone.settings().repackOnAnyBlockChange.value) {
+            Packet<?> packet = event.getPacket();
+            List<BlockPos> changed = null;
+            boolean special = false;
+            if (packet instanceof SPacketBlockChange) {
+                SPacketBlockChange change = (SPacketBlockChange) packet;
+                changed = Collections.singletonList(change.getBlockPosition());
+                special = CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(change.getBlockState().getBlock());
+            } else if (packet instanceof SPacketMultiBlockChange) {
+                SPacketMultiBlockChange.BlockUpdateData[] updates = ((SPacketMultiBlockChange) packet).getChangedBlocks();
+                changed = new ArrayList<>(updates.length);
+                for (SPacketMultiBlockChange.BlockUpdateData update : updates) {
+                    changed.add(update.getPos());
+                    special |= CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(update.getBlockState().getBlock());
+                }
+            }
+            if (changed != null && !changed.isEmpty()) {
+                List<BlockPos> positions = changed;
+                boolean populate = special;
+                // this is the netty thread, and the change hasn't happened yet
+                // it's queued up on the main thread, so queue this up to run right after it
+                mc.addScheduledTask(() -> {
+                    World world = baritone.getPlayerContext().world();
+                    if (world == null) {
+                        return;
+                    }
+                    // every position in a multi block change is in the same chunk
+                    Chunk chunk = world.getChunk(positions.get(0));
+                    baritone.getWorldProvider().ifWorldLoaded(worldData -> {
+                        if (chunk.isLoaded()) {
+                            worldData.cache.updateBlocks(chunk, positions);
+                        }
+                    });
+                    if (populate) {
+                        // listeners have always been told about special blocks showing up as if the chunk was
+                        // populated again. the cache is already up to date, so this skips onChunkEvent's repack
+                        ChunkEvent populated = new ChunkEvent(EventState.POST, ChunkEvent.Type.POPULATE_FULL, chunk.x, chunk.z);
+                        listeners.forEach(l -> l.onChunkEvent(populated));
+                    }
+                });
+            }
+        }
         listeners.forEach(l -> l.onReceivePacket(event));
     }
 
@@ -156,6 +205,11 @@ public final class GameEventHandler implements IEventBus, Helper {
         listeners.forEach(l -> l.onPathEvent(event));
     }
 
+    @Override
+    public void onPathSearch(PathSearchEvent event) {
+        listeners.forEach(l -> l.onPathSearch(event));
+    }
+
     @Override
     public final void registerEventListener(IGameEventListener listener) {
         this.listeners.add(listener);
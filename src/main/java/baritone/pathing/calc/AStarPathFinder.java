@@ -25,7 +25,6 @@ import baritone.api.utils.BetterBlockPos;
 import baritone.pathing.calc.openset.BinaryHeapOpenSet;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.Moves;
-import baritone.utils.pathing.BetterWorldBorder;
 import baritone.utils.pathing.Favoring;
 import baritone.utils.pathing.MutableMoveResult;
 
@@ -40,15 +39,38 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 
     private final Favoring favoring;
     private final CalculationContext calcContext;
+    private final MovementCostCache costCache;
+    private final Object costFingerprint;
 
     public AStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
+        this(startX, startY, startZ, goal, favoring, context, null);
+    }
+
+    /**
+     * @param costCache Costs from previous searches, see {@link MovementCostCache}. Has to be constructed on the main
+     *                  thread to use it, since that's where the context's fingerprint can be taken.
+     */
+    public AStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context, MovementCostCache costCache) {
         super(startX, startY, startZ, goal, context);
         this.favoring = favoring;
         this.calcContext = context;
+        this.costCache = costCache;
+        this.costFingerprint = costCache == null ? null : context.costFingerprint();
     }
 
     @Override
     protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        if (costCache == null || !costCache.acquire(costFingerprint, Baritone.settings().movementCostCacheSize.value)) {
+            return search(primaryTimeout, failureTimeout, null);
+        }
+        try {
+            return search(primaryTimeout, failureTimeout, costCache);
+        } finally {
+            costCache.release();
+        }
+    }
+
+    private Optional<IPath> search(long primaryTimeout, long failureTimeout, MovementCostCache costCache) {
         startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
         startNode.cost = 0;
         startNode.combinedCost = startNode.estimatedCostToGoal;
@@ -60,7 +82,6 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
             bestSoFar[i] = startNode;
         }
         MutableMoveResult res = new MutableMoveResult();
-        BetterWorldBorder worldBorder = new BetterWorldBorder(calcContext.world.getWorldBorder());
         long startTime = System.currentTimeMillis();
         boolean slowPath = Baritone.settings().slowPath.value;
         if (slowPath) {
@@ -71,13 +92,14 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
         boolean failing = true;
         int numNodes = 0;
         int numMovementsConsidered = 0;
-        int numEmptyChunk = 0;
         boolean isFavoring = !favoring.isEmpty();
         int timeCheckInterval = 1 << 6;
         int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
         double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
         Moves[] allMoves = Moves.values();
-        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+        long cacheHits = costCache == null ? 0 : costCache.getHits();
+        long cacheMisses = costCache == null ? 0 : costCache.getMisses();
+        while (!openSet.isEmpty() && counters.emptyChunkHits < pathingMaxChunkBorderFetch && !cancelRequested) {
             if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
                 long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
                 if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
@@ -92,50 +114,35 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
             PathNode currentNode = openSet.removeLowest();
             mostRecentConsidered = currentNode;
             numNodes++;
+            counters.nodesExpanded++;
             if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
                 logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
                 return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
             }
+            long stamp = costCache == null ? 0 : costCache.now();
+            long validSince = costCache == null ? 0 : costCache.validSince(currentNode.x, currentNode.z);
             for (Moves moves : allMoves) {
-                int newX = currentNode.x + moves.xOffset;
-                int newZ = currentNode.z + moves.zOffset;
-                if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
-                    // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
-                    if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
-                        numEmptyChunk++;
-                    }
-                    continue;
-                }
-                if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
-                    continue;
-                }
-                if (currentNode.y + moves.yOffset > 256 || currentNode.y + moves.yOffset < 0) {
+                if (checkDestination(calcContext, moves, currentNode.x, currentNode.y, currentNode.z, counters) < 0) {
                     continue;
                 }
                 res.reset();
-                moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
+                if (costCache == null || !costCache.get(currentNode.x, currentNode.y, currentNode.z, moves, validSince, res)) {
+                    long moveStart = timeMoves ? System.nanoTime() : 0;
+                    moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
+                    counters.evaluated(moves, timeMoves ? System.nanoTime() - moveStart : 0);
+                    if (costCache != null && stamp >= validSince) {
+                        costCache.put(currentNode.x, currentNode.y, currentNode.z, moves, stamp, res);
+                    }
+                }
                 numMovementsConsidered++;
-                double actionCost = res.cost;
+                double actionCost = checkedCost(calcContext, moves, currentNode.x, currentNode.y, currentNode.z, res);
                 if (actionCost >= ActionCosts.COST_INF) {
                     continue;
                 }
-                if (actionCost <= 0 || Double.isNaN(actionCost)) {
-                    throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
-                }
-                // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
-                if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
-                    continue;
-                }
-                if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
-                    throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
-                }
-                if (!moves.dynamicY && res.y != currentNode.y + moves.yOffset) {
-                    throw new IllegalStateException(moves + " " + res.y + " " + (currentNode.y + moves.yOffset));
-                }
                 long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
                 if (isFavoring) {
                     // see issue #18
-                    actionCost *= favoring.calculate(hashCode);
+                    actionCost *= favoring.calculate(res.x, res.y, res.z, hashCode);
                 }
                 PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, hashCode);
                 double tentativeCost = currentNode.cost + actionCost;
@@ -147,6 +154,7 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                         openSet.update(neighbor);
                     } else {
                         openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                        counters.openSetPeak = Math.max(counters.openSetPeak, openSet.size());
                     }
                     for (int i = 0; i < COEFFICIENTS.length; i++) {
                         double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
@@ -161,6 +169,10 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 }
             }
         }
+        if (costCache != null) {
+            counters.costCacheHits = costCache.getHits() - cacheHits;
+            counters.costCacheMisses = costCache.getMisses() - cacheMisses;
+        }
         if (cancelRequested) {
             return Optional.empty();
         }
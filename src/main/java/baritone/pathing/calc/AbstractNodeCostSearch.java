@@ -20,13 +20,22 @@ package baritone.pathing.calc;
 import baritone.Baritone;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.calc.IPathFinder;
+import baritone.api.pathing.calc.PathSearchStats;
 import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
 import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.PathCalculationResult;
 import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.MutableMoveResult;
+import baritone.utils.pathing.PathBase;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
 import java.util.Optional;
 
 /**
@@ -59,6 +68,18 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 
     protected boolean cancelRequested;
 
+    /**
+     * Filled in by the subclass as it searches, see {@link #getSearchStats()}
+     */
+    protected final SearchCounters counters = new SearchCounters();
+
+    /**
+     * Whether to time every single movement calculation into {@link SearchCounters#moveNanos}
+     */
+    protected final boolean timeMoves = Baritone.settings().pathingMoveTiming.value;
+
+    private volatile PathSearchStats searchStats;
+
     /**
      * This is really complicated and hard to explain. I wrote a comment in the old version of MineBot but it was so
      * long it was easier as a Google Doc (because I could insert charts).
@@ -100,13 +121,41 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
             throw new IllegalStateException("Path finder cannot be reused!");
         }
         cancelRequested = false;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuTime = threads.isCurrentThreadCpuTimeSupported();
+        long startCpu = cpuTime ? threads.getCurrentThreadCpuTime() : 0;
+        long startTime = System.currentTimeMillis();
+        BlockStateInterface bsi = context.bsi;
+        long chunkCacheHits = bsi.getChunkCacheHits();
+        long chunkLookups = bsi.getChunkLookups();
+        long regionCacheHits = bsi.getRegionCacheHits();
+        long regionLookups = bsi.getRegionLookups();
+        long regionMisses = bsi.getRegionMisses();
         try {
-            IPath path = calculate0(primaryTimeout, failureTimeout).map(IPath::postProcess).orElse(null);
+            Optional<IPath> found = calculate0(primaryTimeout, failureTimeout);
+            searchStats = new PathSearchStats(
+                    counters.nodesExpanded,
+                    nodesCreated(),
+                    counters.emptyChunkHits,
+                    counters.openSetPeak,
+                    SearchCounters.byMove(counters.moveEvaluations),
+                    timeMoves ? SearchCounters.byMove(counters.moveNanos) : Collections.emptyMap(),
+                    bsi.getChunkCacheHits() - chunkCacheHits,
+                    bsi.getChunkLookups() - chunkLookups,
+                    bsi.getRegionCacheHits() - regionCacheHits,
+                    bsi.getRegionLookups() - regionLookups,
+                    bsi.getRegionMisses() - regionMisses,
+                    counters.costCacheHits,
+                    counters.costCacheMisses,
+                    System.currentTimeMillis() - startTime,
+                    cpuTime ? threads.getCurrentThreadCpuTime() - startCpu : -1
+            );
+            IPath path = found.map(IPath::postProcess).orElse(null);
             if (cancelRequested) {
-                return new PathCalculationResult(PathCalculationResult.Type.CANCELLATION);
+                return new PathCalculationResult(PathCalculationResult.Type.CANCELLATION, null, searchStats);
             }
             if (path == null) {
-                return new PathCalculationResult(PathCalculationResult.Type.FAILURE);
+                return new PathCalculationResult(PathCalculationResult.Type.FAILURE, null, searchStats);
             }
             int previousLength = path.length();
             path = path.cutoffAtLoadedChunks(context.bsi);
@@ -121,10 +170,11 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
             if (path.length() < previousLength) {
                 Helper.HELPER.logDebug("Static cutoff " + previousLength + " to " + path.length());
             }
+            ((PathBase) path).setSearchStats(searchStats);
             if (goal.isInGoal(path.getDest())) {
-                return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_TO_GOAL, path);
+                return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_TO_GOAL, path, searchStats);
             } else {
-                return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_SEGMENT, path);
+                return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_SEGMENT, path, searchStats);
             }
         } catch (Exception e) {
             Helper.HELPER.logDirect("Pathing exception: " + e);
@@ -138,6 +188,20 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 
     protected abstract Optional<IPath> calculate0(long primaryTimeout, long failureTimeout);
 
+    /**
+     * @return What the calculation did, or null if it hasn't finished (or threw an exception)
+     */
+    public PathSearchStats getSearchStats() {
+        return searchStats;
+    }
+
+    /**
+     * @return How many nodes this search allocated
+     */
+    protected int nodesCreated() {
+        return mapSize();
+    }
+
     /**
      * Determines the distance squared from the specified node to the start
      * node. Intended for use in distance comparison, rather than anything that
@@ -147,12 +211,98 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
      * @return The distance, squared
      */
     protected double getDistFromStartSq(PathNode n) {
-        int xDiff = n.x - startX;
-        int yDiff = n.y - startY;
-        int zDiff = n.z - startZ;
+        return getDistFromStartSq(n.x, n.y, n.z);
+    }
+
+    protected double getDistFromStartSq(int x, int y, int z) {
+        int xDiff = x - startX;
+        int yDiff = y - startY;
+        int zDiff = z - startZ;
         return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
     }
 
+    /**
+     * What {@link #evaluate} returns when the movement would end in a chunk that isn't loaded
+     */
+    protected static final double UNLOADED = -1;
+
+    /**
+     * What {@link #evaluate} returns when the movement would leave the world, without calculating it
+     */
+    protected static final double SKIPPED = -2;
+
+    /**
+     * Calculates one movement from a node into res, with the checks every search does around it.
+     *
+     * @param counters Where to count the calculation, and a certain empty chunk hit
+     * @return The cost of the movement, {@link ActionCosts#COST_INF} if it's impossible, or {@link #UNLOADED} or
+     * {@link #SKIPPED} if it wasn't calculated at all
+     */
+    protected static double evaluate(CalculationContext context, Moves moves, int x, int y, int z, MutableMoveResult res, SearchCounters counters, boolean timeMoves) {
+        double check = checkDestination(context, moves, x, y, z, counters);
+        if (check < 0) {
+            return check;
+        }
+        res.reset();
+        long moveStart = timeMoves ? System.nanoTime() : 0;
+        moves.apply(context, x, y, z, res);
+        counters.evaluated(moves, timeMoves ? System.nanoTime() - moveStart : 0);
+        return checkedCost(context, moves, x, y, z, res);
+    }
+
+    /**
+     * The part of {@link #evaluate} before calculating the movement
+     *
+     * @return 0 if the movement should be calculated, otherwise {@link #UNLOADED} or {@link #SKIPPED}
+     */
+    protected static double checkDestination(CalculationContext context, Moves moves, int x, int y, int z, SearchCounters counters) {
+        int newX = x + moves.xOffset;
+        int newZ = z + moves.zOffset;
+        if ((newX >> 4 != x >> 4 || newZ >> 4 != z >> 4) && !context.isLoaded(newX, newZ)) {
+            // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
+            if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
+                counters.emptyChunkHits++;
+            }
+            return UNLOADED;
+        }
+        if (!moves.dynamicXZ && !context.worldBorder.entirelyContains(newX, newZ)) {
+            return SKIPPED;
+        }
+        if (y + moves.yOffset > 256 || y + moves.yOffset < 0) {
+            return SKIPPED;
+        }
+        return 0;
+    }
+
+    /**
+     * The part of {@link #evaluate} after calculating the movement
+     *
+     * @return The cost of the movement in res, or {@link ActionCosts#COST_INF} if it can't be taken
+     * @throws IllegalStateException If the movement calculated something that doesn't make sense
+     */
+    protected static double checkedCost(CalculationContext context, Moves moves, int x, int y, int z, MutableMoveResult res) {
+        double actionCost = res.cost;
+        if (actionCost >= ActionCosts.COST_INF) {
+            return ActionCosts.COST_INF;
+        }
+        if (actionCost <= 0 || Double.isNaN(actionCost)) {
+            throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+        }
+        // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
+        if (moves.dynamicXZ && !context.worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+            return ActionCosts.COST_INF;
+        }
+        int newX = x + moves.xOffset;
+        int newZ = z + moves.zOffset;
+        if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
+            throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+        }
+        if (!moves.dynamicY && res.y != y + moves.yOffset) {
+            throw new IllegalStateException(moves + " " + res.y + " " + (y + moves.yOffset));
+        }
+        return actionCost;
+    }
+
     /**
      * Attempts to search the block position hashCode long to {@link PathNode} map
      * for the node mapped to the specified pos. If no node is found,
@@ -175,6 +325,14 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
         return node;
     }
 
+    /**
+     * @param hashCode The hash code of the node, provided by {@link BetterBlockPos#longHash(int, int, int)}
+     * @return The node at that position, or null if the search hasn't gotten there
+     */
+    protected PathNode getNodeIfPresent(long hashCode) {
+        return map.get(hashCode);
+    }
+
     @Override
     public Optional<IPath> pathToMostRecentNodeConsidered() {
         return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, context));
@@ -186,15 +344,15 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     }
 
     protected Optional<IPath> bestSoFar(boolean logInfo, int numNodes) {
-        if (startNode == null) {
+        if (!hasStartNode()) {
             return Optional.empty();
         }
         double bestDist = 0;
         for (int i = 0; i < COEFFICIENTS.length; i++) {
-            if (bestSoFar[i] == null) {
+            if (!hasBestSoFar(i)) {
                 continue;
             }
-            double dist = getDistFromStartSq(bestSoFar[i]);
+            double dist = bestSoFarDistFromStartSq(i);
             if (dist > bestDist) {
                 bestDist = dist;
             }
@@ -208,7 +366,7 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
                     System.out.println("Path goes for " + Math.sqrt(dist) + " blocks");
                     logDebug("A* cost coefficient " + COEFFICIENTS[i]);
                 }
-                return Optional.of(new Path(startNode, bestSoFar[i], numNodes, goal, context));
+                return Optional.of(pathToBestSoFar(i, numNodes));
             }
         }
         // instead of returning bestSoFar[0], be less misleading
@@ -221,6 +379,28 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
         return Optional.empty();
     }
 
+    /**
+     * The node representation is up to the subclass, these four are all that {@link #bestSoFar(boolean, int)} needs
+     * to know about it. The defaults work on {@link #startNode} and {@link #bestSoFar}.
+     *
+     * @return Whether the start node has been created yet
+     */
+    protected boolean hasStartNode() {
+        return startNode != null;
+    }
+
+    protected boolean hasBestSoFar(int coefficient) {
+        return bestSoFar[coefficient] != null;
+    }
+
+    protected double bestSoFarDistFromStartSq(int coefficient) {
+        return getDistFromStartSq(bestSoFar[coefficient]);
+    }
+
+    protected IPath pathToBestSoFar(int coefficient, int numNodes) {
+        return new Path(startNode, bestSoFar[coefficient], numNodes, goal, context);
+    }
+
     @Override
     public final boolean isFinished() {
         return isFinished;
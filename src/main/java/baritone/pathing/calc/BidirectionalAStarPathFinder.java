@@ -0,0 +1,298 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.pathing.goals.GoalGetToBlock;
+import baritone.api.pathing.goals.GoalTwoBlocks;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.interfaces.IGoalRenderPos;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Optional;
+
+/**
+ * A* from both ends at once, for goals that are just a few concrete positions. The forward half is exactly
+ * {@link AStarPathFinder}, the backward half grows from every position in the goal towards the start using
+ * {@link Moves#applyReverse}. Instead of one big hemisphere around the start, that's two smaller ones that meet in the
+ * middle.
+ * <p>
+ * Whichever side has the smaller open set is expanded next. Every time a node gets a cost on one side and already has
+ * one on the other, that's a complete path. The search ends once the next node on either side can't lead to anything
+ * cheaper than the best complete path so far.
+ * <p>
+ * If the two sides don't meet in time, the result is the same best-so-far segment from the forward side that
+ * {@link AStarPathFinder} would have returned.
+ */
+public final class BidirectionalAStarPathFinder extends AbstractNodeCostSearch {
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+
+    /**
+     * The goal of the backward search
+     */
+    private final Goal towardsStart;
+
+    private final Long2ObjectOpenHashMap<PathNode> backwardMap;
+    private final BinaryHeapOpenSet backwardOpenSet = new BinaryHeapOpenSet();
+    private final MutableMoveResult reverseResult = new MutableMoveResult();
+    private final Moves.SourceConsumer relaxBackward = this::relaxBackward;
+
+    private double minimumImprovement;
+    private boolean isFavoring;
+
+    /**
+     * The backward node whose sources are being found right now
+     */
+    private PathNode expanding;
+
+    private double bestMeetingCost = ActionCosts.COST_INF;
+    private long bestMeeting;
+
+    public BidirectionalAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
+        super(startX, startY, startZ, goal, context);
+        this.favoring = favoring;
+        this.calcContext = context;
+        this.towardsStart = new GoalBlock(startX, startY, startZ);
+        this.backwardMap = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+    }
+
+    /**
+     * @param goal    The goal
+     * @param context The context
+     * @return Whether the goal is a few concrete positions that are loaded, so that there's somewhere to search backwards from
+     */
+    public static boolean supports(Goal goal, CalculationContext context) {
+        // exact classes only, subclasses can be in the goal in more places than these
+        if (goal.getClass() != GoalBlock.class && goal.getClass() != GoalGetToBlock.class && goal.getClass() != GoalTwoBlocks.class) {
+            return false;
+        }
+        BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
+        return context.isLoaded(pos.getX(), pos.getZ());
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        startNode.cost = 0;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
+        openSet.insert(startNode);
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
+            bestSoFar[i] = startNode;
+        }
+        // every one of these goals is within this box around its position
+        BlockPos goalPos = ((IGoalRenderPos) goal).getGoalPos();
+        for (int x = goalPos.getX() - 1; x <= goalPos.getX() + 1; x++) {
+            for (int y = goalPos.getY() - 2; y <= goalPos.getY() + 1; y++) {
+                for (int z = goalPos.getZ() - 1; z <= goalPos.getZ() + 1; z++) {
+                    if (y >= 0 && y < 256 && goal.isInGoal(x, y, z)) {
+                        long hashCode = BetterBlockPos.longHash(x, y, z);
+                        PathNode node = getBackwardNode(x, y, z, hashCode);
+                        node.cost = 0;
+                        node.combinedCost = node.estimatedCostToGoal;
+                        backwardOpenSet.insert(node);
+                        checkMeeting(hashCode);
+                    }
+                }
+            }
+        }
+        MutableMoveResult res = new MutableMoveResult();
+        long startTime = System.currentTimeMillis();
+        boolean slowPath = Baritone.settings().slowPath.value;
+        if (slowPath) {
+            logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
+        boolean failing = true;
+        int numNodes = 0;
+        int numBackwardNodes = 0;
+        int numMovementsConsidered = 0;
+        isFavoring = !favoring.isEmpty();
+        int timeCheckInterval = 1 << 6;
+        int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        Moves[] allMoves = Moves.values();
+        while (!openSet.isEmpty() && counters.emptyChunkHits < pathingMaxChunkBorderFetch && !cancelRequested) {
+            if (((numNodes + numBackwardNodes) & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                    break;
+                }
+            }
+            if (slowPath) {
+                try {
+                    Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
+                } catch (InterruptedException ignored) {}
+            }
+            if (!backwardOpenSet.isEmpty() && backwardOpenSet.size() < openSet.size()) {
+                expanding = backwardOpenSet.removeLowest();
+                numBackwardNodes++;
+                counters.nodesExpanded++;
+                if (expanding.combinedCost >= bestMeetingCost) {
+                    break; // nothing left on this side can make for a cheaper path
+                }
+                for (Moves moves : allMoves) {
+                    moves.applyReverse(calcContext, expanding.x, expanding.y, expanding.z, reverseResult, relaxBackward);
+                    numMovementsConsidered++;
+                }
+                continue;
+            }
+            PathNode currentNode = openSet.removeLowest();
+            mostRecentConsidered = currentNode;
+            numNodes++;
+            counters.nodesExpanded++;
+            if (currentNode.combinedCost >= bestMeetingCost) {
+                break; // same on this side
+            }
+            for (Moves moves : allMoves) {
+                double actionCost = evaluate(calcContext, moves, currentNode.x, currentNode.y, currentNode.z, res, counters, timeMoves);
+                if (actionCost < 0) {
+                    continue;
+                }
+                numMovementsConsidered++;
+                if (actionCost >= ActionCosts.COST_INF) {
+                    continue;
+                }
+                long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
+                if (isFavoring) {
+                    // see issue #18
+                    actionCost *= favoring.calculate(res.x, res.y, res.z, hashCode);
+                }
+                PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, hashCode);
+                double tentativeCost = currentNode.cost + actionCost;
+                if (neighbor.cost - tentativeCost > minimumImprovement) {
+                    neighbor.previous = currentNode;
+                    neighbor.cost = tentativeCost;
+                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                    if (neighbor.isOpen()) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                        counters.openSetPeak = Math.max(counters.openSetPeak, openSet.size());
+                    }
+                    checkMeeting(hashCode);
+                    for (int i = 0; i < COEFFICIENTS.length; i++) {
+                        double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
+                        if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                            bestHeuristicSoFar[i] = heuristic;
+                            bestSoFar[i] = neighbor;
+                            if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                failing = false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        if (bestMeetingCost < ActionCosts.COST_INF) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered, " + numBackwardNodes + " of " + (numNodes + numBackwardNodes) + " nodes backwards");
+            return Optional.of(joinAt(bestMeeting, numNodes + numBackwardNodes));
+        }
+        logDebug("Open set size " + openSet.size() + " forward, " + backwardOpenSet.size() + " backward, PathNode map size " + mapSize() + " forward, " + backwardMap.size() + " backward, " + (int) ((numNodes + numBackwardNodes) * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    @Override
+    protected int nodesCreated() {
+        return mapSize() + backwardMap.size();
+    }
+
+    /**
+     * Called for every position that {@link #expanding} can be reached from
+     */
+    private void relaxBackward(int x, int y, int z, double actionCost) {
+        long hashCode = BetterBlockPos.longHash(x, y, z);
+        if (isFavoring) {
+            // the same multiplier as going forwards, which is by the destination of the movement
+            actionCost *= favoring.calculate(expanding.x, expanding.y, expanding.z, BetterBlockPos.longHash(expanding.x, expanding.y, expanding.z));
+        }
+        PathNode source = getBackwardNode(x, y, z, hashCode);
+        double tentativeCost = expanding.cost + actionCost;
+        if (source.cost - tentativeCost > minimumImprovement) {
+            source.previous = expanding; // backwards, this points one step closer to the goal
+            source.cost = tentativeCost;
+            source.combinedCost = tentativeCost + source.estimatedCostToGoal;
+            if (source.isOpen()) {
+                backwardOpenSet.update(source);
+            } else {
+                backwardOpenSet.insert(source);
+            }
+            checkMeeting(hashCode);
+        }
+    }
+
+    private PathNode getBackwardNode(int x, int y, int z, long hashCode) {
+        PathNode node = backwardMap.get(hashCode);
+        if (node == null) {
+            node = new PathNode(x, y, z, towardsStart);
+            backwardMap.put(hashCode, node);
+        }
+        return node;
+    }
+
+    private void checkMeeting(long hashCode) {
+        PathNode forward = getNodeIfPresent(hashCode);
+        PathNode backward = backwardMap.get(hashCode);
+        if (forward == null || backward == null) {
+            return;
+        }
+        double cost = forward.cost + backward.cost;
+        if (cost < bestMeetingCost) {
+            bestMeetingCost = cost;
+            bestMeeting = hashCode;
+        }
+    }
+
+    /**
+     * Continues the forward path to the meeting point with fresh nodes along the backward path from there
+     */
+    private IPath joinAt(long hashCode, int numNodes) {
+        PathNode forward = getNodeIfPresent(hashCode);
+        PathNode backward = backwardMap.get(hashCode);
+        PathNode end = forward;
+        for (PathNode next = backward.previous; next != null; next = next.previous) {
+            PathNode node = new PathNode(next.x, next.y, next.z, goal);
+            node.cost = forward.cost + backward.cost - next.cost;
+            node.previous = end;
+            end = node;
+        }
+        return new Path(startNode, end, numNodes, goal, calcContext);
+    }
+}
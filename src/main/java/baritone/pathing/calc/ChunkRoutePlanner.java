@@ -0,0 +1,299 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalXZ;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.interfaces.IGoalRenderPos;
+import baritone.cache.CachedWorld;
+import baritone.cache.ChunkConnectivity;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.PriorityQueue;
+
+/**
+ * A coarse A* over chunks instead of blocks, for goals far away. Every connected area within a cached chunk (see
+ * {@link ChunkConnectivity}) is one node, and two nodes in neighboring chunks are connected if there's somewhere on the
+ * border between them to walk across. Chunks that aren't cached, or whose region isn't loaded yet (see
+ * {@link CachedWorld#getConnectivity}), are one node each, connected to everything around them, but twice as expensive
+ * since they could be anything.
+ * <p>
+ * The result is the corridor of chunks along that route, which the block level search is then kept close to with
+ * {@link baritone.utils.pathing.Favoring}. Segment by segment, that steers it around dead ends that are further away
+ * than a single segment can see.
+ */
+public final class ChunkRoutePlanner {
+
+    private static final int UNKNOWN = -1;
+
+    private static final double CHUNK_COST = 16 * ActionCosts.WALK_ONE_BLOCK_COST;
+
+    private static final double UNKNOWN_CHUNK_COST = 2 * CHUNK_COST;
+
+    private static final int MAX_NODES = 200_000;
+
+    private static final long TIMEOUT_MS = 2000;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    private final CachedWorld cache;
+
+    private final Long2ObjectOpenHashMap<ChunkConnectivity> connectivity = new Long2ObjectOpenHashMap<>();
+
+    private final LongSet uncached = new LongOpenHashSet();
+
+    private final Long2ObjectOpenHashMap<Node> nodes = new Long2ObjectOpenHashMap<>();
+
+    private final int targetChunkX;
+    private final int targetChunkZ;
+
+    private ChunkRoutePlanner(CachedWorld cache, int targetX, int targetZ) {
+        this.cache = cache;
+        this.targetChunkX = targetX >> 4;
+        this.targetChunkZ = targetZ >> 4;
+    }
+
+    /**
+     * @param goal The goal
+     * @return The position a chunk route to this goal should go to, or null if it doesn't have one
+     */
+    public static BlockPos target(Goal goal) {
+        if (goal instanceof IGoalRenderPos) {
+            return ((IGoalRenderPos) goal).getGoalPos();
+        }
+        if (goal instanceof GoalXZ) {
+            return new BlockPos(((GoalXZ) goal).getX(), 0, ((GoalXZ) goal).getZ());
+        }
+        return null;
+    }
+
+    /**
+     * Plans a route over the chunks in the cache. Takes a while for long routes, so don't call this on the main thread.
+     *
+     * @param cache   The cache
+     * @param start   The start position
+     * @param targetX The x position to get to
+     * @param targetZ The z position to get to
+     * @return The chunks along the route and every chunk next to them, keyed by {@link ChunkPos#asLong}. Null if
+     * there's no route, or it took too long to find one.
+     */
+    public static LongSet plan(CachedWorld cache, BlockPos start, int targetX, int targetZ) {
+        return new ChunkRoutePlanner(cache, targetX, targetZ).plan(start);
+    }
+
+    private LongSet plan(BlockPos start) {
+        long startTime = System.currentTimeMillis();
+        PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Double.compare(a.combinedCost, b.combinedCost));
+        int startChunkX = start.getX() >> 4;
+        int startChunkZ = start.getZ() >> 4;
+        ChunkConnectivity startConnectivity = getConnectivity(startChunkX, startChunkZ);
+        if (startConnectivity == null) {
+            relax(openSet, null, startChunkX, startChunkZ, UNKNOWN, 0);
+        } else {
+            int startComponent = componentAt(startConnectivity, start.getX() & 15, start.getY(), start.getZ() & 15);
+            if (startComponent != UNKNOWN) {
+                relax(openSet, null, startChunkX, startChunkZ, startComponent, 0);
+            } else {
+                // not standing anywhere walkable, e.g. in water
+                for (int i = 0; i < startConnectivity.getComponentCount(); i++) {
+                    relax(openSet, null, startChunkX, startChunkZ, i, 0);
+                }
+            }
+        }
+        int numNodes = 0;
+        while (!openSet.isEmpty()) {
+            QueueEntry entry = openSet.poll();
+            Node node = entry.node;
+            if (node.closed || entry.combinedCost > node.combinedCost) {
+                continue; // already got here more cheaply
+            }
+            node.closed = true;
+            if (node.chunkX == targetChunkX && node.chunkZ == targetChunkZ) {
+                return corridor(node);
+            }
+            if (++numNodes > MAX_NODES || ((numNodes & 255) == 0 && System.currentTimeMillis() - startTime > TIMEOUT_MS)) {
+                break;
+            }
+            ChunkConnectivity current = getConnectivity(node.chunkX, node.chunkZ);
+            for (int[] dir : DIRECTIONS) {
+                int neighborX = node.chunkX + dir[0];
+                int neighborZ = node.chunkZ + dir[1];
+                ChunkConnectivity neighbor = getConnectivity(neighborX, neighborZ);
+                if (current == null && neighbor == null) {
+                    relax(openSet, node, neighborX, neighborZ, UNKNOWN, UNKNOWN_CHUNK_COST);
+                    continue;
+                }
+                if (neighbor == null) {
+                    if (touchesBorder(current, node.component, dir[0], dir[1])) {
+                        relax(openSet, node, neighborX, neighborZ, UNKNOWN, UNKNOWN_CHUNK_COST);
+                    }
+                    continue;
+                }
+                for (int component : crossBorder(current, node.component, neighbor, dir[0], dir[1])) {
+                    relax(openSet, node, neighborX, neighborZ, component, CHUNK_COST);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void relax(PriorityQueue<QueueEntry> openSet, Node from, int chunkX, int chunkZ, int component, double cost) {
+        long key = ((long) (chunkX & 0x3FFFFF) << 42) | ((long) (chunkZ & 0x3FFFFF) << 20) | (component + 1);
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(chunkX, chunkZ, component);
+            nodes.put(key, node);
+        }
+        double tentativeCost = (from == null ? 0 : from.cost) + cost;
+        if (node.closed || tentativeCost >= node.cost) {
+            return;
+        }
+        node.cost = tentativeCost;
+        node.combinedCost = tentativeCost + (Math.abs(chunkX - targetChunkX) + Math.abs(chunkZ - targetChunkZ)) * CHUNK_COST;
+        node.previous = from;
+        openSet.add(new QueueEntry(node, node.combinedCost)); // the old entry, if any, is skipped when it comes up
+    }
+
+    private ChunkConnectivity getConnectivity(int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        if (uncached.contains(key)) {
+            return null;
+        }
+        ChunkConnectivity result = connectivity.get(key);
+        if (result == null) {
+            result = cache.getConnectivity(chunkX, chunkZ);
+            if (result == null) {
+                uncached.add(key);
+            } else {
+                connectivity.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    private static int componentAt(ChunkConnectivity connectivity, int x, int y, int z) {
+        int[] ys = connectivity.getStandableYs(x, z);
+        for (int i = 0; i < ys.length; i++) {
+            if (Math.abs(ys[i] - y) <= 1) {
+                return connectivity.getComponents(x, z)[i];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @return Whether this component (or any, if the chunk isn't cached) has somewhere to stand on this side
+     */
+    private static boolean touchesBorder(ChunkConnectivity connectivity, int component, int dx, int dz) {
+        for (int i = 0; i < 16; i++) {
+            int x = dx == 0 ? i : (dx > 0 ? 15 : 0);
+            int z = dz == 0 ? i : (dz > 0 ? 15 : 0);
+            for (int c : connectivity.getComponents(x, z)) {
+                if (component == UNKNOWN || c == component) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Every component of the neighboring chunk that can be walked to from this component across the border
+     */
+    private static IntSet crossBorder(ChunkConnectivity current, int component, ChunkConnectivity neighbor, int dx, int dz) {
+        IntSet result = new IntOpenHashSet();
+        for (int i = 0; i < 16; i++) {
+            int x = dx == 0 ? i : (dx > 0 ? 15 : 0);
+            int z = dz == 0 ? i : (dz > 0 ? 15 : 0);
+            int neighborX = dx == 0 ? i : 15 - x;
+            int neighborZ = dz == 0 ? i : 15 - z;
+            int[] neighborYs = neighbor.getStandableYs(neighborX, neighborZ);
+            int[] neighborComponents = neighbor.getComponents(neighborX, neighborZ);
+            if (current == null) {
+                // from an uncached chunk, anywhere on this side will do
+                for (int c : neighborComponents) {
+                    result.add(c);
+                }
+                continue;
+            }
+            int[] ys = current.getStandableYs(x, z);
+            int[] components = current.getComponents(x, z);
+            for (int j = 0; j < ys.length; j++) {
+                if (components[j] != component) {
+                    continue;
+                }
+                for (int k = 0; k < neighborYs.length; k++) {
+                    if (Math.abs(ys[j] - neighborYs[k]) <= 1) {
+                        result.add(neighborComponents[k]);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static LongSet corridor(Node end) {
+        LongSet corridor = new LongOpenHashSet();
+        for (Node node = end; node != null; node = node.previous) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    corridor.add(ChunkPos.asLong(node.chunkX + dx, node.chunkZ + dz));
+                }
+            }
+        }
+        return corridor;
+    }
+
+    private static final class Node {
+
+        final int chunkX;
+        final int chunkZ;
+        final int component;
+        double cost = Double.MAX_VALUE;
+        double combinedCost;
+        Node previous;
+        boolean closed;
+
+        Node(int chunkX, int chunkZ, int component) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.component = component;
+        }
+    }
+
+    /**
+     * The cost has to be copied, since a node's cost can go down while it's still in the queue
+     */
+    private static final class QueueEntry {
+
+        final Node node;
+        final double combinedCost;
+
+        QueueEntry(Node node, double combinedCost) {
+            this.node = node;
+            this.combinedCost = combinedCost;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+
+import java.util.Arrays;
+
+/**
+ * A {@link PathNode} that remembers its edges in both directions, so that a {@link SearchGraph} can be repaired
+ * instead of searched again.
+ */
+final class GraphNode extends PathNode {
+
+    private static final GraphNode[] NO_NODES = new GraphNode[0];
+    private static final double[] NO_COSTS = new double[0];
+
+    /**
+     * Where every movement out of this node goes, and what it costs (without favoring, see {@link SearchGraph#edgeCost})
+     */
+    GraphNode[] successors = NO_NODES;
+    double[] successorCosts = NO_COSTS;
+    int successorCount;
+
+    /**
+     * Every node with an edge into this one
+     */
+    GraphNode[] predecessors = NO_NODES;
+    int predecessorCount;
+
+    /**
+     * Whether the movements out of this node have been calculated yet
+     */
+    boolean expanded;
+
+    /**
+     * Whether some movement out of this node was skipped because it went into an unloaded chunk
+     */
+    boolean incomplete;
+
+    GraphNode(int x, int y, int z, Goal goal) {
+        super(x, y, z, goal);
+    }
+
+    /**
+     * Replaces the outgoing edges of this node, keeping the predecessors of the old and new targets in sync
+     */
+    void setSuccessors(GraphNode[] targets, double[] costs, int count) {
+        for (int i = 0; i < successorCount; i++) {
+            successors[i].removePredecessor(this);
+        }
+        successors = targets;
+        successorCosts = costs;
+        successorCount = count;
+        for (int i = 0; i < count; i++) {
+            targets[i].addPredecessor(this);
+        }
+        expanded = true;
+    }
+
+    /**
+     * Forgets the outgoing edges, so that they're calculated again the next time a search gets here
+     */
+    void clearSuccessors() {
+        setSuccessors(NO_NODES, NO_COSTS, 0);
+        expanded = false;
+    }
+
+    /**
+     * @param target A node
+     * @return The cost of the edge from this node to that one, or {@link ActionCosts#COST_INF} if there isn't one
+     */
+    double costTo(GraphNode target) {
+        for (int i = 0; i < successorCount; i++) {
+            if (successors[i] == target) {
+                return successorCosts[i];
+            }
+        }
+        return ActionCosts.COST_INF;
+    }
+
+    private void addPredecessor(GraphNode node) {
+        if (predecessorCount == predecessors.length) {
+            predecessors = Arrays.copyOf(predecessors, Math.max(4, predecessorCount << 1));
+        }
+        predecessors[predecessorCount++] = node;
+    }
+
+    private void removePredecessor(GraphNode node) {
+        for (int i = 0; i < predecessorCount; i++) {
+            if (predecessors[i] == node) {
+                predecessors[i] = predecessors[--predecessorCount];
+                predecessors[predecessorCount] = null;
+                return;
+            }
+        }
+    }
+}
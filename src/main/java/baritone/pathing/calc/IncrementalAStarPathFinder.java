@@ -0,0 +1,232 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+
+import java.util.Optional;
+
+/**
+ * A* that picks up the {@link SearchGraph} of the previous search towards the same goal, and repairs it where blocks
+ * changed instead of starting over. Selected with the incrementalReplanning setting.
+ * <p>
+ * Baritone's movements can't be calculated backwards from the goal, so this isn't D* Lite. The graph stays rooted
+ * where the first search started, and the path handed out is the part of the repaired path that comes after the
+ * requested start. If the repaired path doesn't go through it anymore, or the favoring is different this time, this
+ * searches again from there, on top of the movements that were already calculated.
+ */
+public final class IncrementalAStarPathFinder extends AbstractNodeCostSearch {
+
+    /**
+     * How far a movement can look on x and z (parkour, plus the blocks next to the ones it breaks)
+     */
+    private static final int MOVEMENT_REACH = 5;
+
+    private final SearchGraph graph;
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+    private final MutableMoveResult res = new MutableMoveResult();
+    private final Moves[] allMoves = Moves.values();
+
+    private int numMovementsConsidered;
+    private int numEmptyChunk;
+
+    public IncrementalAStarPathFinder(int startX, int startY, int startZ, SearchGraph graph, Favoring favoring, CalculationContext context) {
+        super(startX, startY, startZ, graph.goal, context);
+        this.graph = graph;
+        this.favoring = favoring;
+        this.calcContext = context;
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        long startTime = System.currentTimeMillis();
+        boolean slowPath = Baritone.settings().slowPath.value;
+        if (slowPath) {
+            logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
+        boolean done = false;
+        try {
+            Optional<IPath> result = Optional.empty();
+            graph.setFavoring(favoring);
+            int fall = Math.max(calcContext.maxFallHeightNoWater, calcContext.hasWaterBucket ? calcContext.maxFallHeightBucket : 0);
+            if (graph.canResumeAt(startX, startY, startZ)) {
+                int repaired = graph.repair(this::expand, MOVEMENT_REACH, fall + 2, 3);
+                logDebug("Repaired " + repaired + " of " + graph.size() + " nodes in " + (System.currentTimeMillis() - startTime) + "ms");
+                startNode = graph.getNodeIfPresent(startX, startY, startZ);
+                if (startNode.cost < ActionCosts.COST_INF) {
+                    result = search(startTime, primaryTimeoutTime, failureTimeoutTime);
+                }
+                if (!result.isPresent() && !cancelRequested) {
+                    logDebug("The repaired path doesn't go through " + getStart() + " anymore, searching from there instead");
+                }
+            }
+            if (!result.isPresent() && !cancelRequested) {
+                graph.restart(startX, startY, startZ, MOVEMENT_REACH, fall + 2, 3);
+                startNode = graph.root;
+                result = search(startTime, primaryTimeoutTime, failureTimeoutTime);
+            }
+            done = true;
+            return result;
+        } finally {
+            if (!done) {
+                graph.discard();
+            }
+        }
+    }
+
+    private Optional<IPath> search(long startTime, long primaryTimeoutTime, long failureTimeoutTime) {
+        PathNode start = startNode;
+        BinaryHeapOpenSet openSet = graph.openSet;
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = start.estimatedCostToGoal;
+            bestSoFar[i] = start;
+            PathNode previousBest = graph.bestSoFar == null ? null : graph.bestSoFar[i]; // from the last search, this one might not get near it again
+            if (previousBest != null && previousBest.cost < ActionCosts.COST_INF && SearchGraph.reaches(previousBest, start)) {
+                double heuristic = previousBest.estimatedCostToGoal + (previousBest.cost - start.cost) / COEFFICIENTS[i];
+                if (heuristic < bestHeuristicSoFar[i]) {
+                    bestHeuristicSoFar[i] = heuristic;
+                    bestSoFar[i] = previousBest;
+                }
+            }
+        }
+        boolean failing = true;
+        int numNodes = 0;
+        numMovementsConsidered = 0;
+        numEmptyChunk = 0;
+        int timeCheckInterval = 1 << 6;
+        int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        boolean slowPath = Baritone.settings().slowPath.value;
+        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+            if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                    break;
+                }
+            }
+            if (slowPath) {
+                try {
+                    Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
+                } catch (InterruptedException ignored) {}
+            }
+            GraphNode currentNode = (GraphNode) openSet.removeLowest();
+            if (currentNode.cost >= ActionCosts.COST_INF) {
+                continue; // a repair cut it off from the root
+            }
+            mostRecentConsidered = currentNode;
+            numNodes++;
+            counters.nodesExpanded++;
+            if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                graph.goalNode = currentNode;
+                if (!SearchGraph.reaches(currentNode, start)) {
+                    return Optional.empty();
+                }
+                logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                return Optional.of(new Path(start, currentNode, numNodes, goal, calcContext));
+            }
+            if (!currentNode.expanded) {
+                graph.expand(currentNode, this::expand);
+            }
+            for (int i = 0; i < currentNode.successorCount; i++) {
+                GraphNode neighbor = currentNode.successors[i];
+                double tentativeCost = currentNode.cost + graph.edgeCost(currentNode, i);
+                if (neighbor.cost - tentativeCost > minimumImprovement) {
+                    neighbor.previous = currentNode;
+                    neighbor.cost = tentativeCost;
+                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                    if (neighbor.isOpen()) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                        counters.openSetPeak = Math.max(counters.openSetPeak, openSet.size());
+                    }
+                    double relativeCost = tentativeCost - start.cost;
+                    for (int j = 0; j < COEFFICIENTS.length; j++) {
+                        double heuristic = neighbor.estimatedCostToGoal + relativeCost / COEFFICIENTS[j];
+                        if (bestHeuristicSoFar[j] - heuristic > minimumImprovement) {
+                            bestHeuristicSoFar[j] = heuristic;
+                            bestSoFar[j] = neighbor;
+                            if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                failing = false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        graph.bestSoFar = bestSoFar.clone();
+        logDebug("Open set size " + openSet.size() + ", search graph size " + graph.size() + ", " + (int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    /**
+     * The same movements, with the same checks, as {@link AStarPathFinder}
+     */
+    private boolean expand(int currentX, int currentY, int currentZ, SearchGraph.EdgeSink edges) {
+        boolean complete = true;
+        for (Moves moves : allMoves) {
+            double actionCost = evaluate(calcContext, moves, currentX, currentY, currentZ, res, counters, timeMoves);
+            if (actionCost < 0) {
+                if (actionCost == UNLOADED) {
+                    if (!moves.dynamicXZ) {
+                        numEmptyChunk++;
+                    }
+                    complete = false;
+                }
+                continue;
+            }
+            numMovementsConsidered++;
+            if (actionCost >= ActionCosts.COST_INF) {
+                continue;
+            }
+            edges.edge(res.x, res.y, res.z, actionCost);
+        }
+        return complete;
+    }
+
+    @Override
+    protected int nodesCreated() {
+        return graph.size();
+    }
+
+    /**
+     * The best node so far might have been reached from the root some other way since
+     */
+    @Override
+    protected boolean hasBestSoFar(int coefficient) {
+        return bestSoFar[coefficient] != null && SearchGraph.reaches(bestSoFar[coefficient], startNode);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.calc;
+
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Movement costs from previous searches, so that the next path segment doesn't calculate them all over again for the
+ * terrain the last one already looked at. Keyed by the position a movement starts from and which {@link Moves} it is,
+ * and bounded: every key has exactly one slot it can go in, and whatever was in that slot before is overwritten.
+ * <p>
+ * A cost is only as good as the blocks it was calculated from. A movement never looks further than one chunk from the
+ * chunk it starts in, so every chunk gets a version, which is bumped whenever anything in it or next to it changes. A
+ * cost calculated before the latest version of the chunk it starts in is ignored. Costs are only kept for chunks whose
+ * neighbors are all loaded, since the cached chunks that stand in for unloaded ones change in the background.
+ * <p>
+ * Everything besides the blocks (settings, hotbar, hunger...) is part of the context's fingerprint, see
+ * {@link baritone.pathing.movement.CalculationContext#costFingerprint()}, and when that changes, everything is forgotten.
+ */
+public final class MovementCostCache {
+
+    /**
+     * Only one search can use it at a time. Normally that's a given, but a force cancelled search can take a moment to
+     * actually stop, and the next one just goes without the cache until it does.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // all guarded by lock
+    private Object fingerprint;
+    private int mask = -1;
+    private int[] srcX;
+    private int[] srcY;
+    private int[] srcZ;
+    private byte[] move;
+    private long[] stamps;
+    private double[] costs;
+    private int[] destX;
+    private int[] destY;
+    private int[] destZ;
+    private long hits;
+    private long misses;
+
+    // all guarded by this
+    private World world;
+    private final LongSet loaded = new LongOpenHashSet();
+    private final Long2LongOpenHashMap versions = new Long2LongOpenHashMap();
+    private volatile long clock;
+
+    public MovementCostCache() {
+        versions.defaultReturnValue(Long.MAX_VALUE); // not loaded, nothing is valid
+    }
+
+    /**
+     * Takes the cache for one search, until {@link #release()}. Forgets everything if the costs would be calculated
+     * differently from now on, and allocates the slots the first time, so nothing is allocated if it's never used.
+     *
+     * @param fingerprint The {@link baritone.pathing.movement.CalculationContext#costFingerprint()} of the search, or null if it can't be used
+     * @param maxSize     How many costs to hold at most, rounded to a power of two
+     * @return Whether the cache can be used by this search
+     */
+    public boolean acquire(Object fingerprint, int maxSize) {
+        if (fingerprint == null || !lock.tryLock()) {
+            return false;
+        }
+        int size = Math.max(1 << 10, HashCommon.nextPowerOfTwo(maxSize));
+        if (size != mask + 1) {
+            mask = size - 1;
+            srcX = new int[size];
+            srcY = new int[size];
+            srcZ = new int[size];
+            move = new byte[size];
+            stamps = new long[size];
+            costs = new double[size];
+            destX = new int[size];
+            destY = new int[size];
+            destZ = new int[size];
+            this.fingerprint = null;
+        }
+        if (!fingerprint.equals(this.fingerprint)) {
+            Arrays.fill(move, (byte) -1);
+            this.fingerprint = fingerprint;
+        }
+        return true;
+    }
+
+    public void release() {
+        lock.unlock();
+    }
+
+    /**
+     * Read this before calculating any movements from a node, and store them with it
+     *
+     * @return The current time, as far as chunk versions go
+     */
+    public long now() {
+        return clock;
+    }
+
+    /**
+     * @param x The X coordinate the movements start from
+     * @param z The Z coordinate the movements start from
+     * @return The oldest time a cost for a movement from there can be from, {@link Long#MAX_VALUE} if there is none
+     */
+    public synchronized long validSince(int x, int z) {
+        return versions.get(ChunkPos.asLong(x >> 4, z >> 4));
+    }
+
+    /**
+     * Looks up a cost. Only call this between {@link #acquire} and {@link #release()}.
+     *
+     * @param validSince See {@link #validSince}
+     * @param result     Where to put the cost and destination, if it was found
+     * @return Whether it was found
+     */
+    public boolean get(int x, int y, int z, Moves moves, long validSince, MutableMoveResult result) {
+        int slot = slot(x, y, z, moves);
+        if (move[slot] != moves.ordinal() || srcX[slot] != x || srcY[slot] != y || srcZ[slot] != z || stamps[slot] < validSince) {
+            misses++;
+            return false;
+        }
+        hits++;
+        result.x = destX[slot];
+        result.y = destY[slot];
+        result.z = destZ[slot];
+        result.cost = costs[slot];
+        return true;
+    }
+
+    /**
+     * Remembers a cost. Only call this between {@link #acquire} and {@link #release()}.
+     *
+     * @param stamp  What {@link #now()} was before calculating it
+     * @param result The calculated cost and destination
+     */
+    public void put(int x, int y, int z, Moves moves, long stamp, MutableMoveResult result) {
+        int slot = slot(x, y, z, moves);
+        srcX[slot] = x;
+        srcY[slot] = y;
+        srcZ[slot] = z;
+        move[slot] = (byte) moves.ordinal();
+        stamps[slot] = stamp;
+        costs[slot] = result.cost;
+        destX[slot] = result.x;
+        destY[slot] = result.y;
+        destZ[slot] = result.z;
+    }
+
+    private int slot(int x, int y, int z, Moves moves) {
+        long key = (((long) x * 31 + z) * 257 + y) * 64 + moves.ordinal();
+        return (int) HashCommon.mix(key) & mask;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The chunk has been loaded, or loaded again with new contents
+     */
+    public synchronized void chunkLoaded(World world, int chunkX, int chunkZ) {
+        onWorld(world);
+        loaded.add(ChunkPos.asLong(chunkX, chunkZ));
+        changed(chunkX, chunkZ);
+    }
+
+    public synchronized void chunkUnloaded(World world, int chunkX, int chunkZ) {
+        onWorld(world);
+        loaded.remove(ChunkPos.asLong(chunkX, chunkZ));
+        changed(chunkX, chunkZ);
+    }
+
+    public synchronized void blockChanged(World world, int x, int z) {
+        onWorld(world);
+        changed(x >> 4, z >> 4);
+    }
+
+    private void onWorld(World world) {
+        if (!Objects.equals(this.world, world)) {
+            this.world = world;
+            loaded.clear();
+            versions.clear();
+        }
+    }
+
+    private void changed(int chunkX, int chunkZ) {
+        long version = clock + 1;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                long chunk = ChunkPos.asLong(chunkX + dx, chunkZ + dz);
+                if (neighborsLoaded(chunkX + dx, chunkZ + dz)) {
+                    versions.put(chunk, version);
+                } else {
+                    versions.remove(chunk);
+                }
+            }
+        }
+        clock = version; // only after the versions, so nothing can be stamped with it before they're there
+    }
+
+    private boolean neighborsLoaded(int chunkX, int chunkZ) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (!loaded.contains(ChunkPos.asLong(chunkX + dx, chunkZ + dz))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
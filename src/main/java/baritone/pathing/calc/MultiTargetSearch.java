@@ -0,0 +1,152 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.calc.TargetCosts;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.Helper;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.List;
+
+/**
+ * Dijkstra from one start position to many goals at once. Where A* towards a composite goal stops at whichever goal is
+ * cheapest, this keeps expanding until every goal has been reached (or it runs out of time), so the cost to each one is
+ * the real cost of its cheapest path, not a guess based on distance.
+ * <p>
+ * There's no heuristic, so this expands a lot more nodes than a path calculation to the same goals. Only worth it when
+ * the answer for every goal is actually going to be used.
+ */
+public final class MultiTargetSearch implements Helper {
+
+    /**
+     * Dijkstra is just A* with a heuristic of zero
+     */
+    private static final Goal NO_HEURISTIC = new Goal() {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return false;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return 0;
+        }
+    };
+
+    private final int startX;
+    private final int startY;
+    private final int startZ;
+    private final List<Goal> targets;
+    private final CalculationContext context;
+    private final Long2ObjectOpenHashMap<PathNode> map = new Long2ObjectOpenHashMap<>();
+
+    private volatile boolean cancelRequested;
+
+    public MultiTargetSearch(int startX, int startY, int startZ, List<Goal> targets, CalculationContext context) {
+        this.startX = startX;
+        this.startY = startY;
+        this.startZ = startZ;
+        this.targets = targets;
+        this.context = context;
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * @param timeout              How long to keep going, in milliseconds
+     * @param maxChunkBorderFetch  Same as the pathingMaxChunkBorderFetch setting
+     * @return The cost to each target, with the targets that weren't reached yet when the search stopped left empty
+     */
+    public TargetCosts calculate(long timeout, int maxChunkBorderFetch) {
+        int numTargets = targets.size();
+        double[] costs = new double[numTargets];
+        IPath[] paths = new IPath[numTargets];
+        int remaining = numTargets;
+        PathNode start = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        start.cost = 0;
+        start.combinedCost = 0;
+        BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
+        openSet.insert(start);
+        MutableMoveResult res = new MutableMoveResult();
+        SearchCounters counters = new SearchCounters();
+        long startTime = System.currentTimeMillis();
+        long timeoutTime = startTime + timeout;
+        int numNodes = 0;
+        int timeCheckInterval = 1 << 6;
+        Moves[] allMoves = Moves.values();
+        boolean exhausted = false;
+        while (remaining > 0 && counters.emptyChunkHits < maxChunkBorderFetch && !cancelRequested) {
+            if (openSet.isEmpty()) {
+                exhausted = true;
+                break;
+            }
+            if ((numNodes & (timeCheckInterval - 1)) == 0 && System.currentTimeMillis() - timeoutTime >= 0) {
+                break;
+            }
+            PathNode currentNode = openSet.removeLowest();
+            numNodes++;
+            // a node comes off the open set at its final cost, so the first time a target is satisfied is the cheapest
+            for (int i = 0; i < numTargets; i++) {
+                if (paths[i] == null && targets.get(i).isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                    costs[i] = currentNode.cost;
+                    paths[i] = new Path(start, currentNode, numNodes, targets.get(i), context);
+                    remaining--;
+                }
+            }
+            for (Moves moves : allMoves) {
+                double actionCost = AbstractNodeCostSearch.evaluate(context, moves, currentNode.x, currentNode.y, currentNode.z, res, counters, false);
+                if (actionCost < 0 || actionCost >= ActionCosts.COST_INF) {
+                    continue;
+                }
+                PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, BetterBlockPos.longHash(res.x, res.y, res.z));
+                double tentativeCost = currentNode.cost + actionCost;
+                if (neighbor.cost - tentativeCost > AbstractNodeCostSearch.MIN_IMPROVEMENT) {
+                    neighbor.previous = currentNode;
+                    neighbor.cost = tentativeCost;
+                    neighbor.combinedCost = tentativeCost;
+                    if (neighbor.isOpen()) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);
+                    }
+                }
+            }
+        }
+        logDebug("Travel costs to " + (numTargets - remaining) + " of " + numTargets + " targets took " + (System.currentTimeMillis() - startTime) + "ms, " + numNodes + " nodes");
+        return new TargetCosts(new BetterBlockPos(startX, startY, startZ), targets, costs, paths, remaining == 0 || exhausted, numNodes);
+    }
+
+    private PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
+        PathNode node = map.get(hashCode);
+        if (node == null) {
+            node = new PathNode(x, y, z, NO_HEURISTIC);
+            map.put(hashCode, node);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.Arrays;
+
+/**
+ * A struct-of-arrays alternative to allocating one {@link PathNode} per position.
+ * <p>
+ * Every node is just an int index into a set of parallel primitive arrays, and the position hash to index mapping is
+ * an open addressing table of primitive longs and ints. On a long path this is millions of objects (and their map
+ * entries) that the GC never has to look at.
+ * <p>
+ * Only the search thread writes. The node arrays are replaced together when they grow, and published through one
+ * volatile reference, so another thread (e.g. the renderer asking for the best path so far) that got a node index
+ * through a volatile read always sees arrays that are big enough for it. The values in them can still be a step
+ * behind the search, which is fine for showing a path in progress.
+ */
+public final class NodePool {
+
+    /**
+     * Index meaning "no node", the equivalent of a null {@link PathNode}
+     */
+    public static final int NONE = -1;
+
+    private final Goal goal;
+
+    private final float loadFactor;
+
+    // the position hash to node index table
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int maxFill;
+
+    // the nodes themselves
+    private volatile Nodes nodes;
+
+    private int size;
+
+    public NodePool(Goal goal, int expectedSize, float loadFactor) {
+        this.goal = goal;
+        this.loadFactor = loadFactor;
+        int tableSize = HashCommon.arraySize(expectedSize, loadFactor);
+        this.keys = new long[tableSize];
+        this.values = new int[tableSize];
+        Arrays.fill(values, NONE);
+        this.mask = tableSize - 1;
+        this.maxFill = HashCommon.maxFill(tableSize, loadFactor);
+        this.nodes = new Nodes(Math.max(expectedSize, 16));
+    }
+
+    /**
+     * The pooled equivalent of {@link AbstractNodeCostSearch#getNodeAtPosition}
+     *
+     * @param x        The x position of the node
+     * @param y        The y position of the node
+     * @param z        The z position of the node
+     * @param hashCode The hash code of the node, provided by {@link baritone.api.utils.BetterBlockPos#longHash(int, int, int)}
+     * @return The index of the associated node
+     */
+    public int getOrCreate(int x, int y, int z, long hashCode) {
+        int pos = (int) HashCommon.mix(hashCode) & mask;
+        int index;
+        while ((index = values[pos]) != NONE) {
+            if (keys[pos] == hashCode) {
+                return index;
+            }
+            pos = (pos + 1) & mask;
+        }
+        index = create(x, y, z);
+        keys[pos] = hashCode;
+        values[pos] = index;
+        if (size >= maxFill) {
+            rehash(HashCommon.arraySize(size + 1, loadFactor));
+        }
+        return index;
+    }
+
+    /**
+     * @param hashCode The position hash code
+     * @return The index of the node at that position, or {@link #NONE} if it was never created
+     */
+    public int get(long hashCode) {
+        int pos = (int) HashCommon.mix(hashCode) & mask;
+        int index;
+        while ((index = values[pos]) != NONE) {
+            if (keys[pos] == hashCode) {
+                return index;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private int create(int nx, int ny, int nz) {
+        double estimate = goal.heuristic(nx, ny, nz);
+        if (Double.isNaN(estimate)) {
+            throw new IllegalStateException(goal + " calculated implausible heuristic");
+        }
+        Nodes n = nodes;
+        if (size == n.x.length) {
+            n = new Nodes(n, n.x.length + (n.x.length >> 1));
+            nodes = n;
+        }
+        int index = size++;
+        n.x[index] = nx;
+        n.y[index] = ny;
+        n.z[index] = nz;
+        n.estimatedCostToGoal[index] = estimate;
+        n.cost[index] = ActionCosts.COST_INF;
+        n.combinedCost[index] = 0;
+        n.previous[index] = NONE;
+        n.heapPosition[index] = NONE;
+        return index;
+    }
+
+    private void rehash(int tableSize) {
+        long[] newKeys = new long[tableSize];
+        int[] newValues = new int[tableSize];
+        Arrays.fill(newValues, NONE);
+        int newMask = tableSize - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] == NONE) {
+                continue;
+            }
+            int pos = (int) HashCommon.mix(keys[i]) & newMask;
+            while (newValues[pos] != NONE) {
+                pos = (pos + 1) & newMask;
+            }
+            newKeys[pos] = keys[i];
+            newValues[pos] = values[i];
+        }
+        keys = newKeys;
+        values = newValues;
+        mask = newMask;
+        maxFill = HashCommon.maxFill(tableSize, loadFactor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int x(int node) {
+        return nodes.x[node];
+    }
+
+    public int y(int node) {
+        return nodes.y[node];
+    }
+
+    public int z(int node) {
+        return nodes.z[node];
+    }
+
+    public double estimatedCostToGoal(int node) {
+        return nodes.estimatedCostToGoal[node];
+    }
+
+    public double cost(int node) {
+        return nodes.cost[node];
+    }
+
+    public void setCost(int node, double value) {
+        nodes.cost[node] = value;
+    }
+
+    public double combinedCost(int node) {
+        return nodes.combinedCost[node];
+    }
+
+    public void setCombinedCost(int node, double value) {
+        nodes.combinedCost[node] = value;
+    }
+
+    public int previous(int node) {
+        return nodes.previous[node];
+    }
+
+    public void setPrevious(int node, int value) {
+        nodes.previous[node] = value;
+    }
+
+    public int heapPosition(int node) {
+        return nodes.heapPosition[node];
+    }
+
+    public void setHeapPosition(int node, int value) {
+        nodes.heapPosition[node] = value;
+    }
+
+    public boolean isOpen(int node) {
+        return nodes.heapPosition[node] != NONE;
+    }
+
+    /**
+     * One set of the parallel arrays, see {@link PathNode} for what each one means
+     */
+    private static final class Nodes {
+
+        final int[] x;
+        final int[] y;
+        final int[] z;
+        final double[] estimatedCostToGoal;
+        final double[] cost;
+        final double[] combinedCost;
+        final int[] previous;
+        final int[] heapPosition;
+
+        Nodes(int capacity) {
+            this.x = new int[capacity];
+            this.y = new int[capacity];
+            this.z = new int[capacity];
+            this.estimatedCostToGoal = new double[capacity];
+            this.cost = new double[capacity];
+            this.combinedCost = new double[capacity];
+            this.previous = new int[capacity];
+            this.heapPosition = new int[capacity];
+        }
+
+        Nodes(Nodes from, int capacity) {
+            this.x = Arrays.copyOf(from.x, capacity);
+            this.y = Arrays.copyOf(from.y, capacity);
+            this.z = Arrays.copyOf(from.z, capacity);
+            this.estimatedCostToGoal = Arrays.copyOf(from.estimatedCostToGoal, capacity);
+            this.cost = Arrays.copyOf(from.cost, capacity);
+            this.combinedCost = Arrays.copyOf(from.combinedCost, capacity);
+            this.previous = Arrays.copyOf(from.previous, capacity);
+            this.heapPosition = Arrays.copyOf(from.heapPosition, capacity);
+        }
+    }
+}
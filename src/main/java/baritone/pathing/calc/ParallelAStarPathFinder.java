@@ -0,0 +1,409 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash distributed A* (HDA*), the same search as {@link AStarPathFinder} spread over several threads.
+ * <p>
+ * Every position is owned by exactly one worker, decided by its {@link BetterBlockPos#longHash}. Each worker has its
+ * own node map and open set, and only ever touches its own nodes. When a worker finds a cost to a position owned by
+ * another worker, it sends it over in a message instead, and the owner handles it like any other neighbor.
+ * <p>
+ * Unlike the single threaded search, the first goal node to come out of an open set isn't necessarily the best one,
+ * since the other workers might still have cheaper nodes. So it's kept as the best goal so far, and the search goes on
+ * until every open set has nothing left that could beat it. That's the same set of nodes that the single threaded
+ * search would have expanded before getting to the goal.
+ */
+public final class ParallelAStarPathFinder extends AbstractNodeCostSearch {
+
+    /**
+     * The most threads one search is spread over, whatever pathingThreads says
+     */
+    public static final int MAX_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Where the workers other than the calculating thread itself run. These aren't on the pathing lane, because a
+     * helper waiting in a queue would leave its share of the positions unexpanded for the whole search (and two
+     * searches waiting on each other's queued helpers would never finish). There's no queue here at all: a helper
+     * either gets a thread straight away, or the search doesn't get to be parallel this time.
+     */
+    private static final ThreadPoolExecutor HELPERS = new ThreadPoolExecutor(0, Math.max(1, MAX_THREADS - 1), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "Baritone parallel A* helper " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+
+    /**
+     * Only replaced before the search starts, if the helpers couldn't all be started
+     */
+    private Worker[] workers;
+
+    /**
+     * Every message that hasn't been received yet, plus every node in any open set. Once this is zero, there's nothing
+     * left to do anywhere. Always incremented for new work before decremented for the work that created it, so that
+     * it can't hit zero in between.
+     */
+    private final AtomicInteger work = new AtomicInteger();
+
+    private final AtomicInteger numEmptyChunk = new AtomicInteger();
+
+    /**
+     * The global version of bestHeuristicSoFar in {@link AStarPathFinder}, guarded by {@link #bestSoFar}
+     */
+    private final double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];
+
+    /**
+     * The cheapest node in the goal that any worker has expanded so far
+     */
+    private volatile PathNode bestGoal;
+
+    private volatile boolean failing = true;
+
+    private volatile boolean stop;
+
+    // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+    private final int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value;
+    private final double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+    private final boolean slowPath = Baritone.settings().slowPath.value;
+
+    private long primaryTimeoutTime;
+    private long failureTimeoutTime;
+
+    public ParallelAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context, int threads) {
+        super(startX, startY, startZ, goal, context);
+        this.favoring = favoring;
+        this.calcContext = context;
+        threads = context.canCopyForParallelSearch() ? Math.max(1, Math.min(threads, MAX_THREADS)) : 1;
+        this.workers = new Worker[threads];
+        int mapSize = Baritone.settings().pathingMapDefaultSize.value / threads;
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i == 0 ? context : context.copyForParallelSearch(), mapSize);
+        }
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        // this thread is a worker too, so only the others need to be started
+        // they wait until all of them have a thread, since the positions are already divided between them
+        CountDownLatch started = new CountDownLatch(1);
+        boolean[] abandoned = {false};
+        CompletableFuture<?>[] others = new CompletableFuture<?>[workers.length - 1];
+        int numStarted = 0;
+        try {
+            for (int i = 1; i < workers.length; i++) {
+                Worker worker = workers[i];
+                others[i - 1] = CompletableFuture.runAsync(() -> {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (!abandoned[0]) {
+                        worker.run();
+                    }
+                }, HELPERS);
+                numStarted++;
+            }
+        } catch (RejectedExecutionException e) {
+            logDebug("Only " + numStarted + " of " + (workers.length - 1) + " helper threads were free, searching on just this one");
+            abandoned[0] = true;
+            others = Arrays.copyOf(others, numStarted);
+            workers = new Worker[]{workers[0]}; // nothing's been put in any of them yet
+        }
+        long startHash = BetterBlockPos.longHash(startX, startY, startZ);
+        Worker startOwner = owner(startHash);
+        startNode = startOwner.getNodeAtPosition(startX, startY, startZ, startHash);
+        startNode.cost = 0;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        startOwner.openSet.insert(startNode);
+        work.set(1);
+        Arrays.fill(bestHeuristicSoFar, startNode.estimatedCostToGoal);
+        Arrays.fill(bestSoFar, startNode);
+        for (Worker worker : workers) {
+            Arrays.fill(worker.bestHeuristicSoFar, startNode.estimatedCostToGoal);
+        }
+        long startTime = System.currentTimeMillis();
+        if (slowPath) {
+            logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
+        }
+        primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
+        failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
+        started.countDown(); // happens-before anything the helpers do after it, so they see everything set up above
+        try {
+            workers[0].run();
+        } finally {
+            stop = true;
+            CompletableFuture.allOf(others).join(); // after this, every node is safe to read from this thread
+        }
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        int numNodes = 0;
+        int numMovementsConsidered = 0;
+        int openSetSize = 0;
+        int mapSize = 0;
+        for (Worker worker : workers) {
+            numNodes += worker.numNodes;
+            numMovementsConsidered += worker.numMovementsConsidered;
+            counters.add(worker.counters);
+            openSetSize += worker.openSet.size();
+            mapSize += worker.map.size();
+        }
+        if (bestGoal != null) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+            return Optional.of(new Path(startNode, bestGoal, numNodes, goal, calcContext));
+        }
+        logDebug("Open set size " + openSetSize + ", PathNode map size " + mapSize + ", " + (int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second on " + workers.length + " threads");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    @Override
+    protected int nodesCreated() {
+        int created = 0;
+        for (Worker worker : workers) {
+            created += worker.map.size();
+        }
+        return created;
+    }
+
+    private Worker owner(long hashCode) {
+        return workers[(int) ((HashCommon.mix(hashCode) & Long.MAX_VALUE) % workers.length)];
+    }
+
+    private synchronized void offerGoal(PathNode node) {
+        PathNode best = bestGoal;
+        if (best == null || node.cost < best.cost) {
+            bestGoal = node;
+            failing = false;
+        }
+    }
+
+    private void offerBestSoFar(int coefficient, double heuristic, PathNode node) {
+        synchronized (bestSoFar) {
+            if (bestHeuristicSoFar[coefficient] - heuristic > minimumImprovement) {
+                bestHeuristicSoFar[coefficient] = heuristic;
+                bestSoFar[coefficient] = node;
+                if (failing && getDistFromStartSq(node) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                    failing = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * A cost to a position, sent to the worker that owns it
+     */
+    private static final class Message {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long hashCode;
+        private final double cost;
+        private final PathNode previous;
+
+        private Message(int x, int y, int z, long hashCode, double cost, PathNode previous) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.hashCode = hashCode;
+            this.cost = cost;
+            this.previous = previous;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final CalculationContext context;
+        private final Long2ObjectOpenHashMap<PathNode> map;
+        private final BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
+        private final ConcurrentLinkedQueue<Message> inbox = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Only this worker's nodes, so that the shared one only needs to be locked when this one improves
+         */
+        private final double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];
+
+        private final MutableMoveResult res = new MutableMoveResult();
+
+        private int numNodes;
+        private int numMovementsConsidered;
+
+        /**
+         * This worker's own, they're added up into the finder's at the end
+         */
+        private final SearchCounters counters = new SearchCounters();
+
+        private Worker(CalculationContext context, int mapSize) {
+            this.context = context;
+            this.map = new Long2ObjectOpenHashMap<>(mapSize, Baritone.settings().pathingMapLoadFactor.value);
+        }
+
+        private PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
+            PathNode node = map.get(hashCode);
+            if (node == null) {
+                node = new PathNode(x, y, z, goal);
+                map.put(hashCode, node);
+            }
+            return node;
+        }
+
+        @Override
+        public void run() {
+            try {
+                search();
+            } finally {
+                stop = true; // if one worker is done (or has crashed), they all are
+            }
+        }
+
+        private void search() {
+            boolean isFavoring = !favoring.isEmpty();
+            int timeCheckInterval = 1 << 6;
+            Moves[] allMoves = Moves.values();
+            int iterations = 0;
+            while (!stop && !cancelRequested && numEmptyChunk.get() < pathingMaxChunkBorderFetch) {
+                if ((iterations++ & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                    long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                    if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                        break;
+                    }
+                }
+                Message message;
+                while ((message = inbox.poll()) != null) {
+                    receive(message.x, message.y, message.z, message.hashCode, message.cost, message.previous);
+                    work.decrementAndGet();
+                }
+                if (openSet.isEmpty()) {
+                    if (work.get() == 0) {
+                        break; // every other open set and inbox is empty too
+                    }
+                    Thread.yield();
+                    continue;
+                }
+                if (slowPath) {
+                    try {
+                        Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
+                    } catch (InterruptedException ignored) {}
+                }
+                PathNode currentNode = openSet.removeLowest();
+                PathNode best = bestGoal;
+                if (best != null && currentNode.combinedCost >= best.cost) {
+                    // neither this nor anything after it in this open set can lead to a cheaper goal
+                    work.decrementAndGet();
+                    continue;
+                }
+                mostRecentConsidered = currentNode;
+                numNodes++;
+                counters.nodesExpanded++;
+                if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                    offerGoal(currentNode);
+                    work.decrementAndGet();
+                    continue;
+                }
+                for (Moves moves : allMoves) {
+                    double actionCost = evaluate(context, moves, currentNode.x, currentNode.y, currentNode.z, res, counters, timeMoves);
+                    if (actionCost < 0) {
+                        if (actionCost == UNLOADED && !moves.dynamicXZ) { // only counted if it would have gone out of bounds guaranteed
+                            numEmptyChunk.incrementAndGet();
+                        }
+                        continue;
+                    }
+                    numMovementsConsidered++;
+                    if (actionCost >= ActionCosts.COST_INF) {
+                        continue;
+                    }
+                    long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
+                    if (isFavoring) {
+                        // see issue #18
+                        actionCost *= favoring.calculate(res.x, res.y, res.z, hashCode);
+                    }
+                    double tentativeCost = currentNode.cost + actionCost;
+                    Worker owner = owner(hashCode);
+                    if (owner == this) {
+                        receive(res.x, res.y, res.z, hashCode, tentativeCost, currentNode);
+                    } else {
+                        work.incrementAndGet();
+                        owner.inbox.add(new Message(res.x, res.y, res.z, hashCode, tentativeCost, currentNode));
+                    }
+                }
+                work.decrementAndGet();
+            }
+        }
+
+        private void receive(int x, int y, int z, long hashCode, double tentativeCost, PathNode previous) {
+            PathNode neighbor = getNodeAtPosition(x, y, z, hashCode);
+            if (neighbor.cost - tentativeCost > minimumImprovement) {
+                neighbor.previous = previous;
+                neighbor.cost = tentativeCost;
+                neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                if (neighbor.isOpen()) {
+                    openSet.update(neighbor);
+                } else {
+                    work.incrementAndGet();
+                    openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                    counters.openSetPeak = Math.max(counters.openSetPeak, openSet.size());
+                }
+                for (int i = 0; i < COEFFICIENTS.length; i++) {
+                    double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
+                    if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                        bestHeuristicSoFar[i] = heuristic;
+                        offerBestSoFar(i, heuristic, neighbor);
+                    }
+                }
+            }
+        }
+    }
+}
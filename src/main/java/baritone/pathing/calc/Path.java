@@ -27,8 +27,10 @@ import baritone.pathing.movement.Movement;
 import baritone.pathing.movement.Moves;
 import baritone.pathing.path.CutoffPath;
 import baritone.utils.pathing.PathBase;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -58,7 +60,10 @@ class Path extends PathBase {
 
     private final List<Movement> movements;
 
-    private final List<PathNode> nodes;
+    /**
+     * The cost to get to each position in {@link #path}, from the search that produced it
+     */
+    private final double[] costs;
 
     private final Goal goal;
 
@@ -83,13 +88,43 @@ class Path extends PathBase {
         while (current != null) {
             tempNodes.addFirst(current);
             tempPath.addFirst(new BetterBlockPos(current.x, current.y, current.z));
+            if (current == start) {
+                break; // an incremental search can start partway down a longer chain, see IncrementalAStarPathFinder
+            }
             current = current.previous;
         }
         // Can't directly convert from the PathNode pseudo linked list to an array because we don't know how long it is
         // inserting into a LinkedList<E> keeps track of length, then when we addall (which calls .toArray) it's able
         // to performantly do that conversion since it knows the length.
         this.path = new ArrayList<>(tempPath);
-        this.nodes = new ArrayList<>(tempNodes);
+        this.costs = new double[tempNodes.size()];
+        int i = 0;
+        for (PathNode node : tempNodes) {
+            costs[i++] = node.cost;
+        }
+    }
+
+    Path(NodePool pool, int start, int end, int numNodes, Goal goal, CalculationContext context) {
+        this.start = new BetterBlockPos(pool.x(start), pool.y(start), pool.z(start));
+        this.end = new BetterBlockPos(pool.x(end), pool.y(end), pool.z(end));
+        this.numNodes = numNodes;
+        this.movements = new ArrayList<>();
+        this.goal = goal;
+        this.context = context;
+        // walk the chain only once, the search might still be changing it if this is a path in progress
+        IntArrayList nodes = new IntArrayList();
+        for (int current = end; current != NodePool.NONE; current = pool.previous(current)) {
+            nodes.add(current);
+        }
+        int length = nodes.size();
+        BetterBlockPos[] positions = new BetterBlockPos[length];
+        this.costs = new double[length];
+        for (int i = 0; i < length; i++) {
+            int node = nodes.getInt(length - 1 - i);
+            positions[i] = new BetterBlockPos(pool.x(node), pool.y(node), pool.z(node));
+            costs[i] = pool.cost(node);
+        }
+        this.path = Arrays.asList(positions);
     }
 
     @Override
@@ -102,7 +137,7 @@ class Path extends PathBase {
             throw new IllegalStateException();
         }
         for (int i = 0; i < path.size() - 1; i++) {
-            double cost = nodes.get(i + 1).cost - nodes.get(i).cost;
+            double cost = costs[i + 1] - costs[i];
             Movement move = runBackwards(path.get(i), path.get(i + 1), cost);
             if (move == null) {
                 return true;
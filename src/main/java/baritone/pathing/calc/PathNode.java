@@ -23,10 +23,12 @@ import baritone.api.utils.BetterBlockPos;
 
 /**
  * A node in the path, containing the cost and steps to get to it.
+ * <p>
+ * Not final only so that {@link GraphNode} can keep its edges next to it.
  *
  * @author leijurv
  */
-public final class PathNode {
+public class PathNode {
 
     /**
      * The position of this node
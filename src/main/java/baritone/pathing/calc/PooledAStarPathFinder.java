@@ -0,0 +1,198 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.PooledBinaryHeapOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The same A* as {@link AStarPathFinder}, but with every node stored in a {@link NodePool} instead of a
+ * {@link PathNode} object. Selected with the pathingNodePool setting so the two can be compared side by side.
+ */
+public final class PooledAStarPathFinder extends AbstractNodeCostSearch {
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+    private final NodePool pool;
+
+    // all three are read from the main thread while the search runs, and a volatile read of a node index makes sure
+    // that the pool's arrays are seen at least as big as they were when that node was created
+    private volatile int startIndex = NodePool.NONE;
+    private volatile int mostRecentConsideredIndex = NodePool.NONE;
+    private final AtomicIntegerArray bestSoFarIndex = new AtomicIntegerArray(COEFFICIENTS.length);
+
+    public PooledAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
+        super(startX, startY, startZ, goal, context);
+        this.favoring = favoring;
+        this.calcContext = context;
+        this.pool = new NodePool(goal, Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        for (int i = 0; i < COEFFICIENTS.length; i++) {
+            bestSoFarIndex.set(i, NodePool.NONE);
+        }
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        int start = pool.getOrCreate(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        pool.setCost(start, 0);
+        pool.setCombinedCost(start, pool.estimatedCostToGoal(start));
+        startIndex = start;
+        PooledBinaryHeapOpenSet openSet = new PooledBinaryHeapOpenSet(pool);
+        openSet.insert(start);
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = pool.estimatedCostToGoal(start);
+            bestSoFarIndex.set(i, start);
+        }
+        MutableMoveResult res = new MutableMoveResult();
+        long startTime = System.currentTimeMillis();
+        boolean slowPath = Baritone.settings().slowPath.value;
+        if (slowPath) {
+            logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
+        }
+        long primaryTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : primaryTimeout);
+        long failureTimeoutTime = startTime + (slowPath ? Baritone.settings().slowPathTimeoutMS.value : failureTimeout);
+        boolean failing = true;
+        int numNodes = 0;
+        int numMovementsConsidered = 0;
+        boolean isFavoring = !favoring.isEmpty();
+        int timeCheckInterval = 1 << 6;
+        int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        Moves[] allMoves = Moves.values();
+        while (!openSet.isEmpty() && counters.emptyChunkHits < pathingMaxChunkBorderFetch && !cancelRequested) {
+            if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                    break;
+                }
+            }
+            if (slowPath) {
+                try {
+                    Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
+                } catch (InterruptedException ignored) {}
+            }
+            int current = openSet.removeLowest();
+            mostRecentConsideredIndex = current;
+            numNodes++;
+            counters.nodesExpanded++;
+            int currentX = pool.x(current);
+            int currentY = pool.y(current);
+            int currentZ = pool.z(current);
+            double currentCost = pool.cost(current);
+            if (goal.isInGoal(currentX, currentY, currentZ)) {
+                logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                return Optional.of(new Path(pool, start, current, numNodes, goal, calcContext));
+            }
+            for (Moves moves : allMoves) {
+                double actionCost = evaluate(calcContext, moves, currentX, currentY, currentZ, res, counters, timeMoves);
+                if (actionCost < 0) {
+                    continue;
+                }
+                numMovementsConsidered++;
+                if (actionCost >= ActionCosts.COST_INF) {
+                    continue;
+                }
+                long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
+                if (isFavoring) {
+                    // see issue #18
+                    actionCost *= favoring.calculate(res.x, res.y, res.z, hashCode);
+                }
+                int neighbor = pool.getOrCreate(res.x, res.y, res.z, hashCode);
+                double tentativeCost = currentCost + actionCost;
+                if (pool.cost(neighbor) - tentativeCost > minimumImprovement) {
+                    double estimatedCostToGoal = pool.estimatedCostToGoal(neighbor);
+                    pool.setPrevious(neighbor, current);
+                    pool.setCost(neighbor, tentativeCost);
+                    pool.setCombinedCost(neighbor, tentativeCost + estimatedCostToGoal);
+                    if (pool.isOpen(neighbor)) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                        counters.openSetPeak = Math.max(counters.openSetPeak, openSet.size());
+                    }
+                    for (int i = 0; i < COEFFICIENTS.length; i++) {
+                        double heuristic = estimatedCostToGoal + tentativeCost / COEFFICIENTS[i];
+                        if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                            bestHeuristicSoFar[i] = heuristic;
+                            bestSoFarIndex.set(i, neighbor);
+                            if (failing && getDistFromStartSq(res.x, res.y, res.z) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                failing = false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        logDebug("Open set size " + openSet.size() + ", node pool size " + pool.size() + ", " + (int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    @Override
+    protected int nodesCreated() {
+        return pool.size();
+    }
+
+    @Override
+    protected boolean hasStartNode() {
+        return startIndex != NodePool.NONE;
+    }
+
+    @Override
+    protected boolean hasBestSoFar(int coefficient) {
+        return bestSoFarIndex.get(coefficient) != NodePool.NONE;
+    }
+
+    @Override
+    protected double bestSoFarDistFromStartSq(int coefficient) {
+        int node = bestSoFarIndex.get(coefficient);
+        return getDistFromStartSq(pool.x(node), pool.y(node), pool.z(node));
+    }
+
+    @Override
+    protected IPath pathToBestSoFar(int coefficient, int numNodes) {
+        return new Path(pool, startIndex, bestSoFarIndex.get(coefficient), numNodes, goal, calcContext);
+    }
+
+    @Override
+    public Optional<IPath> pathToMostRecentNodeConsidered() {
+        int node = mostRecentConsideredIndex;
+        if (node == NodePool.NONE) {
+            return Optional.empty();
+        }
+        return Optional.of(new Path(pool, startIndex, node, 0, goal, calcContext));
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.MovementHelper;
+import baritone.utils.pathing.PathingBlockType;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import static baritone.api.pathing.movement.ActionCosts.COST_INF;
+
+/**
+ * A quick check for whether a block could possibly be gotten to, before spending a whole path calculation (and its
+ * failure timeout) finding out that it can't, e.g. ore sealed in bedrock, or a chest behind lava.
+ * <p>
+ * Floods outwards from the player once, the first time it's asked, through every block in the same four types as the
+ * cache ({@link PathingBlockType}): air and water are free, solid blocks cost one break, and anything the pathfinder
+ * would never walk into or break (lava, blocksToAvoid, bedrock...) is a wall. Breaks are counted with a 0-1 breadth
+ * first search, so every block the flood got to is reachable within the break budget. If the flood ran out of room
+ * before running into a block that isn't known or looking at too many blocks, nothing else is. Otherwise, a target the
+ * flood didn't get to might still be reachable, and it's left to the path calculation.
+ */
+public final class ReachabilityFilter {
+
+    /**
+     * What kind of block is where, or null if that isn't known
+     */
+    @FunctionalInterface
+    interface BlockTypes {
+
+        PathingBlockType get(int x, int y, int z);
+    }
+
+    private static final byte UNKNOWN = -1;
+    private static final byte WALL = -2;
+
+    private final BlockTypes types;
+    private final int playerX;
+    private final int playerY;
+    private final int playerZ;
+    private final int maxNodes;
+    private final int breakBudget;
+
+    /**
+     * How many breaks it takes to get to each block the flood got to, null until it ran
+     */
+    private Long2IntOpenHashMap breaks;
+
+    /**
+     * Whether the flood got to everything it could, so that anything it didn't get to can't be reached
+     */
+    private boolean complete;
+
+    private int checked;
+    private int rejected;
+
+    /**
+     * @param ctx         Where the blocks come from, and what can be broken. Loaded chunks are looked at block by
+     *                    block, and the rest only as far as the cache knows them, without waiting on the disk.
+     * @param player      Where the player is
+     * @param maxNodes    How many blocks to look at at most
+     * @param breakBudget How many blocks a route may go through at most
+     */
+    public ReachabilityFilter(CalculationContext ctx, BetterBlockPos player, int maxNodes, int breakBudget) {
+        this((x, y, z) -> type(ctx, x, y, z), player.x, player.y, player.z, maxNodes, breakBudget);
+    }
+
+    ReachabilityFilter(BlockTypes types, int playerX, int playerY, int playerZ, int maxNodes, int breakBudget) {
+        this.types = types;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.playerZ = playerZ;
+        this.maxNodes = maxNodes;
+        this.breakBudget = breakBudget;
+    }
+
+    /**
+     * @param x The target x
+     * @param y The target y
+     * @param z The target z
+     * @return False if the target definitely can't be gotten to, true if it might
+     */
+    public boolean mightReach(int x, int y, int z) {
+        if (breaks == null) {
+            flood();
+        }
+        checked++;
+        // anywhere the player could stand to mine it, or be next to it
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -2; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if ((dx != 0 || dy != 0 || dz != 0) && y + dy >= 0 && breaks.containsKey(pack(x + dx, y + dy, z + dz))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        if (!complete) {
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    private void flood() {
+        breaks = new Long2IntOpenHashMap();
+        breaks.defaultReturnValue(Integer.MAX_VALUE);
+        complete = true;
+        Long2ByteOpenHashMap entryCosts = new Long2ByteOpenHashMap();
+        entryCosts.defaultReturnValue(Byte.MAX_VALUE);
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        // wherever the player is standing, it's already there
+        for (int dy = 0; dy <= 1; dy++) {
+            long pos = pack(playerX, playerY + dy, playerZ);
+            breaks.put(pos, 0);
+            queue.enqueue(pos);
+        }
+        while (!queue.isEmpty()) {
+            if (breaks.size() > maxNodes) {
+                complete = false;
+                return;
+            }
+            long pos = queue.dequeueLong();
+            int px = unpackX(pos);
+            int py = unpackY(pos);
+            int pz = unpackZ(pos);
+            int cost = breaks.get(pos);
+            visit(px + 1, py, pz, cost, entryCosts, queue);
+            visit(px - 1, py, pz, cost, entryCosts, queue);
+            visit(px, py + 1, pz, cost, entryCosts, queue);
+            visit(px, py - 1, pz, cost, entryCosts, queue);
+            visit(px, py, pz + 1, cost, entryCosts, queue);
+            visit(px, py, pz - 1, cost, entryCosts, queue);
+        }
+    }
+
+    /**
+     * One step of a breadth first search where a step costs 0 or 1 breaks: the free ones go to the front of the queue
+     */
+    private void visit(int x, int y, int z, int cost, Long2ByteOpenHashMap entryCosts, LongArrayFIFOQueue queue) {
+        if (y < 0 || y > 255) {
+            return;
+        }
+        long pos = pack(x, y, z);
+        byte entry = entryCost(x, y, z, pos, entryCosts);
+        if (entry == UNKNOWN) {
+            complete = false;
+            return;
+        }
+        if (entry == WALL || cost + entry > breakBudget || cost + entry >= breaks.get(pos)) {
+            return;
+        }
+        breaks.put(pos, cost + entry);
+        if (entry == 0) {
+            queue.enqueueFirst(pos);
+        } else {
+            queue.enqueue(pos);
+        }
+    }
+
+    private byte entryCost(int x, int y, int z, long pos, Long2ByteOpenHashMap entryCosts) {
+        byte entry = entryCosts.get(pos);
+        if (entry != Byte.MAX_VALUE) {
+            return entry;
+        }
+        PathingBlockType type = types.get(x, y, z);
+        if (type == null) {
+            entry = UNKNOWN;
+        } else {
+            switch (type) {
+                case AIR:
+                case WATER:
+                    entry = 0;
+                    break;
+                case SOLID:
+                    entry = 1;
+                    break;
+                default:
+                    entry = WALL;
+                    break;
+            }
+        }
+        entryCosts.put(pos, entry);
+        return entry;
+    }
+
+    /**
+     * @return How many targets have been checked
+     */
+    public int getChecked() {
+        return checked;
+    }
+
+    /**
+     * @return How many of them were definitely unreachable
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * The same four types as {@link baritone.cache.ChunkPacker}, except that AVOID is anything the pathfinder can't
+     * walk into or break, as opposed to what it would rather not walk into
+     */
+    private static PathingBlockType type(CalculationContext ctx, int x, int y, int z) {
+        if (!ctx.isLoaded(x, z)) {
+            // the cache can't tell bedrock from stone, or lava from a slab, so nothing in there is a wall
+            PathingBlockType cached = ctx.worldData.cache.getBlockType(x, y, z);
+            return cached == PathingBlockType.AVOID ? PathingBlockType.SOLID : cached;
+        }
+        IBlockState state = ctx.get(x, y, z);
+        Block block = state.getBlock();
+        if (MovementHelper.isWater(block)) {
+            return PathingBlockType.WATER;
+        }
+        if (MovementHelper.isLava(block) || Baritone.settings().blocksToAvoid.value.contains(block)) {
+            return PathingBlockType.AVOID;
+        }
+        if (MovementHelper.canWalkThrough(ctx, x, y, z, state)) {
+            return PathingBlockType.AIR;
+        }
+        if (MovementHelper.getMiningDurationTicks(ctx, x, y, z, state, false) >= COST_INF) {
+            return PathingBlockType.AVOID;
+        }
+        return PathingBlockType.SOLID;
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static int unpackX(long pos) {
+        return (int) (pos >> 38);
+    }
+
+    private static int unpackY(long pos) {
+        return (int) (pos & 0xFFF);
+    }
+
+    private static int unpackZ(long pos) {
+        return (int) (pos << 26 >> 38);
+    }
+}
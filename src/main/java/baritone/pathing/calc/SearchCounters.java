@@ -0,0 +1,89 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.calc.PathSearchStats;
+import baritone.pathing.movement.Moves;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What a search did, counted as it goes. The finders bump these directly in their loops, and
+ * {@link AbstractNodeCostSearch} turns them into a {@link PathSearchStats} at the end.
+ */
+public final class SearchCounters {
+
+    private static final Moves[] MOVES = Moves.values();
+
+    public int nodesExpanded;
+
+    public int emptyChunkHits;
+
+    public int openSetPeak;
+
+    /**
+     * Only filled in by searches that use a {@link MovementCostCache}
+     */
+    public long costCacheHits;
+
+    public long costCacheMisses;
+
+    /**
+     * Indexed by {@link Moves#ordinal()}
+     */
+    public final long[] moveEvaluations = new long[MOVES.length];
+
+    /**
+     * Indexed by {@link Moves#ordinal()}, only filled in with the pathingMoveTiming setting
+     */
+    public final long[] moveNanos = new long[MOVES.length];
+
+    /**
+     * @param moves The movement that was just calculated
+     * @param nanos How long that took, or 0 if it wasn't timed
+     */
+    public void evaluated(Moves moves, long nanos) {
+        moveEvaluations[moves.ordinal()]++;
+        moveNanos[moves.ordinal()] += nanos;
+    }
+
+    /**
+     * Adds the counts of a search that ran alongside this one, e.g. another thread of the same parallel search
+     */
+    public void add(SearchCounters other) {
+        nodesExpanded += other.nodesExpanded;
+        emptyChunkHits += other.emptyChunkHits;
+        openSetPeak += other.openSetPeak; // they're all in memory at the same time
+        costCacheHits += other.costCacheHits;
+        costCacheMisses += other.costCacheMisses;
+        for (int i = 0; i < MOVES.length; i++) {
+            moveEvaluations[i] += other.moveEvaluations[i];
+            moveNanos[i] += other.moveNanos[i];
+        }
+    }
+
+    static Map<String, Long> byMove(long[] counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Moves moves : MOVES) {
+            result.put(moves.name(), counts[moves.ordinal()]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
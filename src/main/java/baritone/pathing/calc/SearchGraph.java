@@ -0,0 +1,505 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.utils.pathing.Favoring;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.world.World;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Everything an {@link IncrementalAStarPathFinder} found out, kept between searches towards the same goal.
+ * <p>
+ * The graph is always rooted where the first search started. Every node knows its edges in both directions, so when
+ * blocks change, only the movements that could have looked at them are calculated again. Nodes whose shortest path
+ * got more expensive (and everything below them in the search tree) get their cost from their other predecessors
+ * again, and then the search just carries on from the open set it stopped with.
+ * <p>
+ * The edges hold the plain movement costs. {@link Favoring} changes from one search to the next (the previous path,
+ * mobs moving around), so it's applied whenever an edge is read, see {@link #edgeCost}. The nodes where it changed
+ * are repaired the same way as the ones next to a changed block. Only when that can't be narrowed down (e.g. a new
+ * chunk route), the search starts over on the movements it already knows, see {@link #restart}.
+ * <p>
+ * Only one search uses the graph at a time, block changes can come in from any thread.
+ */
+public final class SearchGraph {
+
+    /**
+     * Past this many block changes between two searches, it's quicker to just start over
+     */
+    private static final int MAX_PENDING_CHANGES = 4096;
+
+    /**
+     * Calculates the movements out of a position
+     */
+    interface Expander {
+
+        /**
+         * @return Whether every movement was considered, false if some were skipped because of unloaded chunks
+         */
+        boolean expand(int x, int y, int z, EdgeSink edges);
+    }
+
+    interface EdgeSink {
+
+        void edge(int x, int y, int z, double cost);
+    }
+
+    final Goal goal;
+
+    private final World world;
+
+    /**
+     * See {@link baritone.pathing.movement.CalculationContext#costFingerprint()}, the edges are only good for as long
+     * as this stays the same
+     */
+    private final Object fingerprint;
+
+    /**
+     * The favoring of the current search, null for none
+     */
+    private Favoring favoring;
+
+    /**
+     * Whether the favoring changed since the costs in the graph were worked out, in a way that {@link #repair} can't
+     * fix
+     */
+    private boolean favoringChanged;
+
+    /**
+     * The ways the favoring changed since the costs in the graph were worked out, for {@link #repair} to fix
+     */
+    private final List<Favoring.Difference> favoringChanges = new ArrayList<>();
+
+    private final Long2ObjectOpenHashMap<GraphNode> map;
+
+    BinaryHeapOpenSet openSet;
+
+    /**
+     * Expanded nodes with movements that went into unloaded chunks, those chunks might be loaded next time
+     */
+    private final List<GraphNode> incomplete = new ArrayList<>();
+
+    /**
+     * Changed block positions since the last search, as x, y, z triples
+     */
+    private final IntArrayList changes = new IntArrayList();
+
+    private boolean tooManyChanges;
+
+    private volatile boolean discarded;
+
+    GraphNode root;
+
+    /**
+     * The goal node the last search ended at, it isn't in the open set anymore
+     */
+    GraphNode goalNode;
+
+    /**
+     * The best nodes so far of the last search that didn't get to the goal, see {@link AbstractNodeCostSearch#bestSoFar}
+     */
+    PathNode[] bestSoFar;
+
+    /**
+     * @param goal        The goal
+     * @param world       The world
+     * @param fingerprint The cost fingerprint of the context the edges are calculated with
+     */
+    public SearchGraph(Goal goal, World world, Object fingerprint) {
+        this(goal, world, fingerprint, Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+    }
+
+    SearchGraph(Goal goal, World world, Object fingerprint, int expectedSize, float loadFactor) {
+        this.goal = goal;
+        this.world = world;
+        this.fingerprint = fingerprint;
+        this.map = new Long2ObjectOpenHashMap<>(expectedSize, loadFactor);
+    }
+
+    /**
+     * @param goal        The goal
+     * @param world       The world
+     * @param fingerprint The cost fingerprint of the context the next search uses
+     * @return Whether a search for this goal can use what the last one found out
+     */
+    public boolean canContinue(Goal goal, World world, Object fingerprint) {
+        return !discarded && this.goal == goal && this.world == world && fingerprint != null && fingerprint.equals(this.fingerprint);
+    }
+
+    /**
+     * Sets the favoring for the next search
+     */
+    void setFavoring(Favoring favoring) {
+        boolean same = favoring == this.favoring || (isEmpty(favoring) && isEmpty(this.favoring));
+        if (!same && root != null && !favoringChanged) {
+            Favoring.Difference difference = favoring == null || this.favoring == null ? null : favoring.differenceFrom(this.favoring);
+            if (difference == null) {
+                favoringChanged = true;
+                favoringChanges.clear();
+            } else if (!difference.isEmpty()) {
+                favoringChanges.add(difference);
+            }
+        }
+        this.favoring = favoring;
+    }
+
+    private static boolean isEmpty(Favoring favoring) {
+        return favoring == null || favoring.isEmpty();
+    }
+
+    /**
+     * @param node The node
+     * @param i    Which of its edges
+     * @return The cost of that edge, with the favoring of the current search applied
+     */
+    double edgeCost(GraphNode node, int i) {
+        return favored(node.successors[i], node.successorCosts[i]);
+    }
+
+    private double favored(GraphNode target, double cost) {
+        if (isEmpty(favoring)) {
+            return cost;
+        }
+        // see issue #18
+        return cost * favoring.calculate(target.x, target.y, target.z, BetterBlockPos.longHash(target.x, target.y, target.z));
+    }
+
+    /**
+     * Called whenever a block changes, once the change has actually been applied to the world
+     */
+    public synchronized void blockChanged(int x, int y, int z) {
+        if (changes.size() >= MAX_PENDING_CHANGES * 3) {
+            tooManyChanges = true;
+            return;
+        }
+        changes.add(x);
+        changes.add(y);
+        changes.add(z);
+    }
+
+    /**
+     * The graph is left in an unknown state, e.g. the search threw an exception halfway through a repair
+     */
+    void discard() {
+        discarded = true;
+    }
+
+    /**
+     * @return Whether there is a search to repair, that got to this position
+     */
+    synchronized boolean canResumeAt(int x, int y, int z) {
+        if (root == null || tooManyChanges || favoringChanged) {
+            return false;
+        }
+        GraphNode node = getNodeIfPresent(x, y, z);
+        return node != null && node.cost < ActionCosts.COST_INF;
+    }
+
+    /**
+     * Throws everything away and roots the graph at this position instead
+     */
+    void reset(int x, int y, int z) {
+        map.clear();
+        incomplete.clear();
+        synchronized (this) {
+            changes.clear();
+            tooManyChanges = false;
+        }
+        rootAt(x, y, z);
+    }
+
+    /**
+     * Roots the graph at this position and searches again from scratch, but keeps the movements that were already
+     * calculated, apart from the ones near blocks that changed. Throws everything away if too much changed.
+     *
+     * @see #repair for the arguments
+     */
+    void restart(int x, int y, int z, int horizontal, int below, int above) {
+        int[] changed;
+        synchronized (this) {
+            if (tooManyChanges) {
+                changed = null;
+            } else {
+                changed = changes.toIntArray();
+                changes.clear();
+            }
+        }
+        if (changed == null) {
+            reset(x, y, z);
+            return;
+        }
+        for (GraphNode node : affected(changed, horizontal, below, above, Collections.newSetFromMap(new IdentityHashMap<>()))) {
+            node.clearSuccessors();
+        }
+        for (GraphNode node : incomplete) {
+            node.clearSuccessors();
+        }
+        incomplete.clear();
+        for (GraphNode node : map.values()) {
+            node.cost = ActionCosts.COST_INF;
+            node.previous = null;
+            node.heapPosition = -1; // the open set is thrown away
+        }
+        rootAt(x, y, z);
+    }
+
+    private void rootAt(int x, int y, int z) {
+        favoringChanged = false;
+        favoringChanges.clear();
+        openSet = new BinaryHeapOpenSet();
+        goalNode = null;
+        bestSoFar = null;
+        root = getNode(x, y, z);
+        root.cost = 0;
+        root.combinedCost = root.estimatedCostToGoal;
+        openSet.insert(root);
+    }
+
+    GraphNode getNode(int x, int y, int z) {
+        long hashCode = BetterBlockPos.longHash(x, y, z);
+        GraphNode node = map.get(hashCode);
+        if (node == null) {
+            node = new GraphNode(x, y, z, goal);
+            map.put(hashCode, node);
+        }
+        return node;
+    }
+
+    GraphNode getNodeIfPresent(int x, int y, int z) {
+        return map.get(BetterBlockPos.longHash(x, y, z));
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    /**
+     * Calculates and records the movements out of a node
+     */
+    void expand(GraphNode node, Expander expander) {
+        GraphNode[][] targets = {new GraphNode[16]};
+        double[][] costs = {new double[16]};
+        int[] count = {0};
+        boolean complete = expander.expand(node.x, node.y, node.z, (x, y, z, cost) -> {
+            GraphNode target = getNode(x, y, z);
+            for (int i = 0; i < count[0]; i++) {
+                if (targets[0][i] == target) { // two movements to the same place, only the cheaper one matters
+                    costs[0][i] = Math.min(costs[0][i], cost);
+                    return;
+                }
+            }
+            if (count[0] == targets[0].length) {
+                targets[0] = Arrays.copyOf(targets[0], count[0] << 1);
+                costs[0] = Arrays.copyOf(costs[0], count[0] << 1);
+            }
+            targets[0][count[0]] = target;
+            costs[0][count[0]] = cost;
+            count[0]++;
+        });
+        node.setSuccessors(Arrays.copyOf(targets[0], count[0]), Arrays.copyOf(costs[0], count[0]), count[0]);
+        if (!complete && !node.incomplete) {
+            incomplete.add(node);
+        }
+        node.incomplete = !complete;
+    }
+
+    /**
+     * Brings the graph up to date with the blocks that changed since the last search.
+     * <p>
+     * A movement from a position can look at blocks up to {@code horizontal} away on x and z, {@code above} blocks
+     * higher and {@code below} blocks lower, so those are the nodes whose movements are calculated again. The nodes
+     * where the favoring changed keep their movements, but get their cost from their predecessors again.
+     *
+     * @return The number of nodes whose movements were calculated again
+     */
+    int repair(Expander expander, int horizontal, int below, int above) {
+        int[] changed;
+        synchronized (this) {
+            changed = changes.toIntArray();
+            changes.clear();
+        }
+        Set<GraphNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<GraphNode> affected = affected(changed, horizontal, below, above, seen);
+        for (GraphNode node : incomplete) {
+            if (seen.add(node)) {
+                affected.add(node);
+            }
+        }
+        incomplete.clear();
+        List<GraphNode> orphaned = new ArrayList<>();
+        for (GraphNode node : affected) {
+            GraphNode[] before = node.successors;
+            double[] beforeCosts = node.successorCosts;
+            int beforeCount = node.successorCount;
+            expand(node, expander);
+            for (int i = 0; i < beforeCount; i++) {
+                GraphNode target = before[i];
+                if (target.previous == node && node.costTo(target) > beforeCosts[i]) {
+                    orphaned.add(target);
+                }
+            }
+            if (node.cost < ActionCosts.COST_INF) {
+                reposition(node, node.cost + node.estimatedCostToGoal); // so that cheaper or new movements get relaxed
+            }
+        }
+        orphaned.addAll(favoringChanged());
+        invalidate(orphaned);
+        if (goalNode != null && goalNode.cost < ActionCosts.COST_INF && !goalNode.isOpen()) {
+            reposition(goalNode, goalNode.cost + goalNode.estimatedCostToGoal);
+        }
+        return affected.size();
+    }
+
+    /**
+     * @return The nodes that moving to costs differently with the favoring of this search than with the last one
+     */
+    private List<GraphNode> favoringChanged() {
+        List<GraphNode> changed = new ArrayList<>();
+        if (favoringChanges.isEmpty()) {
+            return changed;
+        }
+        Set<GraphNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Favoring.Difference difference : favoringChanges) {
+            LongIterator it = difference.positions().iterator();
+            while (it.hasNext()) {
+                GraphNode node = map.get(it.nextLong());
+                if (node != null && seen.add(node)) {
+                    changed.add(node);
+                }
+            }
+            if (difference.avoidanceChanged()) {
+                for (GraphNode node : map.values()) {
+                    if (difference.avoidanceChanged(node.x, node.y, node.z) && seen.add(node)) {
+                        changed.add(node);
+                    }
+                }
+            }
+        }
+        favoringChanges.clear();
+        return changed;
+    }
+
+    /**
+     * @return The expanded nodes with movements that could have looked at one of these changed blocks
+     */
+    private List<GraphNode> affected(int[] changed, int horizontal, int below, int above, Set<GraphNode> seen) {
+        List<GraphNode> affected = new ArrayList<>();
+        for (int i = 0; i < changed.length; i += 3) {
+            for (int x = changed[i] - horizontal; x <= changed[i] + horizontal; x++) {
+                for (int z = changed[i + 2] - horizontal; z <= changed[i + 2] + horizontal; z++) {
+                    for (int y = changed[i + 1] - above; y <= changed[i + 1] + below; y++) {
+                        GraphNode node = getNodeIfPresent(x, y, z);
+                        if (node != null && node.expanded && seen.add(node)) {
+                            affected.add(node);
+                        }
+                    }
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * The cheapest way to these nodes got more expensive. Forget the cost of them and everything the search reached
+     * through them, then take the cheapest of their predecessors that wasn't affected.
+     */
+    private void invalidate(List<GraphNode> orphaned) {
+        List<GraphNode> subtree = new ArrayList<>();
+        ArrayDeque<GraphNode> stack = new ArrayDeque<>();
+        for (GraphNode node : orphaned) {
+            if (node != root && node.cost < ActionCosts.COST_INF) {
+                node.cost = ActionCosts.COST_INF;
+                stack.push(node);
+            }
+        }
+        while (!stack.isEmpty()) {
+            GraphNode node = stack.pop();
+            subtree.add(node);
+            for (int i = 0; i < node.successorCount; i++) {
+                GraphNode child = node.successors[i];
+                if (child.previous == node && child.cost < ActionCosts.COST_INF) {
+                    child.cost = ActionCosts.COST_INF;
+                    stack.push(child);
+                }
+            }
+        }
+        for (GraphNode node : subtree) {
+            node.previous = null;
+        }
+        for (GraphNode node : subtree) {
+            double best = ActionCosts.COST_INF;
+            GraphNode parent = null;
+            for (int i = 0; i < node.predecessorCount; i++) {
+                GraphNode predecessor = node.predecessors[i];
+                if (predecessor.cost < ActionCosts.COST_INF) {
+                    double cost = predecessor.cost + favored(node, predecessor.costTo(node));
+                    if (cost < best) {
+                        best = cost;
+                        parent = predecessor;
+                    }
+                }
+            }
+            node.cost = best;
+            node.previous = parent;
+            if (best < ActionCosts.COST_INF) {
+                reposition(node, best + node.estimatedCostToGoal);
+            } else if (node.isOpen()) {
+                reposition(node, ActionCosts.COST_INF); // the search skips it when it comes up
+            }
+        }
+    }
+
+    private void reposition(GraphNode node, double combinedCost) {
+        double before = node.combinedCost;
+        node.combinedCost = combinedCost;
+        if (!node.isOpen()) {
+            openSet.insert(node);
+        } else if (combinedCost < before) {
+            openSet.update(node);
+        } else {
+            openSet.increase(node);
+        }
+    }
+
+    /**
+     * @return Whether the search reached this node by way of that one
+     */
+    static boolean reaches(PathNode node, PathNode ancestor) {
+        for (PathNode current = node; current != null; current = current.previous) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
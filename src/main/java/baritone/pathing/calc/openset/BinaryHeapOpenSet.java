@@ -84,6 +84,35 @@ public final class BinaryHeapOpenSet implements IOpenSet {
         }
     }
 
+    /**
+     * The cost of this node has gone up instead of down. Perform an increase-key operation.
+     * <p>
+     * Plain A* never needs this, only repairing a search after the world changed does.
+     *
+     * @param val The node
+     */
+    public final void increase(PathNode val) {
+        int index = val.heapPosition;
+        int smallerChild = index << 1;
+        double cost = val.combinedCost;
+        while (smallerChild <= size) {
+            PathNode smallerChildNode = array[smallerChild];
+            if (smallerChild < size && smallerChildNode.combinedCost > array[smallerChild + 1].combinedCost) {
+                smallerChild++;
+                smallerChildNode = array[smallerChild];
+            }
+            if (cost <= smallerChildNode.combinedCost) {
+                break;
+            }
+            array[index] = smallerChildNode;
+            smallerChildNode.heapPosition = index;
+            index = smallerChild;
+            smallerChild <<= 1;
+        }
+        array[index] = val;
+        val.heapPosition = index;
+    }
+
     @Override
     public final boolean isEmpty() {
         return size == 0;
@@ -0,0 +1,151 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.NodePool;
+
+import java.util.Arrays;
+
+/**
+ * The same binary heap as {@link BinaryHeapOpenSet}, but over node indices into a {@link NodePool}.
+ * <p>
+ * The costs are copied into the heap array next to the indices, so sifting never has to go back to the pool.
+ */
+public final class PooledBinaryHeapOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final NodePool pool;
+
+    /**
+     * The node indices backing the heap
+     */
+    private int[] array;
+
+    /**
+     * The combined cost of the node at the same position in {@link #array}
+     */
+    private double[] costs;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public PooledBinaryHeapOpenSet(NodePool pool) {
+        this(pool, INITIAL_CAPACITY);
+    }
+
+    public PooledBinaryHeapOpenSet(NodePool pool, int size) {
+        this.pool = pool;
+        this.size = 0;
+        this.array = new int[size];
+        this.costs = new double[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts the specified node into the heap
+     *
+     * @param node The node index
+     */
+    public void insert(int node) {
+        if (size >= array.length - 1) {
+            array = Arrays.copyOf(array, array.length << 1);
+            costs = Arrays.copyOf(costs, costs.length << 1);
+        }
+        size++;
+        array[size] = node;
+        costs[size] = pool.combinedCost(node);
+        pool.setHeapPosition(node, size);
+        update(node);
+    }
+
+    /**
+     * A faster path has been found to this node, decreasing its cost. Perform a decrease-key operation.
+     *
+     * @param node The node index
+     */
+    public void update(int node) {
+        int index = pool.heapPosition(node);
+        double cost = pool.combinedCost(node);
+        int parentInd = index >>> 1;
+        while (index > 1 && costs[parentInd] > cost) {
+            int parentNode = array[parentInd];
+            array[index] = parentNode;
+            costs[index] = costs[parentInd];
+            pool.setHeapPosition(parentNode, index);
+            index = parentInd;
+            parentInd = index >>> 1;
+        }
+        array[index] = node;
+        costs[index] = cost;
+        pool.setHeapPosition(node, index);
+    }
+
+    /**
+     * Removes and returns the minimum element in the heap.
+     *
+     * @return The index of the minimum node in the heap
+     */
+    public int removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        int result = array[1];
+        int val = array[size];
+        double cost = costs[size];
+        size--;
+        pool.setHeapPosition(result, NodePool.NONE);
+        if (size == 0) {
+            return result;
+        }
+        int index = 1;
+        int smallerChild = 2;
+        while (smallerChild <= size) {
+            double smallerChildCost = costs[smallerChild];
+            if (smallerChild < size && smallerChildCost > costs[smallerChild + 1]) {
+                smallerChild++;
+                smallerChildCost = costs[smallerChild];
+            }
+            if (cost <= smallerChildCost) {
+                break;
+            }
+            int smallerChildNode = array[smallerChild];
+            array[index] = smallerChildNode;
+            costs[index] = smallerChildCost;
+            pool.setHeapPosition(smallerChildNode, index);
+            index = smallerChild;
+            smallerChild <<= 1;
+        }
+        array[index] = val;
+        costs[index] = cost;
+        pool.setHeapPosition(val, index);
+        return result;
+    }
+}
@@ -19,8 +19,10 @@ package baritone.pathing.movement;
 
 import baritone.Baritone;
 import baritone.api.IBaritone;
+import baritone.api.Settings;
 import baritone.api.pathing.movement.ActionCosts;
 import baritone.cache.WorldData;
+import baritone.pathing.precompute.PrecomputedData;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.ToolSet;
 import baritone.utils.pathing.BetterWorldBorder;
@@ -35,7 +37,10 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static baritone.api.pathing.movement.ActionCosts.COST_INF;
 
@@ -72,25 +77,61 @@ public class CalculationContext {
     public final double waterWalkSpeed;
     public final double breakBlockAdditionalCost;
     public double backtrackCostFavoringCoefficient;
+    public double routeCorridorCostCoefficient;
     public double jumpPenalty;
     public final double walkOnWaterOnePenalty;
     public final BetterWorldBorder worldBorder;
+    public final PrecomputedData precomputedData;
 
     public CalculationContext(IBaritone baritone) {
         this(baritone, false);
     }
 
     public CalculationContext(IBaritone baritone, boolean forUseOnAnotherThread) {
+        this(baritone, forUseOnAnotherThread, baritone.getPlayerContext().player(), baritone.getPlayerContext().world());
+    }
+
+    private CalculationContext(IBaritone baritone, boolean forUseOnAnotherThread, EntityPlayerSP player, World world) {
+        this(
+                baritone,
+                world,
+                (WorldData) baritone.getWorldProvider().getCurrentWorld(),
+                new BlockStateInterface(world, (WorldData) baritone.getWorldProvider().getCurrentWorld(), forUseOnAnotherThread),
+                new ToolSet(player),
+                Baritone.settings().allowWaterBucketFall.value && InventoryPlayer.isHotbar(player.inventory.getSlotFor(STACK_BUCKET_WATER)) && !world.provider.isNether(),
+                Baritone.settings().allowPlace.value && ((Baritone) baritone).getInventoryBehavior().hasGenericThrowaway(),
+                Baritone.settings().allowSprint.value && player.getFoodStats().getFoodLevel() > 6,
+                EnchantmentHelper.getDepthStriderModifier(player),
+                forUseOnAnotherThread
+        );
+    }
+
+    /**
+     * A context without a client or a player, e.g. for planning from nothing but the cache, see
+     * {@link baritone.cache.CachedWorldBlockSource}. Everything that would have come from the player is passed in as a
+     * value, everything else is read from the settings as usual.
+     *
+     * @param bsi            Where the blocks come from, see {@link BlockStateInterface#BlockStateInterface(baritone.utils.IBlockSource, BetterWorldBorder)}
+     * @param toolSet        How fast blocks can be broken, see {@link ToolSet#ToolSet(java.util.function.Function)}
+     * @param hasWaterBucket Whether or not there is a water bucket to fall into
+     * @param hasThrowaway   Whether or not there are throwaway blocks to place
+     * @param canSprint      Whether or not the player isn't too hungry to sprint
+     * @param depthStrider   The level of depth strider on the boots
+     */
+    public CalculationContext(BlockStateInterface bsi, ToolSet toolSet, boolean hasWaterBucket, boolean hasThrowaway, boolean canSprint, int depthStrider) {
+        this(null, null, null, bsi, toolSet, Baritone.settings().allowWaterBucketFall.value && hasWaterBucket, Baritone.settings().allowPlace.value && hasThrowaway, Baritone.settings().allowSprint.value && canSprint, depthStrider, true);
+    }
+
+    protected CalculationContext(IBaritone baritone, World world, WorldData worldData, BlockStateInterface bsi, ToolSet toolSet, boolean hasWaterBucket, boolean hasThrowaway, boolean canSprint, int depthStrider, boolean forUseOnAnotherThread) {
         this.safeForThreadedUse = forUseOnAnotherThread;
         this.baritone = baritone;
-        EntityPlayerSP player = baritone.getPlayerContext().player();
-        this.world = baritone.getPlayerContext().world();
-        this.worldData = (WorldData) baritone.getWorldProvider().getCurrentWorld();
-        this.bsi = new BlockStateInterface(world, worldData, forUseOnAnotherThread);
-        this.toolSet = new ToolSet(player);
-        this.hasThrowaway = Baritone.settings().allowPlace.value && ((Baritone) baritone).getInventoryBehavior().hasGenericThrowaway();
-        this.hasWaterBucket = Baritone.settings().allowWaterBucketFall.value && InventoryPlayer.isHotbar(player.inventory.getSlotFor(STACK_BUCKET_WATER)) && !world.provider.isNether();
-        this.canSprint = Baritone.settings().allowSprint.value && player.getFoodStats().getFoodLevel() > 6;
+        this.world = world;
+        this.worldData = worldData;
+        this.bsi = bsi;
+        this.toolSet = toolSet;
+        this.hasThrowaway = hasThrowaway;
+        this.hasWaterBucket = hasWaterBucket;
+        this.canSprint = canSprint;
         this.placeBlockCost = Baritone.settings().blockPlacementPenalty.value;
         this.allowBreak = Baritone.settings().allowBreak.value;
         this.allowBreakAnyway = new ArrayList<>(Baritone.settings().allowBreakAnyway.value);
@@ -104,7 +145,7 @@ public class CalculationContext {
         this.allowDownward = Baritone.settings().allowDownward.value;
         this.maxFallHeightNoWater = Baritone.settings().maxFallHeightNoWater.value;
         this.maxFallHeightBucket = Baritone.settings().maxFallHeightBucket.value;
-        int depth = EnchantmentHelper.getDepthStriderModifier(player);
+        int depth = depthStrider;
         if (depth > 3) {
             depth = 3;
         }
@@ -112,12 +153,111 @@ public class CalculationContext {
         this.waterWalkSpeed = ActionCosts.WALK_ONE_IN_WATER_COST * (1 - mult) + ActionCosts.WALK_ONE_BLOCK_COST * mult;
         this.breakBlockAdditionalCost = Baritone.settings().blockBreakAdditionalPenalty.value;
         this.backtrackCostFavoringCoefficient = Baritone.settings().backtrackCostFavoringCoefficient.value;
+        this.routeCorridorCostCoefficient = Baritone.settings().routeCorridorCostCoefficient.value;
         this.jumpPenalty = Baritone.settings().jumpPenalty.value;
         this.walkOnWaterOnePenalty = Baritone.settings().walkOnWaterOnePenalty.value;
         // why cache these things here, why not let the movements just get directly from settings?
         // because if some movements are calculated one way and others are calculated another way,
         // then you get a wildly inconsistent path that isn't optimal for either scenario.
-        this.worldBorder = new BetterWorldBorder(world.getWorldBorder());
+        this.worldBorder = bsi.worldBorder;
+        this.precomputedData = new PrecomputedData();
+    }
+
+    /**
+     * The same context, but with its own block state interface and tool set, which aren't safe to share between
+     * threads. See {@link #copyForParallelSearch()}.
+     *
+     * @param other The context to copy
+     */
+    protected CalculationContext(CalculationContext other) {
+        this.safeForThreadedUse = other.safeForThreadedUse;
+        this.baritone = other.baritone;
+        this.world = other.world;
+        this.worldData = other.worldData;
+        this.bsi = new BlockStateInterface(other.bsi);
+        this.toolSet = other.toolSet.copy();
+        this.hasThrowaway = other.hasThrowaway;
+        this.hasWaterBucket = other.hasWaterBucket;
+        this.canSprint = other.canSprint;
+        this.placeBlockCost = other.placeBlockCost;
+        this.allowBreak = other.allowBreak;
+        this.allowBreakAnyway = other.allowBreakAnyway;
+        this.allowParkour = other.allowParkour;
+        this.allowParkourPlace = other.allowParkourPlace;
+        this.allowJumpAt256 = other.allowJumpAt256;
+        this.allowParkourAscend = other.allowParkourAscend;
+        this.assumeWalkOnWater = other.assumeWalkOnWater;
+        this.allowDiagonalDescend = other.allowDiagonalDescend;
+        this.allowDiagonalAscend = other.allowDiagonalAscend;
+        this.allowDownward = other.allowDownward;
+        this.maxFallHeightNoWater = other.maxFallHeightNoWater;
+        this.maxFallHeightBucket = other.maxFallHeightBucket;
+        this.waterWalkSpeed = other.waterWalkSpeed;
+        this.breakBlockAdditionalCost = other.breakBlockAdditionalCost;
+        this.backtrackCostFavoringCoefficient = other.backtrackCostFavoringCoefficient;
+        this.routeCorridorCostCoefficient = other.routeCorridorCostCoefficient;
+        this.jumpPenalty = other.jumpPenalty;
+        this.walkOnWaterOnePenalty = other.walkOnWaterOnePenalty;
+        this.worldBorder = other.worldBorder;
+        this.precomputedData = other.precomputedData; // classified with the same settings, so it's fine to share
+    }
+
+    /**
+     * @return Whether {@link #copyForParallelSearch} works for this context. If it doesn't, the search has to stay on
+     * one thread.
+     */
+    public boolean canCopyForParallelSearch() {
+        return safeForThreadedUse && getClass() == CalculationContext.class;
+    }
+
+    /**
+     * For searches that calculate movements on several threads at once, each thread needs its own copy.
+     * <p>
+     * Subclasses that change any costs have to override this and {@link #canCopyForParallelSearch} to copy themselves,
+     * otherwise the copy would silently lose their changes. Until they do, their searches stay on one thread.
+     *
+     * @return A copy of this context that can be used on another thread at the same time as this one
+     */
+    public CalculationContext copyForParallelSearch() {
+        if (!safeForThreadedUse) {
+            throw new IllegalStateException("This context reads the live world, it can't be used on another thread");
+        }
+        if (getClass() != CalculationContext.class) {
+            throw new UnsupportedOperationException(getClass() + " has to override copyForParallelSearch");
+        }
+        return new CalculationContext(this);
+    }
+
+    /**
+     * Everything besides the blocks that goes into the cost of a movement. Two contexts with equal fingerprints
+     * calculate the same cost for the same movement in the same world, see {@link baritone.pathing.calc.MovementCostCache}.
+     * <p>
+     * Every setting is in there, not just the ones copied into fields, since some are read straight from the settings
+     * while calculating (e.g. blocksToAvoid).
+     *
+     * @return The fingerprint, or null if this context can't make that promise
+     */
+    public Object costFingerprint() {
+        if (getClass() != CalculationContext.class || world == null) {
+            return null; // subclasses change costs depending on what their process is doing
+        }
+        List<Object> fingerprint = new ArrayList<>();
+        fingerprint.add(world);
+        fingerprint.add(hasWaterBucket);
+        fingerprint.add(hasThrowaway);
+        fingerprint.add(canSprint);
+        fingerprint.add(waterWalkSpeed);
+        fingerprint.add(toolSet.fingerprint());
+        for (Settings.Setting<?> setting : Baritone.settings().allSettings) {
+            Object value = setting.value;
+            if (value instanceof Collection) {
+                value = new ArrayList<>((Collection<?>) value); // lists are sometimes changed in place
+            } else if (value instanceof Map) {
+                value = new HashMap<>((Map<?, ?>) value);
+            }
+            fingerprint.add(value);
+        }
+        return fingerprint;
     }
 
     public final IBaritone getBaritone() {
@@ -25,6 +25,7 @@ import baritone.api.pathing.movement.MovementStatus;
 import baritone.api.utils.*;
 import baritone.api.utils.input.Input;
 import baritone.pathing.movement.MovementState.MovementTarget;
+import baritone.pathing.precompute.Ternary;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.ToolSet;
 import net.minecraft.block.*;
@@ -40,6 +41,7 @@ import net.minecraft.world.IBlockAccess;
 import java.util.Optional;
 
 import static baritone.pathing.movement.Movement.HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP;
+import static baritone.pathing.precompute.Ternary.*;
 
 /**
  * Static helpers for cost calculation
@@ -88,23 +90,82 @@ public interface MovementHelper extends ActionCosts, Helper {
         return canWalkThrough(bsi, x, y, z, bsi.get0(x, y, z));
     }
 
+    static boolean canWalkThrough(CalculationContext context, int x, int y, int z) {
+        return canWalkThrough(context, x, y, z, context.get(x, y, z));
+    }
+
+    static boolean canWalkThrough(CalculationContext context, int x, int y, int z, IBlockState state) {
+        return context.precomputedData.canWalkThrough(context.bsi, x, y, z, state);
+    }
+
     static boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        Ternary canWalkThrough = canWalkThroughBlockState(state);
+        if (canWalkThrough == YES) {
+            return true;
+        }
+        if (canWalkThrough == NO) {
+            return false;
+        }
+        return canWalkThroughPosition(bsi, x, y, z, state);
+    }
+
+    /**
+     * The part of {@link #canWalkThrough(BlockStateInterface, int, int, int, IBlockState)} that only depends on the
+     * block state, see {@link baritone.pathing.precompute.PrecomputedData}
+     *
+     * @param state The block state
+     * @return {@link Ternary#MAYBE} if {@link #canWalkThroughPosition} has to be checked
+     */
+    static Ternary canWalkThroughBlockState(IBlockState state) {
         Block block = state.getBlock();
         if (block == Blocks.AIR) { // early return for most common case
-            return true;
+            return YES;
         }
         if (block == Blocks.FIRE || block == Blocks.TRIPWIRE || block == Blocks.WEB || block == Blocks.END_PORTAL || block == Blocks.COCOA || block instanceof BlockSkull || block instanceof BlockTrapDoor || block == Blocks.END_ROD) {
-            return false;
+            return NO;
         }
         if (Baritone.settings().blocksToAvoid.value.contains(block)) {
-            return false;
+            return NO;
         }
         if (block instanceof BlockDoor || block instanceof BlockFenceGate) {
             // Because there's no nice method in vanilla to check if a door is openable or not, we just have to assume
             // that anything that isn't an iron door isn't openable, ignoring that some doors introduced in mods can't
             // be opened by just interacting.
-            return block != Blocks.IRON_DOOR;
+            return block != Blocks.IRON_DOOR ? YES : NO;
         }
+        if (block == Blocks.CARPET) {
+            return MAYBE; // depends on what's below
+        }
+        if (block instanceof BlockSnow) {
+            return MAYBE; // depends on whether the chunk is loaded and what's below
+        }
+        if (block instanceof BlockLiquid) {
+            if (state.getValue(BlockLiquid.LEVEL) != 0) {
+                return NO; // Don't walk through flowing liquids
+            }
+            if (Baritone.settings().assumeWalkOnWater.value) {
+                return NO;
+            }
+            return MAYBE; // depends on what's next to and above it
+        }
+        if (block instanceof BlockCauldron) {
+            return NO;
+        }
+        try {
+            // door, fence gate, liquid, trapdoor and snow have been accounted for, nothing else in vanilla uses the world or pos parameters
+            return block.isPassable(null, null) ? YES : NO;
+        } catch (Throwable exception) {
+            // a modded block that does use them
+            return MAYBE;
+        }
+    }
+
+    /**
+     * The rest of {@link #canWalkThrough(BlockStateInterface, int, int, int, IBlockState)}, for when
+     * {@link #canWalkThroughBlockState} isn't enough
+     */
+    static boolean canWalkThroughPosition(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        Block block = state.getBlock();
         if (block == Blocks.CARPET) {
             return canWalkOn(bsi, x, y - 1, z);
         }
@@ -137,9 +198,6 @@ public interface MovementHelper extends ActionCosts, Helper {
             }
             return block == Blocks.WATER || block == Blocks.FLOWING_WATER;
         }
-        if (block instanceof BlockCauldron) {
-            return false;
-        }
         return block.isPassable(bsi.access, bsi.isPassableBlockPos.setPos(x, y, z));
     }
 
@@ -154,11 +212,11 @@ public interface MovementHelper extends ActionCosts, Helper {
      * @return Whether or not the block at the specified position
      */
     static boolean fullyPassable(CalculationContext context, int x, int y, int z) {
-        return fullyPassable(
-                context.bsi.access,
-                context.bsi.isPassableBlockPos.setPos(x, y, z),
-                context.bsi.get0(x, y, z)
-        );
+        return fullyPassable(context, x, y, z, context.get(x, y, z));
+    }
+
+    static boolean fullyPassable(CalculationContext context, int x, int y, int z, IBlockState state) {
+        return context.precomputedData.fullyPassable(context.bsi, x, y, z, state);
     }
 
     static boolean fullyPassable(IPlayerContext ctx, BlockPos pos) {
@@ -166,9 +224,20 @@ public interface MovementHelper extends ActionCosts, Helper {
     }
 
     static boolean fullyPassable(IBlockAccess access, BlockPos pos, IBlockState state) {
+        Ternary fullyPassable = fullyPassableBlockState(state);
+        if (fullyPassable == YES) {
+            return true;
+        }
+        if (fullyPassable == NO) {
+            return false;
+        }
+        return fullyPassablePosition(access, pos, state);
+    }
+
+    static Ternary fullyPassableBlockState(IBlockState state) {
         Block block = state.getBlock();
         if (block == Blocks.AIR) { // early return for most common case
-            return true;
+            return YES;
         }
         // exceptions - blocks that are isPassable true, but we can't actually jump through
         if (block == Blocks.FIRE
@@ -184,10 +253,19 @@ public interface MovementHelper extends ActionCosts, Helper {
                 || block instanceof BlockTrapDoor
                 || block instanceof BlockEndPortal
                 || block instanceof BlockSkull) {
-            return false;
+            return NO;
         }
-        // door, fence gate, liquid, trapdoor have been accounted for, nothing else uses the world or pos parameters
-        return block.isPassable(access, pos);
+        try {
+            // door, fence gate, liquid, trapdoor have been accounted for, nothing else in vanilla uses the world or pos parameters
+            return block.isPassable(null, null) ? YES : NO;
+        } catch (Throwable exception) {
+            // a modded block that does use them
+            return MAYBE;
+        }
+    }
+
+    static boolean fullyPassablePosition(IBlockAccess access, BlockPos pos, IBlockState state) {
+        return state.getBlock().isPassable(access, pos);
     }
 
     static boolean isReplaceable(int x, int y, int z, IBlockState state, BlockStateInterface bsi) {
@@ -271,6 +349,10 @@ public interface MovementHelper extends ActionCosts, Helper {
         return (facing == playerFacing) == open;
     }
 
+    static boolean avoidWalkingInto(CalculationContext context, IBlockState state) {
+        return context.precomputedData.avoidWalkingInto(state);
+    }
+
     static boolean avoidWalkingInto(Block block) {
         return block instanceof BlockLiquid
                 || block == Blocks.MAGMA
@@ -293,24 +375,68 @@ public interface MovementHelper extends ActionCosts, Helper {
      * @return Whether or not the specified block can be walked on
      */
     static boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        Ternary canWalkOn = canWalkOnBlockState(state);
+        if (canWalkOn == YES) {
+            return true;
+        }
+        if (canWalkOn == NO) {
+            return false;
+        }
+        return canWalkOnPosition(bsi, x, y, z, state);
+    }
+
+    /**
+     * The part of {@link #canWalkOn(BlockStateInterface, int, int, int, IBlockState)} that only depends on the block
+     * state, see {@link baritone.pathing.precompute.PrecomputedData}
+     *
+     * @param state The block state
+     * @return {@link Ternary#MAYBE} if {@link #canWalkOnPosition} has to be checked
+     */
+    static Ternary canWalkOnBlockState(IBlockState state) {
         Block block = state.getBlock();
         if (block == Blocks.AIR || block == Blocks.MAGMA) {
             // early return for most common case (air)
             // plus magma, which is a normal cube but it hurts you
-            return false;
+            return NO;
         }
         if (state.isBlockNormalCube()) {
-            return true;
+            return YES;
         }
         if (block == Blocks.LADDER || (block == Blocks.VINE && Baritone.settings().allowVines.value)) { // TODO reconsider this
-            return true;
+            return YES;
         }
         if (block == Blocks.FARMLAND || block == Blocks.GRASS_PATH) {
-            return true;
+            return YES;
         }
         if (block == Blocks.ENDER_CHEST || block == Blocks.CHEST || block == Blocks.TRAPPED_CHEST) {
-            return true;
+            return YES;
+        }
+        if (isWater(block)) {
+            return MAYBE; // depends on what's above it and whether it's flowing
+        }
+        if (isLava(block)) {
+            return Baritone.settings().assumeWalkOnLava.value ? MAYBE : NO;
+        }
+        if (block == Blocks.GLASS || block == Blocks.STAINED_GLASS) {
+            return YES;
+        }
+        if (block instanceof BlockSlab) {
+            if (!Baritone.settings().allowWalkOnBottomSlab.value) {
+                if (((BlockSlab) block).isDouble()) {
+                    return YES;
+                }
+                return state.getValue(BlockSlab.HALF) != BlockSlab.EnumBlockHalf.BOTTOM ? YES : NO;
+            }
+            return YES;
         }
+        return block instanceof BlockStairs ? YES : NO;
+    }
+
+    /**
+     * The rest of {@link #canWalkOn(BlockStateInterface, int, int, int, IBlockState)}, for water and lava
+     */
+    static boolean canWalkOnPosition(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        Block block = state.getBlock();
         if (isWater(block)) {
             // since this is called literally millions of times per second, the benefit of not allocating millions of useless "pos.up()"
             // BlockPos s that we'd just garbage collect immediately is actually noticeable. I don't even think its a decrease in readability
@@ -326,22 +452,16 @@ public interface MovementHelper extends ActionCosts, Helper {
             // if assumeWalkOnWater is off, we can only walk on water if there is water above it
             return isWater(up) ^ Baritone.settings().assumeWalkOnWater.value;
         }
-        if (Baritone.settings().assumeWalkOnLava.value && isLava(block) && !isFlowing(x, y, z, state, bsi)) {
-            return true;
-        }
-        if (block == Blocks.GLASS || block == Blocks.STAINED_GLASS) {
-            return true;
-        }
-        if (block instanceof BlockSlab) {
-            if (!Baritone.settings().allowWalkOnBottomSlab.value) {
-                if (((BlockSlab) block).isDouble()) {
-                    return true;
-                }
-                return state.getValue(BlockSlab.HALF) != BlockSlab.EnumBlockHalf.BOTTOM;
-            }
-            return true;
-        }
-        return block instanceof BlockStairs;
+        // lava, with assumeWalkOnLava on
+        return isLava(block) && !isFlowing(x, y, z, state, bsi);
+    }
+
+    static boolean canWalkOn(CalculationContext context, int x, int y, int z) {
+        return canWalkOn(context, x, y, z, context.get(x, y, z));
+    }
+
+    static boolean canWalkOn(CalculationContext context, int x, int y, int z, IBlockState state) {
+        return context.precomputedData.canWalkOn(context.bsi, x, y, z, state);
     }
 
     static boolean canWalkOn(IPlayerContext ctx, BetterBlockPos pos, IBlockState state) {
@@ -388,7 +508,7 @@ public interface MovementHelper extends ActionCosts, Helper {
 
     static double getMiningDurationTicks(CalculationContext context, int x, int y, int z, IBlockState state, boolean includeFalling) {
         Block block = state.getBlock();
-        if (!canWalkThrough(context.bsi, x, y, z, state)) {
+        if (!canWalkThrough(context, x, y, z, state)) {
             if (block instanceof BlockLiquid) {
                 return COST_INF;
             }
@@ -17,6 +17,7 @@
 
 package baritone.pathing.movement;
 
+import baritone.api.pathing.movement.ActionCosts;
 import baritone.api.utils.BetterBlockPos;
 import baritone.pathing.movement.movements.*;
 import baritone.utils.pathing.MutableMoveResult;
@@ -358,4 +359,71 @@ public enum Moves {
     public double cost(CalculationContext context, int x, int y, int z) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * The reverse of {@link #apply}, for searching backwards from the goal. Finds every position that this move could
+     * start from and end up at the given destination, along with the cost of the move from there.
+     * <p>
+     * There are no backwards versions of the cost calculations, so this just tries the move forwards from every
+     * position it could have started from. A fall into water can be any height, but only falls up to the max fall
+     * height are tried.
+     *
+     * @param context The context
+     * @param destX   The destination x
+     * @param destY   The destination y
+     * @param destZ   The destination z
+     * @param result  Scratch space for the forward calculations
+     * @param sources Called with every possible source and its cost
+     */
+    public void applyReverse(CalculationContext context, int destX, int destY, int destZ, MutableMoveResult result, SourceConsumer sources) {
+        if (dynamicXZ) {
+            // parkour goes 2 to 4 blocks along its direction, and can land one block higher
+            int dirX = Integer.signum(xOffset);
+            int dirZ = Integer.signum(zOffset);
+            for (int dist = 2; dist <= 4; dist++) {
+                tryReverse(context, destX - dirX * dist, destY, destZ - dirZ * dist, destX, destY, destZ, result, sources);
+                tryReverse(context, destX - dirX * dist, destY - 1, destZ - dirZ * dist, destX, destY, destZ, result, sources);
+            }
+            return;
+        }
+        int srcX = destX - xOffset;
+        int srcZ = destZ - zOffset;
+        if (!dynamicY) {
+            tryReverse(context, srcX, destY - yOffset, srcZ, destX, destY, destZ, result, sources);
+            return;
+        }
+        if (yOffset == 0) {
+            // diagonals can step up or down one
+            for (int srcY = destY - 1; srcY <= destY + 1; srcY++) {
+                tryReverse(context, srcX, srcY, srcZ, destX, destY, destZ, result, sources);
+            }
+            return;
+        }
+        // descends, which turn into falls if there's nothing to stand on one below
+        tryReverse(context, srcX, destY + 1, srcZ, destX, destY, destZ, result, sources);
+        int maxFall = Math.max(context.maxFallHeightNoWater, context.hasWaterBucket ? context.maxFallHeightBucket : 0) + 1;
+        for (int srcY = destY + 2; srcY <= destY + maxFall && srcY < 256; srcY++) {
+            if (srcY > destY + 2 && !MovementHelper.canWalkThrough(context, destX, srcY - 2, destZ)) {
+                break; // falling through this column is blocked from here up
+            }
+            tryReverse(context, srcX, srcY, srcZ, destX, destY, destZ, result, sources);
+        }
+    }
+
+    private void tryReverse(CalculationContext context, int srcX, int srcY, int srcZ, int destX, int destY, int destZ, MutableMoveResult result, SourceConsumer sources) {
+        if (srcY < 0 || srcY >= 256 || !context.isLoaded(srcX, srcZ) || !context.worldBorder.entirelyContains(srcX, srcZ)) {
+            return;
+        }
+        result.reset();
+        apply(context, srcX, srcY, srcZ, result);
+        if (result.cost < ActionCosts.COST_INF && result.x == destX && result.y == destY && result.z == destZ) {
+            sources.accept(srcX, srcY, srcZ, result.cost);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SourceConsumer {
+
+        void accept(int x, int y, int z, double cost);
+    }
 }
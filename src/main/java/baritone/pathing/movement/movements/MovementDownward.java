@@ -59,7 +59,7 @@ public class MovementDownward extends Movement {
         if (!context.allowDownward) {
             return COST_INF;
         }
-        if (!MovementHelper.canWalkOn(context.bsi, x, y - 2, z)) {
+        if (!MovementHelper.canWalkOn(context, x, y - 2, z)) {
             return COST_INF;
         }
         IBlockState down = context.get(x, y - 1, z);
@@ -74,11 +74,11 @@ public class MovementParkour extends Movement {
             return;
         }
         IBlockState adj = context.get(x + xDiff, y - 1, z + zDiff);
-        if (MovementHelper.canWalkOn(context.bsi, x + xDiff, y - 1, z + zDiff, adj)) { // don't parkour if we could just traverse (for now)
+        if (MovementHelper.canWalkOn(context, x + xDiff, y - 1, z + zDiff, adj)) { // don't parkour if we could just traverse (for now)
             // second most common case -- we could just traverse not parkour
             return;
         }
-        if (MovementHelper.avoidWalkingInto(adj.getBlock()) && adj.getBlock() != Blocks.WATER && adj.getBlock() != Blocks.FLOWING_WATER) { // magma sucks
+        if (MovementHelper.avoidWalkingInto(context, adj) && adj.getBlock() != Blocks.WATER && adj.getBlock() != Blocks.FLOWING_WATER) { // magma sucks
             return;
         }
         if (!MovementHelper.fullyPassable(context, x + xDiff, y + 1, z + zDiff)) {
@@ -121,8 +121,8 @@ public class MovementParkour extends Movement {
             
             // check for ascend landing position
             IBlockState destInto = context.bsi.get0(destX, y, destZ);
-            if (!MovementHelper.fullyPassable(context.bsi.access, context.bsi.isPassableBlockPos.setPos(destX, y, destZ), destInto)) {
-                if (i <= 3 && context.allowParkourAscend && context.canSprint && MovementHelper.canWalkOn(context.bsi, destX, y, destZ, destInto) && checkOvershootSafety(context.bsi, destX + xDiff, y + 1, destZ + zDiff)) {
+            if (!MovementHelper.fullyPassable(context, destX, y, destZ, destInto)) {
+                if (i <= 3 && context.allowParkourAscend && context.canSprint && MovementHelper.canWalkOn(context, destX, y, destZ, destInto) && checkOvershootSafety(context, destX + xDiff, y + 1, destZ + zDiff)) {
                     res.x = destX;
                     res.y = y + 1;
                     res.z = destZ;
@@ -135,8 +135,8 @@ public class MovementParkour extends Movement {
             // check for flat landing position
             IBlockState landingOn = context.bsi.get0(destX, y - 1, destZ);
             // farmland needs to be canWalkOn otherwise farm can never work at all, but we want to specifically disallow ending a jump on farmland haha
-            if (landingOn.getBlock() != Blocks.FARMLAND && MovementHelper.canWalkOn(context.bsi, destX, y - 1, destZ, landingOn)) {
-                if (checkOvershootSafety(context.bsi, destX + xDiff, y, destZ + zDiff)) {
+            if (landingOn.getBlock() != Blocks.FARMLAND && MovementHelper.canWalkOn(context, destX, y - 1, destZ, landingOn)) {
+                if (checkOvershootSafety(context, destX + xDiff, y, destZ + zDiff)) {
                     res.x = destX;
                     res.y = y;
                     res.z = destZ;
@@ -169,7 +169,7 @@ public class MovementParkour extends Movement {
             if (!MovementHelper.isReplaceable(destX, y - 1, destZ, toReplace, context.bsi)) {
                 continue;
             }
-            if (!checkOvershootSafety(context.bsi, destX + xDiff, y, destZ + zDiff)) {
+            if (!checkOvershootSafety(context, destX + xDiff, y, destZ + zDiff)) {
                 continue;
             }
             for (int j = 0; j < 5; j++) {
@@ -190,9 +190,9 @@ public class MovementParkour extends Movement {
         }
     }
 
-    private static boolean checkOvershootSafety(BlockStateInterface bsi, int x, int y, int z) {
+    private static boolean checkOvershootSafety(CalculationContext context, int x, int y, int z) {
         // we're going to walk into these two blocks after the landing of the parkour anyway, so make sure they aren't avoidWalkingInto
-        return !MovementHelper.avoidWalkingInto(bsi.get0(x, y, z).getBlock()) && !MovementHelper.avoidWalkingInto(bsi.get0(x, y + 1, z).getBlock());
+        return !MovementHelper.avoidWalkingInto(context, context.get(x, y, z)) && !MovementHelper.avoidWalkingInto(context, context.get(x, y + 1, z));
     }
 
     private static double costFromJumpDistance(int dist) {
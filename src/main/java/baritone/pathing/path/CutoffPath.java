@@ -41,6 +41,7 @@ public class CutoffPath extends PathBase {
         movements = prev.movements().subList(firstPositionToInclude, lastPositionToInclude);
         numNodes = prev.getNumNodesConsidered();
         goal = prev.getGoal();
+        setSearchStats(prev.getSearchStats().orElse(null));
         sanityCheck();
     }
 
@@ -0,0 +1,121 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.precompute;
+
+import baritone.pathing.movement.MovementHelper;
+import baritone.utils.BlockStateInterface;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import java.util.Arrays;
+
+import static baritone.pathing.precompute.Ternary.MAYBE;
+import static baritone.pathing.precompute.Ternary.YES;
+
+/**
+ * The answers to {@link MovementHelper#canWalkOn}, {@link MovementHelper#canWalkThrough},
+ * {@link MovementHelper#fullyPassable} and {@link MovementHelper#avoidWalkingInto} for every block state, so that the
+ * movements don't have to go through the whole chain of checks (and settings) millions of times per search.
+ * <p>
+ * Each state is classified the first time it's asked about, using the settings at that moment. One of these belongs to
+ * one {@link baritone.pathing.movement.CalculationContext}, so it stays consistent for a whole search, just like the
+ * other settings that the context copies. Only the states where the answer depends on the position (water, snow,
+ * carpet, ...) still run the original check.
+ */
+public final class PrecomputedData {
+
+    private static final int COMPLETED = 1;
+    private static final int CAN_WALK_ON = 1 << 1;
+    private static final int CAN_WALK_ON_SPECIAL = 1 << 2;
+    private static final int CAN_WALK_THROUGH = 1 << 3;
+    private static final int CAN_WALK_THROUGH_SPECIAL = 1 << 4;
+    private static final int FULLY_PASSABLE = 1 << 5;
+    private static final int FULLY_PASSABLE_SPECIAL = 1 << 6;
+    private static final int AVOID_WALKING_INTO = 1 << 7;
+
+    /**
+     * The flags above for each block state id, or 0 if it hasn't been classified yet.
+     * <p>
+     * The parallel search shares this between threads without locking. That's fine because classifying a state always
+     * gives the same flags, so the worst that can happen is that a state gets classified twice.
+     */
+    private int[] data = new int[4096];
+
+    private int get(IBlockState state) {
+        int id = Block.BLOCK_STATE_IDS.get(state);
+        if (id < 0) {
+            return classify(state); // not registered, can't be cached
+        }
+        int[] data = this.data;
+        if (id < data.length) {
+            int flags = data[id];
+            if (flags != 0) {
+                return flags;
+            }
+        } else {
+            data = Arrays.copyOf(data, Integer.highestOneBit(id) << 1);
+            this.data = data;
+        }
+        int flags = classify(state);
+        data[id] = flags;
+        return flags;
+    }
+
+    private static int classify(IBlockState state) {
+        int flags = COMPLETED;
+        flags |= flags(MovementHelper.canWalkOnBlockState(state), CAN_WALK_ON, CAN_WALK_ON_SPECIAL);
+        flags |= flags(MovementHelper.canWalkThroughBlockState(state), CAN_WALK_THROUGH, CAN_WALK_THROUGH_SPECIAL);
+        flags |= flags(MovementHelper.fullyPassableBlockState(state), FULLY_PASSABLE, FULLY_PASSABLE_SPECIAL);
+        if (MovementHelper.avoidWalkingInto(state.getBlock())) {
+            flags |= AVOID_WALKING_INTO;
+        }
+        return flags;
+    }
+
+    private static int flags(Ternary answer, int yes, int maybe) {
+        return answer == YES ? yes : answer == MAYBE ? maybe : 0;
+    }
+
+    public boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        int flags = get(state);
+        if ((flags & CAN_WALK_ON_SPECIAL) != 0) {
+            return MovementHelper.canWalkOnPosition(bsi, x, y, z, state);
+        }
+        return (flags & CAN_WALK_ON) != 0;
+    }
+
+    public boolean canWalkThrough(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        int flags = get(state);
+        if ((flags & CAN_WALK_THROUGH_SPECIAL) != 0) {
+            return MovementHelper.canWalkThroughPosition(bsi, x, y, z, state);
+        }
+        return (flags & CAN_WALK_THROUGH) != 0;
+    }
+
+    public boolean fullyPassable(BlockStateInterface bsi, int x, int y, int z, IBlockState state) {
+        int flags = get(state);
+        if ((flags & FULLY_PASSABLE_SPECIAL) != 0) {
+            return MovementHelper.fullyPassablePosition(bsi.access, bsi.isPassableBlockPos.setPos(x, y, z), state);
+        }
+        return (flags & FULLY_PASSABLE) != 0;
+    }
+
+    public boolean avoidWalkingInto(IBlockState state) {
+        return (get(state) & AVOID_WALKING_INTO) != 0;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.process;
+
+import baritone.api.utils.BetterBlockPos;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.Collection;
+
+/**
+ * Which positions of a schematic are still incorrect, as one bit per position, kept up to date as the world changes
+ * instead of being rescanned.
+ * <p>
+ * The schematic is scanned once, a bit at a time, only ever as far as needed to find something to do (see
+ * {@link #scan}). After that, a position is only checked again after it was marked dirty: a block change, a block
+ * the player interacted with, or the chunk it's in loading.
+ */
+final class BuildProgress {
+
+    /**
+     * What a check of one position found
+     */
+    enum Status {
+        CORRECT,
+        INCORRECT,
+        /**
+         * Not part of the schematic at all
+         */
+        IGNORED,
+        /**
+         * Can't be seen right now, e.g. out of render distance. Incorrect unless it was seen to be correct before.
+         */
+        UNKNOWN
+    }
+
+    @FunctionalInterface
+    interface Check {
+
+        Status check(int x, int y, int z);
+    }
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int widthX;
+    private final int heightY;
+    private final int lengthZ;
+
+    /**
+     * One bit per position, in y, then z, then x order, set if the position is incorrect
+     */
+    private final long[] incorrect;
+
+    private int incorrectCount;
+
+    /**
+     * Every position before this has been checked at least once
+     */
+    private int scanned;
+
+    /**
+     * Bit indices, see {@link #index}
+     */
+    private final IntOpenHashSet dirtyPositions = new IntOpenHashSet();
+    private final LongOpenHashSet dirtyChunks = new LongOpenHashSet();
+
+    BuildProgress(int originX, int originY, int originZ, int widthX, int heightY, int lengthZ) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.widthX = widthX;
+        this.heightY = heightY;
+        this.lengthZ = lengthZ;
+        this.incorrect = new long[(int) (((long) widthX * heightY * lengthZ + 63) >> 6)];
+    }
+
+    private int size() {
+        return widthX * heightY * lengthZ;
+    }
+
+    /**
+     * @return The bit index of this position, or -1 if it's outside of the schematic
+     */
+    private int index(int x, int y, int z) {
+        x -= originX;
+        y -= originY;
+        z -= originZ;
+        if (x < 0 || x >= widthX || y < 0 || y >= heightY || z < 0 || z >= lengthZ) {
+            return -1;
+        }
+        return (y * lengthZ + z) * widthX + x;
+    }
+
+    private boolean get(int index) {
+        return (incorrect[index >> 6] & (1L << index)) != 0;
+    }
+
+    private void set(int index, boolean value) {
+        if (get(index) != value) {
+            incorrect[index >> 6] ^= 1L << index;
+            incorrectCount += value ? 1 : -1;
+        }
+    }
+
+    /**
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     */
+    void markDirty(int x, int y, int z) {
+        int index = index(x, y, z);
+        if (index >= 0 && index < scanned) { // the scan will get to the rest
+            dirtyPositions.add(index);
+        }
+    }
+
+    /**
+     * Marks every position in a chunk as dirty, e.g. once it's loaded and they can be seen
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     */
+    void markChunkDirty(int chunkX, int chunkZ) {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        if (minX + 16 > originX && minX < originX + widthX && minZ + 16 > originZ && minZ < originZ + lengthZ) {
+            dirtyChunks.add((long) chunkX & 0xFFFFFFFFL | ((long) chunkZ & 0xFFFFFFFFL) << 32);
+        }
+    }
+
+    /**
+     * Checks everything that was marked dirty since the last time
+     *
+     * @param check How to check a position
+     */
+    void update(Check check) {
+        for (long chunk : dirtyChunks) {
+            int chunkX = (int) chunk;
+            int chunkZ = (int) (chunk >> 32);
+            int minX = Math.max(chunkX << 4, originX);
+            int maxX = Math.min((chunkX << 4) + 16, originX + widthX);
+            int minZ = Math.max(chunkZ << 4, originZ);
+            int maxZ = Math.min((chunkZ << 4) + 16, originZ + lengthZ);
+            for (int y = originY; y < originY + heightY; y++) {
+                for (int z = minZ; z < maxZ; z++) {
+                    for (int x = minX; x < maxX; x++) {
+                        int index = index(x, y, z);
+                        if (index < scanned) {
+                            recheck(check, index, x, y, z);
+                        }
+                    }
+                }
+            }
+        }
+        dirtyChunks.clear();
+        for (int index : dirtyPositions) {
+            recheck(check, index, index % widthX + originX, index / widthX / lengthZ + originY, index / widthX % lengthZ + originZ);
+        }
+        dirtyPositions.clear();
+    }
+
+    private void recheck(Check check, int index, int x, int y, int z) {
+        Status status = check.check(x, y, z);
+        if (status != Status.UNKNOWN) { // otherwise, it stays whatever it was last seen as
+            set(index, status == Status.INCORRECT);
+        }
+    }
+
+    /**
+     * Continues the first check of the schematic, until either it's done or enough incorrect positions were found
+     *
+     * @param check     How to check a position
+     * @param incorrect Stop once there are more incorrect positions than this
+     */
+    void scan(Check check, int incorrect) {
+        int size = size();
+        while (scanned < size && incorrectCount <= incorrect) {
+            int index = scanned++;
+            int x = index % widthX;
+            int z = index / widthX % lengthZ;
+            int y = index / widthX / lengthZ;
+            Status status = check.check(x + originX, y + originY, z + originZ);
+            set(index, status == Status.INCORRECT || status == Status.UNKNOWN);
+        }
+    }
+
+    /**
+     * @return Whether every position has been checked at least once, see {@link #scan}
+     */
+    boolean isScanned() {
+        return scanned >= size();
+    }
+
+    int incorrectCount() {
+        return incorrectCount;
+    }
+
+    /**
+     * Adds the first incorrect positions, lowest y first
+     *
+     * @param result Where to add them
+     * @param limit  How many to add, at most
+     */
+    void collect(Collection<BetterBlockPos> result, int limit) {
+        int found = 0;
+        for (int word = 0; word < incorrect.length && found < limit; word++) {
+            long bits = incorrect[word];
+            while (bits != 0 && found < limit) {
+                int index = word << 6 | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                result.add(position(index));
+                found++;
+            }
+        }
+    }
+
+    /**
+     * Adds every incorrect position within a cube
+     *
+     * @param result Where to add them
+     * @param center The center of the cube
+     * @param radius The radius of the cube
+     */
+    void collectNear(Collection<BetterBlockPos> result, BetterBlockPos center, int radius) {
+        for (int y = center.y - radius; y <= center.y + radius; y++) {
+            for (int z = center.z - radius; z <= center.z + radius; z++) {
+                for (int x = center.x - radius; x <= center.x + radius; x++) {
+                    int index = index(x, y, z);
+                    if (index >= 0 && get(index)) {
+                        result.add(new BetterBlockPos(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    private BetterBlockPos position(int index) {
+        int x = index % widthX;
+        int z = index / widthX % lengthZ;
+        int y = index / widthX / lengthZ;
+        return new BetterBlockPos(x + originX, y + originY, z + originZ);
+    }
+}
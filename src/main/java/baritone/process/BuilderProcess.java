@@ -18,6 +18,11 @@
 package baritone.process;
 
 import baritone.Baritone;
+import baritone.api.event.events.BlockInteractEvent;
+import baritone.api.event.events.ChunkEvent;
+import baritone.api.event.events.PacketEvent;
+import baritone.api.event.events.type.EventState;
+import baritone.api.event.listener.AbstractGameEventListener;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.goals.GoalBlock;
 import baritone.api.pathing.goals.GoalComposite;
@@ -54,6 +59,9 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.SPacketBlockChange;
+import net.minecraft.network.play.server.SPacketMultiBlockChange;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.Tuple;
 import net.minecraft.util.math.*;
@@ -69,6 +77,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 
     private HashSet<BetterBlockPos> incorrectPositions;
     private LongOpenHashSet observedCompleted; // positions that are completed even if they're out of render distance and we can't make sure right now
+    private volatile BuildProgress progress; // only with buildTrackChanges, and only changed on the main thread
     private String name;
     private ISchematic realSchematic;
     private ISchematic schematic;
@@ -81,6 +90,51 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 
     public BuilderProcess(Baritone baritone) {
         super(baritone);
+        baritone.getGameEventHandler().registerEventListener(new AbstractGameEventListener() {
+            @Override
+            public void onReceivePacket(PacketEvent event) {
+                if (event.getState() != EventState.POST || !Baritone.settings().buildTrackChanges.value || progress == null) {
+                    return;
+                }
+                Packet<?> packet = event.getPacket();
+                List<BlockPos> changed;
+                if (packet instanceof SPacketBlockChange) {
+                    changed = Collections.singletonList(((SPacketBlockChange) packet).getBlockPosition());
+                } else if (packet instanceof SPacketMultiBlockChange) {
+                    changed = new ArrayList<>();
+                    for (SPacketMultiBlockChange.BlockUpdateData update : ((SPacketMultiBlockChange) packet).getChangedBlocks()) {
+                        changed.add(update.getPos());
+                    }
+                } else {
+                    return;
+                }
+                // this is the netty thread, and the change itself is queued up on the main thread, so go after it
+                mc.addScheduledTask(() -> changed.forEach(BuilderProcess.this::markDirty));
+            }
+
+            @Override
+            public void onChunkEvent(ChunkEvent event) {
+                ChunkEvent.Type type = event.getType();
+                if (progress != null && event.getState() == EventState.POST && (type == ChunkEvent.Type.POPULATE_FULL || type == ChunkEvent.Type.POPULATE_PARTIAL)) {
+                    progress.markChunkDirty(event.getX(), event.getZ());
+                }
+            }
+
+            @Override
+            public void onBlockInteract(BlockInteractEvent event) {
+                // placing changes the block next to the one that was clicked
+                markDirty(event.getPos());
+                for (EnumFacing facing : EnumFacing.values()) {
+                    markDirty(event.getPos().offset(facing));
+                }
+            }
+        });
+    }
+
+    private void markDirty(BlockPos pos) {
+        if (progress != null) {
+            progress.markDirty(pos.getX(), pos.getY(), pos.getZ());
+        }
     }
 
     @Override
@@ -109,6 +163,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
         this.numRepeats = 0;
         this.observedCompleted = new LongOpenHashSet();
         this.incorrectPositions = null;
+        this.progress = null;
     }
 
     public void resume() {
@@ -430,6 +485,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             if (Baritone.settings().buildInLayers.value && layer * Baritone.settings().layerHeight.value < realSchematic.heightY()) {
                 logDirect("Starting layer " + layer);
                 layer++;
+                progress = null;
                 return onTick(calcFailed, isSafeToCancel, recursions + 1);
             }
             Vec3i repeat = Baritone.settings().buildRepeat.value;
@@ -446,6 +502,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
             // build repeat time
             layer = 0;
             origin = new BlockPos(origin).add(repeat);
+            progress = null;
             if (!Baritone.settings().buildRepeatSneaky.value) {
                 schematic.reset();
             }
@@ -520,6 +577,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
                 if (Baritone.settings().skipFailedLayers.value && Baritone.settings().buildInLayers.value && layer * Baritone.settings().layerHeight.value < realSchematic.heightY()) {
                     logDirect("Skipping layer that I cannot construct! Layer #" + layer);
                     layer++;
+                    progress = null;
                     return onTick(calcFailed, isSafeToCancel, recursions + 1);
                 }
                 logDirect("Unable to do it. Pausing. resume to resume, cancel to cancel");
@@ -531,6 +589,10 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
     }
 
     private boolean recalc(BuilderCalculationContext bcc) {
+        if (Baritone.settings().buildTrackChanges.value) {
+            return recalcTracked(bcc);
+        }
+        progress = null; // it missed everything while it was off
         if (incorrectPositions == null) {
             incorrectPositions = new HashSet<>();
             fullRecalc(bcc);
@@ -545,6 +607,36 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
         return !incorrectPositions.isEmpty();
     }
 
+    private boolean recalcTracked(BuilderCalculationContext bcc) {
+        if (progress == null) {
+            progress = new BuildProgress(origin.getX(), origin.getY(), origin.getZ(), schematic.widthX(), schematic.heightY(), schematic.lengthZ());
+        }
+        if (incorrectPositions != null) {
+            // what these should be can depend on what's in the inventory, so whatever was being worked on is always checked again
+            incorrectPositions.forEach(pos -> progress.markDirty(pos.x, pos.y, pos.z));
+        }
+        BuildProgress.Check check = (x, y, z) -> check(bcc, x, y, z);
+        progress.update(check);
+        int incorrectSize = Baritone.settings().incorrectSize.value;
+        progress.scan(check, incorrectSize);
+        incorrectPositions = new HashSet<>();
+        progress.collect(incorrectPositions, incorrectSize);
+        progress.collectNear(incorrectPositions, ctx.playerFeet(), Baritone.settings().builderTickScanRadius.value);
+        return !incorrectPositions.isEmpty();
+    }
+
+    private BuildProgress.Status check(BuilderCalculationContext bcc, int x, int y, int z) {
+        IBlockState current = bcc.bsi.get0(x, y, z);
+        IBlockState desired = bcc.getSchematic(x, y, z, current);
+        if (desired == null) {
+            return BuildProgress.Status.IGNORED;
+        }
+        if (!bcc.bsi.worldContainsLoadedChunk(x, z)) { // check if its in render distance, not if its in cache
+            return Baritone.settings().buildSkipBlocks.value.contains(desired.getBlock()) ? BuildProgress.Status.CORRECT : BuildProgress.Status.UNKNOWN;
+        }
+        return valid(current, desired, false) ? BuildProgress.Status.CORRECT : BuildProgress.Status.INCORRECT;
+    }
+
     private void trim() {
         HashSet<BetterBlockPos> copy = new HashSet<>(incorrectPositions);
         copy.removeIf(pos -> pos.distanceSq(ctx.player().posX, ctx.player().posY, ctx.player().posZ) > 200);
@@ -806,6 +898,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
     @Override
     public void onLostControl() {
         incorrectPositions = null;
+        progress = null;
         name = null;
         schematic = null;
         realSchematic = null;
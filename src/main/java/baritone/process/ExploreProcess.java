@@ -27,8 +27,10 @@ import baritone.api.process.IExploreProcess;
 import baritone.api.process.PathingCommand;
 import baritone.api.process.PathingCommandType;
 import baritone.api.utils.MyChunkPos;
+import baritone.cache.CachedChunkIndex;
 import baritone.cache.CachedWorld;
 import baritone.utils.BaritoneProcessHelper;
+import baritone.utils.LaneExecutor.Lane;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
@@ -196,8 +198,13 @@ public final class ExploreProcess extends BaritoneProcessHelper implements IExpl
             if (cache.isCached(centerX, centerZ)) {
                 return Status.EXPLORED;
             }
+            CachedChunkIndex index = ((CachedWorld) cache).getChunkIndex();
+            if (index.isIndexed(chunkX >> 5, chunkZ >> 5)) {
+                // no need to wait for the region to load to know
+                return index.isCached(chunkX, chunkZ) ? Status.EXPLORED : Status.NOT_EXPLORED;
+            }
             if (!((CachedWorld) cache).regionLoaded(centerX, centerZ)) {
-                Baritone.getExecutor().execute(() -> {
+                Baritone.getExecutor(Lane.CACHE_IO).tryExecute(() -> {
                     ((CachedWorld) cache).tryLoadFromDisk(centerX >> 9, centerZ >> 9);
                 });
                 return Status.UNKNOWN; // we still need to load regions from disk in order to decide properly
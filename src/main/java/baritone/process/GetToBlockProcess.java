@@ -29,6 +29,7 @@ import baritone.api.utils.RotationUtils;
 import baritone.api.utils.input.Input;
 import baritone.pathing.movement.CalculationContext;
 import baritone.utils.BaritoneProcessHelper;
+import baritone.utils.LaneExecutor.Lane;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
@@ -109,7 +110,7 @@ public final class GetToBlockProcess extends BaritoneProcessHelper implements IG
         if (mineGoalUpdateInterval != 0 && tickCount++ % mineGoalUpdateInterval == 0) { // big brain
             List<BlockPos> current = new ArrayList<>(knownLocations);
             CalculationContext context = new GetToBlockCalculationContext(true);
-            Baritone.getExecutor().execute(() -> rescan(current, context));
+            Baritone.getExecutor(Lane.SCANNING).execute(() -> rescan(current, context));
         }
         if (goal.isInGoal(ctx.playerFeet()) && goal.isInGoal(baritone.getPathingBehavior().pathStart()) && isSafeToCancel) {
             // we're there
@@ -161,6 +162,23 @@ public final class GetToBlockProcess extends BaritoneProcessHelper implements IG
             super(GetToBlockProcess.super.baritone, forUseOnAnotherThread);
         }
 
+        private GetToBlockCalculationContext(GetToBlockCalculationContext other) {
+            super(other);
+        }
+
+        @Override
+        public boolean canCopyForParallelSearch() {
+            return safeForThreadedUse;
+        }
+
+        @Override
+        public CalculationContext copyForParallelSearch() {
+            if (!safeForThreadedUse) {
+                throw new IllegalStateException("This context reads the live world, it can't be used on another thread");
+            }
+            return new GetToBlockCalculationContext(this);
+        }
+
         @Override
         public double breakCostMultiplierAt(int x, int y, int z, IBlockState current) {
             return 1;
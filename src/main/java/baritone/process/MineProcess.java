@@ -18,6 +18,7 @@
 package baritone.process;
 
 import baritone.Baritone;
+import baritone.api.pathing.calc.TargetCosts;
 import baritone.api.pathing.goals.*;
 import baritone.api.process.IMineProcess;
 import baritone.api.process.PathingCommand;
@@ -26,10 +27,12 @@ import baritone.api.utils.*;
 import baritone.api.utils.input.Input;
 import baritone.cache.CachedChunk;
 import baritone.cache.WorldScanner;
+import baritone.pathing.calc.ReachabilityFilter;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.utils.BaritoneProcessHelper;
 import baritone.utils.BlockStateInterface;
+import baritone.utils.LaneExecutor.Lane;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockAir;
 import net.minecraft.block.BlockFalling;
@@ -41,6 +44,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static baritone.api.pathing.movement.ActionCosts.COST_INF;
@@ -63,6 +67,15 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
     private int desiredQuantity;
     private int tickCount;
 
+    private CompletableFuture<TargetCosts> travelCostsPending;
+    private List<BlockPos> travelCostsPendingAsked; // in the same order as the goals the pending ranking was asked about
+    private Set<BlockPos> travelCostsAsked; // every ore the current ranking was asked about, reachable or not
+    private Map<BlockPos, Double> travelCosts; // the reachable ones, cheapest first
+    private Set<BlockPos> travelCostsUnreached; // the rest of the asked ones
+    private double travelCostsUnreachedFloor; // what those cost at least, infinite if the search got everywhere it could
+    private BlockPos travelCostsStart;
+    private final MiningTour tour = new MiningTour();
+
     public MineProcess(Baritone baritone) {
         super(baritone);
     }
@@ -112,7 +125,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         List<BlockPos> curr = new ArrayList<>(knownOreLocations);
         if (mineGoalUpdateInterval != 0 && tickCount++ % mineGoalUpdateInterval == 0) { // big brain
             CalculationContext context = new CalculationContext(baritone, true);
-            Baritone.getExecutor().execute(() -> rescan(curr, context));
+            Baritone.getExecutor(Lane.SCANNING).execute(() -> rescan(curr, context, true));
         }
         if (Baritone.settings().legitMine.value) {
             addNearby();
@@ -182,7 +195,14 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
             CalculationContext context = new CalculationContext(baritone);
             List<BlockPos> locs2 = prune(context, new ArrayList<>(locs), filter, ORE_LOCATIONS_COUNT, blacklist, droppedItemsScan());
             // can't reassign locs, gotta make a new var locs2, because we use it in a lambda right here, and variables you use in a lambda must be effectively final
-            Goal goal = new GoalComposite(locs2.stream().map(loc -> coalesce(loc, locs2, context)).toArray(Goal[]::new));
+            Goal goal;
+            if (Baritone.settings().mineRankByTravelCost.value || Baritone.settings().mineTourPlanning.value) {
+                Map<BlockPos, Goal> goals = new LinkedHashMap<>();
+                locs2.forEach(loc -> goals.put(loc, coalesce(loc, locs2, context)));
+                goal = plannedGoal(goals);
+            } else {
+                goal = new GoalComposite(locs2.stream().map(loc -> coalesce(loc, locs2, context)).toArray(Goal[]::new));
+            }
             knownOreLocations = locs2;
             return new PathingCommand(goal, legit ? PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH : PathingCommandType.REVALIDATE_GOAL_AND_PATH);
         }
@@ -219,7 +239,83 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         return new PathingCommand(branchPointRunaway, PathingCommandType.REVALIDATE_GOAL_AND_PATH);
     }
 
-    private void rescan(List<BlockPos> already, CalculationContext context) {
+    /**
+     * The goal of the next ore in the mining tour, or else the one that's cheapest to actually get to according to the
+     * last ranking. If neither has anything to say, all of them at once like usual.
+     */
+    private Goal plannedGoal(Map<BlockPos, Goal> goals) {
+        if (Baritone.settings().mineRankByTravelCost.value) {
+            updateTravelCosts(goals);
+        }
+        Map<BlockPos, Double> known = travelCosts == null ? Collections.emptyMap() : travelCosts;
+        Set<BlockPos> unreached = travelCosts == null ? Collections.emptySet() : travelCostsUnreached;
+        if (Baritone.settings().mineTourPlanning.value) {
+            BlockPos next = tour.update(ctx.playerFeet(), goals.keySet(), known, unreached, travelCostsUnreachedFloor, Baritone.settings().mineTourPlanningTimeMS.value * 1000000L);
+            if (next != null) {
+                return goals.get(next);
+            }
+        }
+        for (BlockPos pos : known.keySet()) {
+            Goal goal = goals.get(pos);
+            if (goal != null) {
+                return goal;
+            }
+        }
+        return new GoalComposite(goals.values().toArray(new Goal[0]));
+    }
+
+    private void updateTravelCosts(Map<BlockPos, Goal> goals) {
+        if (travelCostsPending != null && travelCostsPending.isDone()) {
+            if (!travelCostsPending.isCompletedExceptionally()) {
+                takeTravelCosts(travelCostsPending.join());
+            }
+            travelCostsPending = null;
+        }
+        if (travelCostsPending == null && travelCostsStale(goals.keySet())) {
+            travelCostsPendingAsked = new ArrayList<>(goals.keySet());
+            travelCostsPending = baritone.getPathingBehavior().calculateCostsTo(new ArrayList<>(goals.values()));
+        }
+    }
+
+    /**
+     * The goals are made again every tick, so the ranking is kept by ore position instead
+     */
+    private void takeTravelCosts(TargetCosts costs) {
+        List<Goal> targets = costs.getTargets();
+        List<BlockPos> asked = travelCostsPendingAsked;
+        List<Integer> reachable = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            if (costs.getCost(targets.get(i)).isPresent()) {
+                reachable.add(i);
+            }
+        }
+        reachable.sort(Comparator.comparingDouble(i -> costs.getCost(targets.get(i)).getAsDouble()));
+        travelCosts = new LinkedHashMap<>();
+        for (int i : reachable) {
+            travelCosts.put(asked.get(i), costs.getCost(targets.get(i)).getAsDouble());
+        }
+        travelCostsAsked = new HashSet<>(asked);
+        travelCostsUnreached = new HashSet<>(asked);
+        travelCostsUnreached.removeAll(travelCosts.keySet());
+        // dijkstra, so anything it hadn't got to yet costs at least as much as everything it had
+        travelCostsUnreachedFloor = costs.isComplete() ? Double.POSITIVE_INFINITY : travelCosts.values().stream().mapToDouble(d -> d).max().orElse(0);
+        travelCostsStart = costs.getStart();
+        tour.reset(); // plan it again with the real costs
+        logDebug("Ranked " + travelCosts.size() + " of " + asked.size() + " ores by travel cost");
+    }
+
+    private boolean travelCostsStale(Set<BlockPos> locs) {
+        if (travelCosts == null || !travelCostsAsked.containsAll(locs)) {
+            return true;
+        }
+        int refresh = Baritone.settings().mineTravelCostRefreshDistance.value;
+        return ctx.playerFeet().distanceSq(travelCostsStart) > (double) refresh * refresh;
+    }
+
+    /**
+     * @param dropUnreachable Whether to run the reachabilityFilter, only off the main thread
+     */
+    private void rescan(List<BlockPos> already, CalculationContext context, boolean dropUnreachable) {
         if (filter == null) {
             return;
         }
@@ -228,6 +324,9 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         }
         List<BlockPos> dropped = droppedItemsScan();
         List<BlockPos> locs = searchWorld(context, filter, ORE_LOCATIONS_COUNT, already, blacklist, dropped);
+        if (dropUnreachable && Baritone.settings().reachabilityFilter.value) {
+            locs = dropUnreachable(context, locs, dropped);
+        }
         locs.addAll(dropped);
         if (locs.isEmpty() && !Baritone.settings().exploreForBlocks.value) {
             logDirect("No locations for " + filter + " known, cancelling");
@@ -433,6 +532,24 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         return locs;
     }
 
+    /**
+     * Only on a rescan, off the main thread, since it floods outwards from the player. The ticks in between keep
+     * whatever the last rescan let through.
+     */
+    private static List<BlockPos> dropUnreachable(CalculationContext ctx, List<BlockPos> locs, List<BlockPos> dropped) {
+        ReachabilityFilter reachability = new ReachabilityFilter(ctx, ctx.getBaritone().getPlayerContext().playerFeet(), Baritone.settings().reachabilityFilterMaxNodes.value, Baritone.settings().reachabilityFilterBreakBudget.value);
+        List<BlockPos> reachable = new ArrayList<>();
+        for (BlockPos pos : locs) {
+            if (dropped.contains(pos) || reachability.mightReach(pos.getX(), pos.getY(), pos.getZ())) {
+                reachable.add(pos);
+            }
+        }
+        if (reachability.getRejected() > 0) {
+            HELPER.logDebug("Skipping " + reachability.getRejected() + " of " + reachability.getChecked() + " locations that can't be reached");
+        }
+        return reachable;
+    }
+
     public static boolean isNextToAir(CalculationContext ctx, BlockPos pos) {
         int radius = Baritone.settings().allowOnlyExposedOresDistance.value;
         for (int dx = -radius; dx <= radius; dx++) {
@@ -477,8 +594,19 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         this.branchPoint = null;
         this.branchPointRunaway = null;
         this.anticipatedDrops = new HashMap<>();
+        if (travelCostsPending != null) {
+            travelCostsPending.cancel(false);
+        }
+        this.travelCostsPending = null;
+        this.travelCostsPendingAsked = null;
+        this.travelCostsAsked = null;
+        this.travelCosts = null;
+        this.travelCostsUnreached = null;
+        this.travelCostsUnreachedFloor = 0;
+        this.travelCostsStart = null;
+        this.tour.reset();
         if (filter != null) {
-            rescan(new ArrayList<>(), new CalculationContext(baritone));
+            rescan(new ArrayList<>(), new CalculationContext(baritone), false); // the first scan on the SCANNING lane filters them
         }
     }
 }
@@ -0,0 +1,225 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.process;
+
+import baritone.api.pathing.movement.ActionCosts;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The order to mine the known ores in, so that the whole trip is as short as possible instead of always going to
+ * whichever one is closest right now (which zig zags back and forth through a big vein).
+ * <p>
+ * This is a travelling salesman path from the player through every ore: built with nearest insertion, then improved
+ * with 2-opt until it can't be or time runs out. Between ores the cost is just the straight line distance, scaled by
+ * how much more the real paths from the player cost than their straight lines, when those are known. Ores that the
+ * travel cost search was asked about but never reached are left out if it searched everywhere it could, and otherwise
+ * cost at least as much as it had searched, so they go to the end instead of being trusted to their straight line.
+ * <p>
+ * Once there is an order, it's kept. Ores that are gone are dropped from it, and new ones are inserted where they fit
+ * best, so the player doesn't change its mind about where to go next every time the ores are rescanned.
+ */
+final class MiningTour {
+
+    private List<BlockPos> order = Collections.emptyList();
+
+    /**
+     * @param start     Where the player is
+     * @param ores      Every ore that should be in the tour
+     * @param realCosts The real travel cost from the player to some of the ores, if known
+     * @param unreached The ores the travel cost search was asked about but didn't reach
+     * @param floor     The least those can cost from the player, infinite if they can't be reached at all
+     * @param budget    How long 2-opt can take, in nanoseconds
+     * @return The ore to go to first, or null if there aren't any
+     */
+    BlockPos update(BlockPos start, Collection<BlockPos> ores, Map<BlockPos, Double> realCosts, Set<BlockPos> unreached, double floor, long budget) {
+        Set<BlockPos> wanted = new LinkedHashSet<>(ores);
+        if (floor == Double.POSITIVE_INFINITY) {
+            wanted.removeAll(unreached);
+        }
+        List<BlockPos> kept = new ArrayList<>();
+        for (BlockPos pos : order) {
+            if (wanted.remove(pos)) {
+                kept.add(pos);
+            }
+        }
+        if (wanted.isEmpty()) {
+            order = kept; // nothing new, so nothing to plan
+            return kept.isEmpty() ? null : kept.get(0);
+        }
+        List<BlockPos> nodes = new ArrayList<>(kept.size() + wanted.size() + 1);
+        nodes.add(start);
+        nodes.addAll(kept);
+        nodes.addAll(wanted);
+        double[][] cost = costs(nodes, realCosts, unreached, floor);
+        int[] path = new int[nodes.size()];
+        for (int i = 0; i <= kept.size(); i++) {
+            path[i] = i;
+        }
+        insertNearest(cost, path, kept.size() + 1);
+        twoOpt(cost, path, System.nanoTime() + budget);
+        List<BlockPos> planned = new ArrayList<>(path.length - 1);
+        for (int i = 1; i < path.length; i++) {
+            planned.add(nodes.get(path[i]));
+        }
+        order = planned;
+        return planned.get(0);
+    }
+
+    List<BlockPos> getOrder() {
+        return order;
+    }
+
+    void reset() {
+        order = Collections.emptyList();
+    }
+
+    /**
+     * Node 0 is the player. The player to an ore is the real cost if there is one, otherwise (and between ores) it's
+     * the distance scaled by how much the real costs were above their distance on average. An unreached ore costs at
+     * least the floor from the player, and at least the floor minus the real cost of the player to ore i from ore i,
+     * since going through i would otherwise have been cheaper than the floor.
+     */
+    static double[][] costs(List<BlockPos> nodes, Map<BlockPos, Double> realCosts, Set<BlockPos> unreached, double floor) {
+        BlockPos start = nodes.get(0);
+        double real = 0;
+        double straight = 0;
+        for (int i = 1; i < nodes.size(); i++) {
+            Double cost = realCosts.get(nodes.get(i));
+            if (cost != null) {
+                real += cost;
+                straight += Math.sqrt(start.distanceSq(nodes.get(i)));
+            }
+        }
+        double scale = real > 0 && straight > 0 ? real / straight : ActionCosts.WALK_ONE_BLOCK_COST;
+        int n = nodes.size();
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double estimate = scale * Math.sqrt(nodes.get(i).distanceSq(nodes.get(j)));
+                cost[i][j] = estimate;
+                cost[j][i] = estimate;
+            }
+        }
+        for (int j = 1; j < n; j++) {
+            Double known = realCosts.get(nodes.get(j));
+            if (known != null) {
+                cost[0][j] = known;
+            }
+        }
+        for (int j = 1; j < n; j++) {
+            if (!unreached.contains(nodes.get(j))) {
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                Double known = i == 0 ? Double.valueOf(0) : realCosts.get(nodes.get(i));
+                if (known != null && i != j) {
+                    double atLeast = Math.max(cost[i][j], floor - known);
+                    cost[i][j] = atLeast;
+                    cost[j][i] = atLeast;
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Starting with the first {@code len} entries of path, add the remaining nodes one at a time, whichever is closest
+     * to the path so far first, each where it makes the path the least longer
+     */
+    static void insertNearest(double[][] cost, int[] path, int len) {
+        int n = path.length;
+        boolean[] inPath = new boolean[n];
+        double[] nearest = new double[n];
+        for (int i = 0; i < len; i++) {
+            inPath[path[i]] = true;
+        }
+        for (int k = 0; k < n; k++) {
+            nearest[k] = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < len; i++) {
+                nearest[k] = Math.min(nearest[k], cost[path[i]][k]);
+            }
+        }
+        while (len < n) {
+            int next = -1;
+            for (int k = 0; k < n; k++) {
+                if (!inPath[k] && (next == -1 || nearest[k] < nearest[next])) {
+                    next = k;
+                }
+            }
+            int bestPos = len;
+            double bestIncrease = cost[path[len - 1]][next]; // on the end
+            for (int pos = 1; pos < len; pos++) {
+                double increase = cost[path[pos - 1]][next] + cost[next][path[pos]] - cost[path[pos - 1]][path[pos]];
+                if (increase < bestIncrease) {
+                    bestIncrease = increase;
+                    bestPos = pos;
+                }
+            }
+            System.arraycopy(path, bestPos, path, bestPos + 1, len - bestPos);
+            path[bestPos] = next;
+            len++;
+            inPath[next] = true;
+            for (int k = 0; k < n; k++) {
+                nearest[k] = Math.min(nearest[k], cost[next][k]);
+            }
+        }
+    }
+
+    /**
+     * Reverse any stretch of the path that makes it shorter, until none do or the deadline passes. The path is open
+     * (it doesn't come back to the player at the end) and always starts at node 0.
+     */
+    static void twoOpt(double[][] cost, int[] path, long deadline) {
+        int len = path.length;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < len - 1; i++) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return;
+                }
+                for (int j = i + 1; j < len; j++) {
+                    int before = path[i - 1];
+                    int first = path[i];
+                    int last = path[j];
+                    double change = cost[before][last] - cost[before][first];
+                    if (j + 1 < len) {
+                        int after = path[j + 1];
+                        change += cost[first][after] - cost[last][after];
+                    }
+                    if (change < -1e-9) {
+                        for (int a = i, b = j; a < b; a++, b--) {
+                            int tmp = path[a];
+                            path[a] = path[b];
+                            path[b] = tmp;
+                        }
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+}
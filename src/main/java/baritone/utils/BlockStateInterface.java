@@ -44,6 +44,7 @@ public class BlockStateInterface {
 
     private final Long2ObjectMap<Chunk> loadedChunks;
     private final WorldData worldData;
+    private final IBlockSource source; // null when reading the client's world
     protected final IBlockAccess world;
     public final BlockPos.MutableBlockPos isPassableBlockPos;
     public final IBlockAccess access;
@@ -52,6 +53,13 @@ public class BlockStateInterface {
     private Chunk prev = null;
     private CachedRegion prevCached = null;
 
+    // how lookups got their answer, for PathSearchStats. only ever touched by the thread using this interface
+    private long chunkCacheHits;
+    private long chunkLookups;
+    private long regionCacheHits;
+    private long regionLookups;
+    private long regionMisses;
+
     private final boolean useTheRealWorld;
 
     private static final IBlockState AIR = Blocks.AIR.getDefaultState();
@@ -68,6 +76,7 @@ public class BlockStateInterface {
         this.world = world;
         this.worldBorder = new BetterWorldBorder(world.getWorldBorder());
         this.worldData = worldData;
+        this.source = null;
         Long2ObjectMap<Chunk> worldLoaded = ((IChunkProviderClient) world.getChunkProvider()).loadedChunks();
         if (copyLoadedChunks) {
             this.loadedChunks = new Long2ObjectOpenHashMap<>(worldLoaded); // make a copy that we can safely access from another thread
@@ -82,7 +91,45 @@ public class BlockStateInterface {
         this.access = new BlockStateInterfaceAccessWrapper(this);
     }
 
+    /**
+     * Reads from the given source instead of the client's world, so this can be created on any thread, or without a
+     * client at all.
+     *
+     * @param source      Where the blocks come from
+     * @param worldBorder The world border to respect
+     */
+    public BlockStateInterface(IBlockSource source, BetterWorldBorder worldBorder) {
+        this.world = null;
+        this.worldBorder = worldBorder;
+        this.worldData = null;
+        this.source = source;
+        this.loadedChunks = new Long2ObjectOpenHashMap<>();
+        this.useTheRealWorld = false;
+        this.isPassableBlockPos = new BlockPos.MutableBlockPos();
+        this.access = new BlockStateInterfaceAccessWrapper(this);
+    }
+
+    /**
+     * A copy that reads the same world and loaded chunks, but has its own mutable state, so that the two can be used
+     * on different threads at the same time. Only for interfaces that are already safe to use on another thread.
+     *
+     * @param other The interface to copy
+     */
+    public BlockStateInterface(BlockStateInterface other) {
+        this.world = other.world;
+        this.worldBorder = other.worldBorder;
+        this.worldData = other.worldData;
+        this.source = other.source;
+        this.loadedChunks = other.loadedChunks;
+        this.useTheRealWorld = other.useTheRealWorld;
+        this.isPassableBlockPos = new BlockPos.MutableBlockPos();
+        this.access = new BlockStateInterfaceAccessWrapper(this);
+    }
+
     public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
+        if (source != null) {
+            return source.isLoaded(blockX, blockZ);
+        }
         return loadedChunks.containsKey(ChunkPos.asLong(blockX >> 4, blockZ >> 4));
     }
 
@@ -107,6 +154,10 @@ public class BlockStateInterface {
             return AIR;
         }
 
+        if (source != null) {
+            return source.get(x, y, z);
+        }
+
         if (useTheRealWorld) {
             Chunk cached = prev;
             // there's great cache locality in block state lookups
@@ -116,8 +167,10 @@ public class BlockStateInterface {
             // which is a Long2ObjectOpenHashMap.get
             // see issue #113
             if (cached != null && cached.x == x >> 4 && cached.z == z >> 4) {
+                chunkCacheHits++;
                 return cached.getBlockState(x, y, z);
             }
+            chunkLookups++;
             Chunk chunk = loadedChunks.get(ChunkPos.asLong(x >> 4, z >> 4));
 
             if (chunk != null && chunk.isLoaded()) {
@@ -132,12 +185,16 @@ public class BlockStateInterface {
             if (worldData == null) {
                 return AIR;
             }
+            regionLookups++;
             CachedRegion region = worldData.cache.getRegion(x >> 9, z >> 9);
             if (region == null) {
+                regionMisses++;
                 return AIR;
             }
             prevCached = region;
             cached = region;
+        } else {
+            regionCacheHits++;
         }
         IBlockState type = cached.getBlock(x & 511, y, z & 511);
         if (type == null) {
@@ -147,10 +204,15 @@ public class BlockStateInterface {
     }
 
     public boolean isLoaded(int x, int z) {
+        if (source != null) {
+            return source.isLoaded(x, z);
+        }
         Chunk prevChunk = prev;
         if (prevChunk != null && prevChunk.x == x >> 4 && prevChunk.z == z >> 4) {
+            chunkCacheHits++;
             return true;
         }
+        chunkLookups++;
         prevChunk = loadedChunks.get(ChunkPos.asLong(x >> 4, z >> 4));
         if (prevChunk != null && prevChunk.isLoaded()) {
             prev = prevChunk;
@@ -158,16 +220,54 @@ public class BlockStateInterface {
         }
         CachedRegion prevRegion = prevCached;
         if (prevRegion != null && prevRegion.getX() == x >> 9 && prevRegion.getZ() == z >> 9) {
+            regionCacheHits++;
             return prevRegion.isCached(x & 511, z & 511);
         }
         if (worldData == null) {
             return false;
         }
+        regionLookups++;
         prevRegion = worldData.cache.getRegion(x >> 9, z >> 9);
         if (prevRegion == null) {
+            regionMisses++;
             return false;
         }
         prevCached = prevRegion;
         return prevRegion.isCached(x & 511, z & 511);
     }
+
+    /**
+     * @return How many lookups were answered by the same loaded chunk as the one before
+     */
+    public long getChunkCacheHits() {
+        return chunkCacheHits;
+    }
+
+    /**
+     * @return How many lookups had to look up their loaded chunk
+     */
+    public long getChunkLookups() {
+        return chunkLookups;
+    }
+
+    /**
+     * @return How many lookups were answered by the same cached region as the one before
+     */
+    public long getRegionCacheHits() {
+        return regionCacheHits;
+    }
+
+    /**
+     * @return How many lookups had to look up their cached region
+     */
+    public long getRegionLookups() {
+        return regionLookups;
+    }
+
+    /**
+     * @return How many region lookups found nothing in memory
+     */
+    public long getRegionMisses() {
+        return regionMisses;
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * Where a {@link BlockStateInterface} gets its blocks from when it isn't reading the client's world. This is what
+ * pathing needs from a world, and nothing else, so it can run without a client at all.
+ * <p>
+ * A search on several threads reads from the same source on all of them at once, see {@link baritone.pathing.calc.ParallelAStarPathFinder}.
+ *
+ * @see InMemoryBlockSource
+ * @see baritone.cache.CachedWorldBlockSource
+ */
+public interface IBlockSource {
+
+    /**
+     * @param x The x position
+     * @param y The y position, always in [0, 256)
+     * @param z The z position
+     * @return The block state at that position, air if unknown
+     */
+    IBlockState get(int x, int y, int z);
+
+    /**
+     * @param x The block x position
+     * @param z The block z position
+     * @return Whether or not anything is known about the blocks in this column
+     */
+    boolean isLoaded(int x, int z);
+}
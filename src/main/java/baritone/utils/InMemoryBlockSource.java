@@ -0,0 +1,87 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * A world that only exists in memory, for tests and planning without a client. A chunk is loaded once anything in it
+ * has been set, and everything that was never set is air.
+ * <p>
+ * Reading from several threads at once is fine, as long as nothing is being set at the same time.
+ */
+public final class InMemoryBlockSource implements IBlockSource {
+
+    private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final Long2ObjectMap<IBlockState[]> chunks = new Long2ObjectOpenHashMap<>();
+
+    @Override
+    public IBlockState get(int x, int y, int z) {
+        IBlockState[] chunk = chunk(x >> 4, z >> 4);
+        if (chunk == null) {
+            return AIR;
+        }
+        IBlockState state = chunk[index(x, y, z)];
+        return state == null ? AIR : state;
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return chunk(x >> 4, z >> 4) != null;
+    }
+
+    public void set(int x, int y, int z, IBlockState state) {
+        if (y < 0 || y >= 256) {
+            throw new IllegalArgumentException("y " + y);
+        }
+        getOrCreateChunk(x >> 4, z >> 4)[index(x, y, z)] = state;
+    }
+
+    /**
+     * Marks the chunk at these chunk coordinates as loaded, even if it's all air
+     *
+     * @param chunkX The chunk x position
+     * @param chunkZ The chunk z position
+     */
+    public void loadChunk(int chunkX, int chunkZ) {
+        getOrCreateChunk(chunkX, chunkZ);
+    }
+
+    private IBlockState[] getOrCreateChunk(int chunkX, int chunkZ) {
+        long pos = ChunkPos.asLong(chunkX, chunkZ);
+        IBlockState[] chunk = chunks.get(pos);
+        if (chunk == null) {
+            chunk = new IBlockState[16 * 16 * 256];
+            chunks.put(pos, chunk);
+        }
+        return chunk;
+    }
+
+    private IBlockState[] chunk(int chunkX, int chunkZ) {
+        return chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    private static int index(int x, int y, int z) {
+        return y << 8 | (z & 15) << 4 | (x & 15);
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One lane of Baritone's background work, see {@link baritone.Baritone#getExecutor(Lane)}. Each lane has its own
+ * threads, so a slow disk load can't hold up a path calculation, and its own bounded queue.
+ * <p>
+ * Keeps track of how deep the queue gets, and how long tasks wait in it before they start running.
+ */
+public final class LaneExecutor extends ThreadPoolExecutor {
+
+    public enum Lane {
+        /**
+         * Path calculations. The highest priority of the lanes, but no higher than the client thread, which shouldn't
+         * have to wait for a path. Nothing is ever dropped here, if the queue is somehow full the task is rejected and
+         * the caller has to deal with it.
+         */
+        PATHING(Thread.NORM_PRIORITY, Math.max(4, Runtime.getRuntime().availableProcessors() + 2), 64, WhenFull.REJECT),
+
+        /**
+         * Planning that no path calculation waits on: chunk routes, and travel costs to many targets at once. Kept off
+         * {@link #PATHING} so they can't hold up the calculations that lane is for. Rejected when full, the same as
+         * there.
+         */
+        PLANNING(Thread.NORM_PRIORITY - 1, 2, 16, WhenFull.REJECT),
+
+        /**
+         * Looking through the world for blocks. These are redone periodically anyway, so when the queue is full the
+         * oldest one is dropped in favor of the new one.
+         */
+        SCANNING(Thread.NORM_PRIORITY - 1, 2, 8, WhenFull.DROP_OLDEST),
+
+        /**
+         * Loading regions from disk ahead of time. These are asked for again if they're still needed, so when the
+         * queue is full the oldest one is dropped, see {@link DroppableTask}. Saves don't go through here, they can't
+         * be lost and the caller can't be made to wait for one either.
+         */
+        CACHE_IO(Thread.NORM_PRIORITY - 2, 2, 256, WhenFull.DROP_OLDEST);
+
+        private final int priority;
+        private final int threads;
+        private final int queueSize;
+        private final WhenFull whenFull;
+
+        Lane(int priority, int threads, int queueSize, WhenFull whenFull) {
+            this.priority = priority;
+            this.threads = threads;
+            this.queueSize = queueSize;
+            this.whenFull = whenFull;
+        }
+    }
+
+    private enum WhenFull {
+        REJECT,
+        DROP_OLDEST
+    }
+
+    /**
+     * A task that has to know if it's dropped before it runs, e.g. to stop counting a region as loading
+     */
+    public interface DroppableTask extends Runnable {
+
+        /**
+         * Called instead of {@link #run}, on whichever thread dropped it
+         */
+        void dropped();
+    }
+
+    private final Lane lane;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    public LaneExecutor(Lane lane) {
+        super(lane.threads, lane.threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(lane.queueSize), new LaneThreadFactory(lane));
+        this.lane = lane;
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler((task, executor) -> queueFull(task));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.incrementAndGet();
+        super.execute(new Timed(command));
+        int depth = getQueue().size();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * For work that's only worth doing if it can be done in the background, and will be asked for again later anyway
+     * (e.g. loading a region from disk). Never drops anything else, unless the queue fills up between checking it and
+     * submitting.
+     *
+     * @param command The task
+     * @return Whether it was submitted
+     */
+    public boolean tryExecute(Runnable command) {
+        if (isShutdown() || getQueue().remainingCapacity() == 0) {
+            return false;
+        }
+        execute(command);
+        return true;
+    }
+
+    private void queueFull(Runnable task) {
+        rejected.incrementAndGet();
+        if (isShutdown()) {
+            throw new RejectedExecutionException(lane + " is shut down");
+        }
+        switch (lane.whenFull) {
+            case DROP_OLDEST:
+                dropped(getQueue().poll());
+                super.execute(task); // already wrapped
+                return;
+            default:
+                throw new RejectedExecutionException(lane + " queue is full");
+        }
+    }
+
+    /**
+     * Drops everything that hasn't started running yet, e.g. scans of a world that was just left
+     *
+     * @return How many tasks were dropped
+     */
+    public int clearQueue() {
+        List<Runnable> drained = new ArrayList<>();
+        getQueue().drainTo(drained);
+        drained.forEach(this::dropped);
+        return drained.size();
+    }
+
+    private void dropped(Runnable queued) {
+        if (queued instanceof Timed && ((Timed) queued).task instanceof DroppableTask) {
+            ((DroppableTask) ((Timed) queued).task).dropped();
+        }
+    }
+
+    public Lane getLane() {
+        return lane;
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return How many tasks didn't fit in the queue, whatever the lane did with them after that
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getFinishedCount() {
+        return finished.get();
+    }
+
+    /**
+     * @return The average time from being submitted to starting to run, in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long count = finished.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1000000D / count;
+    }
+
+    /**
+     * @return The longest time from being submitted to starting to run, in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1000000D;
+    }
+
+    /**
+     * @return The average time a task took to run, in milliseconds
+     */
+    public double getAverageRunMillis() {
+        long count = finished.get();
+        return count == 0 ? 0 : totalRunNanos.get() / 1000000D / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d running, %d queued (max %d), %d done, %d rejected, waited %.1fms on average (max %.1fms), ran %.1fms on average",
+                lane, getActiveCount(), getQueueDepth(), getMaxQueueDepth(), getFinishedCount(), getRejectedCount(), getAverageWaitMillis(), getMaxWaitMillis(), getAverageRunMillis());
+    }
+
+    private final class Timed implements Runnable {
+
+        private final Runnable task;
+        private final long submittedAt = System.nanoTime();
+
+        private Timed(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long wait = start - submittedAt;
+            totalWaitNanos.addAndGet(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            try {
+                task.run();
+            } finally {
+                totalRunNanos.addAndGet(System.nanoTime() - start);
+                finished.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+
+        private final Lane lane;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private LaneThreadFactory(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "Baritone " + lane.name().toLowerCase() + " " + count.incrementAndGet());
+            thread.setPriority(lane.priority);
+            return thread;
+        }
+    }
+}
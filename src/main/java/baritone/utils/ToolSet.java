@@ -29,8 +29,11 @@ import net.minecraft.item.Item.ToolMaterial;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ItemSword;
 import net.minecraft.item.ItemTool;
+import net.minecraft.nbt.NBTTagCompound;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -54,6 +57,11 @@ public class ToolSet {
 
     private final EntityPlayerSP player;
 
+    /**
+     * What the potion effects multiply the speed by, 1 if they aren't considered
+     */
+    private final double amplifier;
+
     public ToolSet(EntityPlayerSP player) {
         breakStrengthCache = new HashMap<>();
         this.player = player;
@@ -62,9 +70,64 @@ public class ToolSet {
             double amplifier = potionAmplifier();
             Function<Double, Double> amplify = x -> amplifier * x;
             backendCalculation = amplify.compose(this::getBestDestructionTime);
+            this.amplifier = amplifier;
         } else {
             backendCalculation = this::getBestDestructionTime;
+            this.amplifier = 1;
+        }
+    }
+
+    /**
+     * For when there is no player to look at, e.g. planning without a client. Only {@link #getStrVsBlock} is usable.
+     *
+     * @param backendCalculation How fast a block can be mined, see {@link #calculateSpeedVsBlock}
+     */
+    public ToolSet(Function<Block, Double> backendCalculation) {
+        this.breakStrengthCache = new HashMap<>();
+        this.player = null;
+        this.backendCalculation = backendCalculation;
+        this.amplifier = 1;
+    }
+
+    private ToolSet(ToolSet other) {
+        this.breakStrengthCache = new HashMap<>(other.breakStrengthCache);
+        this.player = other.player;
+        this.backendCalculation = other.backendCalculation;
+        this.amplifier = other.amplifier;
+    }
+
+    /**
+     * The cache isn't thread safe, so a search on several threads gives each one its own copy
+     *
+     * @return A tool set with the same tools and its own cache
+     */
+    public ToolSet copy() {
+        return new ToolSet(this);
+    }
+
+    /**
+     * Two tool sets with equal fingerprints mine every block equally fast. Has to be called on the main thread, since it
+     * looks at the hotbar.
+     *
+     * @return The fingerprint
+     */
+    public Object fingerprint() {
+        if (player == null) {
+            return backendCalculation; // nothing to go on but the calculation itself
+        }
+        boolean itemSaver = Baritone.settings().itemSaver.value;
+        List<Object> hotbar = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            ItemStack stack = player.inventory.getStackInSlot(i);
+            NBTTagCompound tag = stack.getTagCompound();
+            hotbar.add(stack.getItem());
+            // wear doesn't change the speed, it only matters once the item saver won't use the tool anymore
+            hotbar.add(stack.getHasSubtypes() || itemSaver ? stack.getItemDamage() : 0);
+            hotbar.add(tag == null ? null : tag.copy()); // enchantments
         }
+        hotbar.add(player.inventory.currentItem);
+        hotbar.add(amplifier);
+        return hotbar;
     }
 
     /**
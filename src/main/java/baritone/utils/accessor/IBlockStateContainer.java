@@ -7,4 +7,10 @@ public interface IBlockStateContainer {
     IBlockState getAtPalette(int index);
 
     int[] storageArray();
+
+    /**
+     * @return How many palette indices there can be, {@link #getAtPalette} is null past the ones in use. -1 if this
+     * uses the global palette, which has every block state in it.
+     */
+    int paletteSize();
 }
@@ -20,7 +20,6 @@ package baritone.utils.pathing;
 import baritone.Baritone;
 import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.IPlayerContext;
-import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
 import net.minecraft.entity.monster.EntityEnderman;
 import net.minecraft.entity.monster.EntityMob;
 import net.minecraft.entity.monster.EntityPigZombie;
@@ -30,6 +29,7 @@ import net.minecraft.util.math.BlockPos;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 public class Avoidance {
 
@@ -82,16 +82,33 @@ public class Avoidance {
         return res;
     }
 
-    public void applySpherical(Long2DoubleOpenHashMap map) {
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -radius; y <= radius; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    if (x * x + y * y + z * z <= radius * radius) {
-                        long hash = BetterBlockPos.longHash(centerX + x, centerY + y, centerZ + z);
-                        map.put(hash, map.get(hash) * coefficient);
-                    }
+    /**
+     * @param action Called with every cell (see {@link AvoidanceField#cell}) that this sphere could reach into
+     */
+    void forEachCell(LongConsumer action) {
+        for (int cx = (centerX - radius) >> 4; cx <= (centerX + radius) >> 4; cx++) {
+            for (int cy = (centerY - radius) >> 4; cy <= (centerY + radius) >> 4; cy++) {
+                for (int cz = (centerZ - radius) >> 4; cz <= (centerZ + radius) >> 4; cz++) {
+                    action.accept(AvoidanceField.cell(cx, cy, cz));
                 }
             }
         }
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || o.getClass() != Avoidance.class) {
+            return false;
+        }
+        Avoidance other = (Avoidance) o;
+        return centerX == other.centerX && centerY == other.centerY && centerZ == other.centerZ && radius == other.radius && Double.compare(coefficient, other.coefficient) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) BetterBlockPos.longHash(centerX, centerY, centerZ) * 31 + radius;
+    }
 }
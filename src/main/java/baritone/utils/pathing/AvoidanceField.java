@@ -0,0 +1,172 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every {@link Avoidance} sphere, bucketed by the 16x16x16 cells they reach into, so that the avoidance coefficient of
+ * a position is worked out when a path calculation asks for it instead of being written out for every block of every
+ * sphere beforehand.
+ * <p>
+ * Immutable, so a path calculation can keep using one while the next one is made. Making the next one with
+ * {@link #update} only touches the cells of the spheres that changed (e.g. the mobs that moved since the last segment).
+ */
+public final class AvoidanceField {
+
+    public static final AvoidanceField EMPTY = new AvoidanceField(Collections.emptyList(), new Long2ObjectOpenHashMap<>());
+
+    private final List<Avoidance> avoidances;
+    private final Long2ObjectOpenHashMap<Avoidance[]> cells;
+
+    /**
+     * The cell looked up last. Consecutive lookups are almost always in the same one. Racy when a parallel search
+     * shares this, but harmless since it's immutable.
+     */
+    private LastCell last;
+
+    private AvoidanceField(List<Avoidance> avoidances, Long2ObjectOpenHashMap<Avoidance[]> cells) {
+        this.avoidances = avoidances;
+        this.cells = cells;
+    }
+
+    /**
+     * @param now Every avoidance there should be now
+     * @return A field with exactly those, sharing as much as possible with this one
+     */
+    public AvoidanceField update(List<Avoidance> now) {
+        if (now.equals(avoidances)) {
+            return this;
+        }
+        Map<Avoidance, Integer> difference = new HashMap<>(); // positive if added, negative if removed
+        for (Avoidance avoid : avoidances) {
+            difference.merge(avoid, -1, Integer::sum);
+        }
+        for (Avoidance avoid : now) {
+            difference.merge(avoid, 1, Integer::sum);
+        }
+        Long2ObjectOpenHashMap<Avoidance[]> updated = new Long2ObjectOpenHashMap<>(cells);
+        difference.forEach((avoid, count) -> {
+            for (int i = 0; i < Math.abs(count); i++) {
+                if (count > 0) {
+                    avoid.forEachCell(cell -> {
+                        Avoidance[] in = updated.get(cell);
+                        Avoidance[] added = in == null ? new Avoidance[1] : Arrays.copyOf(in, in.length + 1);
+                        added[added.length - 1] = avoid;
+                        updated.put(cell, added);
+                    });
+                } else {
+                    avoid.forEachCell(cell -> {
+                        Avoidance[] in = updated.get(cell);
+                        int index = Arrays.asList(in).indexOf(avoid);
+                        if (in.length == 1) {
+                            updated.remove(cell);
+                            return;
+                        }
+                        Avoidance[] removed = new Avoidance[in.length - 1];
+                        System.arraycopy(in, 0, removed, 0, index);
+                        System.arraycopy(in, index + 1, removed, index, in.length - index - 1);
+                        updated.put(cell, removed);
+                    });
+                }
+            }
+        });
+        return new AvoidanceField(new ArrayList<>(now), updated);
+    }
+
+    public boolean isEmpty() {
+        return avoidances.isEmpty();
+    }
+
+    public int size() {
+        return avoidances.size();
+    }
+
+    /**
+     * @return What to multiply the cost of moving to this position by, 1 if it's not near anything to avoid
+     */
+    public double coefficient(int x, int y, int z) {
+        long key = cell(x >> 4, y >> 4, z >> 4);
+        LastCell memo = last;
+        Avoidance[] here;
+        if (memo != null && memo.key == key) {
+            here = memo.avoidances;
+        } else {
+            here = cells.get(key);
+            last = new LastCell(key, here);
+        }
+        if (here == null) {
+            return 1.0D;
+        }
+        double coefficient = 1.0D;
+        for (Avoidance avoid : here) {
+            coefficient *= avoid.coefficient(x, y, z);
+        }
+        return coefficient;
+    }
+
+    /**
+     * @return The cells where this and an older field might give a different coefficient. Cells that {@link #update}
+     * didn't touch are shared, so they're not in here.
+     */
+    LongSet changedCells(AvoidanceField older) {
+        LongOpenHashSet changed = new LongOpenHashSet();
+        if (older == this) {
+            return changed;
+        }
+        for (Long2ObjectMap.Entry<Avoidance[]> entry : cells.long2ObjectEntrySet()) {
+            if (older.cells.get(entry.getLongKey()) != entry.getValue()) {
+                changed.add(entry.getLongKey());
+            }
+        }
+        for (Long2ObjectMap.Entry<Avoidance[]> entry : older.cells.long2ObjectEntrySet()) {
+            if (!cells.containsKey(entry.getLongKey())) {
+                changed.add(entry.getLongKey());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Unlike {@link baritone.api.utils.BetterBlockPos#longHash}, two different cells can't end up with the same key
+     */
+    static long cell(int cx, int cy, int cz) {
+        return (cx & 0x3FFFFFL) | (cz & 0x3FFFFFL) << 22 | (cy & 0xFFFFFL) << 44;
+    }
+
+    private static final class LastCell {
+
+        private final long key;
+        private final Avoidance[] avoidances;
+
+        private LastCell(long key, Avoidance[] avoidances) {
+            this.key = key;
+            this.avoidances = avoidances;
+        }
+    }
+}
@@ -22,34 +22,154 @@ import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.IPlayerContext;
 import baritone.pathing.movement.CalculationContext;
+import it.unimi.dsi.fastutil.longs.Long2DoubleMap;
 import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.List;
 
 public final class Favoring {
 
     private final Long2DoubleOpenHashMap favorings;
 
+    /**
+     * Mob spawners and hostile mobs, worked out per position as they're asked for
+     */
+    private final AvoidanceField avoidance;
+
+    /**
+     * The chunks along a route planned ahead of time, see {@link baritone.pathing.calc.ChunkRoutePlanner}. Keyed by
+     * {@link ChunkPos#asLong}. Null if there isn't one.
+     */
+    private final LongSet corridor;
+
+    private final double offCorridorCoefficient;
+
     public Favoring(IPlayerContext ctx, IPath previous, CalculationContext context) {
-        this(previous, context);
-        for (Avoidance avoid : Avoidance.create(ctx)) {
-            avoid.applySpherical(favorings);
-        }
-        Helper.HELPER.logDebug("Favoring size: " + favorings.size());
+        this(ctx, previous, null, context);
+    }
+
+    public Favoring(IPlayerContext ctx, IPath previous, LongSet corridor, CalculationContext context) {
+        this(previous, corridor, AvoidanceField.EMPTY.update(Avoidance.create(ctx)), context);
     }
 
     public Favoring(IPath previous, CalculationContext context) { // create one just from previous path, no mob avoidances
+        this(previous, null, AvoidanceField.EMPTY, context);
+    }
+
+    /**
+     * @param avoidance See {@link AvoidanceField#update}, to only redo the avoidances that changed since the last path
+     */
+    public Favoring(IPath previous, LongSet corridor, AvoidanceField avoidance, CalculationContext context) {
+        this(previous == null ? null : previous.positions(), corridor, avoidance, context.backtrackCostFavoringCoefficient, context.routeCorridorCostCoefficient);
+        Helper.HELPER.logDebug("Favoring size: " + favorings.size() + ", avoiding " + avoidance.size());
+    }
+
+    /**
+     * @param previous               The positions of the previous path, null for none
+     * @param backtrackCoefficient   What to multiply the cost of moving to one of those positions by
+     * @param offCorridorCoefficient What to multiply the cost of moving out of the corridor by
+     */
+    public Favoring(List<BetterBlockPos> previous, LongSet corridor, AvoidanceField avoidance, double backtrackCoefficient, double offCorridorCoefficient) {
+        this.corridor = corridor;
+        this.avoidance = avoidance;
+        this.offCorridorCoefficient = offCorridorCoefficient;
         favorings = new Long2DoubleOpenHashMap();
         favorings.defaultReturnValue(1.0D);
-        double coeff = context.backtrackCostFavoringCoefficient;
-        if (coeff != 1D && previous != null) {
-            previous.positions().forEach(pos -> favorings.put(BetterBlockPos.longHash(pos), coeff));
+        if (backtrackCoefficient != 1D && previous != null) {
+            previous.forEach(pos -> favorings.put(BetterBlockPos.longHash(pos), backtrackCoefficient));
         }
     }
 
     public boolean isEmpty() {
-        return favorings.isEmpty();
+        return favorings.isEmpty() && corridor == null && avoidance.isEmpty();
+    }
+
+    /**
+     * @param x    The x position
+     * @param y    The y position
+     * @param z    The z position
+     * @param hash The hash code of the position, provided by {@link BetterBlockPos#longHash(int, int, int)}
+     * @return What to multiply the cost of moving to that position by
+     */
+    public double calculate(int x, int y, int z, long hash) {
+        double coefficient = favorings.get(hash);
+        if (!avoidance.isEmpty()) {
+            coefficient *= avoidance.coefficient(x, y, z);
+        }
+        if (corridor != null && !corridor.contains(ChunkPos.asLong(x >> 4, z >> 4))) {
+            coefficient *= offCorridorCoefficient;
+        }
+        return coefficient;
+    }
+
+    /**
+     * Where this can give a different coefficient than an older favoring, so that costs worked out with the older one
+     * only have to be redone there. Consecutive segments towards the same goal usually only differ in the previous path
+     * and the mobs that moved.
+     *
+     * @return The differences, or null if they can't be narrowed down (the corridor changed)
+     */
+    public Difference differenceFrom(Favoring older) {
+        if (corridor != older.corridor || (corridor != null && offCorridorCoefficient != older.offCorridorCoefficient)) {
+            return null;
+        }
+        LongOpenHashSet positions = new LongOpenHashSet();
+        for (Long2DoubleMap.Entry entry : favorings.long2DoubleEntrySet()) {
+            if (older.favorings.get(entry.getLongKey()) != entry.getDoubleValue()) {
+                positions.add(entry.getLongKey());
+            }
+        }
+        for (Long2DoubleMap.Entry entry : older.favorings.long2DoubleEntrySet()) {
+            if (favorings.get(entry.getLongKey()) != entry.getDoubleValue()) {
+                positions.add(entry.getLongKey());
+            }
+        }
+        return new Difference(positions, avoidance.changedCells(older.avoidance));
     }
 
-    public double calculate(long hash) {
-        return favorings.get(hash);
+    public static final class Difference {
+
+        /**
+         * Keyed by {@link BetterBlockPos#longHash(int, int, int)}
+         */
+        private final LongSet positions;
+
+        /**
+         * The 16x16x16 cells where the avoidances changed, see {@link AvoidanceField#cell}
+         */
+        private final LongSet cells;
+
+        private Difference(LongSet positions, LongSet cells) {
+            this.positions = positions;
+            this.cells = cells;
+        }
+
+        public boolean isEmpty() {
+            return positions.isEmpty() && cells.isEmpty();
+        }
+
+        /**
+         * @return The positions of the previous path that were added or removed, as position hashes
+         */
+        public LongSet positions() {
+            return positions;
+        }
+
+        /**
+         * @return Whether any avoidance changed at all, if not there's no need to check every position
+         */
+        public boolean avoidanceChanged() {
+            return !cells.isEmpty();
+        }
+
+        /**
+         * @return Whether the avoidance coefficient at this position might have changed
+         */
+        public boolean avoidanceChanged(int x, int y, int z) {
+            return cells.contains(AvoidanceField.cell(x >> 4, y >> 4, z >> 4));
+        }
     }
 }
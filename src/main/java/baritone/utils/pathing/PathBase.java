@@ -20,13 +20,27 @@ package baritone.utils.pathing;
 import baritone.Baritone;
 import baritone.api.BaritoneAPI;
 import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.calc.PathSearchStats;
 import baritone.api.pathing.goals.Goal;
 import baritone.pathing.path.CutoffPath;
 import baritone.utils.BlockStateInterface;
 import net.minecraft.util.math.BlockPos;
 
+import java.util.Optional;
+
 public abstract class PathBase implements IPath {
 
+    private PathSearchStats searchStats;
+
+    @Override
+    public Optional<PathSearchStats> getSearchStats() {
+        return Optional.ofNullable(searchStats);
+    }
+
+    public void setSearchStats(PathSearchStats searchStats) {
+        this.searchStats = searchStats;
+    }
+
     @Override
     public PathBase cutoffAtLoadedChunks(Object bsi0) { // <-- cursed cursed cursed
         if (!Baritone.settings().cutoffAtLoadBoundary.value) {
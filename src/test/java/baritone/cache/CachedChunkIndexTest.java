@@ -0,0 +1,155 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CachedChunkIndexTest {
+
+    @Test
+    public void savedAndLoaded() throws IOException {
+        Path directory = Files.createTempDirectory("baritone-cache");
+        CachedChunkIndex index = new CachedChunkIndex(directory);
+        int[][] chunks = {{0, 0}, {31, 31}, {32, 0}, {-1, -1}, {-33, 70}, {1000, -1000}};
+        for (int[] chunk : chunks) {
+            assertFalse(index.isCached(chunk[0], chunk[1]));
+            index.setCached(chunk[0], chunk[1]);
+        }
+        index.save();
+        CachedChunkIndex loaded = new CachedChunkIndex(directory);
+        for (int[] chunk : chunks) {
+            assertTrue(loaded.isCached(chunk[0], chunk[1]));
+            assertTrue(loaded.isIndexed(chunk[0] >> 5, chunk[1] >> 5));
+        }
+        assertFalse(loaded.isCached(1, 0));
+        assertFalse(loaded.isCached(0, -1));
+        assertEquals(chunks.length, loaded.size());
+    }
+
+    @Test
+    public void regionFilesNewerThanTheIndexAreUnindexed() throws IOException {
+        Path directory = Files.createTempDirectory("baritone-cache");
+        Path region = Files.createFile(directory.resolve("r.-1.2.bcr"));
+        // no index file at all, so nothing on disk can be trusted
+        assertFalse(new CachedChunkIndex(directory).isIndexed(-1, 2));
+
+        Files.delete(region);
+        new CachedChunkIndex(directory).save();
+        FileTime saved = Files.getLastModifiedTime(directory.resolve("cached_chunks.bci"));
+        Path older = Files.createFile(directory.resolve("r.0.0.bcr"));
+        Path newer = Files.createFile(directory.resolve("r.-1.2.bcr"));
+        Files.setLastModifiedTime(older, FileTime.fromMillis(saved.toMillis() - 10000));
+        Files.setLastModifiedTime(newer, FileTime.fromMillis(saved.toMillis() + 10000));
+        Path newerGeneration = Files.createFile(directory.resolve("r.3.-4.2.bcr"));
+        Files.setLastModifiedTime(newerGeneration, FileTime.fromMillis(saved.toMillis() + 10000));
+        CachedChunkIndex index = new CachedChunkIndex(directory);
+        assertTrue(index.isIndexed(0, 0));
+        assertFalse(index.isIndexed(-1, 2));
+        assertFalse(index.isIndexed(3, -4));
+        assertTrue(index.isIndexed(5, 5)); // no file, nothing cached
+
+        // still unindexed once the index is saved again, even though the region file is older now
+        index.save();
+        assertFalse(new CachedChunkIndex(directory).isIndexed(-1, 2));
+    }
+
+    @Test
+    public void packedPositions() {
+        int[][] positions = {{0, 0, 0}, {-1, 255, -1}, {29999999, 7, -29999999}, {-30000000, 0, 12345}};
+        for (int[] pos : positions) {
+            long packed = CachedChunkIndex.pack(pos[0], pos[1], pos[2]);
+            assertEquals(pos[0], CachedChunkIndex.unpackX(packed));
+            assertEquals(pos[1], CachedChunkIndex.unpackY(packed));
+            assertEquals(pos[2], CachedChunkIndex.unpackZ(packed));
+        }
+    }
+
+    @Test
+    public void specialBlocksReplacedPerChunk() throws IOException {
+        Path directory = Files.createTempDirectory("baritone-cache");
+        CachedChunkIndex index = new CachedChunkIndex(directory);
+        index.setSpecialBlocks(-1, 3, Collections.singletonMap("chest", Arrays.asList(new BlockPos(0, 64, 0), new BlockPos(15, 10, 15))));
+        index.setSpecialBlocks(-2, 3, Collections.singletonMap("chest", Collections.singletonList(new BlockPos(1, 2, 3))));
+        index.setSpecialBlocks(-1, 3, Collections.singletonMap("furnace", Collections.singletonList(new BlockPos(4, 5, 6))));
+        index.save();
+        CachedChunkIndex loaded = new CachedChunkIndex(directory);
+        List<BlockPos> chests = new ArrayList<>();
+        loaded.getLocationsOf("chest", -1, 0, chests);
+        assertEquals(1, chests.size());
+        assertEquals(-31, chests.get(0).getX());
+        assertEquals(2, chests.get(0).getY());
+        assertEquals(51, chests.get(0).getZ());
+        List<BlockPos> furnaces = new ArrayList<>();
+        loaded.getLocationsOf("furnace", -1, 0, furnaces);
+        assertEquals(1, furnaces.size());
+        assertEquals(-12, furnaces.get(0).getX());
+        assertTrue(loaded.getNearest("chest", 10, 0, 0, 0, 0).isEmpty()); // that's region -1,0
+    }
+
+    @Test
+    public void nearestMatchesBruteForce() throws IOException {
+        Random random = new Random(4);
+        CachedChunkIndex index = new CachedChunkIndex(Files.createTempDirectory("baritone-cache"));
+        List<int[]> all = new ArrayList<>();
+        for (int chunkX = -80; chunkX < 80; chunkX += 3) {
+            for (int chunkZ = -80; chunkZ < 80; chunkZ += 5) {
+                List<BlockPos> relative = new ArrayList<>();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    BlockPos pos = new BlockPos(random.nextInt(16), random.nextInt(256), random.nextInt(16));
+                    relative.add(pos);
+                    all.add(new int[]{chunkX << 4 | pos.getX(), pos.getY(), chunkZ << 4 | pos.getZ()});
+                }
+                index.setSpecialBlocks(chunkX, chunkZ, Collections.singletonMap("diamond_ore", relative));
+            }
+        }
+        for (int[] center : new int[][]{{0, 12, 0}, {-700, 100, 300}, {1200, 0, -1200}, {5000, 64, 5000}}) {
+            int centerRegionX = center[0] >> 9;
+            int centerRegionZ = center[2] >> 9;
+            all.sort(Comparator.comparingLong(pos -> distanceSq(pos, center)));
+            List<Long> expected = new ArrayList<>();
+            for (int[] pos : all) {
+                int dx = (pos[0] >> 9) - centerRegionX;
+                int dz = (pos[2] >> 9) - centerRegionZ;
+                if (dx * dx + dz * dz <= 2 && expected.size() < 25) {
+                    expected.add(distanceSq(pos, center));
+                }
+            }
+            List<Long> actual = new ArrayList<>();
+            for (BlockPos pos : index.getNearest("diamond_ore", 25, center[0], center[1], center[2], 2)) {
+                actual.add(distanceSq(new int[]{pos.getX(), pos.getY(), pos.getZ()}, center));
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static long distanceSq(int[] pos, int[] center) {
+        long dx = pos[0] - center[0];
+        long dy = pos[1] - center[1];
+        long dz = pos[2] - center[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
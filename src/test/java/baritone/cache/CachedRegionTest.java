@@ -17,9 +17,22 @@
 
 package baritone.cache;
 
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
-import static junit.framework.TestCase.assertEquals;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
 
 public class CachedRegionTest {
 
@@ -44,4 +57,149 @@ public class CachedRegionTest {
             }
         }
     }
+
+    @BeforeClass
+    public static void bootstrap() {
+        Bootstrap.register(); // Blocks is empty until this has been called
+    }
+
+    @Test
+    public void specialBlocksRoundTrip() throws IOException {
+        int[] special = {
+                CachedChunk.packSpecial(3, 200, 15, Blocks.CHEST),
+                CachedChunk.packSpecial(0, 0, 0, Blocks.DIAMOND_BLOCK),
+                CachedChunk.packSpecial(15, 255, 15, Blocks.CHEST),
+                CachedChunk.packSpecial(7, 12, 9, Blocks.MOB_SPAWNER),
+                CachedChunk.packSpecial(8, 12, 9, Blocks.DIAMOND_BLOCK)
+        };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CachedChunk.writeSpecial(special, new DataOutputStream(bytes));
+        int[] read = CachedChunk.readSpecial(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        int[] expected = special.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, read);
+        assertEquals(3, CachedChunk.specialX(read[3]));
+        assertEquals(200, CachedChunk.specialY(read[3]));
+        assertEquals(15, CachedChunk.specialZ(read[3]));
+    }
+
+    @Test
+    public void mappedRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("baritone-cache");
+        Random random = new Random(5021);
+        CachedRegion region = new CachedRegion(-1, 2, 0);
+        CachedChunk first = randomChunk(random, -32, 64, 1000L);
+        CachedChunk second = randomChunk(random, -1, 95, 2000L);
+        region.updateCachedChunk(0, 0, first);
+        region.updateCachedChunk(31, 31, second);
+        region.save(dir.toString());
+
+        Path file = dir.resolve("r.-1.2.1.bcr");
+        assertEquals(456022911, magicOf(file));
+
+        CachedRegion loaded = new CachedRegion(-1, 2, 0);
+        loaded.load(dir.toString());
+        assertSameChunk(first, loaded.getChunk(0, 0));
+        assertSameChunk(second, loaded.getChunk(31, 31));
+        assertTrue(loaded.getChunk(0, 0).isMapped());
+        assertNull(loaded.getChunk(5, 7));
+        assertFalse(loaded.isCached(5 * 16, 7 * 16));
+
+        // saving a loaded region again has to carry the chunks that were never decoded over unchanged
+        CachedChunk mapped = loaded.getChunk(0, 0);
+        loaded.updateCachedChunk(5, 7, randomChunk(random, -27, 71, 3000L));
+        loaded.save(dir.toString());
+        assertEquals(456022911, magicOf(dir.resolve("r.-1.2.2.bcr")));
+        // into a new file, the one that's mapped is left alone
+        assertSameChunk(first, mapped);
+        assertTrue(loaded.getChunk(5, 7).isMapped());
+        assertSameChunk(second, loaded.getChunk(31, 31));
+        CachedRegion reloaded = new CachedRegion(-1, 2, 0);
+        reloaded.load(dir.toString());
+        assertSameChunk(first, reloaded.getChunk(0, 0));
+        assertSameChunk(second, reloaded.getChunk(31, 31));
+        assertNotNull(reloaded.getChunk(5, 7));
+        assertEquals(3000L, reloaded.getChunk(5, 7).cacheTimestamp);
+    }
+
+    @Test
+    public void gzippedIsConverted() throws IOException {
+        Path dir = Files.createTempDirectory("baritone-cache");
+        Random random = new Random(8);
+        CachedChunk chunk = randomChunk(random, 3, 4, 4000L);
+        Path file = dir.resolve("r.0.0.bcr");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            // the format from before the region files were mapped
+            out.writeInt(456022910);
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (x == 3 && z == 4) {
+                        out.write(1);
+                        out.write(chunk.toByteArray());
+                    } else {
+                        out.write(0);
+                    }
+                }
+            }
+            // the overview and special blocks are laid out the same way in both formats
+            chunk.writeSerialized(out);
+            out.writeLong(chunk.cacheTimestamp);
+        }
+
+        CachedRegion region = new CachedRegion(0, 0, 0);
+        region.load(dir.toString());
+        assertSameChunk(chunk, region.getChunk(3, 4));
+        assertNotEquals(456022911, magicOf(file)); // loading only reads
+
+        region.save(dir.toString());
+        assertEquals(456022911, magicOf(dir.resolve("r.0.0.1.bcr")));
+        assertFalse(Files.exists(file));
+
+        CachedRegion converted = new CachedRegion(0, 0, 0);
+        converted.load(dir.toString());
+        assertSameChunk(chunk, converted.getChunk(3, 4));
+        assertNull(converted.getChunk(4, 3));
+    }
+
+    private static CachedChunk randomChunk(Random random, int chunkX, int chunkZ, long cacheTimestamp) {
+        BitSet data = new BitSet(CachedChunk.SIZE);
+        for (int i = 0; i < CachedChunk.SIZE; i++) {
+            data.set(i, random.nextBoolean());
+        }
+        IBlockState[] overview = new IBlockState[256];
+        for (int i = 0; i < 256; i++) {
+            overview[i] = (random.nextBoolean() ? Blocks.STONE : Blocks.GRASS).getDefaultState();
+        }
+        Block[] specialBlocks = {Blocks.CHEST, Blocks.DIAMOND_BLOCK, Blocks.MOB_SPAWNER};
+        int[] special = new int[random.nextInt(40)];
+        for (int i = 0; i < special.length; i++) {
+            // distinct positions, the same as a real chunk
+            special[i] = CachedChunk.packSpecial(i & 15, 10 + i, i >> 4, specialBlocks[random.nextInt(specialBlocks.length)]);
+        }
+        Arrays.sort(special);
+        return new CachedChunk(chunkX, chunkZ, data, overview, special, cacheTimestamp);
+    }
+
+    private static void assertSameChunk(CachedChunk expected, CachedChunk actual) {
+        assertNotNull(actual);
+        assertEquals(expected.x, actual.x);
+        assertEquals(expected.z, actual.z);
+        assertEquals(expected.cacheTimestamp, actual.cacheTimestamp);
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertEquals(expected.getRelativeBlocks(), actual.getRelativeBlocks());
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = 0; y < 256; y += 17) {
+                    assertEquals(expected.getBlock(x, y, z, 0), actual.getBlock(x, y, z, 0));
+                }
+            }
+        }
+    }
+
+    private static int magicOf(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt();
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.calc;
+
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.MutableMoveResult;
+import net.minecraft.world.World;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MovementCostCacheTest {
+
+    private static final World WORLD = new World();
+
+    private static MovementCostCache loaded(int radius) {
+        MovementCostCache cache = new MovementCostCache();
+        for (int x = -radius; x <= radius; x++) {
+            for (int z = -radius; z <= radius; z++) {
+                cache.chunkLoaded(WORLD, x, z);
+            }
+        }
+        return cache;
+    }
+
+    private static void put(MovementCostCache cache, int x, int y, int z, Moves moves, double cost) {
+        MutableMoveResult res = new MutableMoveResult();
+        res.x = x + 1;
+        res.y = y;
+        res.z = z;
+        res.cost = cost;
+        long stamp = cache.now();
+        assertTrue(stamp >= cache.validSince(x, z));
+        cache.put(x, y, z, moves, stamp, res);
+    }
+
+    private static double get(MovementCostCache cache, int x, int y, int z, Moves moves) {
+        MutableMoveResult res = new MutableMoveResult();
+        if (!cache.get(x, y, z, moves, cache.validSince(x, z), res)) {
+            return -1;
+        }
+        assertEquals(x + 1, res.x);
+        return res.cost;
+    }
+
+    @Test
+    public void testLookup() {
+        MovementCostCache cache = loaded(2);
+        assertTrue(cache.acquire("a", 1024));
+        put(cache, 5, 64, 5, Moves.TRAVERSE_NORTH, 4.5);
+        assertEquals(4.5, get(cache, 5, 64, 5, Moves.TRAVERSE_NORTH), 0);
+        assertEquals(-1, get(cache, 5, 64, 5, Moves.TRAVERSE_SOUTH), 0);
+        assertEquals(-1, get(cache, 5, 65, 5, Moves.TRAVERSE_NORTH), 0);
+        cache.release();
+
+        assertTrue(cache.acquire("a", 1024));
+        assertEquals(4.5, get(cache, 5, 64, 5, Moves.TRAVERSE_NORTH), 0);
+        cache.release();
+
+        // something else about the search changed
+        assertTrue(cache.acquire("b", 1024));
+        assertEquals(-1, get(cache, 5, 64, 5, Moves.TRAVERSE_NORTH), 0);
+        cache.release();
+        assertFalse(cache.acquire(null, 1024));
+    }
+
+    @Test
+    public void testInvalidation() {
+        MovementCostCache cache = loaded(4);
+        assertTrue(cache.acquire("a", 1024));
+        put(cache, 5, 64, 5, Moves.PILLAR, 1); // chunk 0, 0
+        put(cache, 56, 64, 5, Moves.PILLAR, 2); // chunk 3, 0
+        // the chunk next door can change what a movement in this chunk costs
+        cache.blockChanged(WORLD, 16, 5);
+        assertEquals(-1, get(cache, 5, 64, 5, Moves.PILLAR), 0);
+        assertEquals(2, get(cache, 56, 64, 5, Moves.PILLAR), 0);
+
+        put(cache, 5, 64, 5, Moves.PILLAR, 3);
+        assertEquals(3, get(cache, 5, 64, 5, Moves.PILLAR), 0);
+
+        // next to an unloaded chunk, nothing is kept
+        cache.chunkUnloaded(WORLD, -1, 0);
+        assertEquals(-1, get(cache, 5, 64, 5, Moves.PILLAR), 0);
+        assertEquals(Long.MAX_VALUE, cache.validSince(5, 5));
+        assertEquals(2, get(cache, 56, 64, 5, Moves.PILLAR), 0);
+        cache.chunkLoaded(WORLD, -1, 0);
+        assertEquals(-1, get(cache, 5, 64, 5, Moves.PILLAR), 0); // still calculated from before it unloaded
+
+        // a different world starts from nothing
+        cache.chunkLoaded(new World(), 0, 0);
+        assertEquals(Long.MAX_VALUE, cache.validSince(5, 5));
+        cache.release();
+    }
+
+    @Test
+    public void testOneSearchAtATime() throws InterruptedException {
+        MovementCostCache cache = loaded(1);
+        assertTrue(cache.acquire("a", 1024));
+        boolean[] other = new boolean[1];
+        Thread thread = new Thread(() -> other[0] = cache.acquire("a", 1024));
+        thread.start();
+        thread.join();
+        assertFalse(other[0]);
+        cache.release();
+    }
+}
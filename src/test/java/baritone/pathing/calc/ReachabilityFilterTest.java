@@ -0,0 +1,87 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.calc;
+
+import baritone.utils.pathing.PathingBlockType;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReachabilityFilterTest {
+
+    /**
+     * A small flat world: bedrock at 0, stone up to 10, air above, a bedrock roof at 20 and bedrock walls 20 blocks out
+     */
+    private static PathingBlockType flat(int x, int y, int z) {
+        if (Math.abs(x) >= 20 || Math.abs(z) >= 20 || y == 0 || y >= 20) {
+            return PathingBlockType.AVOID;
+        }
+        return y <= 10 ? PathingBlockType.SOLID : PathingBlockType.AIR;
+    }
+
+    /**
+     * The same, with a bedrock box around 0, 5, 0
+     */
+    private static PathingBlockType sealed(int x, int y, int z) {
+        if (Math.abs(x) <= 3 && Math.abs(y - 5) <= 3 && Math.abs(z) <= 3 && (Math.abs(x) == 3 || Math.abs(y - 5) == 3 || Math.abs(z) == 3)) {
+            return PathingBlockType.AVOID;
+        }
+        return flat(x, y, z);
+    }
+
+    @Test
+    public void testSealedOff() {
+        ReachabilityFilter filter = new ReachabilityFilter(ReachabilityFilterTest::sealed, 15, 11, 15, 100000, 64);
+        assertFalse(filter.mightReach(0, 5, 0));
+        assertTrue(filter.mightReach(10, 5, 10));
+        assertEquals(2, filter.getChecked());
+        assertEquals(1, filter.getRejected());
+    }
+
+    @Test
+    public void testBreakBudget() {
+        // the player is standing right above, 5 blocks of stone away
+        assertTrue(new ReachabilityFilter(ReachabilityFilterTest::flat, 0, 11, 0, 100000, 64).mightReach(0, 5, 0));
+        // 7 blocks of stone is more than 2 breaks
+        assertFalse(new ReachabilityFilter(ReachabilityFilterTest::flat, 0, 11, 0, 100000, 2).mightReach(0, 2, 0));
+    }
+
+    @Test
+    public void testGivesUp() {
+        // too many blocks to look at, or blocks that aren't known, never rule anything out
+        assertTrue(new ReachabilityFilter(ReachabilityFilterTest::sealed, 15, 11, 15, 100, 64).mightReach(0, 5, 0));
+        assertTrue(new ReachabilityFilter((x, y, z) -> x > 18 ? null : sealed(x, y, z), 15, 11, 15, 100000, 64).mightReach(0, 5, 0));
+    }
+
+    @Test
+    public void testFloodsOnce() {
+        int[] lookups = new int[1];
+        ReachabilityFilter filter = new ReachabilityFilter((x, y, z) -> {
+            lookups[0]++;
+            return sealed(x, y, z);
+        }, 15, 11, 15, 100000, 64);
+        assertFalse(filter.mightReach(0, 5, 0));
+        int afterFirst = lookups[0];
+        for (int x = -15; x <= 15; x += 5) {
+            filter.mightReach(x, 5, 15);
+        }
+        assertFalse(filter.mightReach(1, 5, 1));
+        assertEquals(afterFirst, lookups[0]);
+    }
+}
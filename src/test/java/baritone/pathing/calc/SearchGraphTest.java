@@ -0,0 +1,328 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.utils.pathing.Avoidance;
+import baritone.utils.pathing.AvoidanceField;
+import baritone.utils.pathing.Favoring;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SearchGraphTest {
+
+    private static final int SIZE = 48;
+
+    // can't use an existing goal, see OpenSetsTest
+    private static Goal goal(int goalX, int goalZ) {
+        return new Goal() {
+            @Override
+            public boolean isInGoal(int x, int y, int z) {
+                return x == goalX && z == goalZ;
+            }
+
+            @Override
+            public double heuristic(int x, int y, int z) {
+                return Math.abs(x - goalX) + Math.abs(z - goalZ);
+            }
+        };
+    }
+
+    /**
+     * A flat grid where every step to one of the four neighbours costs 1, and walls can't be walked into
+     */
+    private static SearchGraph.Expander grid(boolean[][] walls, int[] expansions) {
+        return (x, y, z, edges) -> {
+            expansions[0]++;
+            int[][] offsets = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+            for (int[] offset : offsets) {
+                int newX = x + offset[0];
+                int newZ = z + offset[1];
+                if (newX >= 0 && newZ >= 0 && newX < SIZE && newZ < SIZE && !walls[newX][newZ]) {
+                    edges.edge(newX, y, newZ, 1);
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * The same loop as {@link IncrementalAStarPathFinder}, without the timeouts
+     */
+    private static GraphNode search(SearchGraph graph, SearchGraph.Expander expander) {
+        while (!graph.openSet.isEmpty()) {
+            GraphNode node = (GraphNode) graph.openSet.removeLowest();
+            if (node.cost >= ActionCosts.COST_INF) {
+                continue;
+            }
+            if (graph.goal.isInGoal(node.x, node.y, node.z)) {
+                graph.goalNode = node;
+                return node;
+            }
+            if (!node.expanded) {
+                graph.expand(node, expander);
+            }
+            for (int i = 0; i < node.successorCount; i++) {
+                GraphNode neighbor = node.successors[i];
+                double tentativeCost = node.cost + graph.edgeCost(node, i);
+                if (neighbor.cost > tentativeCost) {
+                    neighbor.previous = node;
+                    neighbor.cost = tentativeCost;
+                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                    if (neighbor.isOpen()) {
+                        graph.openSet.update(neighbor);
+                    } else {
+                        graph.openSet.insert(neighbor);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int bfs(boolean[][] walls, int startX, int startZ, int goalX, int goalZ) {
+        int[][] dist = new int[SIZE][SIZE];
+        for (int[] row : dist) {
+            Arrays.fill(row, -1);
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        dist[startX][startZ] = 0;
+        queue.add(new int[]{startX, startZ});
+        while (!queue.isEmpty()) {
+            int[] pos = queue.poll();
+            int[][] offsets = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+            for (int[] offset : offsets) {
+                int x = pos[0] + offset[0];
+                int z = pos[1] + offset[1];
+                if (x >= 0 && z >= 0 && x < SIZE && z < SIZE && !walls[x][z] && dist[x][z] == -1) {
+                    dist[x][z] = dist[pos[0]][pos[1]] + 1;
+                    queue.add(new int[]{x, z});
+                }
+            }
+        }
+        return dist[goalX][goalZ];
+    }
+
+    private static void checkPath(GraphNode goalNode, boolean[][] walls) {
+        for (PathNode node = goalNode; node.previous != null; node = node.previous) {
+            assertFalse(walls[node.x][node.z]);
+            assertEquals(1, Math.abs(node.x - node.previous.x) + Math.abs(node.z - node.previous.z));
+            assertEquals(node.previous.cost + 1, node.cost, 0);
+        }
+    }
+
+    /**
+     * The same as {@link #checkPath}, with the favoring applied to every step
+     */
+    private static void checkFavoredPath(GraphNode goalNode, boolean[][] walls, Favoring favoring) {
+        for (PathNode node = goalNode; node.previous != null; node = node.previous) {
+            assertFalse(walls[node.x][node.z]);
+            assertEquals(1, Math.abs(node.x - node.previous.x) + Math.abs(node.z - node.previous.z));
+            assertEquals(node.previous.cost + favoring.calculate(node.x, node.y, node.z, BetterBlockPos.longHash(node.x, node.y, node.z)), node.cost, 1e-9);
+        }
+    }
+
+    /**
+     * A random walk from the start, standing in for the path of the last segment
+     */
+    private static List<BetterBlockPos> previousPath(Random random) {
+        List<BetterBlockPos> positions = new ArrayList<>();
+        int x = 0;
+        int z = 0;
+        for (int i = 0; i < SIZE * 2; i++) {
+            positions.add(new BetterBlockPos(x, 0, z));
+            if (random.nextBoolean()) {
+                x = Math.min(SIZE - 1, x + 1);
+            } else {
+                z = Math.min(SIZE - 1, z + 1);
+            }
+        }
+        return positions;
+    }
+
+    @Test
+    public void testRepairMatchesFreshSearch() {
+        Random random = new Random(5021);
+        for (int trial = 0; trial < 20; trial++) {
+            boolean[][] walls = new boolean[SIZE][SIZE];
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    walls[x][z] = random.nextInt(4) == 0;
+                }
+            }
+            walls[0][0] = false;
+            walls[SIZE - 1][SIZE - 1] = false;
+            int[] expansions = new int[1];
+            SearchGraph.Expander expander = grid(walls, expansions);
+            SearchGraph graph = new SearchGraph(goal(SIZE - 1, SIZE - 1), null, null, 16, 0.75f);
+            graph.reset(0, 0, 0);
+            GraphNode goalNode = search(graph, expander);
+            int expected = bfs(walls, 0, 0, SIZE - 1, SIZE - 1);
+            assertEquals(expected, goalNode == null ? -1 : (int) goalNode.cost);
+            for (int change = 0; change < 30; change++) {
+                int x = random.nextInt(SIZE);
+                int z = random.nextInt(SIZE);
+                if ((x == 0 && z == 0) || (x == SIZE - 1 && z == SIZE - 1)) {
+                    continue;
+                }
+                walls[x][z] = !walls[x][z];
+                graph.blockChanged(x, 0, z);
+                assertTrue(graph.canResumeAt(0, 0, 0));
+                graph.repair(expander, 1, 0, 0);
+                goalNode = search(graph, expander);
+                expected = bfs(walls, 0, 0, SIZE - 1, SIZE - 1);
+                assertEquals(expected, goalNode == null ? -1 : (int) goalNode.cost);
+                if (goalNode != null) {
+                    checkPath(goalNode, walls);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRepairIsLocal() {
+        boolean[][] walls = new boolean[SIZE][SIZE];
+        int[] expansions = new int[1];
+        SearchGraph.Expander expander = grid(walls, expansions);
+        SearchGraph graph = new SearchGraph(goal(SIZE - 1, 0), null, null, 16, 0.75f);
+        graph.reset(0, 0, 0);
+        GraphNode goalNode = search(graph, expander);
+        assertEquals(SIZE - 1, goalNode.cost, 0);
+        // block the straight line partway down, the way around is one step to the side
+        walls[SIZE / 2][0] = true;
+        graph.blockChanged(SIZE / 2, 0, 0);
+        expansions[0] = 0;
+        int repaired = graph.repair(expander, 1, 0, 0);
+        goalNode = search(graph, expander);
+        assertEquals(SIZE + 1, goalNode.cost, 0);
+        checkPath(goalNode, walls);
+        assertEquals(3, repaired); // the nodes next to the wall, and the wall itself
+        int[] freshExpansions = new int[1];
+        SearchGraph fresh = new SearchGraph(goal(SIZE - 1, 0), null, null, 16, 0.75f);
+        fresh.reset(0, 0, 0);
+        search(fresh, grid(walls, freshExpansions));
+        assertTrue(expansions[0] < freshExpansions[0]);
+        // and the other way around
+        walls[SIZE / 2][0] = false;
+        graph.blockChanged(SIZE / 2, 0, 0);
+        graph.repair(expander, 1, 0, 0);
+        goalNode = search(graph, expander);
+        assertEquals(SIZE - 1, goalNode.cost, 0);
+        assertTrue(SearchGraph.reaches(goalNode, graph.getNodeIfPresent(SIZE / 4, 0, 0)));
+    }
+
+    @Test
+    public void testRestartKeepsMovements() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 20; trial++) {
+            boolean[][] walls = new boolean[SIZE][SIZE];
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    walls[x][z] = random.nextInt(4) == 0;
+                }
+            }
+            walls[0][0] = false;
+            walls[SIZE - 1][SIZE - 1] = false;
+            int[] expansions = new int[1];
+            SearchGraph.Expander expander = grid(walls, expansions);
+            SearchGraph graph = new SearchGraph(goal(SIZE - 1, SIZE - 1), null, null, 16, 0.75f);
+            graph.reset(0, 0, 0);
+            search(graph, expander);
+            int x = 1 + random.nextInt(SIZE - 2);
+            int z = 1 + random.nextInt(SIZE - 2);
+            walls[x][z] = !walls[x][z];
+            graph.blockChanged(x, 0, z);
+            // e.g. the favoring changed, so the costs from before are no good, but the movements still are
+            expansions[0] = 0;
+            graph.restart(0, 0, 0, 1, 0, 0);
+            GraphNode goalNode = search(graph, expander);
+            assertEquals(bfs(walls, 0, 0, SIZE - 1, SIZE - 1), goalNode == null ? -1 : (int) goalNode.cost);
+            if (goalNode != null) {
+                checkPath(goalNode, walls);
+            }
+            int[] freshExpansions = new int[1];
+            SearchGraph fresh = new SearchGraph(goal(SIZE - 1, SIZE - 1), null, null, 16, 0.75f);
+            fresh.reset(0, 0, 0);
+            search(fresh, grid(walls, freshExpansions));
+            assertTrue(expansions[0] < freshExpansions[0]);
+        }
+    }
+
+    @Test
+    public void testFavoringChangeIsRepaired() {
+        Random random = new Random(2417);
+        for (int trial = 0; trial < 20; trial++) {
+            boolean[][] walls = new boolean[SIZE][SIZE];
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    walls[x][z] = random.nextInt(5) == 0;
+                }
+            }
+            walls[0][0] = false;
+            walls[SIZE - 1][SIZE - 1] = false;
+            // coefficients of at least 1, so the heuristic still never overestimates and both searches are optimal
+            AvoidanceField avoidance = AvoidanceField.EMPTY.update(Collections.singletonList(new Avoidance(SIZE / 2, 0, SIZE / 2, 3, 4)));
+            Favoring before = new Favoring(previousPath(random), null, avoidance, 2, 1);
+            int[] expansions = new int[1];
+            SearchGraph.Expander expander = grid(walls, expansions);
+            SearchGraph graph = new SearchGraph(goal(SIZE - 1, SIZE - 1), null, null, 16, 0.75f);
+            graph.setFavoring(before);
+            graph.reset(0, 0, 0);
+            search(graph, expander);
+            // the next segment: a different previous path, and the mob moved
+            AvoidanceField moved = avoidance.update(Collections.singletonList(new Avoidance(random.nextInt(SIZE), 0, random.nextInt(SIZE), 3, 4)));
+            Favoring after = new Favoring(previousPath(random), null, moved, 2, 1);
+            graph.setFavoring(after);
+            assertTrue(graph.canResumeAt(0, 0, 0));
+            graph.repair(expander, 1, 0, 0);
+            GraphNode goalNode = search(graph, expander);
+            SearchGraph fresh = new SearchGraph(goal(SIZE - 1, SIZE - 1), null, null, 16, 0.75f);
+            fresh.setFavoring(after);
+            fresh.reset(0, 0, 0);
+            GraphNode expected = search(fresh, grid(walls, new int[1]));
+            if (expected == null) {
+                assertNull(goalNode);
+                continue;
+            }
+            assertEquals(expected.cost, goalNode.cost, 1e-9);
+            checkFavoredPath(goalNode, walls, after);
+        }
+    }
+
+    @Test
+    public void testNewCorridorStartsOver() {
+        boolean[][] walls = new boolean[SIZE][SIZE];
+        SearchGraph graph = new SearchGraph(goal(SIZE - 1, 0), null, null, 16, 0.75f);
+        graph.setFavoring(new Favoring(null, null, AvoidanceField.EMPTY, 2, 1));
+        graph.reset(0, 0, 0);
+        search(graph, grid(walls, new int[1]));
+        graph.setFavoring(new Favoring(null, new LongOpenHashSet(), AvoidanceField.EMPTY, 2, 5));
+        assertFalse(graph.canResumeAt(0, 0, 0));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.pathing.calc.NodePool;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PooledBinaryHeapOpenSetTest {
+
+    // can't use an existing goal, see OpenSetsTest
+    private static final Goal NOWHERE = new Goal() {
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return false;
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            return 0;
+        }
+    };
+
+    @Test
+    public void testPoolLookup() {
+        // start tiny so that both the node arrays and the hash table have to grow a few times
+        NodePool pool = new NodePool(NOWHERE, 4, 0.75f);
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, pool.getOrCreate(i, 0, 0, i * 31L));
+        }
+        for (int i = 0; i < 10000; i++) {
+            int node = pool.get(i * 31L);
+            assertEquals(i, node);
+            assertEquals(i, pool.x(node));
+            assertFalse(pool.isOpen(node));
+            assertEquals(NodePool.NONE, pool.previous(node));
+            assertEquals(i, pool.getOrCreate(i, 0, 0, i * 31L));
+        }
+        assertEquals(10000, pool.size());
+        assertEquals(NodePool.NONE, pool.get(-1));
+    }
+
+    @Test
+    public void testMatchesReference() {
+        for (int size : new int[]{1, 2, 3, 10, 100, 1000, 10000}) {
+            NodePool pool = new NodePool(NOWHERE, 16, 0.75f);
+            PooledBinaryHeapOpenSet pooled = new PooledBinaryHeapOpenSet(pool);
+            double[] costs = new double[size];
+            for (int i = 0; i < size; i++) {
+                int node = pool.getOrCreate(i, 0, 0, i);
+                costs[i] = Math.random();
+                pool.setCombinedCost(node, costs[i]);
+                pooled.insert(node);
+            }
+            assertEquals(size, pooled.size());
+            // decrease the key of every other node, like a cost improvement in the search
+            for (int i = 0; i < size; i += 2) {
+                costs[i] *= Math.random();
+                pool.setCombinedCost(i, costs[i]);
+                pooled.update(i);
+            }
+            Arrays.sort(costs);
+            for (int i = 0; i < size; i++) {
+                assertFalse(pooled.isEmpty());
+                int node = pooled.removeLowest();
+                assertFalse(pool.isOpen(node));
+                assertEquals(costs[i], pool.combinedCost(node), 0);
+            }
+            assertTrue(pooled.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.pathing.goals;
+
+import baritone.api.pathing.goals.*;
+import baritone.process.BuilderProcess;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class GoalCompositeTest {
+
+    /**
+     * Past a handful of goals, a composite answers from an index instead of asking every goal. It has to give exactly
+     * the same answers as asking every goal would.
+     */
+    @Test
+    public void indexMatchesLinearLoop() {
+        Random random = new Random(2048);
+        for (int trial = 0; trial < 200; trial++) {
+            int count = 16 + random.nextInt(trial < 100 ? 40 : 1000);
+            int spread = 1 + random.nextInt(trial % 2 == 0 ? 8 : 200); // packed together like a build, or spread out
+            Goal[] goals = new Goal[count];
+            BlockPos[] positions = new BlockPos[count];
+            for (int i = 0; i < count; i++) {
+                positions[i] = new BlockPos(random.nextInt(2 * spread) - spread, 5 + random.nextInt(20), random.nextInt(2 * spread) - spread);
+                goals[i] = randomGoal(random, positions[i]);
+            }
+            GoalComposite composite = new GoalComposite(goals);
+            for (int query = 0; query < 500; query++) {
+                int x, y, z;
+                if (random.nextBoolean()) {
+                    // right around a goal, so that plenty of these are actually in one
+                    BlockPos near = positions[random.nextInt(count)];
+                    x = near.getX() + random.nextInt(7) - 3;
+                    y = near.getY() + random.nextInt(7) - 3;
+                    z = near.getZ() + random.nextInt(7) - 3;
+                } else {
+                    x = random.nextInt(4 * spread + 64) - 2 * spread - 32;
+                    y = random.nextInt(256);
+                    z = random.nextInt(4 * spread + 64) - 2 * spread - 32;
+                }
+                String where = "trial " + trial + " at " + x + "," + y + "," + z;
+                assertEquals(where, linearIsInGoal(goals, x, y, z), composite.isInGoal(x, y, z));
+                assertEquals(where, linearHeuristic(goals, x, y, z), composite.heuristic(x, y, z), 0);
+            }
+        }
+    }
+
+    private static Goal randomGoal(Random random, BlockPos pos) {
+        switch (random.nextInt(10)) {
+            case 0:
+                return new GoalBlock(pos);
+            case 1:
+                return new GoalTwoBlocks(pos);
+            case 2:
+                return new GoalGetToBlock(pos);
+            case 3:
+                return new GoalNear(pos, random.nextInt(5));
+            case 4:
+                return new GoalXZ(pos.getX(), pos.getZ());
+            case 5:
+            case 6:
+                return new BuilderProcess.GoalPlace(pos);
+            case 7:
+                EnumFacing against = EnumFacing.values()[1 + random.nextInt(5)]; // anything but up
+                return new BuilderProcess.GoalAdjacent(pos, pos.offset(against), random.nextBoolean());
+            case 8:
+                return new BuilderProcess.GoalBreak(pos);
+            default:
+                // can't be indexed, so it's checked alongside the rest
+                return new GoalYLevel(pos.getY());
+        }
+    }
+
+    private static boolean linearIsInGoal(Goal[] goals, int x, int y, int z) {
+        for (Goal goal : goals) {
+            if (goal.isInGoal(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double linearHeuristic(Goal[] goals, int x, int y, int z) {
+        double min = Double.MAX_VALUE;
+        for (Goal goal : goals) {
+            min = Math.min(min, goal.heuristic(x, y, z));
+        }
+        return min;
+    }
+}
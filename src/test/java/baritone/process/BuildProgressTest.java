@@ -0,0 +1,98 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.process;
+
+import baritone.api.utils.BetterBlockPos;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class BuildProgressTest {
+
+    @Test
+    public void scanStopsAndResumes() {
+        Set<Long> wrong = new HashSet<>();
+        for (int x = 0; x < 10; x++) {
+            wrong.add(BetterBlockPos.longHash(100 + x, 64 + x, -50));
+        }
+        int[] checks = {0};
+        BuildProgress.Check check = (x, y, z) -> {
+            checks[0]++;
+            return wrong.contains(BetterBlockPos.longHash(x, y, z)) ? BuildProgress.Status.INCORRECT : BuildProgress.Status.CORRECT;
+        };
+        BuildProgress progress = new BuildProgress(100, 64, -50, 10, 10, 10);
+        progress.scan(check, 2);
+        assertEquals(3, progress.incorrectCount());
+        assertFalse(progress.isScanned());
+        int afterFirst = checks[0];
+        progress.scan(check, Integer.MAX_VALUE);
+        assertTrue(progress.isScanned());
+        assertEquals(10, progress.incorrectCount());
+        assertEquals(1000, checks[0]); // nothing checked twice
+        assertTrue(afterFirst < 1000);
+
+        List<BetterBlockPos> first = new ArrayList<>();
+        progress.collect(first, 3);
+        assertEquals(3, first.size());
+        assertEquals(new BetterBlockPos(100, 64, -50), first.get(0)); // lowest y first
+        assertEquals(new BetterBlockPos(102, 66, -50), first.get(2));
+
+        // nothing changes until it's told
+        wrong.clear();
+        progress.update(check);
+        assertEquals(10, progress.incorrectCount());
+        progress.markDirty(100, 64, -50);
+        progress.markDirty(0, 0, 0); // not in the schematic
+        progress.update(check);
+        assertEquals(9, progress.incorrectCount());
+        assertEquals(1001, checks[0]);
+    }
+
+    @Test
+    public void chunksAndUnknownPositions() {
+        BuildProgress.Status[] status = {BuildProgress.Status.UNKNOWN};
+        BuildProgress progress = new BuildProgress(-8, 0, 0, 32, 2, 4);
+        progress.scan((x, y, z) -> status[0], Integer.MAX_VALUE);
+        // never seen, so incorrect
+        assertEquals(32 * 2 * 4, progress.incorrectCount());
+
+        status[0] = BuildProgress.Status.CORRECT;
+        progress.markChunkDirty(-1, 0);
+        progress.markChunkDirty(5, 5); // nowhere near
+        progress.update((x, y, z) -> {
+            assertTrue(x >= -8 && x < 0);
+            return status[0];
+        });
+        assertEquals(24 * 2 * 4, progress.incorrectCount());
+
+        // seen correct before, and can't be seen right now, so it stays correct
+        progress.markDirty(-1, 1, 3);
+        progress.update((x, y, z) -> BuildProgress.Status.UNKNOWN);
+        assertEquals(24 * 2 * 4, progress.incorrectCount());
+
+        Set<BetterBlockPos> near = new HashSet<>();
+        progress.collectNear(near, new BetterBlockPos(0, 0, 0), 1);
+        assertEquals(2 * 2 * 2, near.size()); // x 0..1, y 0..1, z 0..1
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.process;
+
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MiningTourTest {
+
+    @Test
+    public void avoidsDoublingBack() {
+        // closest first would go to x=2 then all the way back past the player to x=-3 and then out to x=10
+        BlockPos start = new BlockPos(0, 12, 0);
+        List<BlockPos> ores = Arrays.asList(new BlockPos(2, 12, 0), new BlockPos(-3, 12, 0), new BlockPos(6, 12, 0), new BlockPos(10, 12, 0));
+        MiningTour tour = new MiningTour();
+        assertEquals(new BlockPos(-3, 12, 0), tour.update(start, ores, Collections.emptyMap(), Collections.emptySet(), 0, Long.MAX_VALUE / 2));
+        assertEquals(Arrays.asList(new BlockPos(-3, 12, 0), new BlockPos(2, 12, 0), new BlockPos(6, 12, 0), new BlockPos(10, 12, 0)), tour.getOrder());
+    }
+
+    @Test
+    public void repairKeepsOrder() {
+        BlockPos start = new BlockPos(0, 12, 0);
+        List<BlockPos> ores = new ArrayList<>(Arrays.asList(new BlockPos(5, 12, 0), new BlockPos(10, 12, 0), new BlockPos(20, 12, 0)));
+        MiningTour tour = new MiningTour();
+        tour.update(start, ores, Collections.emptyMap(), Collections.emptySet(), 0, Long.MAX_VALUE / 2);
+        // mined the first one, found one in between the other two
+        ores.remove(0);
+        ores.add(new BlockPos(15, 12, 1));
+        assertEquals(new BlockPos(10, 12, 0), tour.update(new BlockPos(5, 12, 0), ores, Collections.emptyMap(), Collections.emptySet(), 0, Long.MAX_VALUE / 2));
+        assertEquals(Arrays.asList(new BlockPos(10, 12, 0), new BlockPos(15, 12, 1), new BlockPos(20, 12, 0)), tour.getOrder());
+        // nothing new, nothing changes, even though the player moved
+        ores.remove(0);
+        assertEquals(new BlockPos(15, 12, 1), tour.update(new BlockPos(-100, 12, 0), ores, Collections.emptyMap(), Collections.emptySet(), 0, Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void realCostsWin() {
+        BlockPos start = new BlockPos(0, 12, 0);
+        BlockPos near = new BlockPos(3, 12, 0);
+        BlockPos far = new BlockPos(-8, 12, 0);
+        Map<BlockPos, Double> real = new HashMap<>();
+        real.put(near, 500D); // behind a wall of lava, say
+        real.put(far, 40D);
+        MiningTour tour = new MiningTour();
+        assertEquals(far, tour.update(start, Arrays.asList(near, far), real, Collections.emptySet(), 0, Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void unreachedGoLast() {
+        BlockPos start = new BlockPos(0, 12, 0);
+        BlockPos unreached = new BlockPos(2, 12, 0); // the search gave up before getting there, so it's at least 100
+        BlockPos reached = new BlockPos(-6, 12, 0);
+        Map<BlockPos, Double> real = new HashMap<>();
+        real.put(reached, 20D);
+        MiningTour tour = new MiningTour();
+        assertEquals(reached, tour.update(start, Arrays.asList(unreached, reached), real, Collections.singleton(unreached), 100, Long.MAX_VALUE / 2));
+        assertEquals(Arrays.asList(reached, unreached), tour.getOrder());
+    }
+
+    @Test
+    public void unreachableDropped() {
+        BlockPos start = new BlockPos(0, 12, 0);
+        BlockPos unreachable = new BlockPos(2, 12, 0); // the search went everywhere it could and never got there
+        BlockPos reached = new BlockPos(-6, 12, 0);
+        Map<BlockPos, Double> real = new HashMap<>();
+        real.put(reached, 20D);
+        MiningTour tour = new MiningTour();
+        assertEquals(reached, tour.update(start, Arrays.asList(unreachable, reached), real, Collections.singleton(unreachable), Double.POSITIVE_INFINITY, Long.MAX_VALUE / 2));
+        assertEquals(Collections.singletonList(reached), tour.getOrder());
+        assertNull(tour.update(start, Collections.singletonList(unreachable), real, Collections.singleton(unreachable), Double.POSITIVE_INFINITY, Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void twoOptNeverWorse() {
+        Random random = new Random(5021);
+        for (int trial = 0; trial < 50; trial++) {
+            List<BlockPos> nodes = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                nodes.add(new BlockPos(random.nextInt(64), 5 + random.nextInt(10), random.nextInt(64)));
+            }
+            double[][] cost = MiningTour.costs(nodes, Collections.emptyMap(), Collections.emptySet(), 0);
+            int[] path = new int[nodes.size()];
+            path[0] = 0;
+            MiningTour.insertNearest(cost, path, 1);
+            double inserted = length(cost, path);
+            MiningTour.twoOpt(cost, path, System.nanoTime() + 1000000000L);
+            assertTrue(length(cost, path) <= inserted + 1e-9);
+            assertEquals(0, path[0]);
+            assertEquals(nodes.size(), Arrays.stream(path).distinct().count());
+        }
+    }
+
+    private static double length(double[][] cost, int[] path) {
+        double total = 0;
+        for (int i = 1; i < path.length; i++) {
+            total += cost[path[i - 1]][path[i]];
+        }
+        return total;
+    }
+}
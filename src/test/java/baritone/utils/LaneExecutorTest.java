@@ -0,0 +1,120 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package baritone.utils;
+
+import baritone.utils.LaneExecutor.Lane;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LaneExecutorTest {
+
+    /**
+     * Occupies every thread of the lane until the returned latch is counted down
+     */
+    private static CountDownLatch block(LaneExecutor executor, int threads) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {}
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    public void testScanningDropsOldest() throws InterruptedException {
+        LaneExecutor executor = new LaneExecutor(Lane.SCANNING);
+        CountDownLatch release = block(executor, executor.getMaximumPoolSize());
+        AtomicInteger ran = new AtomicInteger();
+        int queued = executor.getQueue().remainingCapacity();
+        for (int i = 0; i < queued + 3; i++) {
+            executor.execute(ran::incrementAndGet);
+        }
+        assertEquals(queued, executor.getQueueDepth());
+        assertEquals(queued, executor.getMaxQueueDepth());
+        assertEquals(3, executor.getRejectedCount());
+        assertFalse(executor.tryExecute(ran::incrementAndGet));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(queued, ran.get());
+        assertEquals(executor.getMaximumPoolSize() + queued, executor.getFinishedCount());
+        assertTrue(executor.getMaxWaitMillis() >= executor.getAverageWaitMillis());
+    }
+
+    @Test
+    public void testPathingRejects() throws InterruptedException {
+        LaneExecutor executor = new LaneExecutor(Lane.PATHING);
+        CountDownLatch release = block(executor, executor.getMaximumPoolSize());
+        int queued = executor.getQueue().remainingCapacity();
+        for (int i = 0; i < queued; i++) {
+            executor.execute(() -> {});
+        }
+        try {
+            executor.execute(() -> {});
+            fail();
+        } catch (RejectedExecutionException expected) {}
+        assertEquals(queued, executor.clearQueue());
+        assertEquals(0, executor.getQueueDepth());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCacheIODropsOldest() throws InterruptedException {
+        LaneExecutor executor = new LaneExecutor(Lane.CACHE_IO);
+        CountDownLatch release = block(executor, executor.getMaximumPoolSize());
+        int queued = executor.getQueue().remainingCapacity();
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger dropped = new AtomicInteger();
+        for (int i = 0; i < queued + 2; i++) {
+            executor.execute(new LaneExecutor.DroppableTask() {
+                @Override
+                public void run() {
+                    ran.incrementAndGet();
+                }
+
+                @Override
+                public void dropped() {
+                    dropped.incrementAndGet();
+                }
+            });
+        }
+        // never on the calling thread, that could be the client thread
+        assertEquals(0, ran.get());
+        assertEquals(2, dropped.get());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(queued, ran.get());
+        assertEquals(2, dropped.get());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AvoidanceFieldTest {
+
+    @Test
+    public void sameAsEverySphere() {
+        Random random = new Random(5024);
+        List<Avoidance> spheres = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            spheres.add(random(random));
+        }
+        spheres.add(new Avoidance(-5, 64, -5, 3, 8)); // straddles cells in every direction
+        AvoidanceField field = AvoidanceField.EMPTY.update(spheres);
+        for (int i = 0; i < 100000; i++) {
+            int x = random.nextInt(96) - 48;
+            int y = 32 + random.nextInt(64);
+            int z = random.nextInt(96) - 48;
+            assertEquals(expected(spheres, x, y, z), field.coefficient(x, y, z), 1e-9);
+        }
+    }
+
+    @Test
+    public void updateOnlyWhatMoved() {
+        Avoidance spawner = new Avoidance(0, 20, 0, 2, 16);
+        Avoidance zombie = new Avoidance(40, 64, 40, 1.5, 8);
+        AvoidanceField first = AvoidanceField.EMPTY.update(Arrays.asList(spawner, zombie));
+        assertSame(first, first.update(Arrays.asList(spawner, new Avoidance(40, 64, 40, 1.5, 8))));
+        Avoidance moved = new Avoidance(45, 64, 40, 1.5, 8);
+        AvoidanceField second = first.update(Arrays.asList(spawner, moved));
+        assertEquals(1.5, first.coefficient(33, 64, 40), 0);
+        assertEquals(1, second.coefficient(33, 64, 40), 0); // out of range now
+        assertEquals(1.5, second.coefficient(52, 64, 40), 0);
+        assertEquals(2, second.coefficient(0, 30, 0), 0);
+        assertTrue(second.update(Collections.emptyList()).isEmpty());
+        assertEquals(1, second.update(Collections.emptyList()).coefficient(0, 20, 0), 0);
+    }
+
+    @Test
+    public void randomUpdatesMatchFromScratch() {
+        Random random = new Random(1);
+        List<Avoidance> spheres = new ArrayList<>();
+        AvoidanceField field = AvoidanceField.EMPTY;
+        for (int round = 0; round < 50; round++) {
+            if (!spheres.isEmpty() && random.nextBoolean()) {
+                spheres.remove(random.nextInt(spheres.size()));
+            }
+            spheres.add(random(random));
+            if (random.nextInt(4) == 0) {
+                spheres.add(spheres.get(0)); // two mobs in the same spot
+            }
+            field = field.update(new ArrayList<>(spheres));
+            AvoidanceField fresh = AvoidanceField.EMPTY.update(spheres);
+            for (int i = 0; i < 2000; i++) {
+                int x = random.nextInt(96) - 48;
+                int y = 32 + random.nextInt(64);
+                int z = random.nextInt(96) - 48;
+                assertEquals(fresh.coefficient(x, y, z), field.coefficient(x, y, z), 1e-9);
+                assertEquals(expected(spheres, x, y, z), field.coefficient(x, y, z), 1e-9);
+            }
+        }
+    }
+
+    private static Avoidance random(Random random) {
+        return new Avoidance(random.nextInt(80) - 40, 40 + random.nextInt(48), random.nextInt(80) - 40, 1 + random.nextInt(3), 1 + random.nextInt(16));
+    }
+
+    private static double expected(List<Avoidance> spheres, int x, int y, int z) {
+        double coefficient = 1;
+        for (Avoidance avoid : spheres) {
+            coefficient *= avoid.coefficient(x, y, z);
+        }
+        return coefficient;
+    }
+}